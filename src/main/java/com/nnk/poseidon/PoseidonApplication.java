@@ -2,8 +2,11 @@ package com.nnk.poseidon;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// Le pool R2DBC des lectures réactives est configuré par ReactiveReadConfig, sur la base de la source JDBC.
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class PoseidonApplication {
 
 	public static void main(String[] args) {
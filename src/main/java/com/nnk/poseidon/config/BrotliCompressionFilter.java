@@ -0,0 +1,260 @@
+package com.nnk.poseidon.config;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Compression Brotli des réponses de l'API REST pour les clients qui l'annoncent ({@code Accept-Encoding: br}).
+ * <p>
+ * Les autres clients sont servis par la compression gzip du conteneur ({@code server.compression.*}),
+ * qui s'abstient lorsqu'un {@code Content-Encoding} est déjà positionné. Le flux compressé n'est ouvert
+ * qu'à la première écriture : une réponse sans corps (204, 304) reste non compressée. Si la bibliothèque
+ * native Brotli n'est pas disponible sur la plateforme, le filtre laisse passer les requêtes telles quelles.
+ * Pour une réponse asynchrone, le flux compressé n'est terminé qu'au dispatch asynchrone final, une fois le
+ * dernier élément écrit.
+ * </p>
+ */
+@Slf4j
+public class BrotliCompressionFilter extends OncePerRequestFilter {
+
+    private static final String WRAPPER_ATTRIBUTE = BrotliCompressionFilter.class.getName() + ".WRAPPER";
+
+    private final Encoder.Parameters parameters;
+    private final boolean available;
+
+    /**
+     * Crée le filtre.
+     *
+     * @param quality le niveau de compression Brotli (0 à 11) ; 4 à 5 conviennent à une compression à la volée.
+     */
+    public BrotliCompressionFilter(int quality) {
+        this.parameters = new Encoder.Parameters().setQuality(quality);
+        this.available = Brotli4jLoader.isAvailable();
+        if (!available) {
+            log.warn("Bibliothèque native Brotli indisponible, compression Brotli désactivée : {}",
+                    Brotli4jLoader.getUnavailabilityCause().getMessage());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // Fin d'un traitement asynchrone : la réponse est celle enveloppée lors du premier passage.
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                finishUnlessAsync(request);
+            }
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!available || !acceptsBrotli(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        BrotliResponseWrapper wrapper = new BrotliResponseWrapper(response);
+        request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            finishUnlessAsync(request);
+        }
+    }
+
+    /**
+     * Repassé lors du dispatch asynchrone final : c'est là que se termine le flux compressé d'une réponse
+     * asynchrone ({@code Flux}, {@code DeferredResult}…), écrite après le retour du premier passage.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static void finishUnlessAsync(HttpServletRequest request) throws IOException {
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        if (request.getAttribute(WRAPPER_ATTRIBUTE) instanceof BrotliResponseWrapper wrapper) {
+            request.removeAttribute(WRAPPER_ATTRIBUTE);
+            wrapper.finish();
+        }
+    }
+
+    private static boolean acceptsBrotli(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.trim().split(";"))
+                .anyMatch(parts -> parts[0].trim().equalsIgnoreCase("br")
+                        && (parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?")));
+    }
+
+    /**
+     * Réponse dont le corps est compressé en Brotli à partir de la première écriture.
+     */
+    private class BrotliResponseWrapper extends HttpServletResponseWrapper {
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private BrotliOutputStream brotli;
+        private boolean closed;
+
+        BrotliResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() a déjà été appelé pour cette réponse.");
+            }
+            if (outputStream == null) {
+                outputStream = new BrotliServletOutputStream(startCompression(), getResponse().getOutputStream(),
+                        this::closeCompression);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() a déjà été appelé pour cette réponse.");
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(
+                        new BrotliServletOutputStream(startCompression(), getResponse().getOutputStream(),
+                                this::closeCompression),
+                        Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            // La longueur compressée n'est pas connue à l'avance : la réponse est envoyée en chunks.
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            // Idem setContentLength.
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (brotli != null) {
+                brotli.flush();
+            }
+            super.flushBuffer();
+        }
+
+        private BrotliOutputStream startCompression() throws IOException {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, "br");
+            brotli = new BrotliOutputStream(getResponse().getOutputStream(), parameters);
+            return brotli;
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+            closeCompression();
+        }
+
+        private void closeCompression() throws IOException {
+            if (brotli != null && !closed) {
+                closed = true;
+                brotli.close();
+            }
+        }
+    }
+
+    /**
+     * Adaptation du flux Brotli à l'API Servlet. L'état d'écriture non bloquante est celui du flux de la réponse,
+     * vers lequel le compresseur écrit.
+     */
+    private static final class BrotliServletOutputStream extends ServletOutputStream {
+
+        private final BrotliOutputStream delegate;
+        private final ServletOutputStream target;
+        private final Closer closer;
+
+        BrotliServletOutputStream(BrotliOutputStream delegate, ServletOutputStream target, Closer closer) {
+            this.delegate = delegate;
+            this.target = target;
+            this.closer = closer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            closer.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * Fermeture idempotente du flux compressé.
+     */
+    @FunctionalInterface
+    private interface Closer {
+        void close() throws IOException;
+    }
+}
@@ -0,0 +1,71 @@
+package com.nnk.poseidon.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Endpoint Actuator {@code /actuator/cacheregions} exposant le ratio de succès de chaque région
+ * du cache de second niveau Hibernate (entités et requêtes).
+ * <p>
+ * Les mêmes compteurs sont aussi publiés sous forme de métriques Micrometer
+ * ({@code hibernate.second.level.cache.requests}, étiquetées par région).
+ * </p>
+ */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param entityManagerFactory la fabrique JPA dont on lit les statistiques Hibernate.
+     */
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Statistiques d'une région de cache.
+     *
+     * @param hits             le nombre de lectures servies par le cache.
+     * @param misses           le nombre de lectures ayant dû interroger la base.
+     * @param puts             le nombre d'insertions dans la région.
+     * @param hitRatio         la part des lectures servies par le cache, entre 0 et 1.
+     * @param elementsInMemory le nombre d'éléments actuellement en mémoire, ou -1 si inconnu.
+     */
+    public record RegionStatistics(long hits, long misses, long puts, double hitRatio, long elementsInMemory) {
+    }
+
+    /**
+     * Retourne les statistiques de toutes les régions de cache, triées par nom.
+     *
+     * @return une map nom de région → statistiques.
+     */
+    @ReadOperation
+    public Map<String, RegionStatistics> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, RegionStatistics> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            double hitRatio = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+            regions.put(regionName, new RegionStatistics(hits, misses, region.getPutCount(), hitRatio,
+                    region.getElementCountInMemory()));
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,109 @@
+package com.nnk.poseidon.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.AbstractFlashMapManager;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attributs flash ({@code RedirectAttributes.addFlashAttribute}) conservés dans un cookie plutôt que dans la session
+ * HTTP, pour le mode d'authentification sans session.
+ * <p>
+ * Les messages passés d'une page à la suivante après une redirection sont de simples textes : seuls les attributs
+ * de type {@link String} sont conservés. Le cookie ne dure que le temps de la redirection.
+ * </p>
+ */
+@Slf4j
+public class CookieFlashMapManager extends AbstractFlashMapManager {
+
+    static final String COOKIE_NAME = "POSEIDON_FLASH";
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Attributs flash sérialisés dans le cookie.
+     *
+     * @param path       le chemin de la page destinataire, ou {@code null}.
+     * @param attributes les attributs textuels.
+     * @param expiresAt  la date d'expiration, en millisecondes.
+     */
+    record StoredFlashMap(String path, Map<String, String> attributes, long expiresAt) {
+    }
+
+    @Override
+    protected List<FlashMap> retrieveFlashMaps(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null || cookie.getValue().isEmpty()) {
+            return null;
+        }
+        try {
+            List<StoredFlashMap> stored = objectMapper.readValue(Base64.getUrlDecoder().decode(cookie.getValue()),
+                    new TypeReference<>() {
+                    });
+            List<FlashMap> flashMaps = new ArrayList<>(stored.size());
+            for (StoredFlashMap entry : stored) {
+                FlashMap flashMap = new FlashMap();
+                flashMap.setTargetRequestPath(entry.path());
+                flashMap.putAll(entry.attributes());
+                flashMap.setExpirationTime(entry.expiresAt());
+                flashMaps.add(flashMap);
+            }
+            return flashMaps;
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Cookie d'attributs flash illisible ignoré : {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    protected void updateFlashMaps(List<FlashMap> flashMaps, HttpServletRequest request, HttpServletResponse response) {
+        List<StoredFlashMap> stored = new ArrayList<>(flashMaps.size());
+        for (FlashMap flashMap : flashMaps) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            flashMap.forEach((name, value) -> {
+                if (value instanceof String text) {
+                    attributes.put(name, text);
+                }
+            });
+            stored.add(new StoredFlashMap(flashMap.getTargetRequestPath(), attributes, flashMap.getExpirationTime()));
+        }
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        try {
+            String value = stored.isEmpty() ? "" : Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(objectMapper.writeValueAsString(stored).getBytes(StandardCharsets.UTF_8));
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, value)
+                    .httpOnly(true)
+                    .secure(request.isSecure())
+                    .sameSite("Lax")
+                    .path(path)
+                    .maxAge(stored.isEmpty() ? Duration.ZERO : MAX_AGE)
+                    .build()
+                    .toString());
+        } catch (IOException e) {
+            log.warn("Attributs flash non conservés : {}", e.getMessage());
+        }
+    }
+
+    @Override
+    protected Object getFlashMapsMutex(HttpServletRequest request) {
+        return null;
+    }
+}
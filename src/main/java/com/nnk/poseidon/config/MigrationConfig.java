@@ -0,0 +1,72 @@
+package com.nnk.poseidon.config;
+
+import com.nnk.poseidon.migration.BatchedBackfillMigration;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Exécution des migrations de schéma au démarrage, suivie d'un compte rendu de l'état de chaque migration.
+ * <p>
+ * Le même état reste consultable à chaud sur {@code /actuator/flyway}. Un rattrapage par lots
+ * ({@link BatchedBackfillMigration}) interrompu est enregistré en échec par Flyway : son échec est effacé
+ * avant la migration, pour qu'il reprenne là où il s'est arrêté. Tout autre échec bloque le démarrage.
+ * </p>
+ */
+@Slf4j
+@Configuration
+public class MigrationConfig {
+
+    /**
+     * Applique les migrations en attente puis journalise l'état de toutes les migrations connues.
+     *
+     * @return la stratégie de migration utilisée par Spring Boot.
+     */
+    @Bean
+    public FlywayMigrationStrategy loggingMigrationStrategy() {
+        return flyway -> {
+            repairFailedBackfills(flyway);
+            MigrateResult result = flyway.migrate();
+            log.info("Migrations de schéma : {} appliquée(s), version {} -> {}", result.migrationsExecuted,
+                    result.initialSchemaVersion, result.targetSchemaVersion);
+            for (MigrationInfo info : flyway.info().all()) {
+                log.info("Migration {} ({}) : {}{}", info.getVersion(), info.getDescription(),
+                        info.getState().getDisplayName(),
+                        info.getExecutionTime() != null ? " en " + info.getExecutionTime() + " ms" : "");
+            }
+        };
+    }
+
+    /**
+     * Efface les échecs enregistrés si toutes les migrations en échec sont des rattrapages par lots, qui
+     * reprennent sans dommage.
+     *
+     * @param flyway l'instance Flyway configurée par Spring Boot.
+     */
+    static void repairFailedBackfills(Flyway flyway) {
+        Set<MigrationVersion> backfills = Arrays.stream(flyway.getConfiguration().getJavaMigrations())
+                .filter(BatchedBackfillMigration.class::isInstance)
+                .map(JavaMigration::getVersion)
+                .collect(Collectors.toSet());
+        List<MigrationInfo> failed = Arrays.stream(flyway.info().all())
+                .filter(info -> info.getState().isFailed())
+                .toList();
+        if (failed.isEmpty() || !failed.stream().allMatch(info -> backfills.contains(info.getVersion()))) {
+            return;
+        }
+        failed.forEach(info -> log.warn("Rattrapage {} ({}) interrompu lors d'une exécution précédente : reprise",
+                info.getVersion(), info.getDescription()));
+        flyway.repair();
+    }
+}
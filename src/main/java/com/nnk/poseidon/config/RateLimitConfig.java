@@ -0,0 +1,48 @@
+package com.nnk.poseidon.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Configuration du limiteur de débit des écritures, actif avec {@code poseidon.rate-limit.enabled=true}.
+ * <p>
+ * Les groupes d'endpoints sont déclarés sous {@code poseidon.rate-limit.groups.<nom>} ; le filtre
+ * {@link RateLimitFilter} est ajouté à la chaîne Spring Security par {@link SecurityConfig}.
+ * </p>
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "poseidon.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    /**
+     * Limiteur de débit par utilisateur et par groupe d'endpoints.
+     *
+     * @param environment   l'environnement, d'où sont lus les groupes.
+     * @param maxKeys       le nombre maximal de seaux conservés.
+     * @param idleTimeoutMs la durée après laquelle un seau plein est retiré.
+     * @return le limiteur.
+     */
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(Environment environment,
+                                                         @Value("${poseidon.rate-limit.max-keys:10000}") int maxKeys,
+                                                         @Value("${poseidon.rate-limit.idle-timeout-ms:600000}") long idleTimeoutMs) {
+        Map<String, TokenBucketRateLimiter.EndpointGroup> groups = Binder.get(environment)
+                .bind("poseidon.rate-limit.groups", Bindable.mapOf(String.class, TokenBucketRateLimiter.EndpointGroup.class))
+                .orElse(Map.of());
+        if (groups.isEmpty()) {
+            log.warn("Limitation de débit activée sans groupe d'endpoints : aucune requête n'est limitée");
+        }
+        groups.forEach((name, group) -> log.info("Groupe {} limité à {} requêtes/s par utilisateur (rafale {}) : {} {}",
+                name, group.permitsPerSecond(), group.burst(), group.methods().isEmpty() ? "*" : group.methods(), group.paths()));
+        return new TokenBucketRateLimiter(groups, maxKeys, idleTimeoutMs, System::nanoTime);
+    }
+}
@@ -0,0 +1,92 @@
+package com.nnk.poseidon.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtre d'admission limitant le débit des requêtes de chaque utilisateur, par groupe d'endpoints.
+ * <p>
+ * Placé dans la chaîne Spring Security après l'autorisation, il ne voit que des requêtes authentifiées et
+ * autorisées : la clé est le nom de l'utilisateur. Une requête doit obtenir un jeton de chaque groupe dont elle
+ * relève ; sinon elle reçoit immédiatement un {@code 429 Too Many Requests} avec un en-tête {@code Retry-After},
+ * sans atteindre le contrôleur ni la base.
+ * </p>
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final TokenBucketRateLimiter limiter;
+
+    /**
+     * Crée le filtre.
+     *
+     * @param limiter le limiteur de débit.
+     */
+    public RateLimitFilter(TokenBucketRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String principal = principal(request);
+        for (Map.Entry<String, TokenBucketRateLimiter.EndpointGroup> entry : limiter.groups().entrySet()) {
+            if (!matches(entry.getValue(), request.getMethod(), path)) {
+                continue;
+            }
+            long waitNanos = limiter.tryAcquire(entry.getKey(), principal);
+            if (waitNanos > 0) {
+                log.debug("Requête {} {} de {} refusée : limite du groupe {} atteinte", request.getMethod(), path,
+                        principal, entry.getKey());
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean matches(TokenBucketRateLimiter.EndpointGroup group, String method, String path) {
+        if (!group.methods().isEmpty() && !group.methods().contains(method)) {
+            return false;
+        }
+        for (String pattern : group.paths()) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String principal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                ? authentication.getName()
+                : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("Trop de requêtes, réessayez dans " + retryAfterSeconds + " s.");
+    }
+}
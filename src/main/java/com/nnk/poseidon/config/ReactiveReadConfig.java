@@ -0,0 +1,120 @@
+package com.nnk.poseidon.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.sql.DataSource;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Configuration de l'accès R2DBC utilisé par l'API de lecture réactive ({@code /api/v1/stream/**}).
+ * <p>
+ * Active avec {@code poseidon.reactive.enabled=true}. Les lectures passent par un pool R2DBC distinct du pool
+ * JDBC, sur la même base et le même schéma : sans URL {@code poseidon.reactive.r2dbc.url}, l'URL et
+ * l'utilisateur sont déduits de la source de données JDBC ({@code jdbc:} devient {@code r2dbc:}). Pour servir
+ * ces lectures depuis le réplica, il suffit d'y faire pointer l'URL.
+ * </p>
+ * <p>
+ * Les configurations automatiques R2DBC de Spring Boot sont exclues dans {@code PoseidonApplication} : elles
+ * créeraient sinon une base H2 embarquée distincte et un second gestionnaire de transactions.
+ * </p>
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "poseidon.reactive.enabled", havingValue = "true")
+public class ReactiveReadConfig {
+
+    private ConnectionPool pool;
+
+    /**
+     * Client SQL réactif des lectures, adossé à un pool de connexions R2DBC fermé à l'arrêt de l'application.
+     * <p>
+     * Le pool n'est volontairement pas exposé comme bean {@link ConnectionFactory} : sa seule présence ferait
+     * renoncer Spring Boot à configurer la source de données JDBC.
+     * </p>
+     *
+     * @param dataSource  la source de données JDBC, dont l'URL est reprise à défaut d'URL R2DBC.
+     * @param url         l'URL R2DBC, ou vide pour la déduire de la source JDBC.
+     * @param username    l'utilisateur, ou vide pour reprendre celui de la source JDBC.
+     * @param password    le mot de passe.
+     * @param maxSize     le nombre maximal de connexions ouvertes.
+     * @return le client.
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(DataSource dataSource,
+                                                 @Value("${poseidon.reactive.r2dbc.url:}") String url,
+                                                 @Value("${poseidon.reactive.r2dbc.username:${spring.datasource.username:}}") String username,
+                                                 @Value("${poseidon.reactive.r2dbc.password:${spring.datasource.password:}}") String password,
+                                                 @Value("${poseidon.reactive.r2dbc.pool-max-size:10}") int maxSize) {
+        if (url.isBlank() || username.isBlank()) {
+            try (Connection connection = dataSource.getConnection()) {
+                DatabaseMetaData metaData = connection.getMetaData();
+                url = url.isBlank() ? toR2dbcUrl(metaData.getURL()) : url;
+                username = username.isBlank() ? metaData.getUserName() : username;
+            } catch (SQLException e) {
+                throw new IllegalStateException("Impossible de déduire l'URL R2DBC de la source de données", e);
+            }
+        }
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options);
+        log.info("Lectures réactives actives sur {} ({} connexions au plus)", url, maxSize);
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("reactive-read")
+                .initialSize(1)
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    /**
+     * Ferme le pool de connexions R2DBC.
+     */
+    @PreDestroy
+    public void closePool() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * Traduit une URL JDBC en URL R2DBC équivalente. Pour H2, la base prend la forme {@code r2dbc:h2:mem:///nom}
+     * et ses réglages ({@code ;CLE=valeur}) passent dans le paramètre {@code options}.
+     *
+     * @param jdbcUrl l'URL JDBC.
+     * @return l'URL R2DBC.
+     */
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith("jdbc:")) {
+            throw new IllegalStateException("URL JDBC inattendue : " + jdbcUrl);
+        }
+        String url = "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        for (String protocol : new String[]{"r2dbc:h2:mem:", "r2dbc:h2:file:"}) {
+            if (url.startsWith(protocol) && !url.startsWith(protocol + "//")) {
+                String database = url.substring(protocol.length());
+                int settings = database.indexOf(';');
+                return settings < 0
+                        ? protocol + "///" + database
+                        : protocol + "///" + database.substring(0, settings)
+                        + "?options=" + URLEncoder.encode(database.substring(settings + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return url;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nnk.poseidon.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration du routage lecture/écriture entre la base principale et un réplica MySQL.
+ * <p>
+ * Active avec {@code poseidon.datasource.replica.enabled=true}. Deux pools Hikari distincts sont créés :
+ * la base principale ({@code spring.datasource.*}, réglages {@code spring.datasource.hikari.*}) et le réplica
+ * ({@code poseidon.datasource.replica.*}, réglages {@code poseidon.datasource.replica.hikari.*}).
+ * </p>
+ * <p>
+ * La source de données exposée est un {@link LazyConnectionDataSourceProxy} : la connexion physique n'est
+ * obtenue qu'à la première requête SQL, une fois la transaction marquée en lecture seule. Les transactions
+ * {@code @Transactional(readOnly = true)} sont alors servies par le réplica, les autres par la base principale.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "poseidon.datasource.replica.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    /**
+     * Pool de la base principale, qui reçoit toutes les écritures, y compris les migrations de schéma.
+     *
+     * @param properties les propriétés {@code spring.datasource.*}.
+     * @return le pool Hikari de la base principale.
+     */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Pool du réplica, qui reçoit les transactions en lecture seule.
+     *
+     * @param url      l'URL JDBC du réplica.
+     * @param username l'utilisateur du réplica.
+     * @param password le mot de passe du réplica.
+     * @return le pool Hikari du réplica.
+     */
+    @Bean
+    @ConfigurationProperties("poseidon.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${poseidon.datasource.replica.url}") String url,
+                                              @Value("${poseidon.datasource.replica.username}") String username,
+                                              @Value("${poseidon.datasource.replica.password}") String password) {
+        return DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+    }
+
+    /**
+     * Source de données utilisée par JPA et JDBC, routant les lectures seules vers le réplica.
+     *
+     * @param primary la base principale.
+     * @param replica le réplica.
+     * @return la source de données routée.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica));
+        return dataSource;
+    }
+
+    /**
+     * Filtre renvoyant sur la base principale les lectures qui suivent une écriture de la même session.
+     *
+     * @param maxLagMillis le retard maximal toléré du réplica, en millisecondes.
+     * @param stateless    le mode sans session, où la dernière écriture est portée par un cookie.
+     * @return l'enregistrement du filtre, placé avant la chaîne Spring Security.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${poseidon.datasource.replica.max-lag-ms:2000}") long maxLagMillis,
+            @Value("${poseidon.security.stateless.enabled:false}") boolean stateless) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(maxLagMillis, stateless));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,158 @@
+package com.nnk.poseidon.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Filtre garantissant qu'une session relit ses propres écritures malgré le retard du réplica.
+ * <p>
+ * Une requête modifiante ({@code POST}, {@code PUT}, {@code PATCH}, {@code DELETE}) lit toujours sur la
+ * base principale ; si elle aboutit, l'instant de l'écriture est mémorisé dans la session HTTP. Les requêtes
+ * suivantes de la même session lisent sur la base principale tant que ce délai n'excède pas le retard
+ * maximal toléré du réplica, puis reviennent au réplica.
+ * </p>
+ * <p>
+ * En mode sans session ({@code poseidon.security.stateless.enabled=true}), l'instant de l'écriture est porté
+ * par un cookie qui expire avec le délai toléré. Il est déposé juste avant l'envoi des en-têtes (redirection
+ * comprise) : une réponse dont le corps dépasse le tampon du conteneur avant toute écriture explicite en est
+ * privée. Le cookie n'accorde rien d'autre que des lectures sur la base principale, il n'est donc pas signé.
+ * </p>
+ * <p>
+ * L'information est portée par la requête et non par la transaction : les écritures exécutées par les
+ * threads de regroupement des transactions sont donc couvertes, l'appelant attendant leur validation.
+ * </p>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".LAST_WRITE";
+    static final String LAST_WRITE_COOKIE = "POSEIDON_LAST_WRITE";
+    private static final Set<String> MODIFYING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final long maxLagMillis;
+    private final boolean stateless;
+
+    /**
+     * Crée le filtre.
+     *
+     * @param maxLagMillis le retard maximal toléré du réplica, en millisecondes.
+     * @param stateless    {@code true} pour mémoriser la dernière écriture dans un cookie plutôt qu'en session.
+     */
+    public ReadYourWritesFilter(long maxLagMillis, boolean stateless) {
+        this.maxLagMillis = maxLagMillis;
+        this.stateless = stateless;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean modifying = MODIFYING_METHODS.contains(request.getMethod());
+        ReplicaRoutingDataSource.setPrimaryRequired(modifying || wroteRecently(lastWrite(request)));
+        try {
+            if (modifying && stateless) {
+                LastWriteCookieResponse wrapper = new LastWriteCookieResponse(request, response);
+                filterChain.doFilter(request, wrapper.failureAware());
+                wrapper.addCookieUnlessCommitted();
+                return;
+            }
+            filterChain.doFilter(request, response);
+            HttpSession session = request.getSession(false);
+            if (modifying && session != null && response.getStatus() < 400) {
+                session.setAttribute(LAST_WRITE_ATTRIBUTE, System.currentTimeMillis());
+            }
+        } finally {
+            ReplicaRoutingDataSource.clearPrimaryRequired();
+        }
+    }
+
+    private Object lastWrite(HttpServletRequest request) {
+        if (stateless) {
+            Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+            try {
+                return cookie == null ? null : Long.valueOf(cookie.getValue());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        HttpSession session = request.getSession(false);
+        return session == null ? null : session.getAttribute(LAST_WRITE_ATTRIBUTE);
+    }
+
+    private boolean wroteRecently(Object lastWrite) {
+        if (!(lastWrite instanceof Long millis)) {
+            return false;
+        }
+        long elapsed = System.currentTimeMillis() - millis;
+        return elapsed >= 0 && elapsed < maxLagMillis;
+    }
+
+    /**
+     * Réponse qui dépose le cookie de dernière écriture au moment où ses en-têtes partent, si elle aboutit.
+     */
+    private final class LastWriteCookieResponse extends OnCommittedResponseWrapper {
+
+        private final HttpServletRequest request;
+        private boolean handled;
+
+        LastWriteCookieResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addCookieUnlessCommitted();
+        }
+
+        /**
+         * Renvoie la réponse à transmettre à la chaîne : une erreur envoyée par {@code sendError} y est relevée
+         * avant que {@link #onResponseCommitted()} ne soit appelé, le statut d'erreur n'étant positionné qu'après.
+         */
+        HttpServletResponse failureAware() {
+            return new HttpServletResponseWrapper(this) {
+                @Override
+                public void sendError(int sc) throws IOException {
+                    handled = true;
+                    super.sendError(sc);
+                }
+
+                @Override
+                public void sendError(int sc, String msg) throws IOException {
+                    handled = true;
+                    super.sendError(sc, msg);
+                }
+            };
+        }
+
+        void addCookieUnlessCommitted() {
+            if (handled || isCommitted()) {
+                return;
+            }
+            handled = true;
+            if (getStatus() < 400) {
+                String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+                addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(LAST_WRITE_COOKIE, Long.toString(System.currentTimeMillis()))
+                        .httpOnly(true)
+                        .secure(request.isSecure())
+                        .sameSite("Lax")
+                        .path(path)
+                        .maxAge(Duration.ofSeconds((maxLagMillis + 999) / 1000))
+                        .build()
+                        .toString());
+            }
+        }
+    }
+}
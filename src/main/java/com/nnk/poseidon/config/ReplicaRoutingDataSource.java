@@ -0,0 +1,85 @@
+package com.nnk.poseidon.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Source de données des transactions en lecture seule : elle sert les connexions du réplica,
+ * sauf lorsque le thread courant doit lire ses propres écritures récentes.
+ * <p>
+ * Le réplica pouvant être en retard sur la base principale, une lecture qui suit de près une écriture
+ * de la même session est envoyée sur la base principale (voir {@link ReadYourWritesFilter}).
+ * Si le réplica est indisponible, la connexion est demandée à la base principale.
+ * </p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final DataSource primary;
+
+    /**
+     * Crée la source de données routée.
+     *
+     * @param primary la base principale.
+     * @param replica le réplica en lecture seule.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Indique si les lectures du thread courant doivent être servies par la base principale.
+     *
+     * @param required {@code true} pour ignorer le réplica jusqu'à {@link #clearPrimaryRequired()}.
+     */
+    public static void setPrimaryRequired(boolean required) {
+        PRIMARY_REQUIRED.set(required);
+    }
+
+    /**
+     * Indique si les lectures du thread courant sont servies par la base principale, pour propager ce choix aux
+     * threads qui lisent pour son compte.
+     *
+     * @return {@code true} si le réplica est ignoré.
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    /**
+     * Rétablit le routage par défaut des lectures vers le réplica pour le thread courant.
+     */
+    public static void clearPrimaryRequired() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return PRIMARY_REQUIRED.get() ? PRIMARY : REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            if (PRIMARY_REQUIRED.get()) {
+                throw e;
+            }
+            log.warn("Réplica indisponible ({}), lecture sur la base principale", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.nnk.poseidon.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration propre à l'API REST {@code /api/v1}.
+ * <p>
+ * La compression gzip est assurée par le conteneur ({@code server.compression.*}) ; ce filtre ajoute
+ * Brotli pour les clients qui l'acceptent. Désactivable avec {@code poseidon.api.brotli.enabled=false}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "poseidon.api.brotli.enabled", havingValue = "true", matchIfMissing = true)
+public class RestApiConfig {
+
+    /**
+     * Enregistre le filtre de compression Brotli sur les URLs de l'API uniquement.
+     *
+     * @param quality le niveau de compression Brotli (0 à 11).
+     * @return l'enregistrement du filtre.
+     */
+    @Bean
+    public FilterRegistrationBean<BrotliCompressionFilter> brotliCompressionFilter(
+            @Value("${poseidon.api.brotli.quality:5}") int quality) {
+        FilterRegistrationBean<BrotliCompressionFilter> registration =
+                new FilterRegistrationBean<>(new BrotliCompressionFilter(quality));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
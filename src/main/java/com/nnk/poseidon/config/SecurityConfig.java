@@ -1,21 +1,44 @@
 package com.nnk.poseidon.config;
 
 import com.nnk.poseidon.services.CustomUserDetailsService;
+import com.nnk.poseidon.services.SignedTokenService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.logout.LogoutFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestHeaderRequestMatcher;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMapManager;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
+    private final ObjectProvider<TokenBucketRateLimiter> rateLimiterProvider;
+    private final ObjectProvider<SignedTokenService> tokenServiceProvider;
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService,
+                          ObjectProvider<TokenBucketRateLimiter> rateLimiterProvider,
+                          ObjectProvider<SignedTokenService> tokenServiceProvider) {
         this.userDetailsService = userDetailsService;
+        this.rateLimiterProvider = rateLimiterProvider;
+        this.tokenServiceProvider = tokenServiceProvider;
     }
 
     @Bean
@@ -29,7 +52,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
                                 .requestMatchers("/login", "/css/**", "/js/**", "/images/**", "/webjars/**", "/favicon.ico", "/error").permitAll()
-                                .requestMatchers("/user/**").hasAuthority("ADMIN")
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/user/**", "/actuator/**", "/api/v1/search/rebuild", "/api/v1/trades/projection/rebuild").hasAuthority("ADMIN")
                                 .anyRequest().authenticated() // Toutes les requêtes nécessitent une authentification (qui sera fournie par AutoLoginFilter)
                 )
                 .formLogin(form -> form
@@ -46,8 +70,46 @@ public class SecurityConfig {
                         .deleteCookies("JSESSIONID") // Supprimer les cookies
                         .permitAll() // Autoriser l'accès à l'URL de déconnexion
                 )
+                .httpBasic(Customizer.withDefaults()) // Authentification des clients de l'API REST (/api/v1/**)
+                // Seuls les appels de l'API qui s'authentifient par en-tête (HTTP Basic) se passent de jeton CSRF :
+                // un navigateur joint d'office les cookies (session, jeton signé), jamais l'en-tête Authorization.
+                .csrf(csrf -> csrf.ignoringRequestMatchers(new AndRequestMatcher(
+                        PathPatternRequestMatcher.withDefaults().matcher("/api/**"),
+                        new RequestHeaderRequestMatcher(HttpHeaders.AUTHORIZATION))))
                 .userDetailsService(userDetailsService); // Utiliser notre service custom pour charger les users
+        // Limitation de débit par utilisateur, après l'autorisation : seules les requêtes authentifiées sont comptées
+        rateLimiterProvider.ifAvailable(limiter -> http.addFilterAfter(new RateLimitFilter(limiter), AuthorizationFilter.class));
+
+        SignedTokenService tokenService = tokenServiceProvider.getIfAvailable();
+        if (tokenService != null) {
+            // Mode sans session : l'utilisateur est authentifié à chaque requête par un jeton signé déposé en cookie
+            // à la connexion ; rien n'est conservé dans une session HTTP (contexte, jeton CSRF, requête d'origine).
+            SignedTokenAuthenticationFilter tokenFilter = new SignedTokenAuthenticationFilter(tokenService);
+            SimpleUrlAuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler("/login?error=true");
+            failureHandler.setAllowSessionCreation(false);
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                    .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                    .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
+                    .formLogin(form -> form
+                            .successHandler(tokenFilter.successHandler("/home"))
+                            .failureHandler(failureHandler))
+                    .logout(logout -> logout.addLogoutHandler(tokenFilter.logoutHandler()))
+                    .addFilterBefore(tokenFilter, LogoutFilter.class);
+        }
 
         return http.build();
     }
+
+    /**
+     * Attributs flash conservés en cookie plutôt qu'en session, en mode sans session.
+     *
+     * @return le gestionnaire d'attributs flash.
+     */
+    @Bean(name = DispatcherServlet.FLASH_MAP_MANAGER_BEAN_NAME)
+    @ConditionalOnProperty(name = "poseidon.security.stateless.enabled", havingValue = "true")
+    public FlashMapManager flashMapManager() {
+        return new CookieFlashMapManager();
+    }
 }
@@ -0,0 +1,113 @@
+package com.nnk.poseidon.config;
+
+import com.nnk.poseidon.services.SignedTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Filtre du mode d'authentification sans session : authentifie chaque requête à partir du cookie de jeton signé.
+ * <p>
+ * Un jeton valide établit le contexte de sécurité de la requête seule, sans session HTTP ni lecture de la base ;
+ * un jeton invalide, expiré ou révoqué est effacé et la requête reste anonyme (redirection vers la page de
+ * connexion). Un jeton ayant dépassé la moitié de sa durée de vie est remplacé, pour qu'un utilisateur actif
+ * ne soit pas déconnecté. Le filtre fournit aussi le gestionnaire de connexion réussie, qui dépose le jeton, et
+ * celui de déconnexion, qui le révoque.
+ * </p>
+ */
+public class SignedTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    /**
+     * Nom du cookie portant le jeton.
+     */
+    public static final String COOKIE_NAME = "POSEIDON_TOKEN";
+
+    private final SignedTokenService tokenService;
+
+    /**
+     * Crée le filtre.
+     *
+     * @param tokenService le service des jetons signés.
+     */
+    public SignedTokenAuthenticationFilter(SignedTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie != null) {
+            tokenService.verify(cookie.getValue()).ifPresentOrElse(claims -> {
+                UserDetails principal = User.withUsername(claims.username())
+                        .password("")
+                        .authorities(AuthorityUtils.createAuthorityList(claims.authorities()))
+                        .build();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(principal, claims,
+                        principal.getAuthorities()));
+                SecurityContextHolder.setContext(context);
+                if (tokenService.shouldRenew(claims)) {
+                    writeCookie(request, response, tokenService.renew(claims), Duration.ofMillis(tokenService.ttlMillis()));
+                }
+            }, () -> writeCookie(request, response, "", Duration.ZERO));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Gestionnaire de connexion réussie : dépose un jeton pour l'utilisateur, puis redirige.
+     *
+     * @param targetUrl la page affichée après la connexion.
+     * @return le gestionnaire.
+     */
+    public AuthenticationSuccessHandler successHandler(String targetUrl) {
+        return (request, response, authentication) -> {
+            writeCookie(request, response, tokenService.issue(authentication), Duration.ofMillis(tokenService.ttlMillis()));
+            response.sendRedirect(request.getContextPath() + targetUrl);
+        };
+    }
+
+    /**
+     * Gestionnaire de déconnexion : révoque le jeton de la requête et efface le cookie.
+     *
+     * @return le gestionnaire.
+     */
+    public LogoutHandler logoutHandler() {
+        return (request, response, authentication) -> {
+            if (authentication != null && authentication.getCredentials() instanceof SignedTokenService.TokenClaims claims) {
+                tokenService.revoke(claims);
+            }
+            writeCookie(request, response, "", Duration.ZERO);
+        };
+    }
+
+    private static void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, Duration maxAge) {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .path(path)
+                .maxAge(maxAge)
+                .build()
+                .toString());
+    }
+}
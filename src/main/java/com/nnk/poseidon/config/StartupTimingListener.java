@@ -0,0 +1,75 @@
+package com.nnk.poseidon.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mesure le délai entre le lancement de la JVM et la première requête HTTP servie, pour comparer les temps de
+ * redémarrage des builds standard et {@code fast-startup} (AOT et archive CDS).
+ * <p>
+ * Le délai est journalisé à la première requête et publié dans la métrique {@code application.first-request.time},
+ * à côté de {@code application.started.time} et {@code application.ready.time} fournies par Spring Boot. Avec le
+ * démarrage différé des repositories JPA, la première requête peut attendre la fin de l'initialisation de JPA :
+ * c'est ce délai, et non celui du démarrage du contexte, qui mesure la durée de la fenêtre de déploiement.
+ * </p>
+ */
+@Slf4j
+@Component
+public class StartupTimingListener {
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final AtomicBoolean firstRequestHandled = new AtomicBoolean();
+    private volatile long readyMillis = -1;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param meterRegistryProvider le registre de métriques, s'il existe.
+     */
+    public StartupTimingListener(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    /**
+     * Note le délai de démarrage du contexte.
+     *
+     * @param event l'événement de fin de démarrage.
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        readyMillis = sinceJvmStart();
+    }
+
+    /**
+     * Journalise et publie le délai de la première requête servie ; les suivantes sont ignorées.
+     *
+     * @param event l'événement publié par la servlet de Spring MVC à la fin de chaque requête.
+     */
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (!firstRequestHandled.compareAndSet(false, true)) {
+            return;
+        }
+        long firstRequestMillis = sinceJvmStart();
+        log.info("Première requête servie {} ms après le lancement de la JVM (application prête à {} ms, {} {} en {} ms)",
+                firstRequestMillis, readyMillis, event.getMethod(), event.getRequestUrl(), event.getProcessingTimeMillis());
+        meterRegistryProvider.ifAvailable(registry -> TimeGauge.builder("application.first-request.time",
+                        () -> firstRequestMillis, TimeUnit.MILLISECONDS)
+                .description("Délai entre le lancement de la JVM et la première requête servie")
+                .register(registry));
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
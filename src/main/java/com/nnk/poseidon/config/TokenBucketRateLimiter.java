@@ -0,0 +1,142 @@
+package com.nnk.poseidon.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limiteur de débit par utilisateur et par groupe d'endpoints, à seau de jetons.
+ * <p>
+ * Chaque seau (utilisateur, groupe) contient au plus {@code burst} jetons et en regagne
+ * {@code permitsPerSecond} par seconde ; une requête consomme un jeton ou est refusée. Le seau est représenté
+ * par un seul instant théorique de la prochaine requête (algorithme GCRA), mis à jour par compare-and-set :
+ * aucune requête n'attend un verrou, même pour un même utilisateur.
+ * </p>
+ * <p>
+ * Le nombre de seaux est borné par {@code maxKeys}. Un seau de nouveau plein depuis {@code idleTimeout} est
+ * retiré sans perte, puisqu'il équivaut à un seau neuf. Si la table reste pleine, les nouveaux utilisateurs
+ * partagent un seau de débordement par groupe : la limite reste appliquée, mais en commun.
+ * </p>
+ */
+public class TokenBucketRateLimiter {
+
+    static final String OVERFLOW_PRINCIPAL = "*";
+
+    /**
+     * Définition d'un groupe d'endpoints limités ensemble.
+     *
+     * @param methods          les méthodes HTTP concernées (toutes si vide).
+     * @param paths            les motifs de chemins concernés (syntaxe {@code /api/v1/**}).
+     * @param permitsPerSecond le débit soutenu autorisé par utilisateur.
+     * @param burst            le nombre de requêtes acceptées d'affilée après une période calme.
+     */
+    public record EndpointGroup(Set<String> methods, List<String> paths, double permitsPerSecond, int burst) {
+
+        public EndpointGroup {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Le débit et la rafale d'un groupe limité doivent être positifs.");
+            }
+            methods = methods == null ? Set.of() : Set.copyOf(methods);
+            paths = paths == null ? List.of() : List.copyOf(paths);
+        }
+    }
+
+    private record Key(String group, String principal) {
+    }
+
+    private final Map<String, EndpointGroup> groups;
+    private final Map<String, Long> intervals = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final long idleTimeoutNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong lastSweep;
+
+    /**
+     * Crée le limiteur.
+     *
+     * @param groups        les groupes d'endpoints, par nom.
+     * @param maxKeys       le nombre maximal de seaux conservés.
+     * @param idleTimeout   la durée après laquelle un seau plein est retiré, en millisecondes.
+     * @param nanoClock     l'horloge, en nanosecondes ({@code System::nanoTime}).
+     */
+    public TokenBucketRateLimiter(Map<String, EndpointGroup> groups, int maxKeys, long idleTimeout, LongSupplier nanoClock) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("Le nombre maximal de seaux doit être positif.");
+        }
+        this.groups = Map.copyOf(groups);
+        this.groups.forEach((name, group) -> intervals.put(name, Math.round(TimeUnit.SECONDS.toNanos(1) / group.permitsPerSecond())));
+        this.maxKeys = maxKeys;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Renvoie les groupes d'endpoints, par nom.
+     *
+     * @return les groupes.
+     */
+    public Map<String, EndpointGroup> groups() {
+        return groups;
+    }
+
+    /**
+     * Consomme un jeton du seau d'un utilisateur pour un groupe.
+     *
+     * @param group     le nom du groupe.
+     * @param principal l'utilisateur.
+     * @return 0 si la requête est acceptée, sinon le délai avant le prochain jeton, en nanosecondes.
+     */
+    public long tryAcquire(String group, String principal) {
+        long interval = intervals.get(group);
+        long capacity = interval * groups.get(group).burst();
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(new Key(group, principal), now);
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long next = Math.max(theoreticalArrival, now) + interval;
+            if (next - now > capacity) {
+                return next - now - capacity;
+            }
+            if (bucket.compareAndSet(theoreticalArrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Renvoie le nombre de seaux conservés.
+     *
+     * @return le nombre de seaux.
+     */
+    int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(Key key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        long last = lastSweep.get();
+        if ((buckets.size() >= maxKeys || now - last >= idleTimeoutNanos) && lastSweep.compareAndSet(last, now)) {
+            evictIdle(now);
+        }
+        if (buckets.size() >= maxKeys) {
+            key = new Key(key.group(), OVERFLOW_PRINCIPAL);
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Retire les seaux pleins depuis au moins {@link #idleTimeoutNanos}.
+     */
+    private void evictIdle(long now) {
+        buckets.entrySet().removeIf(entry -> now - entry.getValue().get() >= idleTimeoutNanos);
+    }
+}
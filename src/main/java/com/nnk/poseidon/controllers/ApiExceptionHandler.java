@@ -0,0 +1,81 @@
+package com.nnk.poseidon.controllers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Traduction des erreurs de l'API REST en réponses {@code application/problem+json}.
+ * <p>
+ * Ne s'applique qu'aux contrôleurs REST ; les contrôleurs Thymeleaf conservent leur gestion par
+ * messages flash.
+ * </p>
+ */
+@Slf4j
+@RestControllerAdvice(assignableTypes = {TradeApiController.class, BidListApiController.class,
+        CurvePointApiController.class, RatingApiController.class, RuleNameApiController.class,
+        SearchApiController.class, ReactiveReadApiController.class})
+public class ApiExceptionHandler {
+
+    /**
+     * Erreur métier ou paramètre invalide : réponse 400.
+     *
+     * @param e l'exception levée par le service ou le contrôleur.
+     * @return le détail du problème.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleIllegalArgument(IllegalArgumentException e) {
+        log.warn("Requête API invalide : {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    /**
+     * Corps de requête refusé par la validation : réponse 400 listant les champs en erreur.
+     *
+     * @param e l'exception de validation.
+     * @return le détail du problème, avec une propriété {@code errors} (champ vers message).
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ProblemDetail handleValidation(MethodArgumentNotValidException e) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (FieldError error : e.getBindingResult().getFieldErrors()) {
+            errors.putIfAbsent(error.getField(), error.getDefaultMessage());
+        }
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Données invalides.");
+        problem.setProperty("errors", errors);
+        return problem;
+    }
+
+    /**
+     * Élément d'un lot refusé par la validation : réponse 400 listant les champs en erreur, préfixés
+     * par la position de l'élément dans le lot (par exemple {@code [3].account}).
+     *
+     * @param e l'exception de validation des paramètres.
+     * @return le détail du problème, avec une propriété {@code errors} (champ vers message).
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ProblemDetail handleMethodValidation(HandlerMethodValidationException e) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        e.getParameterValidationResults().stream()
+                .filter(ParameterErrors.class::isInstance)
+                .map(ParameterErrors.class::cast)
+                .forEach(result -> {
+                    String prefix = result.getContainerIndex() != null ? "[" + result.getContainerIndex() + "]." : "";
+                    for (FieldError error : result.getFieldErrors()) {
+                        errors.putIfAbsent(prefix + error.getField(), error.getDefaultMessage());
+                    }
+                });
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Données invalides.");
+        problem.setProperty("errors", errors);
+        return problem;
+    }
+}
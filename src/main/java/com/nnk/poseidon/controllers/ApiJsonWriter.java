@@ -0,0 +1,223 @@
+package com.nnk.poseidon.controllers;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Sérialisation JSON des réponses de l'API REST {@code /api/v1}.
+ * <p>
+ * Les collections sont écrites élément par élément dans un {@link JsonGenerator} branché sur le flux de
+ * la réponse : la liste complète n'est jamais construite en mémoire. Le paramètre {@code fields}
+ * (noms de propriétés séparés par des virgules) restreint les propriétés écrites pour chaque élément.
+ * </p>
+ * <p>
+ * Pour les transferts en masse entre systèmes, les collections peuvent aussi être écrites en CBOR
+ * ({@code application/cbor}) avec l'extension <i>stringref</i> : chaque chaîne répétée (noms de propriétés,
+ * book, trader, security...) n'est écrite qu'une fois, puis désignée par son index dans le dictionnaire
+ * construit au fil du flux. Les parseurs Jackson résolvent ces références sans configuration particulière.
+ * </p>
+ */
+@Component
+public class ApiJsonWriter {
+
+    private static final String FIELD_FILTER = "apiFieldSelection";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper filteringMapper;
+    private final ObjectMapper cborMapper;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param objectMapper le mapper JSON de l'application, dont la configuration (dates, modules) est reprise.
+     */
+    public ApiJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.filteringMapper = objectMapper.copy()
+                .addMixIn(Object.class, FieldSelectionMixin.class)
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cborMapper = filteringMapper.copyWith(CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build());
+    }
+
+    /**
+     * Choisit le format d'une collection d'après l'en-tête {@code Accept} : CBOR s'il est préféré
+     * à JSON, JSON sinon.
+     *
+     * @param accept la valeur de l'en-tête {@code Accept}, éventuellement nulle.
+     * @return {@link MediaType#APPLICATION_CBOR} ou {@link MediaType#APPLICATION_JSON}.
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Écrit un tableau JSON dans la réponse à mesure que la source produit ses éléments.
+     *
+     * @param response la réponse HTTP.
+     * @param type     le type des éléments, utilisé pour valider {@code fields}.
+     * @param fields   les propriétés à écrire, ou {@code null} pour toutes.
+     * @param source   la source des éléments, qui les transmet un à un au consommateur fourni.
+     * @param <T>      le type des éléments.
+     * @throws IOException              si l'écriture dans la réponse échoue.
+     * @throws IllegalArgumentException si {@code fields} contient une propriété inconnue.
+     */
+    public <T> void writeArray(HttpServletResponse response, Class<T> type, String fields,
+                               Consumer<Consumer<T>> source) throws IOException {
+        writeArray(response, MediaType.APPLICATION_JSON, type, fields, source);
+    }
+
+    /**
+     * Écrit un tableau dans la réponse, au format demandé, à mesure que la source produit ses éléments.
+     *
+     * @param response la réponse HTTP.
+     * @param format   {@link MediaType#APPLICATION_CBOR} ou {@link MediaType#APPLICATION_JSON}.
+     * @param type     le type des éléments, utilisé pour valider {@code fields}.
+     * @param fields   les propriétés à écrire, ou {@code null} pour toutes.
+     * @param source   la source des éléments, qui les transmet un à un au consommateur fourni.
+     * @param <T>      le type des éléments.
+     * @throws IOException              si l'écriture dans la réponse échoue.
+     * @throws IllegalArgumentException si {@code fields} contient une propriété inconnue.
+     */
+    public <T> void writeArray(HttpServletResponse response, MediaType format, Class<T> type, String fields,
+                               Consumer<Consumer<T>> source) throws IOException {
+        ObjectMapper mapper = mapperFor(format);
+        ObjectWriter writer = writerFor(mapper, type, fields);
+        if (mapper == cborMapper) {
+            response.setContentType(MediaType.APPLICATION_CBOR_VALUE);
+        } else {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+        }
+        write(response.getOutputStream(), mapper, writer, source);
+    }
+
+    /**
+     * Écrit un tableau dans un flux quelconque (export vers un fichier, mesures de performance...).
+     *
+     * @param out    le flux de destination, fermé à la fin de l'écriture.
+     * @param format {@link MediaType#APPLICATION_CBOR} ou {@link MediaType#APPLICATION_JSON}.
+     * @param type   le type des éléments, utilisé pour valider {@code fields}.
+     * @param fields les propriétés à écrire, ou {@code null} pour toutes.
+     * @param source la source des éléments, qui les transmet un à un au consommateur fourni.
+     * @param <T>    le type des éléments.
+     * @throws IOException              si l'écriture échoue.
+     * @throws IllegalArgumentException si {@code fields} contient une propriété inconnue.
+     */
+    public <T> void writeArray(OutputStream out, MediaType format, Class<T> type, String fields,
+                               Consumer<Consumer<T>> source) throws IOException {
+        ObjectMapper mapper = mapperFor(format);
+        write(out, mapper, writerFor(mapper, type, fields), source);
+    }
+
+    private <T> void write(OutputStream out, ObjectMapper mapper, ObjectWriter writer,
+                           Consumer<Consumer<T>> source) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            try {
+                source.accept(element -> {
+                    try {
+                        writer.writeValue(generator, element);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private ObjectMapper mapperFor(MediaType format) {
+        return MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format) ? cborMapper : filteringMapper;
+    }
+
+    /**
+     * Construit la réponse JSON d'un élément unique, restreinte aux propriétés demandées.
+     *
+     * @param value  l'élément à écrire.
+     * @param fields les propriétés à écrire, ou {@code null} pour toutes.
+     * @return la réponse 200 portant le JSON de l'élément.
+     * @throws IllegalArgumentException si {@code fields} contient une propriété inconnue.
+     */
+    public ResponseEntity<byte[]> toResponse(Object value, String fields) {
+        try {
+            byte[] body = writerFor(filteringMapper, value.getClass(), fields).writeValueAsBytes(value);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ObjectWriter writerFor(ObjectMapper mapper, Class<?> type, String fields) {
+        SimpleBeanPropertyFilter filter = SimpleBeanPropertyFilter.serializeAll();
+        if (fields != null && !fields.isBlank()) {
+            Set<String> requested = Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<String> known = objectMapper.getSerializationConfig()
+                    .introspect(objectMapper.constructType(type))
+                    .findProperties().stream()
+                    .map(BeanPropertyDefinition::getName)
+                    .collect(Collectors.toSet());
+            requested.stream()
+                    .filter(field -> !known.contains(field))
+                    .findFirst()
+                    .ifPresent(field -> {
+                        throw new IllegalArgumentException("Champ inconnu : " + field + ". Champs disponibles : " + known);
+                    });
+            filter = SimpleBeanPropertyFilter.filterOutAllExcept(requested);
+        }
+        return mapper.writer(new SimpleFilterProvider().addFilter(FIELD_FILTER, filter));
+    }
+
+    /**
+     * Associe le filtre de sélection des champs à tous les DTOs sérialisés par ce writer.
+     */
+    @JsonFilter(FIELD_FILTER)
+    private interface FieldSelectionMixin {
+    }
+}
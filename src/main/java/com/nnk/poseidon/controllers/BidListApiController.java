@@ -0,0 +1,148 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.BidListFilter;
+import com.nnk.poseidon.services.BidListService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * API REST JSON pour les offres, exposée sous {@code /api/v1/bidlists}.
+ * Réutilise le {@link BidListService} et les {@link BidListDTO} des écrans Thymeleaf.
+ */
+@RestController
+@RequestMapping("/api/v1/bidlists")
+public class BidListApiController {
+
+    private final BidListService bidListService;
+    private final ApiJsonWriter apiJsonWriter;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param bidListService le service métier des offres.
+     * @param apiJsonWriter la sérialisation JSON en flux de l'API.
+     */
+    @Autowired
+    public BidListApiController(BidListService bidListService, ApiJsonWriter apiJsonWriter) {
+        this.bidListService = bidListService;
+        this.apiJsonWriter = apiJsonWriter;
+    }
+
+    /**
+     * Liste les offres, toutes ou celles répondant au critère de filtre.
+     * Sans filtre, les lignes sont lues en flux depuis la base et écrites au fil de l'eau : la liste complète
+     * n'est jamais construite en mémoire. Le tableau est écrit en CBOR si le client le préfère
+     * ({@code Accept: application/cbor}), en JSON sinon.
+     *
+     * @param filter   le critère de filtre ({@code account}, {@code book} ou {@code status}).
+     * @param fields   les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @param accept   l'en-tête {@code Accept} de la requête.
+     * @param response la réponse HTTP dans laquelle le tableau est écrit.
+     * @throws IOException si l'écriture de la réponse échoue.
+     */
+    @GetMapping
+    public void list(BidListFilter filter,
+                     @RequestParam(value = "fields", required = false) String fields,
+                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                     HttpServletResponse response) throws IOException {
+        // Le filtre est appliqué avant l'écriture : un critère invalide donne une réponse 400 complète.
+        Consumer<Consumer<BidListDTO>> source = filter.isEmpty()
+                ? bidListService::streamAll
+                : bidListService.findAll(filter)::forEach;
+        apiJsonWriter.writeArray(response, apiJsonWriter.negotiate(accept), BidListDTO.class, fields, source);
+    }
+
+    /**
+     * Renvoie l'offre d'identifiant donné.
+     *
+     * @param id     l'identifiant recherché.
+     * @param fields les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @return 200 avec le JSON, ou 404 si l'identifiant est inconnu.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> get(@PathVariable("id") Integer id,
+                                      @RequestParam(value = "fields", required = false) String fields) {
+        return bidListService.findById(id)
+                .map(dto -> apiJsonWriter.toResponse(dto, fields))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Crée l'offre décrite par le corps de la requête ; un éventuel identifiant fourni est ignoré.
+     *
+     * @param dto les données validées.
+     * @return 201 avec l'en-tête {@code Location} et la ressource créée.
+     */
+    @PostMapping
+    public ResponseEntity<BidListDTO> create(@Valid @RequestBody BidListDTO dto) {
+        dto.setBidListId(null);
+        BidListDTO created = bidListService.save(dto);
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(created.getBidListId()).toUri()).body(created);
+    }
+
+    /**
+     * Importe un lot de offres, transmis en JSON ou en CBOR ; les identifiants fournis sont ignorés.
+     *
+     * @param dtos les offres à créer, chacune validée.
+     * @return 200 avec le nombre d'offres importées.
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, Integer>> importBatch(@RequestBody List<@Valid BidListDTO> dtos) {
+        return ResponseEntity.ok(Map.of("imported", bidListService.importAll(dtos)));
+    }
+
+    /**
+     * Met à jour l'offre d'identifiant donné.
+     *
+     * @param id  l'identifiant de la ressource.
+     * @param dto les nouvelles données validées.
+     * @return 200 avec la ressource mise à jour, ou 404 si l'identifiant est inconnu.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<BidListDTO> update(@PathVariable("id") Integer id, @Valid @RequestBody BidListDTO dto) {
+        if (bidListService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        dto.setBidListId(id);
+        return ResponseEntity.ok(bidListService.save(dto));
+    }
+
+    /**
+     * Supprime l'offre d'identifiant donné.
+     * Le service signalant un identifiant inconnu par une {@link IllegalArgumentException}, celle-ci devient une 404.
+     *
+     * @param id l'identifiant de la ressource.
+     * @return 204, ou 404 si l'identifiant est inconnu.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") Integer id) {
+        try {
+            bidListService.deleteById(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
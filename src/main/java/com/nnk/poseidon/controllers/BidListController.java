@@ -21,6 +21,11 @@ import java.util.List;
 @Controller
 public class BidListController {
 
+    /**
+     * Nombre maximal d'offres affichées pour une recherche.
+     */
+    private static final int SEARCH_LIMIT = 200;
+
     private final BidListService bidListService;
 
     /**
@@ -34,13 +39,21 @@ public class BidListController {
     }
 
     /**
-     * Affiche la liste de toutes les offres (DTOs).
+     * Affiche la liste de toutes les offres (DTOs), ou seulement celles qui correspondent à la recherche
+     * {@code q} (compte, titre, trader, book ou deal).
      *
+     * @param query La recherche saisie, facultative.
      * @param model Le modèle Spring MVC.
      * @return Le nom de la vue "bidList/list".
      */
     @RequestMapping("/bidList/list")
-    public String home(Model model) {
+    public String home(@RequestParam(value = "q", required = false) String query, Model model) {
+        if (query != null && !query.isBlank()) {
+            log.info("Recherche de BidList : '{}'", query);
+            model.addAttribute("bidLists", bidListService.search(query, SEARCH_LIMIT));
+            model.addAttribute("query", query);
+            return "bidList/list";
+        }
         log.info("Requête pour lister tous les DTOs de BidList");
         List<BidListDTO> bidListDTOs = bidListService.findAll();
         model.addAttribute("bidLists", bidListDTOs); // Le nom dans le modèle est "bidLists"
@@ -172,4 +185,43 @@ public class BidListController {
         }
         return "redirect:/bidList/list";
     }
-}
\ No newline at end of file
+
+    /**
+     * Supprime en une seule requête toutes les offres cochées dans la liste.
+     *
+     * @param ids Les identifiants des offres sélectionnées (absent si aucune case n'est cochée).
+     * @param redirectAttributes Attributs pour la redirection.
+     * @return Redirection vers "/bidList/list".
+     */
+    @PostMapping("/bidList/bulk/delete")
+    public String deleteBids(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                             RedirectAttributes redirectAttributes) {
+        log.info("Requête de suppression groupée des offres : {}", ids);
+        int deleted = bidListService.deleteAllById(ids);
+        redirectAttributes.addFlashAttribute("successMessage", deleted + " offre(s) supprimée(s).");
+        return "redirect:/bidList/list";
+    }
+
+    /**
+     * Modifie en une seule requête le statut de toutes les offres cochées dans la liste.
+     *
+     * @param ids Les identifiants des offres sélectionnées (absent si aucune case n'est cochée).
+     * @param status Le nouveau statut.
+     * @param redirectAttributes Attributs pour la redirection.
+     * @return Redirection vers "/bidList/list".
+     */
+    @PostMapping("/bidList/bulk/status")
+    public String updateBidsStatus(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                   @RequestParam("status") String status,
+                                   RedirectAttributes redirectAttributes) {
+        log.info("Requête de mise à jour groupée du statut '{}' des offres : {}", status, ids);
+        try {
+            int updated = bidListService.updateStatus(ids, status);
+            redirectAttributes.addFlashAttribute("successMessage", updated + " offre(s) mise(s) à jour.");
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la mise à jour groupée du statut des offres : {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/bidList/list";
+    }
+}
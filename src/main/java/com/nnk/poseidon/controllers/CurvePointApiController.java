@@ -0,0 +1,165 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.dto.CurvePointDTO;
+import com.nnk.poseidon.services.CurvePointService;
+import com.nnk.poseidon.services.CurveScenarioEngine;
+import com.nnk.poseidon.services.CurveSensitivities;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * API REST JSON pour les points de courbe, exposée sous {@code /api/v1/curvepoints}.
+ * Réutilise le {@link CurvePointService} et les {@link CurvePointDTO} des écrans Thymeleaf.
+ */
+@RestController
+@RequestMapping("/api/v1/curvepoints")
+public class CurvePointApiController {
+
+    private final CurvePointService curvePointService;
+    private final ApiJsonWriter apiJsonWriter;
+    private final CurveScenarioEngine curveScenarioEngine;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param curvePointService le service métier des points de courbe.
+     * @param apiJsonWriter la sérialisation JSON en flux de l'API.
+     * @param curveScenarioEngine le calcul des sensibilités des courbes par scénario.
+     */
+    @Autowired
+    public CurvePointApiController(CurvePointService curvePointService, ApiJsonWriter apiJsonWriter,
+                                   CurveScenarioEngine curveScenarioEngine) {
+        this.curvePointService = curvePointService;
+        this.apiJsonWriter = apiJsonWriter;
+        this.curveScenarioEngine = curveScenarioEngine;
+    }
+
+    /**
+     * Liste les points de courbe, tous ou ceux d'une courbe (triés par date de valeur puis par terme).
+     * Sans filtre, les lignes sont lues en flux depuis la base et écrites au fil de l'eau : la liste complète
+     * n'est jamais construite en mémoire.
+     *
+     * @param curveId  l'identifiant de la courbe, ou {@code null} pour tous les points.
+     * @param asOfDate la date de valeur, avec {@code curveId}.
+     * @param fields   les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @param response la réponse HTTP dans laquelle le tableau JSON est écrit.
+     * @throws IOException si l'écriture de la réponse échoue.
+     */
+    @GetMapping
+    public void list(@RequestParam(value = "curveId", required = false) Integer curveId,
+                     @RequestParam(value = "asOfDate", required = false)
+                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOfDate,
+                     @RequestParam(value = "fields", required = false) String fields,
+                     HttpServletResponse response) throws IOException {
+        if (asOfDate != null && curveId == null) {
+            throw new IllegalArgumentException("Le filtre asOfDate s'utilise avec curveId.");
+        }
+        Consumer<Consumer<CurvePointDTO>> source = curveId == null
+                ? curvePointService::streamAll
+                : curvePointService.findByCurve(curveId, asOfDate)::forEach;
+        apiJsonWriter.writeArray(response, CurvePointDTO.class, fields, source);
+    }
+
+    /**
+     * Calcule, pour chaque courbe, la matrice des sensibilités par terme sous des scénarios de déplacement
+     * parallèle (voir {@link CurveScenarioEngine}).
+     *
+     * @param asOfDate   la date de valeur des points, ou la plus récente de chaque courbe si absente.
+     * @param scenarios  le nombre de scénarios.
+     * @param maxShiftBp le déplacement parallèle extrême, en points de base.
+     * @param bumpBp     le choc appliqué à chaque terme, en points de base.
+     * @param coupon     le coupon annuel de l'obligation de référence, en pourcentage.
+     * @return 200 avec les sensibilités, par identifiant de courbe ; 400 si un paramètre est invalide.
+     */
+    @GetMapping("/sensitivities")
+    public ResponseEntity<List<CurveSensitivities>> sensitivities(
+            @RequestParam(value = "asOfDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOfDate,
+            @RequestParam(value = "scenarios", defaultValue = "201") int scenarios,
+            @RequestParam(value = "maxShiftBp", defaultValue = "100") double maxShiftBp,
+            @RequestParam(value = "bumpBp", defaultValue = "1") double bumpBp,
+            @RequestParam(value = "coupon", defaultValue = "5") double coupon) {
+        return ResponseEntity.ok(curveScenarioEngine.computeSensitivities(asOfDate,
+                new CurveScenarioEngine.ScenarioSet(scenarios, maxShiftBp, bumpBp, coupon)));
+    }
+
+    /**
+     * Renvoie le point de courbe d'identifiant donné.
+     *
+     * @param id     l'identifiant recherché.
+     * @param fields les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @return 200 avec le JSON, ou 404 si l'identifiant est inconnu.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> get(@PathVariable("id") Integer id,
+                                      @RequestParam(value = "fields", required = false) String fields) {
+        return curvePointService.findById(id)
+                .map(dto -> apiJsonWriter.toResponse(dto, fields))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Crée le point de courbe décrit par le corps de la requête ; un éventuel identifiant fourni est ignoré.
+     *
+     * @param dto les données validées.
+     * @return 201 avec l'en-tête {@code Location} et la ressource créée.
+     */
+    @PostMapping
+    public ResponseEntity<CurvePointDTO> create(@Valid @RequestBody CurvePointDTO dto) {
+        dto.setId(null);
+        CurvePointDTO created = curvePointService.save(dto);
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(created.getId()).toUri()).body(created);
+    }
+
+    /**
+     * Met à jour le point de courbe d'identifiant donné.
+     *
+     * @param id  l'identifiant de la ressource.
+     * @param dto les nouvelles données validées.
+     * @return 200 avec la ressource mise à jour, ou 404 si l'identifiant est inconnu.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<CurvePointDTO> update(@PathVariable("id") Integer id, @Valid @RequestBody CurvePointDTO dto) {
+        if (curvePointService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        dto.setId(id);
+        return ResponseEntity.ok(curvePointService.save(dto));
+    }
+
+    /**
+     * Supprime le point de courbe d'identifiant donné.
+     * Le service signalant un identifiant inconnu par une {@link IllegalArgumentException}, celle-ci devient une 404.
+     *
+     * @param id l'identifiant de la ressource.
+     * @return 204, ou 404 si l'identifiant est inconnu.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") Integer id) {
+        try {
+            curvePointService.deleteById(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
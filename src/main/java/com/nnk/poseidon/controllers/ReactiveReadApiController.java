@@ -0,0 +1,70 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.CurvePointDTO;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.services.ReactiveReadService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * API de lecture réactive pour les tableaux de bord, exposée sous {@code /api/v1/stream}.
+ * <p>
+ * Les listes sont diffusées en NDJSON (un objet JSON par ligne) ou en Server-Sent Events. Le thread Tomcat
+ * est rendu dès le retour du {@link Flux} : Spring MVC écrit chaque élément au fil de sa lecture sur R2DBC et
+ * ne demande le suivant qu'une fois le précédent écrit, si bien qu'un client lent freine la lecture au lieu
+ * de faire grossir la mémoire. Actif avec {@code poseidon.reactive.enabled=true}.
+ * </p>
+ */
+@RestController
+@RequestMapping(value = "/api/v1/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+@ConditionalOnProperty(name = "poseidon.reactive.enabled", havingValue = "true")
+public class ReactiveReadApiController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param reactiveReadService les lectures réactives.
+     */
+    public ReactiveReadApiController(ReactiveReadService reactiveReadService) {
+        this.reactiveReadService = reactiveReadService;
+    }
+
+    /**
+     * Diffuse tous les trades, par identifiant croissant.
+     *
+     * @return le flux des trades.
+     */
+    @GetMapping("/trades")
+    public Flux<TradeDTO> trades() {
+        return reactiveReadService.streamTrades();
+    }
+
+    /**
+     * Diffuse toutes les offres, par identifiant croissant.
+     *
+     * @return le flux des offres.
+     */
+    @GetMapping("/bids")
+    public Flux<BidListDTO> bids() {
+        return reactiveReadService.streamBids();
+    }
+
+    /**
+     * Diffuse les points de courbe, tous ou ceux d'une courbe.
+     *
+     * @param curveId l'identifiant de la courbe, ou {@code null} pour tous les points.
+     * @return le flux des points, triés par courbe, date de valeur puis terme.
+     */
+    @GetMapping("/curvepoints")
+    public Flux<CurvePointDTO> curvePoints(@RequestParam(value = "curveId", required = false) Integer curveId) {
+        return reactiveReadService.streamCurvePoints(curveId);
+    }
+}
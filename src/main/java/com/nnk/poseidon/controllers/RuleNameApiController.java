@@ -0,0 +1,121 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.dto.RuleNameDTO;
+import com.nnk.poseidon.services.RuleNameService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+
+/**
+ * API REST JSON pour les règles, exposée sous {@code /api/v1/rulenames}.
+ * Réutilise le {@link RuleNameService} et les {@link RuleNameDTO} des écrans Thymeleaf.
+ */
+@RestController
+@RequestMapping("/api/v1/rulenames")
+public class RuleNameApiController {
+
+    private final RuleNameService ruleNameService;
+    private final ApiJsonWriter apiJsonWriter;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param ruleNameService le service métier des règles.
+     * @param apiJsonWriter la sérialisation JSON en flux de l'API.
+     */
+    @Autowired
+    public RuleNameApiController(RuleNameService ruleNameService, ApiJsonWriter apiJsonWriter) {
+        this.ruleNameService = ruleNameService;
+        this.apiJsonWriter = apiJsonWriter;
+    }
+
+    /**
+     * Liste toutes les règles.
+     * Les tables de référence étant petites et servies par le cache de second niveau, la liste
+     * est lue en une fois puis écrite élément par élément.
+     *
+     * @param fields   les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @param response la réponse HTTP dans laquelle le tableau JSON est écrit.
+     * @throws IOException si l'écriture de la réponse échoue.
+     */
+    @GetMapping
+    public void list(@RequestParam(value = "fields", required = false) String fields,
+                     HttpServletResponse response) throws IOException {
+        apiJsonWriter.writeArray(response, RuleNameDTO.class, fields, action -> ruleNameService.findAll().forEach(action));
+    }
+
+    /**
+     * Renvoie la règle d'identifiant donné.
+     *
+     * @param id     l'identifiant recherché.
+     * @param fields les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @return 200 avec le JSON, ou 404 si l'identifiant est inconnu.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> get(@PathVariable("id") Integer id,
+                                      @RequestParam(value = "fields", required = false) String fields) {
+        return ruleNameService.findById(id)
+                .map(dto -> apiJsonWriter.toResponse(dto, fields))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Crée la règle décrite par le corps de la requête ; un éventuel identifiant fourni est ignoré.
+     *
+     * @param dto les données validées.
+     * @return 201 avec l'en-tête {@code Location} et la ressource créée.
+     */
+    @PostMapping
+    public ResponseEntity<RuleNameDTO> create(@Valid @RequestBody RuleNameDTO dto) {
+        dto.setId(null);
+        RuleNameDTO created = ruleNameService.save(dto);
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(created.getId()).toUri()).body(created);
+    }
+
+    /**
+     * Met à jour la règle d'identifiant donné.
+     *
+     * @param id  l'identifiant de la ressource.
+     * @param dto les nouvelles données validées.
+     * @return 200 avec la ressource mise à jour, ou 404 si l'identifiant est inconnu.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<RuleNameDTO> update(@PathVariable("id") Integer id, @Valid @RequestBody RuleNameDTO dto) {
+        if (ruleNameService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        dto.setId(id);
+        return ResponseEntity.ok(ruleNameService.save(dto));
+    }
+
+    /**
+     * Supprime la règle d'identifiant donné.
+     * Le service signalant un identifiant inconnu par une {@link IllegalArgumentException}, celle-ci devient une 404.
+     *
+     * @param id l'identifiant de la ressource.
+     * @return 204, ou 404 si l'identifiant est inconnu.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") Integer id) {
+        try {
+            ruleNameService.deleteById(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.services.SearchIndex;
+import com.nnk.poseidon.services.SearchIndexService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * API de recherche sur les trades et les offres, exposée sous {@code /api/v1/search}.
+ * Les résultats sont lus dans l'index Lucene, sans accès à la base : elle sert la saisie semi-automatique
+ * des écrans de liste.
+ */
+@RestController
+@RequestMapping("/api/v1/search")
+public class SearchApiController {
+
+    private static final int MAX_LIMIT = 100;
+    private static final Set<String> TYPES = Set.of(SearchIndex.TRADE, SearchIndex.BID_LIST);
+
+    private final ObjectProvider<SearchIndexService> searchProvider;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param searchProvider fournit le service de recherche lorsque l'index est actif.
+     */
+    @Autowired
+    public SearchApiController(ObjectProvider<SearchIndexService> searchProvider) {
+        this.searchProvider = searchProvider;
+    }
+
+    /**
+     * Recherche par préfixe et approchée sur le compte, le titre, le trader, le book et le nom du deal.
+     *
+     * @param query la saisie de l'utilisateur.
+     * @param type  {@code trade} ou {@code bidlist} pour restreindre la recherche (les deux si absent).
+     * @param limit le nombre maximal de résultats (100 au plus).
+     * @return 200 avec les résultats, du plus pertinent au moins pertinent, ou 503 si l'index est désactivé.
+     */
+    @GetMapping
+    public ResponseEntity<List<SearchIndex.Entry>> search(@RequestParam("q") String query,
+                                                          @RequestParam(value = "type", required = false) String type,
+                                                          @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (type != null && !TYPES.contains(type)) {
+            throw new IllegalArgumentException("Type inconnu : " + type + ". Types disponibles : " + TYPES);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("La limite doit être comprise entre 1 et " + MAX_LIMIT + ".");
+        }
+        SearchIndexService search = searchProvider.getIfAvailable();
+        if (search == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(search.search(type, query, limit));
+    }
+
+    /**
+     * Lance la reconstruction complète de l'index en arrière-plan ; les recherches restent servies par
+     * l'index courant jusqu'à la bascule.
+     *
+     * @return 202 si la reconstruction est lancée, 409 si une reconstruction est déjà en cours,
+     *         503 si l'index est désactivé.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        SearchIndexService search = searchProvider.getIfAvailable();
+        if (search == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            search.rebuild();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.dto.TradeFilter;
+import com.nnk.poseidon.services.TradeBar;
+import com.nnk.poseidon.services.TradeService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * API REST JSON pour les trades, exposée sous {@code /api/v1/trades}.
+ * Réutilise le {@link TradeService} et les {@link TradeDTO} des écrans Thymeleaf.
+ */
+@RestController
+@RequestMapping("/api/v1/trades")
+public class TradeApiController {
+
+    private final TradeService tradeService;
+    private final ApiJsonWriter apiJsonWriter;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param tradeService le service métier des trades.
+     * @param apiJsonWriter la sérialisation JSON en flux de l'API.
+     */
+    @Autowired
+    public TradeApiController(TradeService tradeService, ApiJsonWriter apiJsonWriter) {
+        this.tradeService = tradeService;
+        this.apiJsonWriter = apiJsonWriter;
+    }
+
+    /**
+     * Liste les trades, tous ou ceux répondant au critère de filtre.
+     * Sans filtre, les lignes sont lues en flux depuis la base et écrites au fil de l'eau : la liste complète
+     * n'est jamais construite en mémoire. Le tableau est écrit en CBOR si le client le préfère
+     * ({@code Accept: application/cbor}), en JSON sinon.
+     *
+     * @param filter   le critère de filtre ({@code account}, {@code book}, {@code trader} ou {@code status}).
+     * @param fields   les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @param accept   l'en-tête {@code Accept} de la requête.
+     * @param response la réponse HTTP dans laquelle le tableau est écrit.
+     * @throws IOException si l'écriture de la réponse échoue.
+     */
+    @GetMapping
+    public void list(TradeFilter filter,
+                     @RequestParam(value = "fields", required = false) String fields,
+                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                     HttpServletResponse response) throws IOException {
+        // Le filtre est appliqué avant l'écriture : un critère invalide donne une réponse 400 complète.
+        Consumer<Consumer<TradeDTO>> source = filter.isEmpty()
+                ? tradeService::streamAll
+                : tradeService.findTrades(filter)::forEach;
+        apiJsonWriter.writeArray(response, apiJsonWriter.negotiate(accept), TradeDTO.class, fields, source);
+    }
+
+    /**
+     * Renvoie le trade d'identifiant donné, dans son état courant ou, en mode event-sourcing, tel qu'il était
+     * à la date {@code asOf}.
+     *
+     * @param id     l'identifiant recherché.
+     * @param fields les propriétés à renvoyer, séparées par des virgules (toutes si absent).
+     * @param asOf   la date de l'état voulu (ISO 8601), facultative.
+     * @return 200 avec le JSON, 404 si le trade est inconnu (ou n'existait pas à cette date), ou 400 si
+     *         {@code asOf} est fourni hors du mode event-sourcing.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> get(@PathVariable("id") Integer id,
+                                      @RequestParam(value = "fields", required = false) String fields,
+                                      @RequestParam(value = "asOf", required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return (asOf == null ? tradeService.findTradeById(id) : tradeService.findTradeAsOf(id, asOf))
+                .map(dto -> apiJsonWriter.toResponse(dto, fields))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Renvoie les barres OHLC/VWAP d'un titre sur une période (agrégation en barres active).
+     *
+     * @param security   le titre.
+     * @param resolution la résolution : {@code 1m}, {@code 5m}, {@code 1h} ou {@code 1d}.
+     * @param from       le début de la période (ISO 8601, inclus).
+     * @param to         la fin de la période (ISO 8601, exclue).
+     * @return 200 avec les barres des intervalles ayant au moins un trade, ou 400 si la requête est invalide ou
+     *         si l'agrégation n'est pas active.
+     */
+    @GetMapping("/bars")
+    public ResponseEntity<List<TradeBar>> bars(@RequestParam("security") String security,
+                                               @RequestParam(value = "resolution", defaultValue = "1m") String resolution,
+                                               @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(tradeService.findTradeBars(security, resolution, from, to));
+    }
+
+    /**
+     * Crée le trade décrit par le corps de la requête ; un éventuel identifiant fourni est ignoré.
+     *
+     * @param dto les données validées.
+     * @return 201 avec l'en-tête {@code Location} et la ressource créée, ou 202 si la création est
+     *         seulement journalisée (mode write-behind, identifiant pas encore attribué).
+     */
+    @PostMapping
+    public ResponseEntity<TradeDTO> create(@Valid @RequestBody TradeDTO dto) {
+        dto.setTradeId(null);
+        TradeDTO created = tradeService.saveTrade(dto);
+        if (created.getTradeId() == null) {
+            return ResponseEntity.accepted().body(created);
+        }
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(created.getTradeId()).toUri()).body(created);
+    }
+
+    /**
+     * Importe un lot de trades, transmis en JSON ou en CBOR ; les identifiants fournis sont ignorés.
+     *
+     * @param dtos les trades à créer, chacun validé.
+     * @return 200 avec le nombre de trades importés.
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, Integer>> importBatch(@RequestBody List<@Valid TradeDTO> dtos) {
+        return ResponseEntity.ok(Map.of("imported", tradeService.importTrades(dtos)));
+    }
+
+    /**
+     * Met à jour le trade d'identifiant donné.
+     *
+     * @param id  l'identifiant de la ressource.
+     * @param dto les nouvelles données validées.
+     * @return 200 avec la ressource mise à jour, ou 404 si l'identifiant est inconnu.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<TradeDTO> update(@PathVariable("id") Integer id, @Valid @RequestBody TradeDTO dto) {
+        return tradeService.updateTrade(id, dto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reconstruit la table des trades à partir de leurs événements (mode event-sourcing), par partitions en
+     * parallèle ; les écritures de trades doivent être suspendues pendant l'opération.
+     *
+     * @return 200 avec le nombre de trades réécrits, ou 400 hors du mode event-sourcing.
+     */
+    @PostMapping("/projection/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildProjection() {
+        return ResponseEntity.ok(Map.of("rebuilt", tradeService.rebuildTradeProjection()));
+    }
+
+    /**
+     * Supprime le trade d'identifiant donné.
+     * La suppression d'un trade inexistant est sans effet.
+     *
+     * @param id l'identifiant de la ressource.
+     * @return 204.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") Integer id) {
+        tradeService.deleteTradeById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
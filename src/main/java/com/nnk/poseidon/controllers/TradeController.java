@@ -1,15 +1,18 @@
 package com.nnk.poseidon.controllers;
 
+import com.nnk.poseidon.dto.AuditEventDTO;
 import com.nnk.poseidon.dto.TradeDTO;
 import com.nnk.poseidon.services.TradeService; // Assurez-vous que cet import est correct selon votre nom de classe service
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +28,16 @@ public class TradeController {
 
     private static final Logger logger = LoggerFactory.getLogger(TradeController.class);
 
+    /**
+     * Nombre maximal de trades affichés pour une recherche.
+     */
+    private static final int SEARCH_LIMIT = 200;
+
+    /**
+     * Nombre d'entrées d'audit par page de l'historique d'un trade.
+     */
+    private static final int HISTORY_PAGE_SIZE = 20;
+
     private final TradeService tradeService;
 
     /**
@@ -39,14 +52,22 @@ public class TradeController {
 
     /**
      * Gère les requêtes GET vers "/trade/list".
-     * Récupère tous les trades via le {@link TradeService} et les ajoute au modèle
-     * pour affichage dans la vue "trade/list".
+     * Récupère tous les trades via le {@link TradeService}, ou seulement ceux qui correspondent à la recherche
+     * {@code q} (compte, titre, trader, book ou deal), et les ajoute au modèle pour affichage dans la vue "trade/list".
      *
+     * @param query La recherche saisie, facultative.
      * @param model L'objet {@link Model} utilisé pour passer des attributs à la vue.
      * @return Le nom de la vue Thymeleaf à afficher ("trade/list").
      */
     @GetMapping("/list")
-    public String home(Model model) {
+    public String home(@RequestParam(value = "q", required = false) String query, Model model) {
+        if (query != null && !query.isBlank()) {
+            List<TradeDTO> trades = tradeService.searchTrades(query, SEARCH_LIMIT);
+            model.addAttribute("trades", trades);
+            model.addAttribute("query", query);
+            logger.info("Recherche de trades '{}'. Nombre de trades trouvés: {}", query, trades.size());
+            return "trade/list";
+        }
         List<TradeDTO> trades = tradeService.findAllTrades();
         model.addAttribute("trades", trades); // Ajoute la liste des trades au modèle sous la clé "trades"
         logger.info("Affichage de la liste des trades. Nombre de trades trouvés: {}", trades.size());
@@ -153,6 +174,26 @@ public class TradeController {
         return "redirect:/trade/list"; // Redirige vers la liste après succès
     }
 
+    /**
+     * Gère les requêtes GET vers "/trade/history/{id}".
+     * Affiche une page de l'historique d'audit du trade, de l'écriture la plus récente à la plus ancienne :
+     * auteur, date et champs modifiés. L'historique reste consultable après la suppression du trade.
+     *
+     * @param id L'identifiant du trade, extrait de l'URL ({@link PathVariable}).
+     * @param page Le numéro de page demandé, à partir de 0.
+     * @param model L'objet {@link Model} utilisé pour passer l'historique à la vue.
+     * @return Le nom de la vue Thymeleaf à afficher ("trade/history").
+     */
+    @GetMapping("/history/{id}")
+    public String history(@PathVariable("id") Integer id, @RequestParam(value = "page", defaultValue = "0") int page,
+                          Model model) {
+        Page<AuditEventDTO> history = tradeService.findTradeHistory(id, Math.max(page, 0), HISTORY_PAGE_SIZE);
+        model.addAttribute("tradeId", id);
+        model.addAttribute("history", history);
+        logger.info("Affichage de l'historique du trade ID: {}, page {} sur {}", id, history.getNumber() + 1, history.getTotalPages());
+        return "trade/history";
+    }
+
     /**
      * Gère les requêtes GET vers "/trade/delete/{id}".
      * Supprime le trade spécifié par son ID via le {@link TradeService}.
@@ -173,4 +214,45 @@ public class TradeController {
         }
         return "redirect:/trade/list"; // Redirige toujours vers la liste
     }
-}
\ No newline at end of file
+
+    /**
+     * Gère les requêtes POST vers "/trade/bulk/delete".
+     * Supprime en une seule requête tous les trades cochés dans la liste.
+     *
+     * @param ids Les identifiants des trades sélectionnés (absent si aucune case n'est cochée).
+     * @param redirectAttributes Attributs flash portant le nombre de trades supprimés.
+     * @return Une chaîne de redirection vers "/trade/list".
+     */
+    @PostMapping("/bulk/delete")
+    public String deleteTrades(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                               RedirectAttributes redirectAttributes) {
+        int deleted = tradeService.deleteTrades(ids);
+        logger.info("Suppression groupée de trades : {} supprimés.", deleted);
+        redirectAttributes.addFlashAttribute("successMessage", deleted + " trade(s) supprimé(s).");
+        return "redirect:/trade/list";
+    }
+
+    /**
+     * Gère les requêtes POST vers "/trade/bulk/status".
+     * Modifie en une seule requête le statut de tous les trades cochés dans la liste.
+     *
+     * @param ids Les identifiants des trades sélectionnés (absent si aucune case n'est cochée).
+     * @param status Le nouveau statut.
+     * @param redirectAttributes Attributs flash portant le résultat de l'opération.
+     * @return Une chaîne de redirection vers "/trade/list".
+     */
+    @PostMapping("/bulk/status")
+    public String updateTradesStatus(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                     @RequestParam("status") String status,
+                                     RedirectAttributes redirectAttributes) {
+        try {
+            int updated = tradeService.updateTradeStatus(ids, status);
+            logger.info("Mise à jour groupée de trades : {} passés au statut '{}'.", updated, status);
+            redirectAttributes.addFlashAttribute("successMessage", updated + " trade(s) mis à jour.");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Erreur lors de la mise à jour groupée du statut des trades : {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/trade/list";
+    }
+}
@@ -0,0 +1,68 @@
+package com.nnk.poseidon.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Entrée du journal d'audit des trades et des offres.
+ * <p>
+ * Le journal est en ajout seul : chaque écriture produit une nouvelle ligne, insérée de façon asynchrone
+ * par le {@link com.nnk.poseidon.services.AuditTrailService}, et aucune ligne n'est modifiée ensuite.
+ * L'entité ne sert qu'à la lecture de l'historique.
+ * </p>
+ */
+@Entity
+@Table(name = "AuditEvent")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    /**
+     * Identifiant de l'entrée, croissant dans l'ordre d'insertion.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "Id")
+    private Long id;
+
+    /**
+     * Type de la ligne auditée ({@code Trade} ou {@code BidList}).
+     */
+    @Column(name = "entityType", nullable = false, length = 30)
+    private String entityType;
+
+    /**
+     * Identifiant de la ligne auditée.
+     */
+    @Column(name = "entityId", nullable = false)
+    private Integer entityId;
+
+    /**
+     * Nature de l'écriture : {@code CREATE}, {@code UPDATE} ou {@code DELETE}.
+     */
+    @Column(name = "action", nullable = false, length = 10)
+    private String action;
+
+    /**
+     * Utilisateur authentifié à l'origine de l'écriture, ou {@code system} hors requête authentifiée.
+     */
+    @Column(name = "actor", length = 125)
+    private String actor;
+
+    /**
+     * Date et heure de l'écriture.
+     */
+    @Column(name = "occurredAt", nullable = false)
+    private LocalDateTime occurredAt;
+
+    /**
+     * Différentiel des champs modifiés, en JSON compact : {@code {"champ":[ancienne valeur, nouvelle valeur]}}.
+     * Nul pour une suppression.
+     */
+    @Column(name = "changes", length = 65535)
+    private String changes;
+}
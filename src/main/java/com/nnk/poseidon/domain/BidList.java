@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 /**
@@ -15,9 +17,16 @@ import java.time.LocalDateTime;
  * Les annotations Lombok ({@link Data}, {@link NoArgsConstructor}, {@link AllArgsConstructor})
  * sont utilisées pour générer automatiquement le code standard (getters, setters, constructeurs, etc.).
  * </p>
+ * <p>
+ * Les colonnes larges qu'aucun écran ni service ne lit ({@code @Basic(fetch = LAZY)}) ne sont chargées qu'au
+ * premier accès, toutes ensemble ; l'entité étant enrichie à la compilation, une mise à jour ne les charge pas
+ * et ne réécrit que les colonnes modifiées. Elles sont exclues de {@code toString()} pour que la journalisation
+ * ne déclenche pas ce chargement.
+ * </p>
  */
 @Entity
 @Table(name = "BidList")
+@DynamicUpdate // Seules les colonnes modifiées, connues grâce à l'enrichissement, sont réécrites.
 @Data // Génère les getters, setters, toString, equals, et hashCode.
 @NoArgsConstructor // Génère un constructeur sans arguments, requis par JPA.
 @AllArgsConstructor // Génère un constructeur avec tous les arguments, utile pour les tests.
@@ -73,6 +82,8 @@ public class BidList {
     /**
      * Un indice ou une référence de marché (benchmark) pour cette offre.
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "benchmark", length = 125)
     private String benchmark;
 
@@ -85,6 +96,8 @@ public class BidList {
     /**
      * Un champ de commentaire libre pour des informations supplémentaires.
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "commentary", length = 125)
     private String commentary;
 
@@ -115,6 +128,8 @@ public class BidList {
     /**
      * Le nom de l'utilisateur ou du système qui a créé l'enregistrement (champ d'audit).
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "creationName", length = 125)
     private String creationName;
 
@@ -127,6 +142,8 @@ public class BidList {
     /**
      * Le nom de l'utilisateur ou du système qui a effectué la dernière révision (champ d'audit).
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "revisionName", length = 125)
     private String revisionName;
 
@@ -145,18 +162,24 @@ public class BidList {
     /**
      * Le type de la transaction (deal type).
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "dealType", length = 125)
     private String dealType;
 
     /**
      * Un identifiant liant cette offre à une liste ou un système source externe.
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "sourceListId", length = 125)
     private String sourceListId;
 
     /**
      * Le côté de l'ordre ("side"), par exemple "Buy" ou "Sell".
      */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @Column(name = "side", length = 125)
     private String side;
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entité JPA représentant la définition d'une règle métier ou de validation.
@@ -16,6 +18,8 @@ import lombok.AllArgsConstructor;
  */
 @Entity
 @Table(name = "RuleName")
+@Cacheable // Table de référence lue bien plus souvent qu'écrite : mise en cache de second niveau.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "poseidon.ruleName")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,53 @@
+package com.nnk.poseidon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Objet de Transfert de Données (DTO) pour une entrée de l'historique d'audit d'un trade ou d'une offre.
+ * Utilisé en lecture seule par la vue d'historique.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEventDTO {
+
+    /**
+     * L'identifiant de l'entrée d'audit.
+     */
+    private Long id;
+
+    /**
+     * Le type de la ligne auditée ({@code Trade} ou {@code BidList}).
+     */
+    private String entityType;
+
+    /**
+     * L'identifiant de la ligne auditée.
+     */
+    private Integer entityId;
+
+    /**
+     * La nature de l'écriture : {@code CREATE}, {@code UPDATE} ou {@code DELETE}.
+     */
+    private String action;
+
+    /**
+     * L'utilisateur à l'origine de l'écriture.
+     */
+    private String actor;
+
+    /**
+     * La date et l'heure de l'écriture.
+     */
+    private LocalDateTime occurredAt;
+
+    /**
+     * Le différentiel des champs modifiés, en JSON compact ({@code {"champ":[avant, après]}}) ;
+     * nul pour une suppression.
+     */
+    private String changes;
+}
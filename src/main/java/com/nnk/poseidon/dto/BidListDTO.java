@@ -2,6 +2,7 @@ package com.nnk.poseidon.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -68,11 +69,50 @@ public class BidListDTO {
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime creationDate;
 
+    /**
+     * L'identifiant de l'instrument financier (ex: ticker, ISIN) concerné par l'offre.
+     * Optionnel : avec un prix et une quantité, il fait de l'offre un ordre confronté par le moteur d'appariement.
+     */
+    @Size(max = 125, message = "Security must not exceed 125 characters.")
+    private String security;
+
+    /**
+     * Le prix proposé à l'achat (bid price), optionnel.
+     */
+    @Positive(message = "Bid must be positive.")
+    private Double bid;
+
+    /**
+     * La quantité demandée à la vente (ask quantity), optionnelle.
+     */
+    @PositiveOrZero(message = "Ask quantity must be zero or positive.")
+    private Double askQuantity;
+
+    /**
+     * Le prix demandé à la vente (ask price), optionnel.
+     */
+    @Positive(message = "Ask must be positive.")
+    private Double ask;
+
+    /**
+     * Constructeur des offres sans partie ordre (titre, prix, quantité à la vente), telles que saisies dans les
+     * formulaires de création et de mise à jour.
+     *
+     * @param bidListId    l'identifiant, nul pour une création.
+     * @param account      le compte.
+     * @param type         le type.
+     * @param bidQuantity  la quantité à l'achat.
+     * @param creationDate la date de création.
+     */
+    public BidListDTO(Integer bidListId, String account, String type, Double bidQuantity, LocalDateTime creationDate) {
+        this(bidListId, account, type, bidQuantity, creationDate, null, null, null, null);
+    }
+
     /*
      * Note sur les champs omis :
-     * Les autres champs de l'entité `BidList` (comme `askQuantity`, `bid`, `ask`, `benchmark`, etc.)
-     * ne sont pas inclus dans ce DTO car ils ne sont pas destinés à être saisis ou modifiés
-     * via les formulaires de création/mise à jour standard. Cette omission est intentionnelle
-     * et constitue une bonne pratique pour n'exposer que les données strictement nécessaires.
+     * Les autres champs de l'entité `BidList` (comme `benchmark`, `commentary`, etc.) ne sont pas inclus dans ce
+     * DTO car ils ne sont pas destinés à être saisis ou modifiés via les formulaires de création/mise à jour
+     * standard. Les champs d'ordre (`security`, `bid`, `askQuantity`, `ask`) ne sont saisis que par l'API ; les
+     * formulaires ne les envoient pas et une mise à jour sans eux les laisse inchangés.
      */
-}
\ No newline at end of file
+}
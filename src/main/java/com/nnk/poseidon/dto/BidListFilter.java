@@ -0,0 +1,25 @@
+package com.nnk.poseidon.dto;
+
+/**
+ * Critères de filtrage de la liste des offres, lus depuis les paramètres de la requête.
+ * <p>
+ * Chaque critère correspond à un index secondaire de la table {@code BidList} : {@code account},
+ * {@code book} (éventuellement avec {@code security}) ou {@code status}. Un seul critère est accepté à la fois.
+ * </p>
+ *
+ * @param account  le compte.
+ * @param book     le book.
+ * @param security le titre, avec {@code book}.
+ * @param status   le statut.
+ */
+public record BidListFilter(String account, String book, String security, String status) {
+
+    /**
+     * Indique si aucun critère n'est renseigné.
+     *
+     * @return {@code true} si la liste complète est demandée.
+     */
+    public boolean isEmpty() {
+        return account == null && book == null && security == null && status == null;
+    }
+}
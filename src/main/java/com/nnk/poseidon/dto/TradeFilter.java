@@ -0,0 +1,37 @@
+package com.nnk.poseidon.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Critères de filtrage de la liste des trades, lus depuis les paramètres de la requête.
+ * <p>
+ * Chaque critère correspond à un index secondaire de la table {@code Trade} : {@code account},
+ * {@code book} (éventuellement avec {@code security}), {@code trader} (éventuellement avec la période
+ * {@code from}/{@code to} sur {@code tradeDate}) ou {@code status}. Un seul critère est accepté à la fois.
+ * </p>
+ *
+ * @param account  le compte.
+ * @param book     le book.
+ * @param security le titre, avec {@code book}.
+ * @param trader   le trader.
+ * @param from     le début de la période, avec {@code trader} et {@code to}.
+ * @param to       la fin de la période, avec {@code trader} et {@code from}.
+ * @param status   le statut.
+ */
+public record TradeFilter(String account, String book, String security, String trader,
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                          String status) {
+
+    /**
+     * Indique si aucun critère n'est renseigné.
+     *
+     * @return {@code true} si la liste complète est demandée.
+     */
+    public boolean isEmpty() {
+        return account == null && book == null && security == null && trader == null && from == null && to == null
+                && status == null;
+    }
+}
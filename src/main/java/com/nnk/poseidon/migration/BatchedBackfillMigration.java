@@ -0,0 +1,160 @@
+package com.nnk.poseidon.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base des migrations Java qui rattrapent des données sur une grande table, par lots de clés successifs.
+ * <p>
+ * Chaque lot ({@code batchSize} valeurs consécutives de la clé primaire) est mis à jour puis validé dans
+ * sa propre transaction : les verrous ne portent jamais que sur un lot, et une migration interrompue
+ * reprend sans dommage à sa réexécution, pourvu que {@link #updateStatement()} ne retienne que les lignes
+ * restant à traiter. Une pause de {@code pauseMillis} sépare deux lots pour laisser passer le trafic
+ * applicatif et limiter le retard des réplicas.
+ * </p>
+ * <p>
+ * Les sous-classes sont déclarées comme beans Spring, Spring Boot les transmettant à Flyway, et passent
+ * l'{@link Environment} au constructeur de base, qui y lit {@value #BATCH_SIZE_PROPERTY} et
+ * {@value #PAUSE_MS_PROPERTY} :
+ * <pre>
+ * &#64;Component
+ * public class V12__BackfillTradeSide extends BatchedBackfillMigration {
+ *     public V12__BackfillTradeSide(Environment environment) {
+ *         super(environment);
+ *     }
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * Flyway enregistre l'échec d'une telle migration, qui ne s'exécute pas dans une transaction : au démarrage
+ * suivant, {@link com.nnk.poseidon.config.MigrationConfig} efface cet échec ({@code repair}) pour que la
+ * migration reprenne, à condition que les seules migrations en échec soient des rattrapages par lots.
+ * </p>
+ */
+@Slf4j
+public abstract class BatchedBackfillMigration extends BaseJavaMigration {
+
+    /**
+     * Nombre de valeurs de clé traitées par transaction.
+     */
+    public static final String BATCH_SIZE_PROPERTY = "poseidon.migration.backfill.batch-size";
+
+    /**
+     * Pause entre deux lots, en millisecondes.
+     */
+    public static final String PAUSE_MS_PROPERTY = "poseidon.migration.backfill.pause-ms";
+
+    private final int batchSize;
+    private final long pauseMillis;
+
+    /**
+     * Constructeur des migrations déclarées comme beans : taille de lot et pause lues dans la configuration
+     * (par défaut 1000 lignes et 50 ms).
+     *
+     * @param environment l'environnement Spring de l'application.
+     */
+    protected BatchedBackfillMigration(Environment environment) {
+        this(environment.getProperty(BATCH_SIZE_PROPERTY, Integer.class, 1000),
+                environment.getProperty(PAUSE_MS_PROPERTY, Long.class, 50L));
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param batchSize   le nombre de valeurs de clé traitées par transaction.
+     * @param pauseMillis la pause entre deux lots, en millisecondes.
+     */
+    protected BatchedBackfillMigration(int batchSize, long pauseMillis) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être strictement positive.");
+        }
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * La table à rattraper.
+     *
+     * @return le nom de la table.
+     */
+    protected abstract String table();
+
+    /**
+     * La clé primaire numérique de la table, qui découpe les lots.
+     *
+     * @return le nom de la colonne.
+     */
+    protected abstract String keyColumn();
+
+    /**
+     * La mise à jour d'un lot, dont les deux paramètres sont les bornes de clé {@code [début, fin[}, par exemple
+     * {@code UPDATE Trade SET x = ... WHERE TradeId >= ? AND TradeId < ? AND x IS NULL}.
+     *
+     * @return la requête paramétrée.
+     */
+    protected abstract String updateStatement();
+
+    /**
+     * Les lots sont validés un à un : la migration ne s'exécute pas dans une transaction unique.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        long min;
+        long max;
+        try (Statement statement = connection.createStatement();
+             ResultSet bounds = statement.executeQuery(
+                     "SELECT MIN(" + keyColumn() + "), MAX(" + keyColumn() + ") FROM " + table())) {
+            bounds.next();
+            min = bounds.getLong(1);
+            max = bounds.getLong(2);
+            if (bounds.wasNull()) {
+                log.info("Migration {} : table {} vide, rien à rattraper", getVersion(), table());
+                return;
+            }
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long updated = 0;
+        long batches = 0;
+        long start = System.nanoTime();
+        try (PreparedStatement update = connection.prepareStatement(updateStatement())) {
+            for (long from = min; from <= max; from += batchSize) {
+                update.setLong(1, from);
+                update.setLong(2, from + batchSize);
+                updated += update.executeUpdate();
+                connection.commit();
+                batches++;
+                if (batches % 100 == 0) {
+                    log.info("Migration {} : {} lignes mises à jour, clé {} atteinte sur {}",
+                            getVersion(), updated, from + batchSize - 1, max);
+                }
+                if (pauseMillis > 0 && from + batchSize <= max) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        log.info("Migration {} : {} lignes de {} mises à jour en {} lots ({} ms)", getVersion(), updated, table(),
+                batches, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
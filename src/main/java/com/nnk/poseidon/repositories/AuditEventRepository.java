@@ -0,0 +1,29 @@
+package com.nnk.poseidon.repositories;
+
+import com.nnk.poseidon.domain.AuditEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Interface de repository pour la lecture du journal d'audit ({@link AuditEvent}).
+ * <p>
+ * Les insertions ne passent pas par ce repository : elles sont faites par lots JDBC par le
+ * {@link com.nnk.poseidon.services.AuditTrailService}.
+ * </p>
+ */
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    /**
+     * Récupère une page de l'historique d'une ligne, de l'écriture la plus récente à la plus ancienne.
+     * S'appuie sur l'index {@code idx_auditevent_entity}.
+     *
+     * @param entityType le type de la ligne ({@code Trade} ou {@code BidList}).
+     * @param entityId   l'identifiant de la ligne.
+     * @param pageable   la page demandée.
+     * @return la page d'entrées d'audit.
+     */
+    Page<AuditEvent> findByEntityTypeAndEntityIdOrderByIdDesc(String entityType, Integer entityId, Pageable pageable);
+}
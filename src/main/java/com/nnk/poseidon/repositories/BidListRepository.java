@@ -1,9 +1,23 @@
 package com.nnk.poseidon.repositories;
 
 import com.nnk.poseidon.domain.BidList;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Interface de repository pour l'entité {@link BidList}.
  * <p>
@@ -33,8 +47,162 @@ import org.springframework.stereotype.Repository;
 @Repository // Optionnel, mais recommandé pour la clarté et la détection d'exceptions.
 public interface BidListRepository extends JpaRepository<BidList, Integer> {
 
+    /**
+     * Nombre de lignes lues par aller-retour lors d'un parcours en flux.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
     // Aucune implémentation n'est nécessaire ici.
     // Spring Data JPA implémente cette interface pour nous.
     // Il suffit d'ajouter des signatures de méthodes pour des requêtes personnalisées.
 
-}
\ No newline at end of file
+    /**
+     * Offres d'un compte (index {@code idx_bidlist_account}).
+     *
+     * @param account le compte.
+     * @return les offres du compte.
+     */
+    List<BidList> findByAccount(String account);
+
+    /**
+     * Offres d'un book (préfixe de l'index {@code idx_bidlist_book_security}).
+     *
+     * @param book le book.
+     * @return les offres du book.
+     */
+    List<BidList> findByBook(String book);
+
+    /**
+     * Offres d'un book sur un titre (index {@code idx_bidlist_book_security}).
+     *
+     * @param book     le book.
+     * @param security le titre.
+     * @return les offres correspondantes.
+     */
+    List<BidList> findByBookAndSecurity(String book, String security);
+
+    /**
+     * Offres d'un statut (index {@code idx_bidlist_status}).
+     *
+     * @param status le statut.
+     * @return les offres correspondantes.
+     */
+    List<BidList> findByStatus(String status);
+
+    /**
+     * Supprime une offre en une seule requête, sans la charger au préalable.
+     *
+     * @param id l'identifiant de l'offre à supprimer.
+     * @return le nombre de lignes supprimées (0 ou 1).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BidList b where b.bidListId = :id")
+    int deleteByIdReturningCount(@Param("id") Integer id);
+
+    /**
+     * Renvoie, parmi les identifiants donnés, ceux qui existent encore, en verrouillant leurs lignes jusqu'à la
+     * fin de la transaction : une modification ensembliste qui suit ne porte alors que sur ces identifiants.
+     *
+     * @param ids les identifiants demandés.
+     * @return les identifiants existants, par ordre croissant.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.bidListId from BidList b where b.bidListId in :ids order by b.bidListId")
+    List<Integer> lockExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Supprime un ensemble d'offres en une seule requête ensembliste.
+     *
+     * @param ids les identifiants des offres à supprimer.
+     * @return le nombre de lignes supprimées.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BidList b where b.bidListId in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Modifie le statut d'un ensemble d'offres en une seule requête ensembliste.
+     *
+     * @param ids          les identifiants des offres à modifier.
+     * @param status       le nouveau statut.
+     * @param revisionDate la date de révision à enregistrer.
+     * @return le nombre de lignes modifiées.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BidList b set b.status = :status, b.revisionDate = :revisionDate where b.bidListId in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Integer> ids, @Param("status") String status,
+                          @Param("revisionDate") LocalDateTime revisionDate);
+
+    /**
+     * Parcourt toutes les lignes sans charger le résultat complet en mémoire.
+     * <p>
+     * Les lignes sont lues par paquets de {@value #STREAM_FETCH_SIZE} (avec MySQL, nécessite
+     * {@code useCursorFetch=true}) et les entités sont chargées en lecture seule. Le flux doit être
+     * consommé puis fermé dans une transaction.
+     * </p>
+     *
+     * @return le flux de toutes les entités.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BidList> streamAllBy();
+
+    /**
+     * Recherche de repli, utilisée lorsque l'index de recherche est désactivé : offres dont l'un des champs
+     * {@code account}, {@code security}, {@code trader}, {@code book} ou {@code dealName} commence par le préfixe.
+     *
+     * @param prefix   le motif {@code LIKE} en minuscules (préfixe échappé suivi de {@code %}).
+     * @param pageable la limite du nombre de résultats.
+     * @return les offres correspondantes.
+     */
+    @Query("select b from BidList b where lower(b.account) like :prefix escape '\\' or lower(b.security) like :prefix escape '\\'"
+            + " or lower(b.trader) like :prefix escape '\\' or lower(b.book) like :prefix escape '\\'"
+            + " or lower(b.dealName) like :prefix escape '\\'")
+    List<BidList> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Bornes et nombre des identifiants, pour découper une lecture complète en plages.
+     *
+     * @return les bornes et le nombre de lignes.
+     */
+    @Query("select new com.nnk.poseidon.repositories.IdRange(min(b.bidListId), max(b.bidListId), count(b)) from BidList b")
+    IdRange findIdRange();
+
+    /**
+     * Lignes d'une plage d'identifiants (clé primaire), chargées en lecture seule.
+     *
+     * @param from le premier identifiant (inclus).
+     * @param to   le dernier identifiant (inclus).
+     * @return les lignes de la plage.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<BidList> findByBidListIdBetween(Integer from, Integer to);
+
+    /**
+     * Offres d'un ensemble d'identifiants, chargées en lecture seule.
+     *
+     * @param ids les identifiants ; les identifiants inconnus sont ignorés.
+     * @return les offres trouvées.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<BidList> findByBidListIdIn(Collection<Integer> ids);
+
+    /**
+     * Parcourt, par identifiant croissant, les offres pouvant porter un ordre : titre renseigné, statut ni
+     * {@code Filled}, ni {@code Closed}, ni {@code Cancelled}, et un prix avec une quantité positive à l'achat ou
+     * à la vente. Le flux doit être consommé puis fermé dans une transaction.
+     *
+     * @return le flux des offres.
+     */
+    @Query("select b from BidList b where b.security is not null"
+            + " and (b.status is null or upper(b.status) not in ('FILLED', 'CLOSED', 'CANCELLED'))"
+            + " and ((b.bid is not null and b.bidQuantity > 0) or (b.ask is not null and b.askQuantity > 0))"
+            + " order by b.bidListId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BidList> streamOpenOrders();
+}
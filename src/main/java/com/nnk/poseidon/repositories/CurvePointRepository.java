@@ -1,10 +1,16 @@
 package com.nnk.poseidon.repositories;
 
 import com.nnk.poseidon.domain.CurvePoint;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import java.util.List; // Importation pour l'exemple dans la Javadoc
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface de repository pour la persistance des entités {@link CurvePoint}.
@@ -34,7 +40,79 @@ import java.util.List; // Importation pour l'exemple dans la Javadoc
 @Repository // Optionnel mais recommandé pour la sémantique et pour activer la traduction d'exceptions.
 public interface CurvePointRepository extends JpaRepository<CurvePoint, Integer> {
 
+    /**
+     * Nombre de lignes lues par aller-retour lors d'un parcours en flux.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
     // Aucune méthode à implémenter ici.
     // Les requêtes personnalisées peuvent être ajoutées en suivant les conventions de Spring Data.
 
+    /**
+     * Points d'une courbe, triés par date de valeur puis par terme
+     * (index {@code idx_curvepoint_curve_as_of_date_term}, sans tri supplémentaire).
+     *
+     * @param curveId l'identifiant de la courbe.
+     * @return les points de la courbe.
+     */
+    List<CurvePoint> findByCurveIdOrderByAsOfDateAscTermAsc(Integer curveId);
+
+    /**
+     * Points d'une courbe à une date de valeur, triés par terme
+     * (index {@code idx_curvepoint_curve_as_of_date_term}, sans tri supplémentaire).
+     *
+     * @param curveId  l'identifiant de la courbe.
+     * @param asOfDate la date de valeur.
+     * @return les points de la courbe à cette date.
+     */
+    List<CurvePoint> findByCurveIdAndAsOfDateOrderByTermAsc(Integer curveId, LocalDateTime asOfDate);
+
+    /**
+     * Parcourt toutes les lignes sans charger le résultat complet en mémoire.
+     * <p>
+     * Les lignes sont lues par paquets de {@value #STREAM_FETCH_SIZE} (avec MySQL, nécessite
+     * {@code useCursorFetch=true}) et les entités sont chargées en lecture seule. Le flux doit être
+     * consommé puis fermé dans une transaction.
+     * </p>
+     *
+     * @return le flux de toutes les entités.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CurvePoint> streamAllBy();
+
+    /**
+     * Parcourt toutes les lignes dans l'ordre d'enregistrement (identifiant croissant), sans charger le résultat
+     * complet en mémoire : un point lu après un autre de même courbe, date et terme l'a remplacé.
+     * <p>
+     * Mêmes conditions de lecture que {@link #streamAllBy()}.
+     * </p>
+     *
+     * @return le flux de toutes les entités, par identifiant croissant.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CurvePoint> streamAllByOrderByIdAsc();
+
+    /**
+     * Bornes et nombre des identifiants, pour découper une lecture complète en plages.
+     *
+     * @return les bornes et le nombre de lignes.
+     */
+    @Query("select new com.nnk.poseidon.repositories.IdRange(min(c.id), max(c.id), count(c)) from CurvePoint c")
+    IdRange findIdRange();
+
+    /**
+     * Lignes d'une plage d'identifiants (clé primaire), chargées en lecture seule.
+     *
+     * @param from le premier identifiant (inclus).
+     * @param to   le dernier identifiant (inclus).
+     * @return les lignes de la plage.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<CurvePoint> findByIdBetween(Integer from, Integer to);
 }
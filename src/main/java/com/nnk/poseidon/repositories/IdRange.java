@@ -0,0 +1,11 @@
+package com.nnk.poseidon.repositories;
+
+/**
+ * Bornes et nombre des identifiants d'une table, pour découper une lecture complète en plages.
+ *
+ * @param min   le plus petit identifiant, ou {@code null} si la table est vide.
+ * @param max   le plus grand identifiant, ou {@code null} si la table est vide.
+ * @param count le nombre de lignes.
+ */
+public record IdRange(Integer min, Integer max, long count) {
+}
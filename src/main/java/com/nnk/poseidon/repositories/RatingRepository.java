@@ -1,7 +1,10 @@
 package com.nnk.poseidon.repositories;
 
 import com.nnk.poseidon.domain.Rating;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List; // Importation pour l'exemple dans la Javadoc
@@ -39,4 +42,18 @@ public interface RatingRepository extends JpaRepository<Rating, Integer> {
     // Aucune méthode n'est nécessaire ici pour les opérations de base.
     // Les requêtes personnalisées sont définies par leur simple signature.
 
-}
\ No newline at end of file
+    /**
+     * Récupère toutes les notations en passant par le cache de requêtes Hibernate.
+     * <p>
+     * Le résultat est invalidé automatiquement dès qu'une écriture touche la table.
+     * </p>
+     *
+     * @return la liste de toutes les entités {@link Rating}.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "poseidon.query.reference")
+    })
+    List<Rating> findAll();
+}
@@ -1,9 +1,13 @@
 package com.nnk.poseidon.repositories;
 
 import com.nnk.poseidon.domain.RuleName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional; // Importation pour l'exemple dans la Javadoc
 
 /**
@@ -40,4 +44,18 @@ public interface RuleNameRepository extends JpaRepository<RuleName, Integer> {
     // Aucune implémentation n'est requise pour les opérations de base.
     // Il suffit de déclarer les signatures des méthodes pour les requêtes personnalisées.
 
-}
\ No newline at end of file
+    /**
+     * Récupère toutes les règles en passant par le cache de requêtes Hibernate.
+     * <p>
+     * Le résultat est invalidé automatiquement dès qu'une écriture touche la table.
+     * </p>
+     *
+     * @return la liste de toutes les entités {@link RuleName}.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "poseidon.query.reference")
+    })
+    List<RuleName> findAll();
+}
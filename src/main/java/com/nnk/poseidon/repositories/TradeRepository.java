@@ -1,10 +1,22 @@
 package com.nnk.poseidon.repositories;
 
 import com.nnk.poseidon.domain.Trade;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List; // Importation pour l'exemple dans la Javadoc
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface de repository pour la gestion des entités {@link Trade}.
@@ -36,7 +48,194 @@ import java.util.List; // Importation pour l'exemple dans la Javadoc
 @Repository // Recommandé pour la sémantique de la couche de persistance et pour la traduction d'exceptions.
 public interface TradeRepository extends JpaRepository<Trade, Integer> {
 
+    /**
+     * Nombre de lignes lues par aller-retour lors d'un parcours en flux.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
     // Aucune implémentation n'est requise ici pour les opérations de base.
     // Les requêtes personnalisées sont définies par leur simple signature.
 
-}
\ No newline at end of file
+    /**
+     * Trades d'un compte (index {@code idx_trade_account}).
+     *
+     * @param account le compte.
+     * @return les trades du compte.
+     */
+    List<Trade> findByAccount(String account);
+
+    /**
+     * Trades d'un book (préfixe de l'index {@code idx_trade_book_security}).
+     *
+     * @param book le book.
+     * @return les trades du book.
+     */
+    List<Trade> findByBook(String book);
+
+    /**
+     * Trades d'un book sur un titre (index {@code idx_trade_book_security}).
+     *
+     * @param book     le book.
+     * @param security le titre.
+     * @return les trades correspondants.
+     */
+    List<Trade> findByBookAndSecurity(String book, String security);
+
+    /**
+     * Trades d'un trader, du plus récent au plus ancien (index {@code idx_trade_trader_trade_date}).
+     *
+     * @param trader le trader.
+     * @return les trades du trader.
+     */
+    List<Trade> findByTraderOrderByTradeDateDesc(String trader);
+
+    /**
+     * Trades d'un trader conclus sur une période, du plus récent au plus ancien
+     * (index {@code idx_trade_trader_trade_date}).
+     *
+     * @param trader le trader.
+     * @param from   le début de la période (inclus).
+     * @param to     la fin de la période (incluse).
+     * @return les trades correspondants.
+     */
+    List<Trade> findByTraderAndTradeDateBetweenOrderByTradeDateDesc(String trader, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Trades d'un statut (index {@code idx_trade_status}).
+     *
+     * @param status le statut.
+     * @return les trades correspondants.
+     */
+    List<Trade> findByStatus(String status);
+
+    /**
+     * Supprime un trade en une seule requête, sans le charger au préalable.
+     *
+     * @param id l'identifiant du trade à supprimer.
+     * @return le nombre de lignes supprimées (0 ou 1).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Trade t where t.tradeId = :id")
+    int deleteByIdReturningCount(@Param("id") Integer id);
+
+    /**
+     * Renvoie, parmi les identifiants donnés, ceux qui existent encore, en verrouillant leurs lignes jusqu'à la
+     * fin de la transaction : une modification ensembliste qui suit ne porte alors que sur ces identifiants.
+     *
+     * @param ids les identifiants demandés.
+     * @return les identifiants existants, par ordre croissant.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.tradeId from Trade t where t.tradeId in :ids order by t.tradeId")
+    List<Integer> lockExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Supprime un ensemble de trades en une seule requête ensembliste.
+     *
+     * @param ids les identifiants des trades à supprimer.
+     * @return le nombre de lignes supprimées.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Trade t where t.tradeId in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Modifie le statut d'un ensemble de trades en une seule requête ensembliste.
+     *
+     * @param ids          les identifiants des trades à modifier.
+     * @param status       le nouveau statut.
+     * @param revisionDate la date de révision à enregistrer.
+     * @return le nombre de lignes modifiées.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Trade t set t.status = :status, t.revisionDate = :revisionDate where t.tradeId in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Integer> ids, @Param("status") String status,
+                          @Param("revisionDate") LocalDateTime revisionDate);
+
+    /**
+     * Parcourt toutes les lignes sans charger le résultat complet en mémoire.
+     * <p>
+     * Les lignes sont lues par paquets de {@value #STREAM_FETCH_SIZE} (avec MySQL, nécessite
+     * {@code useCursorFetch=true}) et les entités sont chargées en lecture seule. Le flux doit être
+     * consommé puis fermé dans une transaction.
+     * </p>
+     *
+     * @return le flux de toutes les entités.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Trade> streamAllBy();
+
+    /**
+     * Recherche de repli, utilisée lorsque l'index de recherche est désactivé : trades dont l'un des champs
+     * {@code account}, {@code security}, {@code trader}, {@code book} ou {@code dealName} commence par le préfixe.
+     *
+     * @param prefix   le motif {@code LIKE} en minuscules (préfixe échappé suivi de {@code %}).
+     * @param pageable la limite du nombre de résultats.
+     * @return les trades correspondants.
+     */
+    @Query("select t from Trade t where lower(t.account) like :prefix escape '\\' or lower(t.security) like :prefix escape '\\'"
+            + " or lower(t.trader) like :prefix escape '\\' or lower(t.book) like :prefix escape '\\'"
+            + " or lower(t.dealName) like :prefix escape '\\'")
+    List<Trade> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Trades d'un titre conclus sur une période, dans l'ordre de conclusion (index {@code idx_trade_security_trade_date}),
+     * chargés en lecture seule : recalcul des barres d'une minute après une correction.
+     *
+     * @param security le titre.
+     * @param from     le début de la période (inclus).
+     * @param to       la fin de la période (exclue).
+     * @return les trades de la période.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select t from Trade t where t.security = :security and t.tradeDate >= :from and t.tradeDate < :to"
+            + " order by t.tradeDate, t.tradeId")
+    List<Trade> findBarTrades(@Param("security") String security, @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to);
+
+    /**
+     * Parcourt les trades ayant un titre et une date de conclusion, titre par titre et dans l'ordre de conclusion
+     * (index {@code idx_trade_security_trade_date}) : reconstruction complète des barres. Comme pour
+     * {@link #streamAllBy()}, le flux doit être consommé puis fermé dans une transaction.
+     *
+     * @return le flux des entités, en lecture seule.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Trade t where t.security is not null and t.tradeDate is not null"
+            + " order by t.security, t.tradeDate, t.tradeId")
+    Stream<Trade> streamBarTrades();
+
+    /**
+     * Titre et date de conclusion des trades désignés, lus avant leur suppression pour corriger leurs barres.
+     *
+     * @param ids les identifiants des trades.
+     * @return un tableau {@code [security, tradeDate]} par trade ayant un titre et une date.
+     */
+    @Query("select t.security, t.tradeDate from Trade t where t.tradeId in :ids"
+            + " and t.security is not null and t.tradeDate is not null")
+    List<Object[]> findBarKeys(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Bornes et nombre des identifiants, pour découper une lecture complète en plages.
+     *
+     * @return les bornes et le nombre de lignes.
+     */
+    @Query("select new com.nnk.poseidon.repositories.IdRange(min(t.tradeId), max(t.tradeId), count(t)) from Trade t")
+    IdRange findIdRange();
+
+    /**
+     * Lignes d'une plage d'identifiants (clé primaire), chargées en lecture seule.
+     *
+     * @param from le premier identifiant (inclus).
+     * @param to   le dernier identifiant (inclus).
+     * @return les lignes de la plage.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Trade> findByTradeIdBetween(Integer from, Integer to);
+}
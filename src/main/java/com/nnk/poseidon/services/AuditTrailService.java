@@ -0,0 +1,235 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alimentation du journal d'audit en ajout seul (table {@code AuditEvent}) des trades et des offres.
+ * <p>
+ * {@link TradeService}, {@link BidListService} et le mode write-behind publient un {@link EntityAuditedEvent}
+ * dans la transaction d'écriture ; après le commit, l'événement est simplement mis en file. Un thread dédié
+ * calcule ensuite le différentiel des champs et insère les entrées par lots JDBC : le chemin d'écriture ne
+ * paie ni la sérialisation ni l'insertion, et une transaction annulée ne laisse aucune trace dans le journal.
+ * </p>
+ * <p>
+ * Actif par défaut ; désactivable avec {@code poseidon.audit.enabled=false}. Les entrées encore en file
+ * à l'arrêt de l'application sont insérées avant la fermeture.
+ * </p>
+ * <p>
+ * Un lot refusé alors que la base est joignable est repris entrée par entrée : les entrées rejetées
+ * (contrainte violée, état non sérialisable…) sont consignées dans le log d'erreurs puis abandonnées,
+ * pour ne pas bloquer le journal. Seule une base indisponible fait réessayer le lot indéfiniment.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditTrailService {
+
+    private static final String INSERT_SQL = "INSERT INTO AuditEvent (entityType, entityId, action, actor, occurredAt, changes) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Champs exclus du différentiel : l'identifiant, et les colonnes de création et de révision que le journal remplace.
+     */
+    private static final Set<String> IGNORED_FIELDS = Set.of("tradeId", "bidListId",
+            "creationName", "creationDate", "revisionName", "revisionDate");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final BlockingQueue<EntityAuditedEvent> pending = new LinkedBlockingQueue<>();
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param jdbcTemplate       accès JDBC utilisé pour insérer les lots.
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param objectMapper       le mapper JSON de l'application, pour comparer les états et écrire le différentiel.
+     * @param batchSize          le nombre maximal d'entrées insérées par transaction.
+     */
+    public AuditTrailService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${poseidon.audit.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Démarre le thread d'écriture du journal.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Arrête le thread d'écriture après avoir inséré les entrées en attente.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.warn("{} entrées d'audit n'ont pas pu être écrites avant l'arrêt", pending.size());
+        }
+    }
+
+    /**
+     * Met en file une écriture auditée, une fois sa transaction validée.
+     *
+     * @param event l'événement publié par l'écriture.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityAudited(EntityAuditedEvent event) {
+        pending.add(event);
+    }
+
+    private void writeLoop() {
+        List<EntityAuditedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    EntityAuditedEvent first = pending.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, batchSize - 1);
+                }
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Base indisponible : le reste du lot est conservé et réessayé.
+                log.error("Échec de l'écriture de {} entrées d'audit, nouvel essai : {}", batch.size(), e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void write(List<EntityAuditedEvent> batch) {
+        try {
+            List<Object[]> rows = batch.stream().map(this::row).toList();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            log.debug("{} entrées d'audit écrites", rows.size());
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                throw e;
+            }
+            log.warn("Lot de {} entrées d'audit refusé, écriture entrée par entrée : {}", batch.size(), e.getMessage());
+            writeOneByOne(batch);
+        }
+    }
+
+    /**
+     * Écrit les entrées une à une, en retirant du lot chacune dès qu'elle est écrite ou abandonnée : si la base
+     * devient indisponible en cours de route, seules les entrées restantes sont réessayées.
+     */
+    private void writeOneByOne(List<EntityAuditedEvent> batch) {
+        for (Iterator<EntityAuditedEvent> events = batch.iterator(); events.hasNext(); ) {
+            EntityAuditedEvent event = events.next();
+            try {
+                Object[] row = row(event);
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, row));
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    throw e;
+                }
+                log.error("Entrée d'audit rejetée et abandonnée : {} {} {} par {} le {} : {}", event.entityType(),
+                        event.entityId(), event.action(), event.actor(), event.occurredAt(), e.getMessage());
+            }
+            events.remove();
+        }
+    }
+
+    private Object[] row(EntityAuditedEvent event) {
+        return new Object[]{event.entityType(), event.entityId(), event.action().name(), event.actor(),
+                Timestamp.valueOf(event.occurredAt()), diff(event.before(), event.after())};
+    }
+
+    /**
+     * Indique si l'échec tient à la base (indisponible, verrou, délai dépassé) plutôt qu'aux entrées elles-mêmes.
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    /**
+     * Calcule le différentiel compact de deux états : {@code {"champ":[avant, après]}} pour chaque champ
+     * dont la valeur change, hors {@link #IGNORED_FIELDS}. Un état avant inconnu est traité comme vide.
+     *
+     * @param before l'état avant l'écriture, ou {@code null}.
+     * @param after  l'état après l'écriture, ou {@code null} pour une suppression.
+     * @return le différentiel en JSON, ou {@code null} pour une suppression.
+     */
+    String diff(Object before, Object after) {
+        if (after == null) {
+            return null;
+        }
+        JsonNode previous = before == null ? objectMapper.createObjectNode() : objectMapper.valueToTree(before);
+        JsonNode current = objectMapper.valueToTree(after);
+        ObjectNode changes = objectMapper.createObjectNode();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = current.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode oldValue = previous.path(field.getKey());
+            JsonNode newValue = field.getValue();
+            boolean unchanged = oldValue.equals(newValue) || (newValue.isNull() && oldValue.isMissingNode());
+            if (!unchanged && !IGNORED_FIELDS.contains(field.getKey())) {
+                changes.putArray(field.getKey())
+                        .add(oldValue.isMissingNode() ? objectMapper.nullNode() : oldValue)
+                        .add(newValue);
+            }
+        }
+        return changes.toString();
+    }
+}
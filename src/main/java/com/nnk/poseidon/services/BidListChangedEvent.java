@@ -0,0 +1,26 @@
+package com.nnk.poseidon.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Événement publié par les écritures d'offres, au sein de la transaction qui les porte.
+ * <p>
+ * Les écouteurs {@code @TransactionalEventListener} ne le reçoivent qu'une fois la transaction validée ;
+ * ils relisent alors l'état courant des offres concernées (une offre absente a été supprimée).
+ * </p>
+ *
+ * @param bidListIds les identifiants des offres créées, modifiées ou supprimées.
+ */
+public record BidListChangedEvent(Collection<Integer> bidListIds) {
+
+    /**
+     * Événement portant sur une seule offre.
+     *
+     * @param bidListId l'identifiant de l'offre.
+     * @return l'événement.
+     */
+    public static BidListChangedEvent of(Integer bidListId) {
+        return new BidListChangedEvent(List.of(bidListId));
+    }
+}
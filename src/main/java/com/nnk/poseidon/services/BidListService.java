@@ -2,16 +2,28 @@ package com.nnk.poseidon.services;
 
 import com.nnk.poseidon.domain.BidList;
 import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.BidListFilter;
 import com.nnk.poseidon.repositories.BidListRepository;
+import com.nnk.poseidon.repositories.IdRange;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service pour la gestion de la logique métier liée aux entités {@link BidList}.
@@ -21,6 +33,9 @@ import java.util.stream.Collectors;
  * et les Data Transfer Objects ({@link BidListDTO}). Elle agit comme un intermédiaire entre
  * la couche de contrôleur et la couche de persistance.
  * </p>
+ * <p>
+ * Chaque écriture publie un {@link EntityAuditedEvent}, consigné hors du chemin d'écriture dans le journal d'audit.
+ * </p>
  *
  * @see BidListDTO Le DTO utilisé pour les échanges de données.
  * @see BidList L'entité JPA gérée par ce service.
@@ -30,16 +45,41 @@ import java.util.stream.Collectors;
 @Service
 public class BidListService {
 
+    /**
+     * Longueur maximale de la colonne {@code status}.
+     */
+    private static final int STATUS_MAX_LENGTH = 10;
+
     private final BidListRepository bidListRepository;
+    private final EntityManager entityManager;
+    private final TransactionBatchingExecutor transactionBatchingExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<SearchIndexService> searchProvider;
+    private final ObjectProvider<ParallelChunkMapper> parallelMapperProvider;
 
     /**
      * Constructeur pour l'injection de dépendances.
      *
      * @param bidListRepository Le repository pour l'accès aux données des BidList, injecté par Spring.
+     * @param entityManager Le contexte de persistance, pour détacher les entités lues en flux.
+     * @param transactionBatchingExecutor L'exécuteur regroupant les sauvegardes concurrentes en une transaction.
+     * @param eventPublisher Publie un {@link BidListChangedEvent} à chaque écriture.
+     * @param searchProvider Fournit le {@link SearchIndexService} lorsque l'index de recherche est actif.
+     * @param parallelMapperProvider Fournit le {@link ParallelChunkMapper} des lectures complètes volumineuses.
      */
     @Autowired
-    public BidListService(BidListRepository bidListRepository) {
+    public BidListService(BidListRepository bidListRepository,
+                          EntityManager entityManager,
+                          TransactionBatchingExecutor transactionBatchingExecutor,
+                          ApplicationEventPublisher eventPublisher,
+                          ObjectProvider<SearchIndexService> searchProvider,
+                          ObjectProvider<ParallelChunkMapper> parallelMapperProvider) {
         this.bidListRepository = bidListRepository;
+        this.entityManager = entityManager;
+        this.transactionBatchingExecutor = transactionBatchingExecutor;
+        this.eventPublisher = eventPublisher;
+        this.searchProvider = searchProvider;
+        this.parallelMapperProvider = parallelMapperProvider;
     }
 
     /**
@@ -58,6 +98,10 @@ public class BidListService {
         dto.setType(bidList.getType());
         dto.setBidQuantity(bidList.getBidQuantity());
         dto.setCreationDate(bidList.getCreationDate());
+        dto.setSecurity(bidList.getSecurity());
+        dto.setBid(bidList.getBid());
+        dto.setAskQuantity(bidList.getAskQuantity());
+        dto.setAsk(bidList.getAsk());
         return dto;
     }
 
@@ -80,23 +124,82 @@ public class BidListService {
         entity.setAccount(bidListDTO.getAccount());
         entity.setType(bidListDTO.getType());
         entity.setBidQuantity(bidListDTO.getBidQuantity());
+        entity.setSecurity(bidListDTO.getSecurity());
+        entity.setBid(bidListDTO.getBid());
+        entity.setAskQuantity(bidListDTO.getAskQuantity());
+        entity.setAsk(bidListDTO.getAsk());
         return entity;
     }
 
     /**
      * Récupère toutes les offres (bids) et les convertit en une liste de DTOs.
-     * L'opération est exécutée dans une transaction en lecture seule pour des raisons de performance.
+     * Au-delà du seuil du {@link ParallelChunkMapper}, la table est lue et convertie par plages d'identifiants
+     * en parallèle. Sans transaction englobante : chaque lecture a la sienne, en lecture seule, et l'appelant
+     * ne garde pas de connexion pendant que les threads du pool en occupent une chacun.
      *
      * @return Une liste de {@link BidListDTO}, potentiellement vide si aucune offre n'est trouvée.
      */
-    @Transactional(readOnly = true)
     public List<BidListDTO> findAll() {
         log.debug("Récupération de toutes les BidLists et conversion en DTOs");
+        ParallelChunkMapper parallelMapper = parallelMapperProvider.getIfAvailable();
+        if (parallelMapper != null) {
+            IdRange range = bidListRepository.findIdRange();
+            if (parallelMapper.shouldSplit(range)) {
+                return parallelMapper.map(range, bidListRepository::findByBidListIdBetween, this::convertToDTO);
+            }
+        }
         return bidListRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère les offres répondant à un critère, en s'appuyant sur l'index secondaire correspondant.
+     *
+     * @param filter le critère : compte, book (et titre) ou statut.
+     * @return les offres correspondantes.
+     * @throws IllegalArgumentException si aucun critère, plusieurs critères ou un critère incomplet sont fournis.
+     */
+    @Transactional(readOnly = true)
+    public List<BidListDTO> findAll(BidListFilter filter) {
+        long criteria = Stream.of(filter.account(), filter.book(), filter.status()).filter(Objects::nonNull).count();
+        if (criteria != 1) {
+            throw new IllegalArgumentException("Un seul critère de filtre est accepté : account, book ou status.");
+        }
+        if (filter.security() != null && filter.book() == null) {
+            throw new IllegalArgumentException("Le filtre security s'utilise avec book.");
+        }
+        log.debug("Récupération des BidLists filtrées : {}", filter);
+        List<BidList> bidLists;
+        if (filter.account() != null) {
+            bidLists = bidListRepository.findByAccount(filter.account());
+        } else if (filter.book() != null) {
+            bidLists = filter.security() != null
+                    ? bidListRepository.findByBookAndSecurity(filter.book(), filter.security())
+                    : bidListRepository.findByBook(filter.book());
+        } else {
+            bidLists = bidListRepository.findByStatus(filter.status());
+        }
+        return bidLists.stream().map(this::convertToDTO).toList();
+    }
+
+    /**
+     * Parcourt tous les offres en flux et transmet chaque DTO à l'action fournie, sans construire la liste complète.
+     * Chaque entité est détachée du contexte de persistance dès sa conversion, la mémoire consommée
+     * reste donc constante quel que soit le nombre de lignes.
+     *
+     * @param action l'action appliquée à chaque {@link BidListDTO}, dans l'ordre de lecture.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<BidListDTO> action) {
+        try (Stream<BidList> bidLists = bidListRepository.streamAllBy()) {
+            bidLists.forEach(bidList -> {
+                action.accept(convertToDTO(bidList));
+                entityManager.detach(bidList);
+            });
+        }
+    }
+
     /**
      * Recherche une offre par son identifiant unique (ID).
      *
@@ -114,6 +217,32 @@ public class BidListService {
         return bidListRepository.findById(id).map(this::convertToDTO);
     }
 
+    /**
+     * Recherche les offres dont {@code account}, {@code security}, {@code trader}, {@code book} ou
+     * {@code dealName} commence par les mots saisis (ou en est proche), de la plus pertinente à la moins pertinente.
+     * Sans index de recherche, se rabat sur une recherche SQL par préfixe de la saisie entière.
+     *
+     * @param query La saisie de l'utilisateur.
+     * @param limit Le nombre maximal de résultats.
+     * @return Les offres trouvées.
+     */
+    @Transactional(readOnly = true)
+    public List<BidListDTO> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        SearchIndexService search = searchProvider.getIfAvailable();
+        if (search == null) {
+            return bidListRepository.searchByPrefix(SearchIndexService.likePrefix(query), PageRequest.of(0, limit))
+                    .stream().map(this::convertToDTO).toList();
+        }
+        List<Integer> ids = search.search(SearchIndex.BID_LIST, query, limit).stream().map(SearchIndex.Entry::id).toList();
+        Map<Integer, BidList> bidListsById = bidListRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(BidList::getBidListId, Function.identity()));
+        // Ordre de pertinence de l'index ; une offre supprimée depuis sa dernière indexation est ignorée.
+        return ids.stream().map(bidListsById::get).filter(Objects::nonNull).map(this::convertToDTO).toList();
+    }
+
     /**
      * Sauvegarde une nouvelle offre ou met à jour une offre existante à partir d'un DTO.
      * <p>
@@ -123,47 +252,97 @@ public class BidListService {
      *     <li><b>Mise à jour :</b> Si l'ID est non nul, l'entité existante est récupérée, ses champs sont mis à jour,
      *     et la {@code revisionDate} est actualisée.</li>
      * </ul>
-     * L'opération est transactionnelle, garantissant l'atomicité de la sauvegarde.
+     * L'opération est transactionnelle, garantissant l'atomicité de la sauvegarde ; elle peut partager sa
+     * transaction avec d'autres écritures concurrentes via le {@link TransactionBatchingExecutor}.
      *
      * @param bidListDTO Le DTO contenant les données de l'offre à sauvegarder. Ne doit pas être nul.
      * @return Le DTO représentant l'entité sauvegardée, avec son ID mis à jour si c'était une création.
      * @throws IllegalArgumentException si {@code bidListDTO} est nul, ou si une mise à jour est tentée
      *                                  pour un ID qui n'existe pas en base de données.
      */
-    @Transactional
     public BidListDTO save(BidListDTO bidListDTO) {
         if (bidListDTO == null) {
             log.error("Tentative de sauvegarde d'un objet BidListDTO nul");
             throw new IllegalArgumentException("L'objet BidListDTO ne peut pas être nul.");
         }
 
-        BidList bidListToSave;
-        if (bidListDTO.getBidListId() == null) { // Création
-            log.info("Création d'un nouveau BidList à partir du DTO : {}", bidListDTO);
-            bidListToSave = convertToEntity(bidListDTO);
-            bidListToSave.setCreationDate(LocalDateTime.now());
-        } else { // Mise à jour
-            log.info("Mise à jour du BidList existant avec id {} à partir du DTO : {}", bidListDTO.getBidListId(), bidListDTO);
-            BidList existingBidList = bidListRepository.findById(bidListDTO.getBidListId())
-                    .orElseThrow(() -> {
-                        log.warn("BidList non trouvé pour la mise à jour avec id : {}", bidListDTO.getBidListId());
-                        return new IllegalArgumentException("Mise à jour impossible : BidList non trouvé avec id: " + bidListDTO.getBidListId());
-                    });
-
-            existingBidList.setAccount(bidListDTO.getAccount());
-            existingBidList.setType(bidListDTO.getType());
-            existingBidList.setBidQuantity(bidListDTO.getBidQuantity());
-            existingBidList.setRevisionDate(LocalDateTime.now());
-            bidListToSave = existingBidList;
-        }
-
-        BidList savedEntity = bidListRepository.save(bidListToSave);
-        log.info("BidList sauvegardé avec succès : {}", savedEntity);
-        return convertToDTO(savedEntity);
+        return transactionBatchingExecutor.execute(() -> {
+            String actor = EntityAuditedEvent.currentActor();
+            BidList bidListToSave;
+            BidListDTO before = null;
+            if (bidListDTO.getBidListId() == null) { // Création
+                log.info("Création d'un nouveau BidList à partir du DTO : {}", bidListDTO);
+                bidListToSave = convertToEntity(bidListDTO);
+                bidListToSave.setCreationDate(LocalDateTime.now());
+                bidListToSave.setCreationName(actor);
+            } else { // Mise à jour
+                log.info("Mise à jour du BidList existant avec id {} à partir du DTO : {}", bidListDTO.getBidListId(), bidListDTO);
+                BidList existingBidList = bidListRepository.findById(bidListDTO.getBidListId())
+                        .orElseThrow(() -> {
+                            log.warn("BidList non trouvé pour la mise à jour avec id : {}", bidListDTO.getBidListId());
+                            return new IllegalArgumentException("Mise à jour impossible : BidList non trouvé avec id: " + bidListDTO.getBidListId());
+                        });
+
+                before = convertToDTO(existingBidList);
+                existingBidList.setAccount(bidListDTO.getAccount());
+                existingBidList.setType(bidListDTO.getType());
+                existingBidList.setBidQuantity(bidListDTO.getBidQuantity());
+                // Les champs d'ordre absents du DTO (formulaires) restent inchangés.
+                Optional.ofNullable(bidListDTO.getSecurity()).ifPresent(existingBidList::setSecurity);
+                Optional.ofNullable(bidListDTO.getBid()).ifPresent(existingBidList::setBid);
+                Optional.ofNullable(bidListDTO.getAskQuantity()).ifPresent(existingBidList::setAskQuantity);
+                Optional.ofNullable(bidListDTO.getAsk()).ifPresent(existingBidList::setAsk);
+                existingBidList.setRevisionDate(LocalDateTime.now());
+                existingBidList.setRevisionName(actor);
+                bidListToSave = existingBidList;
+            }
+
+            BidList savedEntity = bidListRepository.save(bidListToSave);
+            BidListDTO saved = convertToDTO(savedEntity);
+            eventPublisher.publishEvent(BidListChangedEvent.of(savedEntity.getBidListId()));
+            eventPublisher.publishEvent(before == null
+                    ? EntityAuditedEvent.created(EntityAuditedEvent.BID_LIST, saved.getBidListId(), saved)
+                    : EntityAuditedEvent.updated(EntityAuditedEvent.BID_LIST, saved.getBidListId(), before, saved));
+            log.info("BidList sauvegardé avec succès : {}", savedEntity);
+            return saved;
+        });
+    }
+
+    /**
+     * Importe un lot de nouvelles offres dans une même transaction.
+     * Les identifiants éventuellement fournis sont ignorés.
+     *
+     * @param bidListDTOs Les offres à créer.
+     * @return Le nombre d'offres importées.
+     */
+    @Transactional
+    public int importAll(List<BidListDTO> bidListDTOs) {
+        LocalDateTime now = LocalDateTime.now();
+        String actor = EntityAuditedEvent.currentActor();
+        List<BidList> entities = bidListDTOs.stream()
+                .map(dto -> {
+                    BidList entity = convertToEntity(dto);
+                    entity.setBidListId(null);
+                    entity.setCreationDate(now);
+                    entity.setCreationName(actor);
+                    return entity;
+                })
+                .toList();
+        List<BidList> saved = bidListRepository.saveAll(entities);
+        eventPublisher.publishEvent(new BidListChangedEvent(saved.stream().map(BidList::getBidListId).toList()));
+        saved.forEach(bidList -> eventPublisher.publishEvent(
+                EntityAuditedEvent.created(EntityAuditedEvent.BID_LIST, bidList.getBidListId(), convertToDTO(bidList))));
+        int imported = saved.size();
+        log.info("{} BidList importé(s)", imported);
+        return imported;
     }
 
     /**
      * Supprime une offre par son identifiant unique (ID).
+     * <p>
+     * La suppression est faite en une seule requête ; le nombre de lignes supprimées indique
+     * si l'offre existait.
+     * </p>
      *
      * @param id L'identifiant (clé primaire) de l'offre à supprimer.
      * @throws IllegalArgumentException si l'ID est nul ou si aucune offre avec cet ID n'est trouvée
@@ -175,11 +354,69 @@ public class BidListService {
             log.warn("Tentative de suppression de BidList avec un ID nul");
             throw new IllegalArgumentException("L'ID pour la suppression ne peut pas être nul.");
         }
-        if (!bidListRepository.existsById(id)) {
+        log.info("Suppression du BidList avec id : {}", id);
+        if (bidListRepository.deleteByIdReturningCount(id) == 0) {
             log.warn("Tentative de suppression d'un BidList non existant avec id : {}", id);
             throw new IllegalArgumentException("BidList non trouvé avec id : " + id + " pour suppression.");
         }
-        log.info("Suppression du BidList avec id : {}", id);
-        bidListRepository.deleteById(id);
+        eventPublisher.publishEvent(BidListChangedEvent.of(id));
+        eventPublisher.publishEvent(EntityAuditedEvent.deleted(EntityAuditedEvent.BID_LIST, id));
+    }
+
+    /**
+     * Supprime un ensemble d'offres en une seule requête ensembliste.
+     * Les offres existantes sont relues et verrouillées avant la suppression : seules elles donnent lieu
+     * à un événement et à une entrée d'audit.
+     *
+     * @param ids Les identifiants des offres à supprimer ; les identifiants inconnus sont ignorés.
+     * @return Le nombre d'offres effectivement supprimées.
+     */
+    @Transactional
+    public int deleteAllById(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Integer> existing = bidListRepository.lockExistingIds(ids);
+        if (existing.isEmpty()) {
+            log.info("Suppression groupée : aucun des {} BidList demandés n'existe", ids.size());
+            return 0;
+        }
+        int deleted = bidListRepository.deleteAllByIds(existing);
+        eventPublisher.publishEvent(new BidListChangedEvent(existing));
+        existing.forEach(id -> eventPublisher.publishEvent(EntityAuditedEvent.deleted(EntityAuditedEvent.BID_LIST, id)));
+        log.info("Suppression groupée : {} BidList supprimés sur {} demandés", deleted, ids.size());
+        return deleted;
+    }
+
+    /**
+     * Modifie le statut d'un ensemble d'offres en une seule requête ensembliste.
+     * La {@code revisionDate} des offres modifiées est actualisée. Seules les offres existantes, relues et
+     * verrouillées avant la modification, donnent lieu à un événement et à une entrée d'audit.
+     *
+     * @param ids    Les identifiants des offres à modifier ; les identifiants inconnus sont ignorés.
+     * @param status Le nouveau statut (10 caractères au plus).
+     * @return Le nombre d'offres effectivement modifiées.
+     * @throws IllegalArgumentException si le statut est vide ou trop long.
+     */
+    @Transactional
+    public int updateStatus(Collection<Integer> ids, String status) {
+        if (status == null || status.isBlank() || status.length() > STATUS_MAX_LENGTH) {
+            log.warn("Statut invalide pour une mise à jour groupée de BidList : {}", status);
+            throw new IllegalArgumentException("Le statut doit contenir entre 1 et " + STATUS_MAX_LENGTH + " caractères.");
+        }
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Integer> existing = bidListRepository.lockExistingIds(ids);
+        if (existing.isEmpty()) {
+            log.info("Mise à jour groupée : aucun des {} BidList demandés n'existe", ids.size());
+            return 0;
+        }
+        int updated = bidListRepository.updateStatusByIds(existing, status, LocalDateTime.now());
+        eventPublisher.publishEvent(new BidListChangedEvent(existing));
+        Map<String, String> change = Map.of("status", status);
+        existing.forEach(id -> eventPublisher.publishEvent(EntityAuditedEvent.updated(EntityAuditedEvent.BID_LIST, id, null, change)));
+        log.info("Mise à jour groupée : {} BidList passés au statut '{}' sur {} demandés", updated, status, ids.size());
+        return updated;
     }
 }
\ No newline at end of file
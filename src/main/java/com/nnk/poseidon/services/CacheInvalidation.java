@@ -0,0 +1,16 @@
+package com.nnk.poseidon.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Invalidation de cache transmise entre les nœuds par un {@link CacheInvalidationTransport}.
+ *
+ * @param id         la position de l'invalidation, strictement croissante ; {@code 0} avant publication.
+ * @param entityName le nom JPA de l'entité modifiée ({@code Rating}, {@code RuleName}, {@code User}...).
+ * @param entityId   l'identifiant de la ligne modifiée, ou {@code null} pour toutes les lignes de l'entité.
+ * @param originNode le nœud à l'origine de l'écriture, dont les caches sont déjà à jour.
+ * @param createdAt  la date et l'heure de l'écriture.
+ */
+public record CacheInvalidation(long id, String entityName, Integer entityId, String originNode,
+                                LocalDateTime createdAt) {
+}
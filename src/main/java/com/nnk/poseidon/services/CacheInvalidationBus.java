@@ -0,0 +1,393 @@
+package com.nnk.poseidon.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus d'invalidation des caches locaux entre les nœuds Poseidon.
+ * <p>
+ * Les services publient, dans la transaction de chaque écriture d'une donnée mise en cache localement, une
+ * {@link CacheInvalidation} compacte (entité et identifiant) par le {@link CacheInvalidationTransport}. Sur
+ * chaque nœud, un thread lit les invalidations postérieures à sa position toutes les {@code poll-interval-ms}
+ * et applique celles des autres nœuds : l'entrée de l'entité est retirée du cache de second niveau et les
+ * caches de requêtes (listes) sont vidés ; pour un utilisateur, la liste de révocation des jetons signés
+ * est relue. Le nœud à l'origine de l'écriture n'a rien à faire : Hibernate a déjà mis ses caches à jour.
+ * </p>
+ * <p>
+ * Une position peut devenir lisible après une position supérieure (transaction plus lente à valider) : les
+ * invalidations sont appliquées dès leur lecture, dans le désordre, et la position du nœud n'avance que sur
+ * la suite contiguë ; un trou est attendu jusqu'à {@code gap-timeout-ms}, puis sauté. Rien ne distingue une
+ * transaction annulée d'une transaction encore en cours : les positions sautées sont relues à chaque cycle
+ * pendant toute la durée de rétention, et une invalidation validée tardivement est appliquée dès qu'elle
+ * apparaît. En fonctionnement normal, un nœud sert donc une donnée périmée au plus {@code poll-interval-ms}
+ * après le commit. Si le transport est illisible depuis plus de {@code max-staleness-ms}, le nœud ne peut plus
+ * garantir cette borne : il vide tous ses caches à chaque cycle, les lectures vont en base, jusqu'au retour
+ * du transport.
+ * </p>
+ * <p>
+ * Métriques : {@code poseidon.cache.invalidations.published} et {@code poseidon.cache.invalidations.applied},
+ * {@code poseidon.cache.invalidation.lag} (délai entre l'écriture et son application),
+ * {@code poseidon.cache.invalidation.staleness} (âge de la dernière lecture réussie) et
+ * {@code poseidon.cache.invalidation.full-evictions}.
+ * </p>
+ * <p>
+ * Actif avec {@code poseidon.cache-invalidation.enabled=true}.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.cache-invalidation.enabled", havingValue = "true")
+public class CacheInvalidationBus {
+
+    private static final String USER_ENTITY = "User";
+    private static final long PURGE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final CacheInvalidationTransport transport;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<SignedTokenService> tokenServiceProvider;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final String nodeId;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final long maxStalenessMs;
+    private final Duration retention;
+
+    /**
+     * Classe de chaque entité, par nom JPA.
+     */
+    private final Map<String, Class<?>> entityTypes = new HashMap<>();
+
+    /**
+     * Positions déjà appliquées au-delà de {@link #position}, séparées d'elle par un trou.
+     */
+    private final TreeSet<Long> appliedAhead = new TreeSet<>();
+
+    /**
+     * Positions sautées après l'attente d'un trou, avec la date (en ms) du saut ; relues jusqu'à la fin de la
+     * rétention.
+     */
+    private final TreeMap<Long, Long> skipped = new TreeMap<>();
+
+    private Cache cache;
+    private Counter publishedCounter;
+    private Counter appliedCounter;
+    private Counter fullEvictionCounter;
+    private Timer lagTimer;
+    private long position;
+    private long gapSince;
+    private long lastPurge;
+    private volatile long lastSuccessfulPoll;
+    private boolean degraded;
+    private Thread pollerThread;
+    private volatile boolean running;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param transport             le transport des invalidations.
+     * @param entityManagerFactory  la fabrique JPA, dont on vide le cache de second niveau.
+     * @param tokenServiceProvider  le service des jetons signés, présent en mode d'authentification sans session.
+     * @param meterRegistryProvider le registre de métriques, s'il existe.
+     * @param nodeId                l'identifiant de ce nœud ; vide pour {@code pid@hôte}.
+     * @param pollIntervalMs        l'intervalle entre deux lectures du transport.
+     * @param batchSize             le nombre maximal d'invalidations lues par cycle.
+     * @param gapTimeoutMs          l'attente d'une position manquante avant de la sauter et de la relire à part.
+     * @param maxStalenessMs        la durée d'indisponibilité du transport au-delà de laquelle les caches sont ignorés.
+     * @param retentionMinutes      la durée de conservation des invalidations.
+     */
+    public CacheInvalidationBus(CacheInvalidationTransport transport,
+                                EntityManagerFactory entityManagerFactory,
+                                ObjectProvider<SignedTokenService> tokenServiceProvider,
+                                ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                @Value("${poseidon.cache-invalidation.node-id:}") String nodeId,
+                                @Value("${poseidon.cache-invalidation.poll-interval-ms:100}") long pollIntervalMs,
+                                @Value("${poseidon.cache-invalidation.batch-size:500}") int batchSize,
+                                @Value("${poseidon.cache-invalidation.gap-timeout-ms:5000}") long gapTimeoutMs,
+                                @Value("${poseidon.cache-invalidation.max-staleness-ms:5000}") long maxStalenessMs,
+                                @Value("${poseidon.cache-invalidation.retention-minutes:60}") long retentionMinutes) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("La taille des lots d'invalidation doit être positive.");
+        }
+        if (maxStalenessMs < pollIntervalMs) {
+            throw new IllegalArgumentException("L'obsolescence maximale ne peut pas être inférieure à l'intervalle de lecture.");
+        }
+        if (TimeUnit.MINUTES.toMillis(retentionMinutes) <= gapTimeoutMs) {
+            throw new IllegalArgumentException("La rétention des invalidations doit dépasser l'attente des positions manquantes.");
+        }
+        this.transport = transport;
+        this.entityManagerFactory = entityManagerFactory;
+        this.tokenServiceProvider = tokenServiceProvider;
+        this.meterRegistryProvider = meterRegistryProvider;
+        String node = nodeId == null || nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.nodeId = node.length() > 64 ? node.substring(0, 64) : node;
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.maxStalenessMs = maxStalenessMs;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Enregistre les métriques et démarre la lecture du transport à partir de sa dernière position :
+     * les caches d'un nœud qui démarre sont vides, les invalidations antérieures ne le concernent pas.
+     */
+    @PostConstruct
+    public void start() {
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            entityTypes.put(entity.getName(), entity.getJavaType());
+        }
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        publishedCounter = Counter.builder("poseidon.cache.invalidations.published")
+                .description("Invalidations de cache publiées par ce nœud")
+                .register(registry);
+        appliedCounter = Counter.builder("poseidon.cache.invalidations.applied")
+                .description("Invalidations d'autres nœuds appliquées aux caches de ce nœud")
+                .register(registry);
+        fullEvictionCounter = Counter.builder("poseidon.cache.invalidation.full-evictions")
+                .description("Vidages complets des caches, transport indisponible au-delà de l'obsolescence maximale")
+                .register(registry);
+        lagTimer = Timer.builder("poseidon.cache.invalidation.lag")
+                .description("Délai entre une écriture et l'invalidation des caches d'un autre nœud")
+                .register(registry);
+        TimeGauge.builder("poseidon.cache.invalidation.staleness", this,
+                        TimeUnit.MILLISECONDS, bus -> System.currentTimeMillis() - bus.lastSuccessfulPoll)
+                .description("Âge de la dernière lecture réussie des invalidations")
+                .register(registry);
+
+        position = transport.latestId();
+        lastSuccessfulPoll = System.currentTimeMillis();
+        running = true;
+        pollerThread = new Thread(this::pollLoop, "cache-invalidation");
+        pollerThread.setDaemon(true);
+        pollerThread.start();
+        log.info("Bus d'invalidation des caches démarré sur le nœud {} à la position {}", nodeId, position);
+    }
+
+    /**
+     * Arrête la lecture du transport.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (pollerThread != null) {
+            pollerThread.interrupt();
+            try {
+                pollerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Publie l'invalidation d'une ligne modifiée ; à appeler dans la transaction de l'écriture.
+     *
+     * @param entityType la classe de l'entité modifiée.
+     * @param entityId   l'identifiant de la ligne, ou {@code null} pour toutes les lignes de l'entité.
+     */
+    public void publish(Class<?> entityType, Integer entityId) {
+        String entityName = entityManagerFactory.getMetamodel().entity(entityType).getName();
+        transport.publish(new CacheInvalidation(0, entityName, entityId, nodeId, LocalDateTime.now()));
+        publishedCounter.increment();
+    }
+
+    /**
+     * Retourne l'identifiant de ce nœud, porté par les invalidations qu'il publie.
+     *
+     * @return l'identifiant.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            if (pollOnce() < batchSize) {
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit et applique les invalidations postérieures à la position du nœud, puis fait avancer celle-ci.
+     *
+     * @return le nombre d'invalidations lues.
+     */
+    synchronized int pollOnce() {
+        long now = System.currentTimeMillis();
+        List<CacheInvalidation> invalidations;
+        try {
+            invalidations = transport.poll(position, batchSize);
+        } catch (RuntimeException e) {
+            onTransportFailure(now, e);
+            return 0;
+        }
+        if (degraded) {
+            log.info("Lecture des invalidations rétablie après {} ms, caches de nouveau utilisés", now - lastSuccessfulPoll);
+            degraded = false;
+        }
+        lastSuccessfulPoll = now;
+
+        boolean usersChanged = false;
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.id() <= position || !appliedAhead.add(invalidation.id())) {
+                continue;
+            }
+            if (!nodeId.equals(invalidation.originNode())) {
+                evict(invalidation);
+                usersChanged |= USER_ENTITY.equals(invalidation.entityName());
+            }
+        }
+        usersChanged |= applySkipped(now);
+        if (usersChanged) {
+            tokenServiceProvider.ifAvailable(SignedTokenService::refreshRevocations);
+        }
+        advancePosition(now);
+        purgeIfDue(now);
+        return invalidations.size();
+    }
+
+    /**
+     * Applique les invalidations apparues depuis parmi les positions sautées ; celles qui ont dépassé la
+     * rétention sont oubliées.
+     *
+     * @return {@code true} si l'une d'elles concerne un utilisateur.
+     */
+    private boolean applySkipped(long now) {
+        skipped.values().removeIf(skippedAt -> now - skippedAt > retention.toMillis());
+        if (skipped.isEmpty()) {
+            return false;
+        }
+        boolean usersChanged = false;
+        List<Long> ids = List.copyOf(skipped.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<CacheInvalidation> late;
+            try {
+                late = transport.find(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            } catch (RuntimeException e) {
+                log.warn("Échec de la relecture des invalidations sautées, nouvel essai : {}", e.getMessage());
+                return usersChanged;
+            }
+            for (CacheInvalidation invalidation : late) {
+                skipped.remove(invalidation.id());
+                log.warn("Invalidation {} validée après l'attente de son trou, appliquée en retard", invalidation.id());
+                if (!nodeId.equals(invalidation.originNode())) {
+                    evict(invalidation);
+                    usersChanged |= USER_ENTITY.equals(invalidation.entityName());
+                }
+            }
+        }
+        return usersChanged;
+    }
+
+    /**
+     * Retire du cache la ligne visée et vide les caches de requêtes, qui peuvent la contenir.
+     */
+    private void evict(CacheInvalidation invalidation) {
+        Class<?> entityType = entityTypes.get(invalidation.entityName());
+        if (entityType == null) {
+            log.warn("Entité {} inconnue dans une invalidation, tous les caches sont vidés", invalidation.entityName());
+            cache.evictAllRegions();
+        } else if (invalidation.entityId() == null) {
+            cache.evictEntityData(entityType);
+        } else {
+            cache.evictEntityData(entityType, invalidation.entityId());
+        }
+        cache.evictQueryRegions();
+        appliedCounter.increment();
+        lagTimer.record(Duration.between(invalidation.createdAt(), LocalDateTime.now()));
+        log.debug("Cache de {} {} invalidé (écriture du nœud {})", invalidation.entityName(),
+                invalidation.entityId() == null ? "*" : invalidation.entityId(), invalidation.originNode());
+    }
+
+    /**
+     * Avance la position sur la suite contiguë des positions appliquées ; un trou en tête est attendu jusqu'à
+     * {@link #gapTimeoutMs}, puis sauté et ses positions gardées dans {@link #skipped}.
+     */
+    private void advancePosition(long now) {
+        while (appliedAhead.remove(position + 1)) {
+            position++;
+        }
+        if (appliedAhead.isEmpty()) {
+            gapSince = 0;
+            return;
+        }
+        if (gapSince == 0) {
+            gapSince = now;
+        } else if (now - gapSince >= gapTimeoutMs) {
+            long next = appliedAhead.first();
+            log.warn("Invalidations {} à {} absentes depuis {} ms, sautées et relues jusqu'à la fin de la rétention",
+                    position + 1, next - 1, now - gapSince);
+            for (long id = position + 1; id < next; id++) {
+                skipped.put(id, now);
+            }
+            position = next - 1;
+            gapSince = 0;
+            advancePosition(now);
+        }
+    }
+
+    /**
+     * Au-delà de l'obsolescence maximale sans lecture réussie, les caches ne sont plus fiables : ils sont
+     * vidés à chaque cycle, jusqu'au retour du transport.
+     */
+    private void onTransportFailure(long now, RuntimeException e) {
+        if (now - lastSuccessfulPoll <= maxStalenessMs) {
+            log.warn("Échec de la lecture des invalidations, nouvel essai : {}", e.getMessage());
+            return;
+        }
+        if (!degraded) {
+            log.error("Invalidations illisibles depuis {} ms : caches vidés à chaque cycle jusqu'au retour du transport ({})",
+                    now - lastSuccessfulPoll, e.getMessage());
+            degraded = true;
+        }
+        cache.evictAllRegions();
+        fullEvictionCounter.increment();
+    }
+
+    private void purgeIfDue(long now) {
+        if (now - lastPurge < PURGE_INTERVAL_MS) {
+            return;
+        }
+        lastPurge = now;
+        try {
+            int purged = transport.purge(LocalDateTime.now().minus(retention));
+            if (purged > 0) {
+                log.debug("{} invalidations anciennes purgées", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de la purge des invalidations : {}", e.getMessage());
+        }
+    }
+}
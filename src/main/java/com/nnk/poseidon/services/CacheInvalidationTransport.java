@@ -0,0 +1,56 @@
+package com.nnk.poseidon.services;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transport des invalidations de cache entre les nœuds, utilisé par le {@link CacheInvalidationBus}.
+ * <p>
+ * Le transport attribue à chaque invalidation publiée une position strictement croissante. Une position
+ * peut devenir lisible après une position supérieure (transaction plus lente à valider) : le bus attend ces
+ * trous pendant un délai borné, puis relit les positions sautées par {@link #find} jusqu'à leur expiration. La table {@code CacheInvalidation} ({@link JdbcCacheInvalidationTransport})
+ * est le transport par défaut ; les tests utilisent un transport en mémoire.
+ * </p>
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * Publie une invalidation ; appelé dans la transaction de l'écriture, qu'une erreur annule.
+     *
+     * @param invalidation l'invalidation, sans position.
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Lit les invalidations postérieures à une position, dans l'ordre des positions.
+     *
+     * @param afterId la position de départ, exclue.
+     * @param limit   le nombre maximal d'invalidations lues.
+     * @return les invalidations lues.
+     */
+    List<CacheInvalidation> poll(long afterId, int limit);
+
+    /**
+     * Lit les invalidations lisibles parmi des positions données, dans l'ordre des positions.
+     *
+     * @param ids les positions recherchées.
+     * @return les invalidations trouvées ; les positions absentes sont ignorées.
+     */
+    List<CacheInvalidation> find(Collection<Long> ids);
+
+    /**
+     * Retourne la position de la dernière invalidation lisible, point de départ d'un nœud qui démarre.
+     *
+     * @return la position, ou {@code 0} s'il n'y en a aucune.
+     */
+    long latestId();
+
+    /**
+     * Supprime les invalidations antérieures à une date.
+     *
+     * @param before la date limite, exclue.
+     * @return le nombre d'invalidations supprimées.
+     */
+    int purge(LocalDateTime before);
+}
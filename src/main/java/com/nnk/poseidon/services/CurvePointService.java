@@ -3,7 +3,10 @@ package com.nnk.poseidon.services;
 import com.nnk.poseidon.domain.CurvePoint;
 import com.nnk.poseidon.dto.CurvePointDTO;
 import com.nnk.poseidon.repositories.CurvePointRepository;
+import com.nnk.poseidon.repositories.IdRange;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,7 +14,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service pour la gestion de la logique métier liée aux entités {@link CurvePoint}.
@@ -31,15 +36,27 @@ import java.util.stream.Collectors;
 public class CurvePointService {
 
     private final CurvePointRepository curvePointRepository;
+    private final EntityManager entityManager;
+    private final TransactionBatchingExecutor transactionBatchingExecutor;
+    private final ObjectProvider<ParallelChunkMapper> parallelMapperProvider;
 
     /**
      * Constructeur pour l'injection de dépendances.
      *
      * @param curvePointRepository Le repository pour l'accès aux données des CurvePoint, injecté par Spring.
+     * @param entityManager Le contexte de persistance, pour détacher les entités lues en flux.
+     * @param transactionBatchingExecutor L'exécuteur regroupant les sauvegardes concurrentes en une transaction.
+     * @param parallelMapperProvider Fournit le {@link ParallelChunkMapper} des lectures complètes volumineuses.
      */
     @Autowired
-    public CurvePointService(CurvePointRepository curvePointRepository) {
+    public CurvePointService(CurvePointRepository curvePointRepository,
+                             EntityManager entityManager,
+                             TransactionBatchingExecutor transactionBatchingExecutor,
+                             ObjectProvider<ParallelChunkMapper> parallelMapperProvider) {
         this.curvePointRepository = curvePointRepository;
+        this.entityManager = entityManager;
+        this.transactionBatchingExecutor = transactionBatchingExecutor;
+        this.parallelMapperProvider = parallelMapperProvider;
     }
 
     /**
@@ -87,18 +104,61 @@ public class CurvePointService {
 
     /**
      * Récupère tous les points de courbe et les convertit en une liste de DTOs.
-     * L'opération est exécutée dans une transaction en lecture seule pour optimiser les performances.
+     * Au-delà du seuil du {@link ParallelChunkMapper}, la table est lue et convertie par plages d'identifiants
+     * en parallèle. Sans transaction englobante : chaque lecture a la sienne, en lecture seule, et l'appelant
+     * ne garde pas de connexion pendant que les threads du pool en occupent une chacun.
      *
      * @return Une liste de {@link CurvePointDTO}, potentiellement vide si aucun point n'est trouvé.
      */
-    @Transactional(readOnly = true)
     public List<CurvePointDTO> findAll() {
         log.debug("Récupération de tous les CurvePoints et conversion en DTOs");
+        ParallelChunkMapper parallelMapper = parallelMapperProvider.getIfAvailable();
+        if (parallelMapper != null) {
+            IdRange range = curvePointRepository.findIdRange();
+            if (parallelMapper.shouldSplit(range)) {
+                return parallelMapper.map(range, curvePointRepository::findByIdBetween, this::convertToDTO);
+            }
+        }
         return curvePointRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère les points d'une courbe, triés par date de valeur puis par terme, éventuellement
+     * restreints à une date de valeur. L'index {@code idx_curvepoint_curve_as_of_date_term} fournit
+     * directement les lignes dans cet ordre.
+     *
+     * @param curveId  l'identifiant de la courbe.
+     * @param asOfDate la date de valeur, ou {@code null} pour toutes les dates.
+     * @return les points de la courbe.
+     */
+    @Transactional(readOnly = true)
+    public List<CurvePointDTO> findByCurve(Integer curveId, LocalDateTime asOfDate) {
+        log.debug("Récupération des CurvePoints de la courbe {} à la date {}", curveId, asOfDate);
+        List<CurvePoint> curvePoints = asOfDate != null
+                ? curvePointRepository.findByCurveIdAndAsOfDateOrderByTermAsc(curveId, asOfDate)
+                : curvePointRepository.findByCurveIdOrderByAsOfDateAscTermAsc(curveId);
+        return curvePoints.stream().map(this::convertToDTO).toList();
+    }
+
+    /**
+     * Parcourt tous les points de courbe en flux et transmet chaque DTO à l'action fournie, sans construire la liste complète.
+     * Chaque entité est détachée du contexte de persistance dès sa conversion, la mémoire consommée
+     * reste donc constante quel que soit le nombre de lignes.
+     *
+     * @param action l'action appliquée à chaque {@link CurvePointDTO}, dans l'ordre de lecture.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<CurvePointDTO> action) {
+        try (Stream<CurvePoint> curvePoints = curvePointRepository.streamAllBy()) {
+            curvePoints.forEach(curvePoint -> {
+                action.accept(convertToDTO(curvePoint));
+                entityManager.detach(curvePoint);
+            });
+        }
+    }
+
     /**
      * Recherche un point de courbe par son identifiant unique (ID).
      *
@@ -125,43 +185,45 @@ public class CurvePointService {
      *     <li><b>Mise à jour :</b> Si l'ID est non nul, l'entité existante est récupérée et ses champs sont mis à jour.
      *     La {@code creationDate} originale est préservée.</li>
      * </ul>
-     * L'opération est transactionnelle, garantissant l'atomicité de la sauvegarde.
+     * L'opération est transactionnelle, garantissant l'atomicité de la sauvegarde ; elle peut partager sa
+     * transaction avec d'autres écritures concurrentes via le {@link TransactionBatchingExecutor}.
      *
      * @param curvePointDTO Le DTO contenant les données du point à sauvegarder. Ne doit pas être nul.
      * @return Le DTO représentant l'entité sauvegardée, avec son ID mis à jour si c'était une création.
      * @throws IllegalArgumentException si {@code curvePointDTO} est nul, ou si une mise à jour est tentée
      *                                  pour un ID qui n'existe pas en base de données.
      */
-    @Transactional
     public CurvePointDTO save(CurvePointDTO curvePointDTO) {
         if (curvePointDTO == null) {
             log.error("Tentative de sauvegarde d'un objet CurvePointDTO nul");
             throw new IllegalArgumentException("L'objet CurvePointDTO ne peut pas être nul.");
         }
 
-        CurvePoint curvePointToSave;
-        if (curvePointDTO.getId() == null) { // Création
-            log.info("Création d'un nouveau CurvePoint à partir du DTO : {}", curvePointDTO);
-            curvePointToSave = convertToEntity(curvePointDTO);
-            curvePointToSave.setCreationDate(LocalDateTime.now());
-        } else { // Mise à jour
-            log.info("Mise à jour du CurvePoint existant avec id {} à partir du DTO : {}", curvePointDTO.getId(), curvePointDTO);
-            CurvePoint existingCurvePoint = curvePointRepository.findById(curvePointDTO.getId())
-                    .orElseThrow(() -> {
-                        log.warn("CurvePoint non trouvé pour la mise à jour avec id : {}", curvePointDTO.getId());
-                        return new IllegalArgumentException("Mise à jour impossible : CurvePoint non trouvé avec id: " + curvePointDTO.getId());
-                    });
-
-            existingCurvePoint.setCurveId(curvePointDTO.getCurveId());
-            existingCurvePoint.setAsOfDate(curvePointDTO.getAsOfDate());
-            existingCurvePoint.setTerm(curvePointDTO.getTerm());
-            existingCurvePoint.setValue(curvePointDTO.getValue());
-            curvePointToSave = existingCurvePoint;
-        }
+        return transactionBatchingExecutor.execute(() -> {
+            CurvePoint curvePointToSave;
+            if (curvePointDTO.getId() == null) { // Création
+                log.info("Création d'un nouveau CurvePoint à partir du DTO : {}", curvePointDTO);
+                curvePointToSave = convertToEntity(curvePointDTO);
+                curvePointToSave.setCreationDate(LocalDateTime.now());
+            } else { // Mise à jour
+                log.info("Mise à jour du CurvePoint existant avec id {} à partir du DTO : {}", curvePointDTO.getId(), curvePointDTO);
+                CurvePoint existingCurvePoint = curvePointRepository.findById(curvePointDTO.getId())
+                        .orElseThrow(() -> {
+                            log.warn("CurvePoint non trouvé pour la mise à jour avec id : {}", curvePointDTO.getId());
+                            return new IllegalArgumentException("Mise à jour impossible : CurvePoint non trouvé avec id: " + curvePointDTO.getId());
+                        });
+
+                existingCurvePoint.setCurveId(curvePointDTO.getCurveId());
+                existingCurvePoint.setAsOfDate(curvePointDTO.getAsOfDate());
+                existingCurvePoint.setTerm(curvePointDTO.getTerm());
+                existingCurvePoint.setValue(curvePointDTO.getValue());
+                curvePointToSave = existingCurvePoint;
+            }
 
-        CurvePoint savedEntity = curvePointRepository.save(curvePointToSave);
-        log.info("CurvePoint sauvegardé avec succès : {}", savedEntity);
-        return convertToDTO(savedEntity);
+            CurvePoint savedEntity = curvePointRepository.save(curvePointToSave);
+            log.info("CurvePoint sauvegardé avec succès : {}", savedEntity);
+            return convertToDTO(savedEntity);
+        });
     }
 
     /**
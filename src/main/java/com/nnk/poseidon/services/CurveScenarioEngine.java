@@ -0,0 +1,351 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.CurvePoint;
+import com.nnk.poseidon.repositories.CurvePointRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Sensibilités par terme des courbes ({@code CurvePoint}) par choc et réévaluation, sous des centaines de scénarios.
+ * <p>
+ * Le terme d'un point est lu en années et sa valeur comme un taux zéro-coupon en pourcentage, composé en continu ;
+ * entre deux termes le taux est interpolé linéairement, et prolongé à plat au-delà. Chaque courbe valorise une
+ * obligation de référence de nominal 1, de maturité le plus long terme de la courbe, versant un coupon annuel aux
+ * dates anniversaires en remontant depuis la maturité. Pour chaque scénario (déplacement parallèle de la courbe),
+ * chaque terme est relevé du choc unitaire et l'obligation réévaluée : la différence avec la valeur du scénario
+ * est la sensibilité de ce terme.
+ * </p>
+ * <p>
+ * Les courbes sont lues une seule fois par calcul ; les copies choquées sont ensuite produites en mémoire, dans
+ * un tableau de travail par tâche. Les flux de l'obligation et leurs poids d'interpolation sont calculés une fois
+ * par courbe, si bien qu'une réévaluation ne fait qu'une boucle sur des tableaux de primitives, sans allocation.
+ * Les scénarios sont répartis par blocs sur un pool fork-join dédié de {@code parallelism} threads.
+ * </p>
+ */
+@Slf4j
+@Service
+public class CurveScenarioEngine {
+
+    /**
+     * Nombre de scénarios d'une même courbe évalués par une tâche élémentaire.
+     */
+    static final int SCENARIOS_PER_TASK = 16;
+
+    private final CurvePointRepository curvePointRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int parallelism;
+    private final int maxScenarios;
+    private final ForkJoinPool pool;
+
+    /**
+     * Paramètres d'un calcul.
+     *
+     * @param scenarios  le nombre de scénarios, déplacements répartis uniformément sur
+     *                   {@code [-maxShiftBp, +maxShiftBp]} (un seul scénario : la courbe telle quelle).
+     * @param maxShiftBp le déplacement parallèle extrême, en points de base.
+     * @param bumpBp     le choc appliqué à chaque terme, en points de base.
+     * @param coupon     le coupon annuel de l'obligation de référence, en pourcentage du nominal.
+     */
+    public record ScenarioSet(int scenarios, double maxShiftBp, double bumpBp, double coupon) {
+
+        /**
+         * @return le déplacement de chaque scénario, en points de base.
+         */
+        double[] shiftsBp() {
+            double[] shifts = new double[scenarios];
+            for (int s = 0; s < scenarios; s++) {
+                shifts[s] = scenarios == 1 ? 0 : -maxShiftBp + 2 * maxShiftBp * s / (scenarios - 1);
+            }
+            return shifts;
+        }
+    }
+
+    /**
+     * Courbe prête à être choquée : taux aux termes, et flux de l'obligation de référence avec les indices et
+     * poids d'interpolation de leur taux.
+     */
+    static final class Curve {
+
+        final Integer curveId;
+        final LocalDateTime asOfDate;
+        final double[] terms;
+        final double[] rates;
+        final double[] times;
+        final double[] amounts;
+        final int[] lower;
+        final int[] upper;
+        final double[] weights;
+
+        /**
+         * @param curveId  l'identifiant de la courbe.
+         * @param asOfDate la date de valeur des points.
+         * @param terms    les termes en années, strictement croissants et positifs ; au moins un.
+         * @param rates    les taux zéro-coupon en pourcentage, un par terme.
+         * @param coupon   le coupon annuel de l'obligation de référence, en pourcentage.
+         */
+        Curve(Integer curveId, LocalDateTime asOfDate, double[] terms, double[] rates, double coupon) {
+            this.curveId = curveId;
+            this.asOfDate = asOfDate;
+            this.terms = terms;
+            this.rates = rates;
+            double maturity = terms[terms.length - 1];
+            int flows = (int) Math.ceil(maturity - 1e-9);
+            times = new double[Math.max(flows, 1)];
+            amounts = new double[times.length];
+            lower = new int[times.length];
+            upper = new int[times.length];
+            weights = new double[times.length];
+            for (int k = 0; k < times.length; k++) {
+                double time = maturity - (times.length - 1 - k);
+                times[k] = time;
+                amounts[k] = coupon / 100 + (k == times.length - 1 ? 1 : 0);
+                int right = 0;
+                while (right < terms.length && terms[right] < time) {
+                    right++;
+                }
+                if (right == 0) { // Avant le premier terme : taux plat.
+                    lower[k] = 0;
+                    upper[k] = 0;
+                } else if (right == terms.length) { // Après le dernier terme : taux plat.
+                    lower[k] = terms.length - 1;
+                    upper[k] = terms.length - 1;
+                } else {
+                    lower[k] = right - 1;
+                    upper[k] = right;
+                    weights[k] = (time - terms[right - 1]) / (terms[right] - terms[right - 1]);
+                }
+            }
+        }
+
+        /**
+         * Valeur de l'obligation de référence pour des taux donnés aux termes de la courbe.
+         *
+         * @param shockedRates les taux en pourcentage, un par terme.
+         * @return la valeur actualisée, pour un nominal de 1.
+         */
+        double presentValue(double[] shockedRates) {
+            double value = 0;
+            for (int k = 0; k < times.length; k++) {
+                double rate = shockedRates[lower[k]] + weights[k] * (shockedRates[upper[k]] - shockedRates[lower[k]]);
+                value += amounts[k] * Math.exp(-rate / 100 * times[k]);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param curvePointRepository le repository des points de courbe, lus une fois par calcul.
+     * @param entityManager        le contexte de persistance, pour détacher les points lus en flux.
+     * @param transactionManager   le gestionnaire de transactions de l'application.
+     * @param parallelism          le nombre de threads de calcul ; 0 pour un par processeur.
+     * @param maxScenarios         le nombre maximal de scénarios d'un calcul.
+     */
+    public CurveScenarioEngine(CurvePointRepository curvePointRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${poseidon.scenarios.parallelism:0}") int parallelism,
+                               @Value("${poseidon.scenarios.max-scenarios:1000}") int maxScenarios) {
+        this.curvePointRepository = curvePointRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxScenarios = maxScenarios;
+        this.pool = new ForkJoinPool(this.parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("curve-scenarios-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Arrête les threads de calcul.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Calcule les sensibilités par terme de toutes les courbes sous chaque scénario.
+     *
+     * @param asOfDate  la date de valeur des points à utiliser, ou {@code null} pour la plus récente de chaque courbe.
+     * @param scenarios les paramètres du calcul.
+     * @return les sensibilités, par identifiant de courbe croissant.
+     * @throws IllegalArgumentException si le nombre de scénarios est hors limites, si le déplacement ou le coupon
+     *                                  n'est pas un nombre fini, si le déplacement est négatif ou si le choc n'est
+     *                                  pas un nombre fini strictement positif.
+     */
+    public List<CurveSensitivities> computeSensitivities(LocalDateTime asOfDate, ScenarioSet scenarios) {
+        if (scenarios.scenarios() < 1 || scenarios.scenarios() > maxScenarios) {
+            throw new IllegalArgumentException("Le nombre de scénarios doit être compris entre 1 et " + maxScenarios + ".");
+        }
+        if (!Double.isFinite(scenarios.maxShiftBp()) || scenarios.maxShiftBp() < 0) {
+            throw new IllegalArgumentException(
+                    "Le déplacement extrême (maxShiftBp) doit être un nombre fini positif ou nul.");
+        }
+        if (!Double.isFinite(scenarios.bumpBp()) || scenarios.bumpBp() <= 0) {
+            throw new IllegalArgumentException(
+                    "Le choc par terme (bumpBp) doit être un nombre fini strictement positif.");
+        }
+        if (!Double.isFinite(scenarios.coupon())) {
+            throw new IllegalArgumentException("Le coupon doit être un nombre fini.");
+        }
+        return evaluate(loadCurves(asOfDate, scenarios.coupon()), scenarios);
+    }
+
+    /**
+     * Lit les points de courbe en une passe et construit chaque courbe à partir des points de sa date de valeur
+     * (celle demandée, ou la plus récente). Les points sans terme ou sans valeur sont ignorés ; les points étant
+     * lus par identifiant croissant, le dernier point enregistré pour un même terme l'emporte.
+     */
+    private List<Curve> loadCurves(LocalDateTime asOfDate, double coupon) {
+        Map<Integer, TreeMap<LocalDateTime, TreeMap<Double, Double>>> byCurve = new TreeMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<CurvePoint> curvePoints = curvePointRepository.streamAllByOrderByIdAsc()) {
+                curvePoints.forEach(point -> {
+                    if (point.getCurveId() != null && point.getTerm() != null && point.getValue() != null
+                            && point.getTerm() > 0 && (asOfDate == null || asOfDate.equals(point.getAsOfDate()))) {
+                        // Des points sans date de valeur sont plus anciens que tous les points datés.
+                        byCurve.computeIfAbsent(point.getCurveId(),
+                                        id -> new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder())))
+                                .computeIfAbsent(point.getAsOfDate(), date -> new TreeMap<>())
+                                .put(point.getTerm(), point.getValue());
+                    }
+                    entityManager.detach(point);
+                });
+            }
+        });
+        List<Curve> curves = new ArrayList<>(byCurve.size());
+        byCurve.forEach((curveId, byDate) -> {
+            Map.Entry<LocalDateTime, TreeMap<Double, Double>> latest = byDate.lastEntry();
+            TreeMap<Double, Double> points = latest.getValue();
+            double[] terms = new double[points.size()];
+            double[] rates = new double[points.size()];
+            int i = 0;
+            for (Map.Entry<Double, Double> point : points.entrySet()) {
+                terms[i] = point.getKey();
+                rates[i++] = point.getValue();
+            }
+            curves.add(new Curve(curveId, latest.getKey(), terms, rates, coupon));
+        });
+        return curves;
+    }
+
+    /**
+     * Évalue les scénarios de courbes déjà chargées, en parallèle.
+     *
+     * @param curves    les courbes.
+     * @param scenarios les paramètres du calcul.
+     * @return les sensibilités, dans l'ordre des courbes.
+     */
+    List<CurveSensitivities> evaluate(List<Curve> curves, ScenarioSet scenarios) {
+        long start = System.nanoTime();
+        if (curves.isEmpty()) {
+            return List.of();
+        }
+        double[] shifts = scenarios.shiftsBp();
+        int blocksPerCurve = (shifts.length + SCENARIOS_PER_TASK - 1) / SCENARIOS_PER_TASK;
+        double[][] presentValues = new double[curves.size()][];
+        double[][][] sensitivities = new double[curves.size()][][];
+        for (int c = 0; c < curves.size(); c++) {
+            presentValues[c] = new double[shifts.length];
+            sensitivities[c] = new double[shifts.length][curves.get(c).terms.length];
+        }
+        pool.invoke(new ScenarioTask(curves, shifts, scenarios.bumpBp() / 100, blocksPerCurve, presentValues,
+                sensitivities, 0, curves.size() * blocksPerCurve));
+
+        List<CurveSensitivities> results = new ArrayList<>(curves.size());
+        for (int c = 0; c < curves.size(); c++) {
+            Curve curve = curves.get(c);
+            results.add(new CurveSensitivities(curve.curveId, curve.asOfDate, curve.terms.clone(), shifts.clone(),
+                    presentValues[c], sensitivities[c]));
+        }
+        log.debug("{} courbe(s) × {} scénario(s) évalués sur {} threads en {} ms", curves.size(), shifts.length,
+                parallelism, (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    /**
+     * Tâche couvrant les blocs {@code [from, to)} (un bloc : {@value #SCENARIOS_PER_TASK} scénarios consécutifs
+     * d'une courbe) : elle se divise en deux tant qu'elle en couvre plusieurs.
+     */
+    private static final class ScenarioTask extends RecursiveAction {
+
+        private final List<Curve> curves;
+        private final double[] shiftsBp;
+        private final double bump;
+        private final int blocksPerCurve;
+        private final double[][] presentValues;
+        private final double[][][] sensitivities;
+        private final int from;
+        private final int to;
+
+        ScenarioTask(List<Curve> curves, double[] shiftsBp, double bump, int blocksPerCurve,
+                     double[][] presentValues, double[][][] sensitivities, int from, int to) {
+            this.curves = curves;
+            this.shiftsBp = shiftsBp;
+            this.bump = bump;
+            this.blocksPerCurve = blocksPerCurve;
+            this.presentValues = presentValues;
+            this.sensitivities = sensitivities;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScenarioTask(curves, shiftsBp, bump, blocksPerCurve, presentValues, sensitivities, from, middle),
+                        new ScenarioTask(curves, shiftsBp, bump, blocksPerCurve, presentValues, sensitivities, middle, to));
+                return;
+            }
+            int c = from / blocksPerCurve;
+            Curve curve = curves.get(c);
+            int first = (from % blocksPerCurve) * SCENARIOS_PER_TASK;
+            int last = Math.min(first + SCENARIOS_PER_TASK, shiftsBp.length);
+            double[] shocked = new double[curve.rates.length];
+            for (int s = first; s < last; s++) {
+                double shift = shiftsBp[s] / 100;
+                for (int i = 0; i < shocked.length; i++) {
+                    shocked[i] = curve.rates[i] + shift;
+                }
+                double base = curve.presentValue(shocked);
+                presentValues[c][s] = base;
+                double[] row = sensitivities[c][s];
+                for (int i = 0; i < shocked.length; i++) {
+                    shocked[i] = curve.rates[i] + shift + bump;
+                    row[i] = curve.presentValue(shocked) - base;
+                    shocked[i] = curve.rates[i] + shift;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return le nombre de threads de calcul.
+     */
+    int parallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,22 @@
+package com.nnk.poseidon.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sensibilités par terme d'une courbe, sous chaque scénario de déplacement parallèle.
+ * <p>
+ * {@code sensitivities[s][i]} est la variation de valeur de l'obligation de référence de la courbe lorsque le
+ * point {@code terms[i]} de la courbe déformée par le scénario {@code s} est relevé du choc unitaire, les autres
+ * points restant inchangés.
+ * </p>
+ *
+ * @param curveId        l'identifiant de la courbe.
+ * @param asOfDate       la date de valeur des points utilisés, ou {@code null} s'ils n'en ont pas.
+ * @param terms          les termes de la courbe, en années, croissants.
+ * @param shiftsBp       le déplacement parallèle de chaque scénario, en points de base.
+ * @param presentValues  la valeur de l'obligation de référence sous chaque scénario, pour un nominal de 1.
+ * @param sensitivities  la matrice scénarios × termes des variations de valeur.
+ */
+public record CurveSensitivities(Integer curveId, LocalDateTime asOfDate, double[] terms, double[] shiftsBp,
+                                 double[] presentValues, double[][] sensitivities) {
+}
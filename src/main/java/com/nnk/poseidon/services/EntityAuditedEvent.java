@@ -0,0 +1,99 @@
+package com.nnk.poseidon.services;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement d'audit publié par les écritures de trades et d'offres, au sein de la transaction qui les porte.
+ * <p>
+ * Sa construction est volontairement minimale : l'auteur est lu dans le contexte de sécurité et les états
+ * avant et après sont conservés tels quels. Le calcul du différentiel et l'insertion dans le journal
+ * d'audit sont faits plus tard, hors du chemin d'écriture, par l'{@link AuditTrailService}, et seulement
+ * si la transaction est validée.
+ * </p>
+ * <p>
+ * Les états doivent être des objets qui ne seront plus modifiés (DTO fraîchement convertis, tables
+ * immuables) ; un état avant nul signifie qu'il n'est pas connu.
+ * </p>
+ *
+ * @param entityType le type de la ligne ({@link #TRADE} ou {@link #BID_LIST}).
+ * @param entityId   l'identifiant de la ligne.
+ * @param action     la nature de l'écriture.
+ * @param actor      l'utilisateur à l'origine de l'écriture.
+ * @param occurredAt la date et l'heure de l'écriture.
+ * @param before     l'état avant l'écriture, ou {@code null} s'il n'est pas connu.
+ * @param after      l'état après l'écriture, ou {@code null} pour une suppression.
+ */
+public record EntityAuditedEvent(String entityType, Integer entityId, Action action, String actor,
+                                 LocalDateTime occurredAt, Object before, Object after) {
+
+    /**
+     * Type des lignes de la table {@code Trade}.
+     */
+    public static final String TRADE = "Trade";
+
+    /**
+     * Type des lignes de la table {@code BidList}.
+     */
+    public static final String BID_LIST = "BidList";
+
+    /**
+     * Auteur enregistré pour les écritures faites hors d'une requête authentifiée.
+     */
+    public static final String SYSTEM_ACTOR = "system";
+
+    /**
+     * Nature d'une écriture auditée.
+     */
+    public enum Action {
+        CREATE, UPDATE, DELETE
+    }
+
+    /**
+     * Création d'une ligne par l'utilisateur courant.
+     *
+     * @param entityType le type de la ligne.
+     * @param entityId   l'identifiant attribué à la ligne.
+     * @param after      l'état créé.
+     * @return l'événement.
+     */
+    public static EntityAuditedEvent created(String entityType, Integer entityId, Object after) {
+        return new EntityAuditedEvent(entityType, entityId, Action.CREATE, currentActor(), LocalDateTime.now(), null, after);
+    }
+
+    /**
+     * Modification d'une ligne par l'utilisateur courant.
+     *
+     * @param entityType le type de la ligne.
+     * @param entityId   l'identifiant de la ligne.
+     * @param before     l'état avant la modification, ou {@code null} s'il n'est pas connu.
+     * @param after      l'état après la modification (éventuellement limité aux champs modifiés).
+     * @return l'événement.
+     */
+    public static EntityAuditedEvent updated(String entityType, Integer entityId, Object before, Object after) {
+        return new EntityAuditedEvent(entityType, entityId, Action.UPDATE, currentActor(), LocalDateTime.now(), before, after);
+    }
+
+    /**
+     * Suppression d'une ligne par l'utilisateur courant.
+     *
+     * @param entityType le type de la ligne.
+     * @param entityId   l'identifiant de la ligne.
+     * @return l'événement.
+     */
+    public static EntityAuditedEvent deleted(String entityType, Integer entityId) {
+        return new EntityAuditedEvent(entityType, entityId, Action.DELETE, currentActor(), LocalDateTime.now(), null, null);
+    }
+
+    /**
+     * Lit l'utilisateur authentifié dans le contexte de sécurité du thread courant.
+     *
+     * @return son nom, ou {@link #SYSTEM_ACTOR} hors d'une requête authentifiée.
+     */
+    public static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : SYSTEM_ACTOR;
+    }
+}
@@ -0,0 +1,97 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destination de l'outbox dans un fichier local : un message JSON par ligne, ajouté à
+ * {@code changes.jsonl} et forcé sur disque avant que le relais n'avance la position.
+ * <p>
+ * Après un échec, un lot peut être écrit deux fois : les lecteurs du fichier ignorent les lignes dont
+ * l'{@code offset} ne dépasse pas le dernier lu. Actif avec {@code poseidon.outbox.file.enabled=true}.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = {"poseidon.outbox.enabled", "poseidon.outbox.file.enabled"}, havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    private FileChannel channel;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param objectMapper le mapper JSON de l'application.
+     * @param directory    le répertoire du fichier de changements.
+     */
+    public FileOutboxSink(ObjectMapper objectMapper,
+                          @Value("${poseidon.outbox.file.directory:./data/outbox}") Path directory) {
+        this.objectMapper = objectMapper;
+        this.file = directory.resolve("changes.jsonl");
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxMessage message : messages) {
+            lines.append(objectMapper.writeValueAsString(message)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            FileChannel target = channel();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            target.force(false);
+        } catch (IOException e) {
+            // Le fichier est rouvert au prochain essai.
+            close();
+            throw e;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            log.info("Changements de l'outbox écrits dans {}", file.toAbsolutePath());
+        }
+        return channel;
+    }
+
+    /**
+     * Ferme le fichier de changements.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Fermeture du fichier de l'outbox impossible : {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
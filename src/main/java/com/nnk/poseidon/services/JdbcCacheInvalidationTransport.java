@@ -0,0 +1,84 @@
+package com.nnk.poseidon.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transport des invalidations de cache par la table {@code CacheInvalidation} de la base partagée.
+ * <p>
+ * La publication est une insertion qui participe à la transaction de l'écriture : l'invalidation n'est
+ * visible des autres nœuds qu'au commit, et disparaît avec un rollback. Les nœuds lisent la table par
+ * sa clé primaire, ce qui reste une lecture d'index de quelques lignes même à intervalle court.
+ * </p>
+ * <p>
+ * Actif avec {@code poseidon.cache-invalidation.enabled=true} et {@code poseidon.cache-invalidation.jdbc.enabled=true}.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = {"poseidon.cache-invalidation.enabled", "poseidon.cache-invalidation.jdbc.enabled"},
+        havingValue = "true")
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final String INSERT_SQL = "INSERT INTO CacheInvalidation (entityName, entityId, originNode, createdAt) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT Id, entityName, entityId, originNode, createdAt "
+            + "FROM CacheInvalidation WHERE Id > ? ORDER BY Id LIMIT ?";
+    private static final String FIND_SQL = "SELECT Id, entityName, entityId, originNode, createdAt "
+            + "FROM CacheInvalidation WHERE Id IN (%s) ORDER BY Id";
+    private static final String LATEST_SQL = "SELECT COALESCE(MAX(Id), 0) FROM CacheInvalidation";
+    private static final String PURGE_SQL = "DELETE FROM CacheInvalidation WHERE createdAt < ?";
+
+    private static final RowMapper<CacheInvalidation> INVALIDATION_MAPPER = (rs, rowNum) -> new CacheInvalidation(
+            rs.getLong("Id"), rs.getString("entityName"), rs.getObject("entityId", Integer.class),
+            rs.getString("originNode"), rs.getTimestamp("createdAt").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param jdbcTemplate accès JDBC, qui participe à la transaction courante.
+     */
+    public JdbcCacheInvalidationTransport(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        jdbcTemplate.update(INSERT_SQL, invalidation.entityName(), invalidation.entityId(), invalidation.originNode(),
+                Timestamp.valueOf(invalidation.createdAt()));
+    }
+
+    @Override
+    public List<CacheInvalidation> poll(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_SQL, INVALIDATION_MAPPER, afterId, limit);
+    }
+
+    @Override
+    public List<CacheInvalidation> find(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query(FIND_SQL.formatted(placeholders), INVALIDATION_MAPPER, ids.toArray());
+    }
+
+    @Override
+    public long latestId() {
+        Long latest = jdbcTemplate.queryForObject(LATEST_SQL, Long.class);
+        return latest == null ? 0L : latest;
+    }
+
+    @Override
+    public int purge(LocalDateTime before) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(before));
+    }
+}
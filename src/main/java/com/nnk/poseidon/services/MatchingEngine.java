@@ -0,0 +1,589 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.config.ReplicaRoutingDataSource;
+import com.nnk.poseidon.domain.BidList;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.repositories.BidListRepository;
+import com.nnk.poseidon.services.OrderBook.Fill;
+import com.nnk.poseidon.services.OrderBook.Order;
+import com.nnk.poseidon.services.OrderBook.Side;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moteur d'appariement des offres : les offres dont les prix se croisent sont exécutées en priorité prix-temps
+ * et chaque exécution est enregistrée comme un trade.
+ * <p>
+ * Une offre porte jusqu'à deux ordres sur son titre ({@code security}) : un achat de {@code bidQuantity} au
+ * prix {@code bid} et une vente de {@code askQuantity} au prix {@code ask}. Elle est confrontée tant que son
+ * statut n'est ni {@code Filled}, ni {@code Closed}, ni {@code Cancelled} ; modifier son prix ou augmenter sa
+ * quantité lui fait perdre sa priorité, la réduire non. Les offres en attente au démarrage sont rechargées dans
+ * l'ordre de leur identifiant, et celles qui se croisent déjà sont exécutées.
+ * </p>
+ * <p>
+ * {@link BidListService} publie un {@link BidListChangedEvent} à chaque écriture ; après le commit, les
+ * identifiants sont mis en file et un thread de réception relit les offres par lots puis transmet leur état à la
+ * partition de leur titre. Chaque partition est un thread unique qui possède seul les carnets de ses titres
+ * ({@link OrderBook}) : l'appariement se fait sans verrou, et les titres de partitions différentes sont
+ * appariés en parallèle. Les exécutions d'un lot sont enregistrées dans une même transaction : les trades par
+ * {@link TradeService#insertTrades}, y compris en mode write-behind, rattachés au compte acheteur, avec les deux
+ * offres en {@code sourceListId} ({@code achat/vente}) et le côté de l'ordre entrant en {@code side} ; les
+ * quantités restantes des offres, qui passent au statut {@code Filled} une fois entièrement exécutées.
+ * </p>
+ * <p>
+ * Les offres sont relues sur la base principale : un réplica en retard les montrerait absentes ou dans leur état
+ * antérieur, sans second événement pour corriger. Les quantités restantes ne sont écrites que si la base porte
+ * encore la quantité connue du carnet ; sinon (offre modifiée pendant l'appariement), le lot est annulé et les
+ * carnets de la partition sont rechargés depuis la base.
+ * </p>
+ * <p>
+ * Actif avec {@code poseidon.matching.enabled=true}. Les carnets sont tenus par l'instance : une seule instance
+ * de l'application doit activer le moteur.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.matching.enabled", havingValue = "true")
+public class MatchingEngine {
+
+    /**
+     * Statut d'une offre entièrement exécutée.
+     */
+    static final String FILLED = "Filled";
+
+    private static final Set<String> CLOSED_STATUSES = Set.of("FILLED", "CLOSED", "CANCELLED");
+    private static final String UPDATE_ORDER_SQL = "UPDATE BidList SET bidQuantity = COALESCE(?, bidQuantity), "
+            + "askQuantity = COALESCE(?, askQuantity), status = COALESCE(?, status), revisionName = ?, "
+            + "revisionDate = ? WHERE BidListId = ?";
+    private static final String IF_BID_QUANTITY = " AND bidQuantity = ?";
+    private static final String IF_ASK_QUANTITY = " AND askQuantity = ?";
+
+    private final BidListRepository bidListRepository;
+    private final TradeService tradeService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int partitionCount;
+    private final int batchSize;
+    private final BlockingQueue<Integer> changed = new LinkedBlockingQueue<>();
+    private final Map<Integer, Integer> partitionOfOrder = new ConcurrentHashMap<>();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong fillCount = new AtomicLong();
+
+    private List<Partition> partitions = List.of();
+    private Thread intakeThread;
+    private volatile boolean running;
+
+    /**
+     * Changement transmis à une partition.
+     */
+    private sealed interface Command permits Upsert, Cancel {
+    }
+
+    /**
+     * Nouvel état d'une offre, lu après son commit.
+     */
+    private record Upsert(OrderRequest request) implements Command {
+    }
+
+    /**
+     * Retrait des ordres d'une offre supprimée ou changée de titre.
+     */
+    private record Cancel(int id) implements Command {
+    }
+
+    /**
+     * Champs d'une offre utiles à l'appariement.
+     */
+    private record OrderRequest(int id, String security, String status, String account, String type, String trader,
+                                String book, Double bid, Double bidQuantity, Double ask, Double askQuantity) {
+
+        static OrderRequest of(BidList bidList) {
+            return new OrderRequest(bidList.getBidListId(), bidList.getSecurity(), bidList.getStatus(),
+                    bidList.getAccount(), bidList.getType(), bidList.getTrader(), bidList.getBook(), bidList.getBid(),
+                    bidList.getBidQuantity(), bidList.getAsk(), bidList.getAskQuantity());
+        }
+
+        boolean live() {
+            return security != null && (status == null || !CLOSED_STATUSES.contains(status.toUpperCase(Locale.ROOT)));
+        }
+
+        Double price(Side side) {
+            return side == Side.BUY ? bid : ask;
+        }
+
+        Double quantity(Side side) {
+            return side == Side.BUY ? bidQuantity : askQuantity;
+        }
+    }
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param bidListRepository  le repository des offres, relues après chaque changement.
+     * @param tradeService       enregistre les trades des exécutions, dans la transaction des quantités restantes.
+     * @param entityManager      le contexte de persistance, pour détacher les offres lues au chargement.
+     * @param jdbcTemplate       accès JDBC pour enregistrer les quantités restantes des offres.
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param eventPublisher     publie un {@link EntityAuditedEvent} pour chaque offre exécutée.
+     * @param partitions         le nombre de partitions (threads d'appariement) ; 0 pour une par processeur.
+     * @param batchSize          le nombre maximal de changements traités par lot.
+     */
+    public MatchingEngine(BidListRepository bidListRepository,
+                          TradeService tradeService,
+                          EntityManager entityManager,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${poseidon.matching.partitions:0}") int partitions,
+                          @Value("${poseidon.matching.batch-size:500}") int batchSize) {
+        this.bidListRepository = bidListRepository;
+        this.tradeService = tradeService;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Démarre les partitions, leur transmet les offres en attente puis démarre le thread de réception.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        List<Partition> created = new ArrayList<>(partitionCount);
+        for (int index = 0; index < partitionCount; index++) {
+            Partition partition = new Partition(index);
+            partition.thread = new Thread(partition, "matching-" + index);
+            partition.thread.setDaemon(true);
+            created.add(partition);
+        }
+        partitions = List.copyOf(created);
+        partitions.forEach(partition -> partition.thread.start());
+        Integer loaded = readFromPrimary(status -> {
+            int count = 0;
+            try (Stream<BidList> bidLists = bidListRepository.streamOpenOrders()) {
+                for (BidList bidList : (Iterable<BidList>) bidLists::iterator) {
+                    route(OrderRequest.of(bidList));
+                    entityManager.detach(bidList);
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Moteur d'appariement démarré : {} partition(s), {} offre(s) en attente chargée(s)",
+                partitionCount, loaded);
+        intakeThread = new Thread(this::intakeLoop, "matching-intake");
+        intakeThread.setDaemon(true);
+        intakeThread.start();
+    }
+
+    /**
+     * Arrête la réception puis les partitions, après avoir traité les changements en attente.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        join(intakeThread);
+        partitions.forEach(partition -> join(partition.thread));
+    }
+
+    private static void join(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Met en file les offres modifiées, une fois la transaction d'écriture validée.
+     *
+     * @param event l'événement publié par {@link BidListService}.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidListChanged(BidListChangedEvent event) {
+        enqueued.addAndGet(event.bidListIds().size());
+        changed.addAll(event.bidListIds());
+    }
+
+    /**
+     * @return le nombre d'exécutions enregistrées depuis le démarrage.
+     */
+    public long fillCount() {
+        return fillCount.get();
+    }
+
+    /**
+     * Attend que tous les changements mis en file, y compris ceux qu'ils ont engendrés, soient appariés et
+     * enregistrés.
+     *
+     * @param timeoutMs l'attente maximale.
+     * @return {@code false} si le délai a expiré avant.
+     */
+    boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (processed.get() != enqueued.get()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private void intakeLoop() {
+        List<Integer> ids = new ArrayList<>(batchSize);
+        while (running || !changed.isEmpty()) {
+            try {
+                Integer first = changed.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                ids.add(first);
+                changed.drainTo(ids, batchSize - 1);
+                Map<Integer, OrderRequest> found = readFromPrimary(status ->
+                        bidListRepository.findByBidListIdIn(ids).stream()
+                                .map(OrderRequest::of)
+                                .collect(Collectors.toMap(OrderRequest::id, Function.identity())));
+                for (Integer id : new LinkedHashSet<>(ids)) {
+                    OrderRequest request = found.get(id);
+                    if (request != null) {
+                        route(request);
+                    } else { // Offre supprimée
+                        Integer previous = partitionOfOrder.remove(id);
+                        if (previous != null) {
+                            enqueue(partitions.get(previous), new Cancel(id));
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Échec de la lecture de {} offre(s) modifiée(s) pour l'appariement", ids.size(), e);
+            } finally {
+                processed.addAndGet(ids.size());
+                ids.clear();
+            }
+        }
+    }
+
+    /**
+     * Lit dans une transaction en lecture seule servie par la base principale, même avec un réplica.
+     */
+    private <T> T readFromPrimary(TransactionCallback<T> action) {
+        boolean primaryRequired = ReplicaRoutingDataSource.isPrimaryRequired();
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        try {
+            return readOnlyTransaction.execute(action);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(primaryRequired);
+        }
+    }
+
+    /**
+     * Transmet l'état d'une offre à la partition de son titre, et un retrait à son ancienne partition si elle a
+     * changé de titre. Appelée par un seul thread à la fois (démarrage, puis thread de réception).
+     */
+    private void route(OrderRequest request) {
+        Integer target = request.security() != null ? partitionOf(request.security())
+                : partitionOfOrder.get(request.id());
+        if (target == null) {
+            return;
+        }
+        Integer previous = partitionOfOrder.put(request.id(), target);
+        if (previous != null && !previous.equals(target)) {
+            enqueue(partitions.get(previous), new Cancel(request.id()));
+        }
+        enqueue(partitions.get(target), new Upsert(request));
+    }
+
+    private int partitionOf(String security) {
+        return Math.floorMod(security.hashCode(), partitionCount);
+    }
+
+    private void enqueue(Partition partition, Command command) {
+        enqueued.incrementAndGet();
+        partition.commands.add(command);
+    }
+
+    /**
+     * Partition : un thread, sa file de changements et les carnets des titres qui lui reviennent.
+     */
+    private final class Partition implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+        private final Map<String, OrderBook> books = new HashMap<>();
+        private final Map<Integer, String> securityOfOrder = new HashMap<>();
+        private Thread thread;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(batchSize);
+            while (running || !commands.isEmpty()) {
+                try {
+                    Command first = commands.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    commands.drainTo(batch, batchSize - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (OptimisticLockingFailureException e) {
+                    log.warn("{} (partition {}) : exécutions annulées, carnets rechargés depuis la base", e.getMessage(), index);
+                    reload();
+                } catch (RuntimeException e) {
+                    log.error("Échec de l'appariement de {} changement(s) d'offres (partition {}) : "
+                            + "carnets rechargés depuis la base", batch.size(), index, e);
+                    reload();
+                } finally {
+                    processed.addAndGet(batch.size());
+                    batch.clear();
+                }
+            }
+        }
+
+        private void process(List<Command> batch) {
+            List<Fill> fills = new ArrayList<>();
+            for (Command command : batch) {
+                if (command instanceof Upsert upsert) {
+                    apply(upsert.request(), fills);
+                } else if (command instanceof Cancel cancel) {
+                    cancel(cancel.id());
+                }
+            }
+            if (!fills.isEmpty()) {
+                persist(fills);
+            }
+        }
+
+        private void apply(OrderRequest request, List<Fill> fills) {
+            String previous = securityOfOrder.get(request.id());
+            if (!request.live() || (previous != null && !previous.equals(request.security()))) {
+                cancel(request.id());
+            }
+            if (!request.live()) {
+                return;
+            }
+            OrderBook book = books.computeIfAbsent(request.security(), OrderBook::new);
+            for (Side side : Side.values()) {
+                Double price = request.price(side);
+                Double quantity = request.quantity(side);
+                Order existing = book.find(request.id(), side);
+                if (price == null || quantity == null || quantity <= 0) {
+                    book.cancel(request.id(), side);
+                    continue;
+                }
+                if (existing != null && existing.price == price && quantity <= existing.remaining) {
+                    existing.remaining = quantity; // Même prix, quantité réduite ou inchangée : priorité conservée.
+                    existing.stored = quantity;
+                    describe(existing, request);
+                    continue;
+                }
+                book.cancel(request.id(), side);
+                Order order = new Order(request.id(), side, price, quantity);
+                describe(order, request);
+                book.submit(order, fills);
+            }
+            track(request.id(), book);
+        }
+
+        private void describe(Order order, OrderRequest request) {
+            order.account = request.account();
+            order.type = request.type();
+            order.trader = request.trader();
+            order.book = request.book();
+        }
+
+        private void cancel(int id) {
+            String security = securityOfOrder.remove(id);
+            OrderBook book = security == null ? null : books.get(security);
+            if (book != null) {
+                book.cancel(id, Side.BUY);
+                book.cancel(id, Side.SELL);
+                if (book.isEmpty()) {
+                    books.remove(security);
+                }
+            }
+        }
+
+        private void track(int id, OrderBook book) {
+            if (book.find(id, Side.BUY) != null || book.find(id, Side.SELL) != null) {
+                securityOfOrder.put(id, book.security());
+            } else {
+                securityOfOrder.remove(id);
+                if (book.isEmpty()) {
+                    books.remove(book.security());
+                }
+            }
+        }
+
+        /**
+         * Enregistre les trades du lot et les quantités restantes des offres exécutées, dans une transaction.
+         * Chaque quantité n'est écrite que si la base porte encore celle du carnet ; sinon la transaction est
+         * annulée par une {@link OptimisticLockingFailureException}.
+         */
+        private void persist(List<Fill> fills) {
+            LocalDateTime now = LocalDateTime.now();
+            List<TradeDTO> trades = new ArrayList<>(fills.size());
+            Map<Integer, Map<Side, Order>> executed = new LinkedHashMap<>();
+            Map<Integer, OrderBook> executedBooks = new HashMap<>();
+            for (Fill fill : fills) {
+                trades.add(toTrade(fill, now));
+                OrderBook book = books.get(fill.security());
+                for (Order order : List.of(fill.buy(), fill.sell())) {
+                    executed.computeIfAbsent(order.id, id -> new EnumMap<>(Side.class)).put(order.side, order);
+                    executedBooks.put(order.id, book);
+                }
+            }
+            String actor = EntityAuditedEvent.currentActor();
+            Map<String, List<Object[]>> rowsBySql = new LinkedHashMap<>();
+            List<EntityAuditedEvent> audits = new ArrayList<>(executed.size());
+            executed.forEach((id, orders) -> {
+                OrderBook book = executedBooks.get(id);
+                Order buy = orders.get(Side.BUY);
+                Order sell = orders.get(Side.SELL);
+                Double bidQuantity = buy == null ? null : buy.remaining;
+                Double askQuantity = sell == null ? null : sell.remaining;
+                boolean open = book != null && (book.find(id, Side.BUY) != null || book.find(id, Side.SELL) != null);
+                String status = open ? null : FILLED;
+                List<Object> row = new ArrayList<>(8);
+                row.add(bidQuantity);
+                row.add(askQuantity);
+                row.add(status);
+                row.add(actor);
+                row.add(Timestamp.valueOf(now));
+                row.add(id);
+                String sql = UPDATE_ORDER_SQL;
+                if (buy != null) {
+                    sql += IF_BID_QUANTITY;
+                    row.add(buy.stored);
+                }
+                if (sell != null) {
+                    sql += IF_ASK_QUANTITY;
+                    row.add(sell.stored);
+                }
+                rowsBySql.computeIfAbsent(sql, key -> new ArrayList<>()).add(row.toArray());
+                Map<String, Object> change = new LinkedHashMap<>();
+                change.put("bidQuantity", bidQuantity);
+                change.put("askQuantity", askQuantity);
+                change.put("status", status);
+                change.values().removeIf(value -> value == null);
+                audits.add(EntityAuditedEvent.updated(EntityAuditedEvent.BID_LIST, id, null, change));
+                if (book != null) {
+                    track(id, book);
+                }
+            });
+            writeTransaction.executeWithoutResult(status -> {
+                tradeService.insertTrades(trades);
+                rowsBySql.forEach((sql, rows) -> {
+                    int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            throw new OptimisticLockingFailureException("Offre " + rows.get(i)[5]
+                                    + " modifiée ou supprimée pendant son appariement");
+                        }
+                    }
+                });
+                audits.forEach(eventPublisher::publishEvent);
+            });
+            executed.values().forEach(orders -> orders.values().forEach(order -> order.stored = order.remaining));
+            fillCount.addAndGet(fills.size());
+            log.debug("{} exécution(s) enregistrée(s) (partition {})", fills.size(), index);
+        }
+
+        /**
+         * Recharge les carnets de la partition depuis les offres en attente en base, après un échec qui les a
+         * désynchronisés.
+         */
+        private void reload() {
+            books.clear();
+            securityOfOrder.clear();
+            try {
+                readFromPrimary(status -> {
+                    try (Stream<BidList> bidLists = bidListRepository.streamOpenOrders()) {
+                        bidLists.forEach(bidList -> {
+                            OrderRequest request = OrderRequest.of(bidList);
+                            if (partitionOf(request.security()) == index) {
+                                enqueue(this, new Upsert(request));
+                            }
+                            entityManager.detach(bidList);
+                        });
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.error("Échec du rechargement des carnets de la partition {} : appariement interrompu jusqu'au "
+                        + "prochain changement de chaque offre", index, e);
+            }
+        }
+    }
+
+    private static TradeDTO toTrade(Fill fill, LocalDateTime tradeDate) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(fill.buy().account);
+        trade.setType(fill.buy().type);
+        trade.setBuyQuantity(fill.quantity());
+        trade.setBuyPrice(fill.price());
+        trade.setSellQuantity(fill.quantity());
+        trade.setSellPrice(fill.price());
+        trade.setSecurity(fill.security());
+        trade.setTradeDate(tradeDate);
+        trade.setTrader(fill.buy().trader);
+        trade.setBook(fill.buy().book);
+        trade.setSide(fill.aggressor().name());
+        trade.setSourceListId(fill.buy().id + "/" + fill.sell().id);
+        return trade;
+    }
+}
@@ -0,0 +1,193 @@
+package com.nnk.poseidon.services;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Carnet d'ordres d'un titre, apparié en priorité prix-temps.
+ * <p>
+ * Chaque côté est une suite de niveaux de prix, du meilleur au moins bon, et chaque niveau une file dans l'ordre
+ * d'arrivée. Un ordre entrant est confronté aux ordres du côté opposé tant que son prix les croise, au prix de
+ * l'ordre en attente ; son reste éventuel rejoint la fin de son niveau. Les deux jambes d'une même offre ne se
+ * croisent jamais entre elles.
+ * </p>
+ * <p>
+ * Le carnet n'est pas synchronisé : il appartient au seul thread de la partition du {@link MatchingEngine} qui
+ * gère son titre.
+ * </p>
+ */
+class OrderBook {
+
+    /**
+     * Côté d'un ordre : la jambe achat ({@code bid}) ou vente ({@code ask}) d'une offre.
+     */
+    enum Side {
+        BUY, SELL
+    }
+
+    /**
+     * Ordre en attente ou entrant. Le prix et le côté sont fixes ; la quantité restante diminue à chaque exécution.
+     */
+    static final class Order {
+
+        final int id;
+        final Side side;
+        final double price;
+        double remaining;
+        /**
+         * Quantité de cette jambe connue en base, condition de la mise à jour des quantités restantes.
+         */
+        double stored;
+        String account;
+        String type;
+        String trader;
+        String book;
+
+        /**
+         * @param id        l'identifiant de l'offre.
+         * @param side      la jambe de l'offre.
+         * @param price     le prix limite.
+         * @param remaining la quantité, strictement positive.
+         */
+        Order(int id, Side side, double price, double remaining) {
+            this.id = id;
+            this.side = side;
+            this.price = price;
+            this.remaining = remaining;
+            this.stored = remaining;
+        }
+    }
+
+    /**
+     * Exécution entre deux ordres.
+     *
+     * @param security  le titre.
+     * @param buy       l'ordre d'achat.
+     * @param sell      l'ordre de vente.
+     * @param price     le prix d'exécution, celui de l'ordre en attente.
+     * @param quantity  la quantité exécutée.
+     * @param aggressor le côté de l'ordre entrant.
+     */
+    record Fill(String security, Order buy, Order sell, double price, double quantity, Side aggressor) {
+    }
+
+    private final String security;
+    private final NavigableMap<Double, ArrayDeque<Order>> bids = new TreeMap<>(Collections.reverseOrder());
+    private final NavigableMap<Double, ArrayDeque<Order>> asks = new TreeMap<>();
+    private final Map<Integer, Order> buyOrders = new HashMap<>();
+    private final Map<Integer, Order> sellOrders = new HashMap<>();
+
+    /**
+     * @param security le titre du carnet.
+     */
+    OrderBook(String security) {
+        this.security = security;
+    }
+
+    String security() {
+        return security;
+    }
+
+    /**
+     * @return {@code true} si aucun ordre n'est en attente.
+     */
+    boolean isEmpty() {
+        return buyOrders.isEmpty() && sellOrders.isEmpty();
+    }
+
+    /**
+     * @param id   l'identifiant de l'offre.
+     * @param side la jambe.
+     * @return l'ordre en attente, ou {@code null}.
+     */
+    Order find(int id, Side side) {
+        return orders(side).get(id);
+    }
+
+    /**
+     * Meilleur prix en attente d'un côté.
+     *
+     * @param side le côté.
+     * @return le prix, ou {@code null} si le côté est vide.
+     */
+    Double bestPrice(Side side) {
+        NavigableMap<Double, ArrayDeque<Order>> levels = levels(side);
+        return levels.isEmpty() ? null : levels.firstKey();
+    }
+
+    /**
+     * Confronte l'ordre au côté opposé puis met son reste en attente.
+     *
+     * @param incoming l'ordre entrant, absent du carnet.
+     * @param fills    reçoit les exécutions, dans l'ordre.
+     */
+    void submit(Order incoming, List<Fill> fills) {
+        Side opposite = incoming.side == Side.BUY ? Side.SELL : Side.BUY;
+        Iterator<Map.Entry<Double, ArrayDeque<Order>>> levels = levels(opposite).entrySet().iterator();
+        while (incoming.remaining > 0 && levels.hasNext()) {
+            Map.Entry<Double, ArrayDeque<Order>> level = levels.next();
+            double price = level.getKey();
+            if (incoming.side == Side.BUY ? price > incoming.price : price < incoming.price) {
+                break;
+            }
+            Iterator<Order> queue = level.getValue().iterator();
+            while (incoming.remaining > 0 && queue.hasNext()) {
+                Order resting = queue.next();
+                if (resting.id == incoming.id) {
+                    continue;
+                }
+                double quantity = Math.min(incoming.remaining, resting.remaining);
+                incoming.remaining -= quantity;
+                resting.remaining -= quantity;
+                fills.add(incoming.side == Side.BUY
+                        ? new Fill(security, incoming, resting, price, quantity, Side.BUY)
+                        : new Fill(security, resting, incoming, price, quantity, Side.SELL));
+                if (resting.remaining <= 0) {
+                    queue.remove();
+                    orders(opposite).remove(resting.id);
+                }
+            }
+            if (level.getValue().isEmpty()) {
+                levels.remove();
+            }
+        }
+        if (incoming.remaining > 0) {
+            levels(incoming.side).computeIfAbsent(incoming.price, price -> new ArrayDeque<>()).addLast(incoming);
+            orders(incoming.side).put(incoming.id, incoming);
+        }
+    }
+
+    /**
+     * Retire un ordre en attente.
+     *
+     * @param id   l'identifiant de l'offre.
+     * @param side la jambe.
+     * @return l'ordre retiré, ou {@code null} s'il n'était pas en attente.
+     */
+    Order cancel(int id, Side side) {
+        Order order = orders(side).remove(id);
+        if (order != null) {
+            NavigableMap<Double, ArrayDeque<Order>> levels = levels(side);
+            ArrayDeque<Order> level = levels.get(order.price);
+            level.remove(order);
+            if (level.isEmpty()) {
+                levels.remove(order.price);
+            }
+        }
+        return order;
+    }
+
+    private NavigableMap<Double, ArrayDeque<Order>> levels(Side side) {
+        return side == Side.BUY ? bids : asks;
+    }
+
+    private Map<Integer, Order> orders(Side side) {
+        return side == Side.BUY ? buyOrders : sellOrders;
+    }
+}
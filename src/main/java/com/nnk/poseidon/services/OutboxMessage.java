@@ -0,0 +1,25 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement publié par le relais de l'outbox vers une {@link OutboxSink}.
+ * <p>
+ * La livraison est « au moins une fois » : un message peut être reçu plusieurs fois après une panne,
+ * toujours avec le même {@code offset}, qui permet au consommateur d'ignorer les doublons.
+ * </p>
+ *
+ * @param offset        la position du message, strictement croissante.
+ * @param aggregateType le type de la ligne modifiée ({@code Trade} ou {@code BidList}).
+ * @param aggregateId   l'identifiant de la ligne modifiée.
+ * @param eventType     la nature du changement : {@code CREATE}, {@code UPDATE} ou {@code DELETE}.
+ * @param actor         l'utilisateur à l'origine du changement.
+ * @param occurredAt    la date et l'heure du changement.
+ * @param payload       l'état après le changement, en JSON (les seuls champs modifiés pour une mise à jour
+ *                      groupée du statut), ou {@code null} pour une suppression.
+ */
+public record OutboxMessage(long offset, String aggregateType, Integer aggregateId, String eventType, String actor,
+                            LocalDateTime occurredAt, @JsonRawValue String payload) {
+}
@@ -0,0 +1,332 @@
+package com.nnk.poseidon.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Relais de l'outbox transactionnel vers les {@link OutboxSink} déclarées.
+ * <p>
+ * Un thread dédié lit, pour chaque destination, les lignes de {@code OutboxEvent} postérieures à sa position
+ * ({@code OutboxOffset}), les publie par lots dans l'ordre, puis avance la position. La position n'est
+ * enregistrée qu'après une publication réussie : après un échec ou un arrêt brutal, le lot est republié
+ * (livraison « au moins une fois », les doublons se reconnaissent à leur position). Une nouvelle
+ * destination commence à la plus ancienne ligne encore conservée.
+ * </p>
+ * <p>
+ * Les identifiants sont attribués à l'insertion mais visibles au commit : une transaction plus lente peut
+ * faire apparaître un trou temporaire. Le relais ne publie donc que la suite contiguë à la position et
+ * attend le trou jusqu'à {@code gap-timeout-ms} ; au-delà, il avance la position mais enregistre les
+ * identifiants sautés dans {@code OutboxGap}. Rien ne distingue une transaction annulée d'une transaction
+ * encore en cours : ces identifiants sont relus à chaque cycle, et une ligne validée tardivement est publiée
+ * dès qu'elle apparaît, en dessous de la position. Un identifiant sauté est oublié après la durée de
+ * rétention. Les lignes lues par toutes les destinations et plus anciennes que la durée de rétention
+ * sont purgées périodiquement.
+ * </p>
+ * <p>
+ * Actif avec {@code poseidon.outbox.enabled=true}.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final String SELECT_SQL = "SELECT Id, aggregateType, aggregateId, eventType, actor, occurredAt, payload "
+            + "FROM OutboxEvent WHERE Id > ? ORDER BY Id LIMIT ?";
+    private static final String SELECT_OFFSET_SQL = "SELECT lastId FROM OutboxOffset WHERE consumer = ?";
+    private static final String UPDATE_OFFSET_SQL = "UPDATE OutboxOffset SET lastId = ?, updatedAt = ? WHERE consumer = ?";
+    private static final String INSERT_OFFSET_SQL = "INSERT INTO OutboxOffset (consumer, lastId, updatedAt) VALUES (?, ?, ?)";
+    private static final String PURGE_SQL = "DELETE FROM OutboxEvent WHERE Id <= ? AND occurredAt < ? "
+            + "AND Id NOT IN (SELECT Id FROM OutboxGap)";
+    private static final String SELECT_SKIPPED_SQL = "SELECT e.Id, e.aggregateType, e.aggregateId, e.eventType, e.actor, "
+            + "e.occurredAt, e.payload FROM OutboxEvent e JOIN OutboxGap g ON g.Id = e.Id WHERE g.consumer = ? "
+            + "ORDER BY e.Id LIMIT ?";
+    private static final String CLEAR_GAP_SQL = "DELETE FROM OutboxGap WHERE consumer = ? AND Id BETWEEN ? AND ?";
+    private static final String INSERT_GAP_SQL = "INSERT INTO OutboxGap (consumer, Id, skippedAt) VALUES (?, ?, ?)";
+    private static final String DELETE_GAP_SQL = "DELETE FROM OutboxGap WHERE consumer = ? AND Id = ?";
+    private static final String PURGE_GAPS_SQL = "DELETE FROM OutboxGap WHERE skippedAt < ?";
+
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("Id"), rs.getString("aggregateType"), rs.getInt("aggregateId"), rs.getString("eventType"),
+            rs.getString("actor"), rs.getTimestamp("occurredAt").toLocalDateTime(), rs.getString("payload"));
+
+    private static final long PURGE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<OutboxSink> sinkProvider;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long gapTimeoutMs;
+    private final long retentionHours;
+
+    /**
+     * Position publiée de chaque destination.
+     */
+    private final Map<String, Long> offsets = new HashMap<>();
+
+    /**
+     * Pour chaque destination bloquée sur un trou, la date (en ms) de sa première observation.
+     */
+    private final Map<String, Long> gapsSince = new HashMap<>();
+
+    /**
+     * Pour chaque destination en échec, la date (en ms) avant laquelle ne pas réessayer.
+     */
+    private final Map<String, Long> retryAt = new HashMap<>();
+
+    private List<OutboxSink> sinks = List.of();
+    private long lastPurge;
+    private Thread relayThread;
+    private volatile boolean running;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param jdbcTemplate   accès JDBC à l'outbox et aux positions.
+     * @param sinkProvider   les destinations déclarées.
+     * @param batchSize      le nombre maximal de messages publiés par lot.
+     * @param pollIntervalMs l'attente entre deux lectures quand il n'y a rien à publier.
+     * @param gapTimeoutMs   l'attente d'un identifiant manquant avant de le sauter et de le surveiller à part.
+     * @param retentionHours la durée de conservation des lignes déjà publiées.
+     */
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       ObjectProvider<OutboxSink> sinkProvider,
+                       @Value("${poseidon.outbox.batch-size:500}") int batchSize,
+                       @Value("${poseidon.outbox.poll-interval-ms:200}") long pollIntervalMs,
+                       @Value("${poseidon.outbox.gap-timeout-ms:5000}") long gapTimeoutMs,
+                       @Value("${poseidon.outbox.retention-hours:24}") long retentionHours) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("La taille des lots de l'outbox doit être positive.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.sinkProvider = sinkProvider;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Démarre le thread de relais, s'il existe au moins une destination.
+     */
+    @PostConstruct
+    public void start() {
+        sinks = sinkProvider.orderedStream().toList();
+        if (sinks.isEmpty()) {
+            log.warn("Outbox activé sans destination : les changements sont conservés sans être publiés");
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::relayLoop, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+        log.info("Relais de l'outbox démarré vers {}", sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    /**
+     * Arrête le thread de relais ; les lignes non publiées le seront au prochain démarrage.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (relayThread != null) {
+            relayThread.interrupt();
+            try {
+                relayThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void relayLoop() {
+        while (running) {
+            boolean published = false;
+            for (OutboxSink sink : sinks) {
+                published |= relay(sink);
+            }
+            purgeIfDue();
+            if (!published) {
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publie le prochain lot d'une destination.
+     *
+     * @param sink la destination.
+     * @return {@code true} si un lot a été publié.
+     */
+    private boolean relay(OutboxSink sink) {
+        String name = sink.name();
+        long now = System.currentTimeMillis();
+        if (retryAt.getOrDefault(name, 0L) > now) {
+            return false;
+        }
+        if (relaySkipped(sink, now)) {
+            return true;
+        }
+        List<OutboxMessage> batch;
+        try {
+            Long offset = offsets.computeIfAbsent(name, this::loadOffset);
+            List<OutboxMessage> rows = jdbcTemplate.query(SELECT_SQL, MESSAGE_MAPPER, offset == null ? 0L : offset, batchSize);
+            if (rows.isEmpty()) {
+                return false;
+            }
+            if (offset == null) {
+                // Nouvelle destination : elle commence à la plus ancienne ligne conservée.
+                offset = rows.get(0).offset() - 1;
+                jdbcTemplate.update(INSERT_OFFSET_SQL, name, offset, Timestamp.valueOf(LocalDateTime.now()));
+                offsets.put(name, offset);
+            }
+            batch = contiguous(name, offset, rows, now);
+            if (batch.isEmpty()) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de la lecture de l'outbox pour {}, nouvel essai : {}", name, e.getMessage());
+            offsets.remove(name);
+            retryAt.put(name, now + RETRY_DELAY_MS);
+            return false;
+        }
+        try {
+            sink.publish(batch);
+            long lastId = batch.get(batch.size() - 1).offset();
+            jdbcTemplate.update(UPDATE_OFFSET_SQL, lastId, Timestamp.valueOf(LocalDateTime.now()), name);
+            offsets.put(name, lastId);
+            log.debug("{} changements publiés vers {} jusqu'à la position {}", batch.size(), name, lastId);
+            return true;
+        } catch (Exception e) {
+            // Position inchangée : le même lot sera republié.
+            log.error("Échec de la publication de {} changements vers {}, nouvel essai : {}", batch.size(), name, e.getMessage());
+            offsets.remove(name);
+            retryAt.put(name, now + RETRY_DELAY_MS);
+            return false;
+        }
+    }
+
+    /**
+     * Publie les lignes apparues depuis parmi les identifiants sautés d'une destination, puis les retire de
+     * {@code OutboxGap}.
+     *
+     * @param sink la destination.
+     * @param now  l'heure courante, en ms.
+     * @return {@code true} si des lignes ont été publiées.
+     */
+    private boolean relaySkipped(OutboxSink sink, long now) {
+        String name = sink.name();
+        List<OutboxMessage> late;
+        try {
+            late = jdbcTemplate.query(SELECT_SKIPPED_SQL, MESSAGE_MAPPER, name, batchSize);
+        } catch (RuntimeException e) {
+            log.error("Échec de la lecture des changements sautés pour {}, nouvel essai : {}", name, e.getMessage());
+            retryAt.put(name, now + RETRY_DELAY_MS);
+            return false;
+        }
+        if (late.isEmpty()) {
+            return false;
+        }
+        try {
+            sink.publish(late);
+            jdbcTemplate.batchUpdate(DELETE_GAP_SQL, late, late.size(), (ps, message) -> {
+                ps.setString(1, name);
+                ps.setLong(2, message.offset());
+            });
+            log.warn("{} changements validés après l'attente des trous publiés vers {} ({} à {})", late.size(), name,
+                    late.get(0).offset(), late.get(late.size() - 1).offset());
+            return true;
+        } catch (Exception e) {
+            // Identifiants conservés dans OutboxGap : les mêmes lignes seront republiées.
+            log.error("Échec de la publication de {} changements tardifs vers {}, nouvel essai : {}", late.size(), name,
+                    e.getMessage());
+            retryAt.put(name, now + RETRY_DELAY_MS);
+            return false;
+        }
+    }
+
+    /**
+     * Extrait la suite des lignes contiguë à la position. Un trou en tête est attendu jusqu'à
+     * {@link #gapTimeoutMs}, puis enregistré dans {@code OutboxGap} et sauté.
+     */
+    private List<OutboxMessage> contiguous(String name, long offset, List<OutboxMessage> rows, long now) {
+        if (rows.get(0).offset() != offset + 1) {
+            long since = gapsSince.computeIfAbsent(name, key -> now);
+            if (now - since < gapTimeoutMs) {
+                return List.of();
+            }
+            long first = offset + 1;
+            long last = rows.get(0).offset() - 1;
+            // Enregistré avant d'avancer la position ; effacé d'abord, le même trou pouvant être revu après un échec.
+            Timestamp skippedAt = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(CLEAR_GAP_SQL, name, first, last);
+            jdbcTemplate.batchUpdate(INSERT_GAP_SQL, LongStream.rangeClosed(first, last).boxed().toList(), batchSize,
+                    (ps, id) -> {
+                        ps.setString(1, name);
+                        ps.setLong(2, id);
+                        ps.setTimestamp(3, skippedAt);
+                    });
+            log.warn("Changements {} à {} absents de l'outbox depuis {} ms, sautés et surveillés jusqu'à leur commit éventuel",
+                    first, last, now - since);
+        }
+        gapsSince.remove(name);
+        List<OutboxMessage> batch = new ArrayList<>(rows.size());
+        batch.add(rows.get(0));
+        for (int i = 1; i < rows.size() && rows.get(i).offset() == rows.get(i - 1).offset() + 1; i++) {
+            batch.add(rows.get(i));
+        }
+        return batch;
+    }
+
+    private Long loadOffset(String name) {
+        List<Long> stored = jdbcTemplate.queryForList(SELECT_OFFSET_SQL, Long.class, name);
+        return stored.isEmpty() ? null : stored.get(0);
+    }
+
+    /**
+     * Purge les lignes lues par toutes les destinations et plus anciennes que la durée de rétention.
+     */
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MS || offsets.size() < sinks.size() || offsets.containsValue(null)) {
+            return;
+        }
+        lastPurge = now;
+        long published = offsets.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+        try {
+            Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+            int forgotten = jdbcTemplate.update(PURGE_GAPS_SQL, before);
+            if (forgotten > 0) {
+                log.info("{} identifiants sautés de l'outbox oubliés après la durée de rétention", forgotten);
+            }
+            int purged = jdbcTemplate.update(PURGE_SQL, published, before);
+            if (purged > 0) {
+                log.info("{} changements publiés purgés de l'outbox", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de la purge de l'outbox : {}", e.getMessage());
+        }
+    }
+}
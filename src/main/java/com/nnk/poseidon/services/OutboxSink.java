@@ -0,0 +1,32 @@
+package com.nnk.poseidon.services;
+
+import java.util.List;
+
+/**
+ * Destination des changements publiés par l'{@link OutboxRelay}.
+ * <p>
+ * Chaque bean {@code OutboxSink} est un consommateur distinct, dont la position est conservée sous son
+ * {@link #name()} dans la table {@code OutboxOffset}. Le relais n'avance cette position qu'après le retour
+ * normal de {@link #publish} : une exception provoque la republication du même lot. Une ligne validée après
+ * l'attente des trous du relais est publiée plus tard, dans un lot à part, sous des positions déjà publiées :
+ * les doublons se reconnaissent à la position, pas à sa comparaison avec la dernière reçue.
+ * </p>
+ */
+public interface OutboxSink {
+
+    /**
+     * Nom stable du consommateur, clé de sa position (64 caractères au plus).
+     *
+     * @return le nom.
+     */
+    String name();
+
+    /**
+     * Publie un lot de messages, dans l'ordre des positions au sein du lot ; ne doit retourner qu'une fois
+     * le lot durable.
+     *
+     * @param messages les messages, non vides.
+     * @throws Exception si le lot n'a pas pu être publié ; il sera republié.
+     */
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,174 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.config.ReplicaRoutingDataSource;
+import com.nnk.poseidon.repositories.IdRange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Lecture et conversion en DTO en parallèle des tables volumineuses (exports, rapports).
+ * <p>
+ * La plage des identifiants est découpée en morceaux de {@code chunk-size} identifiants, répartis par
+ * fork-join sur un pool dédié de {@code parallelism} threads. Chaque morceau est lu, converti et libéré dans
+ * sa propre transaction en lecture seule, donc avec sa propre session Hibernate : aucune entité ne passe d'un
+ * thread à l'autre, seuls les DTO sont rassemblés, dans l'ordre des identifiants.
+ * </p>
+ * <p>
+ * Les morceaux sont lus dans des transactions distinctes : le résultat n'est pas un instantané cohérent de la
+ * table si elle est modifiée pendant la lecture. Chaque thread occupe une connexion ; {@code parallelism} doit
+ * rester inférieur à la taille du pool de connexions. Les appelants concurrents partagent les mêmes threads :
+ * ils n'occupent pas plus de {@code parallelism} connexions à eux tous, à condition de ne pas en garder une
+ * eux-mêmes. Un appelant en transaction, qui garde la sienne en attendant le pool, voit donc ses morceaux lus
+ * par lui-même, l'un après l'autre, dans sa transaction. Les tables de moins de {@code threshold} lignes sont
+ * lues par l'appelant, d'un seul tenant.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ParallelChunkMapper {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final int parallelism;
+    private final int chunkSize;
+    private final long threshold;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param parallelism        le nombre de threads de lecture (1 pour désactiver le parallélisme).
+     * @param chunkSize          le nombre d'identifiants couverts par un morceau.
+     * @param threshold          le nombre de lignes à partir duquel la lecture est parallélisée.
+     */
+    public ParallelChunkMapper(PlatformTransactionManager transactionManager,
+                               @Value("${poseidon.parallel-mapping.parallelism:4}") int parallelism,
+                               @Value("${poseidon.parallel-mapping.chunk-size:10000}") int chunkSize,
+                               @Value("${poseidon.parallel-mapping.threshold:100000}") long threshold) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Le parallélisme et la taille des morceaux doivent être positifs.");
+        }
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.threshold = threshold;
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("dto-mapper-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Arrête les threads de lecture.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Indique si une table mérite d'être lue en parallèle.
+     *
+     * @param range les bornes et le nombre de lignes de la table.
+     * @return {@code true} si le parallélisme est actif et la table atteint le seuil.
+     */
+    public boolean shouldSplit(IdRange range) {
+        return parallelism > 1 && range.count() >= threshold && range.min() != null;
+    }
+
+    /**
+     * Lit et convertit toutes les lignes d'une plage d'identifiants, morceau par morceau, en parallèle.
+     *
+     * @param range  les bornes de la plage.
+     * @param fetch  la lecture des lignes d'un morceau, bornes incluses.
+     * @param mapper la conversion d'une entité en DTO.
+     * @param <E>    le type des entités.
+     * @param <D>    le type des DTO.
+     * @return les DTO, par identifiant croissant.
+     */
+    public <E, D> List<D> map(IdRange range, BiFunction<Integer, Integer, List<E>> fetch, Function<E, D> mapper) {
+        long start = System.nanoTime();
+        int chunks = (int) ((range.max() - (long) range.min()) / chunkSize + 1);
+        @SuppressWarnings("unchecked")
+        List<D>[] results = new List[chunks];
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Connexion gardée par l'appelant : sans elle, plusieurs appelants épuiseraient le pool de connexions.
+            log.debug("Lecture parallèle demandée dans une transaction : {} morceaux lus par l'appelant", chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long lower = range.min() + (long) chunk * chunkSize;
+                int upper = (int) Math.min(lower + chunkSize - 1, Integer.MAX_VALUE);
+                results[chunk] = fetch.apply((int) lower, upper).stream().map(mapper).toList();
+            }
+        } else {
+            boolean primaryRequired = ReplicaRoutingDataSource.isPrimaryRequired();
+            pool.invoke(new ChunkTask<>(range.min(), 0, chunks, fetch, mapper, results, primaryRequired));
+        }
+
+        List<D> merged = new ArrayList<>((int) Math.min(range.count(), Integer.MAX_VALUE));
+        for (List<D> chunk : results) {
+            merged.addAll(chunk);
+        }
+        log.debug("{} lignes lues en {} morceaux sur {} threads en {} ms", merged.size(), chunks, parallelism,
+                (System.nanoTime() - start) / 1_000_000);
+        return merged;
+    }
+
+    /**
+     * Tâche couvrant les morceaux {@code [from, to)} : elle se divise en deux tant qu'elle en couvre plusieurs.
+     */
+    private final class ChunkTask<E, D> extends RecursiveAction {
+
+        private final int firstId;
+        private final int from;
+        private final int to;
+        private final BiFunction<Integer, Integer, List<E>> fetch;
+        private final Function<E, D> mapper;
+        private final List<D>[] results;
+        private final boolean primaryRequired;
+
+        ChunkTask(int firstId, int from, int to, BiFunction<Integer, Integer, List<E>> fetch, Function<E, D> mapper,
+                  List<D>[] results, boolean primaryRequired) {
+            this.firstId = firstId;
+            this.from = from;
+            this.to = to;
+            this.fetch = fetch;
+            this.mapper = mapper;
+            this.results = results;
+            this.primaryRequired = primaryRequired;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask<>(firstId, from, middle, fetch, mapper, results, primaryRequired),
+                        new ChunkTask<>(firstId, middle, to, fetch, mapper, results, primaryRequired));
+                return;
+            }
+            long lower = firstId + (long) from * chunkSize;
+            int upper = (int) Math.min(lower + chunkSize - 1, Integer.MAX_VALUE);
+            ReplicaRoutingDataSource.setPrimaryRequired(primaryRequired);
+            try {
+                results[from] = readOnlyTransaction.execute(status ->
+                        fetch.apply((int) lower, upper).stream().map(mapper).toList());
+            } finally {
+                ReplicaRoutingDataSource.clearPrimaryRequired();
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.nnk.poseidon.domain.Rating;
 import com.nnk.poseidon.dto.RatingDTO; // Importer le DTO
 import com.nnk.poseidon.repositories.RatingRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,14 +23,22 @@ import java.util.stream.Collectors;
 public class RatingService { // Plus d'interface
 
     private final RatingRepository ratingRepository;
+    private final TransactionBatchingExecutor transactionBatchingExecutor;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationProvider;
 
     /**
      * Construit un nouveau RatingService avec le repository donné.
      * @param ratingRepository Le repository pour les entités Rating.
+     * @param transactionBatchingExecutor L'exécuteur regroupant les sauvegardes concurrentes en une transaction.
+     * @param cacheInvalidationProvider Le bus d'invalidation des caches des autres nœuds, s'il est activé.
      */
     @Autowired
-    public RatingService(RatingRepository ratingRepository) {
+    public RatingService(RatingRepository ratingRepository,
+                         TransactionBatchingExecutor transactionBatchingExecutor,
+                         ObjectProvider<CacheInvalidationBus> cacheInvalidationProvider) {
         this.ratingRepository = ratingRepository;
+        this.transactionBatchingExecutor = transactionBatchingExecutor;
+        this.cacheInvalidationProvider = cacheInvalidationProvider;
     }
 
     // --- Méthodes de mapping privées DTO <-> Entité ---
@@ -96,36 +105,38 @@ public class RatingService { // Plus d'interface
      * @return Le {@link RatingDTO} de l'entité sauvegardée.
      * @throws IllegalArgumentException si le RatingDTO est nul.
      */
-    @Transactional
     public RatingDTO saveRating(RatingDTO RatingDTO) {
         if (RatingDTO == null) {
             log.error("Tentative de sauvegarde d'un objet RatingDTO nul");
             throw new IllegalArgumentException("L'objet RatingDTO ne peut pas être nul.");
         }
 
-        Rating ratingToSave;
-        if (RatingDTO.getId() == null) { // Création d'une nouvelle entité
-            log.info("Création d'un nouveau Rating à partir du DTO : {}", RatingDTO);
-            ratingToSave = convertToEntity(RatingDTO);
-            // Pas de champs de date de création/modification dans l'entité Rating fournie.
-        } else { // Mise à jour d'une entité existante
-            log.info("Mise à jour du Rating existant avec id {} à partir du DTO : {}", RatingDTO.getId(), RatingDTO);
-            Rating existingRating = ratingRepository.findById(RatingDTO.getId())
-                    .orElseThrow(() -> {
-                        log.warn("Rating non trouvé pour la mise à jour avec id : {}", RatingDTO.getId());
-                        return new IllegalArgumentException("Mise à jour impossible : Rating non trouvé avec id: " + RatingDTO.getId());
-                    });
-            // Mettre à jour les champs de l'entité existante à partir du DTO
-            existingRating.setMoodysRating(RatingDTO.getMoodysRating());
-            existingRating.setSandPRating(RatingDTO.getSandPRating());
-            existingRating.setFitchRating(RatingDTO.getFitchRating());
-            existingRating.setOrderNumber(RatingDTO.getOrderNumber());
-            ratingToSave = existingRating;
-        }
+        return transactionBatchingExecutor.execute(() -> {
+            Rating ratingToSave;
+            if (RatingDTO.getId() == null) { // Création d'une nouvelle entité
+                log.info("Création d'un nouveau Rating à partir du DTO : {}", RatingDTO);
+                ratingToSave = convertToEntity(RatingDTO);
+                // Pas de champs de date de création/modification dans l'entité Rating fournie.
+            } else { // Mise à jour d'une entité existante
+                log.info("Mise à jour du Rating existant avec id {} à partir du DTO : {}", RatingDTO.getId(), RatingDTO);
+                Rating existingRating = ratingRepository.findById(RatingDTO.getId())
+                        .orElseThrow(() -> {
+                            log.warn("Rating non trouvé pour la mise à jour avec id : {}", RatingDTO.getId());
+                            return new IllegalArgumentException("Mise à jour impossible : Rating non trouvé avec id: " + RatingDTO.getId());
+                        });
+                // Mettre à jour les champs de l'entité existante à partir du DTO
+                existingRating.setMoodysRating(RatingDTO.getMoodysRating());
+                existingRating.setSandPRating(RatingDTO.getSandPRating());
+                existingRating.setFitchRating(RatingDTO.getFitchRating());
+                existingRating.setOrderNumber(RatingDTO.getOrderNumber());
+                ratingToSave = existingRating;
+            }
 
-        Rating savedEntity = ratingRepository.save(ratingToSave);
-        log.info("Rating sauvegardé avec succès : {}", savedEntity);
-        return convertToDTO(savedEntity);
+            Rating savedEntity = ratingRepository.save(ratingToSave);
+            cacheInvalidationProvider.ifAvailable(bus -> bus.publish(Rating.class, savedEntity.getId()));
+            log.info("Rating sauvegardé avec succès : {}", savedEntity);
+            return convertToDTO(savedEntity);
+        });
     }
 
     /**
@@ -145,5 +156,6 @@ public class RatingService { // Plus d'interface
         }
         log.info("Suppression du Rating avec id : {}", id);
         ratingRepository.deleteById(id);
+        cacheInvalidationProvider.ifAvailable(bus -> bus.publish(Rating.class, id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.CurvePointDTO;
+import com.nnk.poseidon.dto.TradeDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lectures réactives des trades, des offres et des points de courbe, pour les tableaux de bord qui gardent
+ * de nombreuses connexions ouvertes.
+ * <p>
+ * Contrairement à {@link TradeService#findAllTrades()}, qui bloque un thread et une connexion JDBC le temps de
+ * charger toute la table en mémoire, chaque méthode renvoie un {@link Flux} lu sur R2DBC au rythme de la
+ * demande du client : les lignes sont lues par paquets de {@code poseidon.reactive.prefetch}, aucun thread
+ * n'est bloqué en attente de la base et la mémoire consommée ne dépend pas de la taille de la table.
+ * </p>
+ * <p>
+ * Les lignes sont converties dans les mêmes DTO que ceux des services bloquants et de l'API REST ; les colonnes
+ * lues sont celles mappées par les entités du domaine. Actif avec {@code poseidon.reactive.enabled=true}.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "poseidon.reactive.enabled", havingValue = "true")
+public class ReactiveReadService {
+
+    private static final String TRADES_SQL = "SELECT TradeId, account, type, buyQuantity, sellQuantity, buyPrice, sellPrice, "
+            + "tradeDate, security, status, trader, benchmark, book, creationName, creationDate, revisionName, revisionDate, "
+            + "dealName, dealType, sourceListId, side FROM Trade ORDER BY TradeId";
+    private static final String BIDS_SQL = "SELECT BidListId, account, type, bidQuantity, creationDate FROM BidList ORDER BY BidListId";
+
+    /**
+     * {@code value} est un mot réservé sous H2 : la colonne n'est pas nommée dans la requête, mais lue par son nom.
+     */
+    private static final String CURVE_POINTS_SQL = "SELECT * FROM CurvePoint";
+
+    private final DatabaseClient databaseClient;
+    private final int prefetch;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param databaseClient le client SQL réactif.
+     * @param prefetch       le nombre de lignes demandées à la base à la fois.
+     */
+    public ReactiveReadService(DatabaseClient databaseClient,
+                               @Value("${poseidon.reactive.prefetch:256}") int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("Le nombre de lignes lues à la fois doit être positif.");
+        }
+        this.databaseClient = databaseClient;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Lit tous les trades, par identifiant croissant.
+     *
+     * @return le flux des trades.
+     */
+    public Flux<TradeDTO> streamTrades() {
+        return databaseClient.sql(TRADES_SQL)
+                .map(ReactiveReadService::toTrade)
+                .all()
+                .limitRate(prefetch);
+    }
+
+    /**
+     * Lit toutes les offres, par identifiant croissant.
+     *
+     * @return le flux des offres.
+     */
+    public Flux<BidListDTO> streamBids() {
+        return databaseClient.sql(BIDS_SQL)
+                .map(row -> new BidListDTO(row.get("BidListId", Integer.class), row.get("account", String.class),
+                        row.get("type", String.class), row.get("bidQuantity", Double.class),
+                        row.get("creationDate", LocalDateTime.class)))
+                .all()
+                .limitRate(prefetch);
+    }
+
+    /**
+     * Lit les points de courbe, éventuellement limités à une courbe, triés par courbe, date de valeur puis terme
+     * (ordre de l'index {@code idx_curvepoint_curve_as_of_date_term}).
+     *
+     * @param curveId l'identifiant de la courbe, ou {@code null} pour toutes les courbes.
+     * @return le flux des points.
+     */
+    public Flux<CurvePointDTO> streamCurvePoints(Integer curveId) {
+        DatabaseClient.GenericExecuteSpec query = curveId == null
+                ? databaseClient.sql(CURVE_POINTS_SQL + " ORDER BY CurveId, asOfDate, term")
+                : databaseClient.sql(CURVE_POINTS_SQL + " WHERE CurveId = :curveId ORDER BY asOfDate, term").bind("curveId", curveId);
+        return query
+                .map(row -> new CurvePointDTO(row.get("Id", Integer.class), row.get("CurveId", Integer.class),
+                        row.get("asOfDate", LocalDateTime.class), row.get("term", Double.class),
+                        row.get("value", Double.class), row.get("creationDate", LocalDateTime.class)))
+                .all()
+                .limitRate(prefetch);
+    }
+
+    private static TradeDTO toTrade(Readable row) {
+        TradeDTO dto = new TradeDTO();
+        dto.setTradeId(row.get("TradeId", Integer.class));
+        dto.setAccount(row.get("account", String.class));
+        dto.setType(row.get("type", String.class));
+        dto.setBuyQuantity(row.get("buyQuantity", Double.class));
+        dto.setSellQuantity(row.get("sellQuantity", Double.class));
+        dto.setBuyPrice(row.get("buyPrice", Double.class));
+        dto.setSellPrice(row.get("sellPrice", Double.class));
+        dto.setTradeDate(row.get("tradeDate", LocalDateTime.class));
+        dto.setSecurity(row.get("security", String.class));
+        dto.setStatus(row.get("status", String.class));
+        dto.setTrader(row.get("trader", String.class));
+        dto.setBenchmark(row.get("benchmark", String.class));
+        dto.setBook(row.get("book", String.class));
+        dto.setCreationName(row.get("creationName", String.class));
+        dto.setCreationDate(row.get("creationDate", LocalDateTime.class));
+        dto.setRevisionName(row.get("revisionName", String.class));
+        dto.setRevisionDate(row.get("revisionDate", LocalDateTime.class));
+        dto.setDealName(row.get("dealName", String.class));
+        dto.setDealType(row.get("dealType", String.class));
+        dto.setSourceListId(row.get("sourceListId", String.class));
+        dto.setSide(row.get("side", String.class));
+        return dto;
+    }
+}
@@ -4,6 +4,7 @@ import com.nnk.poseidon.domain.RuleName;
 import com.nnk.poseidon.dto.RuleNameDTO;
 import com.nnk.poseidon.repositories.RuleNameRepository; // Tu auras besoin de ce repository
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,10 +23,16 @@ import java.util.stream.Collectors;
 public class RuleNameService {
 
     private final RuleNameRepository ruleNameRepository;
+    private final TransactionBatchingExecutor transactionBatchingExecutor;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationProvider;
 
     @Autowired
-    public RuleNameService(RuleNameRepository ruleNameRepository) {
+    public RuleNameService(RuleNameRepository ruleNameRepository,
+                           TransactionBatchingExecutor transactionBatchingExecutor,
+                           ObjectProvider<CacheInvalidationBus> cacheInvalidationProvider) {
         this.ruleNameRepository = ruleNameRepository;
+        this.transactionBatchingExecutor = transactionBatchingExecutor;
+        this.cacheInvalidationProvider = cacheInvalidationProvider;
     }
 
     // --- Méthodes de mapping privées DTO <-> Entité ---
@@ -94,39 +101,41 @@ public class RuleNameService {
      * @return Le {@link RuleNameDTO} de l'entité sauvegardée.
      * @throws IllegalArgumentException si le RuleNameDTO est nul.
      */
-    @Transactional
     public RuleNameDTO save(RuleNameDTO RuleNameDTO) {
         if (RuleNameDTO == null) {
             log.error("Tentative de sauvegarde d'un objet RuleNameDTO nul");
             throw new IllegalArgumentException("L'objet RuleNameDTO ne peut pas être nul.");
         }
 
-        RuleName ruleNameToSave;
-        if (RuleNameDTO.getId() == null) { // Création
-            log.info("Création d'un nouveau RuleName à partir du DTO : {}", RuleNameDTO);
-            ruleNameToSave = convertToEntity(RuleNameDTO);
-            // Pas de champs de date de création/modification dans l'entité RuleName
-        } else { // Mise à jour
-            log.info("Mise à jour du RuleName existant avec id {} à partir du DTO : {}", RuleNameDTO.getId(), RuleNameDTO);
-            RuleName existingRuleName = ruleNameRepository.findById(RuleNameDTO.getId())
-                    .orElseThrow(() -> {
-                        log.warn("RuleName non trouvé pour la mise à jour avec id : {}", RuleNameDTO.getId());
-                        return new IllegalArgumentException("Mise à jour impossible : RuleName non trouvé avec id: " + RuleNameDTO.getId());
-                    });
-
-            // Mettre à jour les champs de l'entité existante à partir du DTO
-            existingRuleName.setName(RuleNameDTO.getName());
-            existingRuleName.setDescription(RuleNameDTO.getDescription());
-            existingRuleName.setJson(RuleNameDTO.getJson());
-            existingRuleName.setTemplate(RuleNameDTO.getTemplate());
-            existingRuleName.setSqlStr(RuleNameDTO.getSql()); // Mapper sql du DTO vers sqlStr de l'entité
-            existingRuleName.setSqlPart(RuleNameDTO.getSqlPart());
-            ruleNameToSave = existingRuleName;
-        }
-
-        RuleName savedEntity = ruleNameRepository.save(ruleNameToSave);
-        log.info("RuleName sauvegardé avec succès : {}", savedEntity);
-        return convertToDTO(savedEntity);
+        return transactionBatchingExecutor.execute(() -> {
+            RuleName ruleNameToSave;
+            if (RuleNameDTO.getId() == null) { // Création
+                log.info("Création d'un nouveau RuleName à partir du DTO : {}", RuleNameDTO);
+                ruleNameToSave = convertToEntity(RuleNameDTO);
+                // Pas de champs de date de création/modification dans l'entité RuleName
+            } else { // Mise à jour
+                log.info("Mise à jour du RuleName existant avec id {} à partir du DTO : {}", RuleNameDTO.getId(), RuleNameDTO);
+                RuleName existingRuleName = ruleNameRepository.findById(RuleNameDTO.getId())
+                        .orElseThrow(() -> {
+                            log.warn("RuleName non trouvé pour la mise à jour avec id : {}", RuleNameDTO.getId());
+                            return new IllegalArgumentException("Mise à jour impossible : RuleName non trouvé avec id: " + RuleNameDTO.getId());
+                        });
+
+                // Mettre à jour les champs de l'entité existante à partir du DTO
+                existingRuleName.setName(RuleNameDTO.getName());
+                existingRuleName.setDescription(RuleNameDTO.getDescription());
+                existingRuleName.setJson(RuleNameDTO.getJson());
+                existingRuleName.setTemplate(RuleNameDTO.getTemplate());
+                existingRuleName.setSqlStr(RuleNameDTO.getSql()); // Mapper sql du DTO vers sqlStr de l'entité
+                existingRuleName.setSqlPart(RuleNameDTO.getSqlPart());
+                ruleNameToSave = existingRuleName;
+            }
+
+            RuleName savedEntity = ruleNameRepository.save(ruleNameToSave);
+            cacheInvalidationProvider.ifAvailable(bus -> bus.publish(RuleName.class, savedEntity.getId()));
+            log.info("RuleName sauvegardé avec succès : {}", savedEntity);
+            return convertToDTO(savedEntity);
+        });
     }
 
     /**
@@ -146,5 +155,6 @@ public class RuleNameService {
         }
         log.info("Suppression du RuleName avec id : {}", id);
         ruleNameRepository.deleteById(id);
+        cacheInvalidationProvider.ifAvailable(bus -> bus.publish(RuleName.class, id));
     }
 }
\ No newline at end of file
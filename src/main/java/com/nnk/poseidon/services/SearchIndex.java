@@ -0,0 +1,533 @@
+package com.nnk.poseidon.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.FlattenGraphFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterGraphFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Index plein texte Lucene des trades et des offres, stocké sur le disque local.
+ * <p>
+ * Chaque document porte le type ({@link #TRADE} ou {@link #BID_LIST}), l'identifiant et les champs de recherche
+ * {@code account}, {@code security}, {@code trader}, {@code book} et {@code dealName}, stockés pour que les
+ * résultats de saisie semi-automatique soient servis sans accès à la base. Leurs mots sont indexés ensemble
+ * dans un champ {@code <type>.all} (correspondances exactes et approchées) et, découpés en tous leurs débuts
+ * (<i>edge n-grams</i>), dans un champ {@code <type>.prefix} : un préfixe saisi se résout ainsi en une seule
+ * recherche de terme, quel que soit le nombre de mots qui le prolongent. Les champs sont propres à chaque type
+ * plutôt que filtrés par type, ce qui laisse Lucene écarter sans les évaluer les documents non compétitifs.
+ * </p>
+ * <p>
+ * L'index est organisé en générations ({@code gen-000001}, {@code gen-000002}...). Une reconstruction
+ * ({@link #startRebuild()}) remplit une nouvelle génération pendant que la précédente continue de servir les
+ * recherches et de recevoir les mises à jour, qui sont aussi répercutées dans la nouvelle ; la bascule
+ * ({@link Rebuild#complete()}) est atomique.
+ * </p>
+ * <p>
+ * Cette classe ne connaît pas la base de données : l'alimentation et la relecture des lignes sont assurées par
+ * {@link SearchIndexService}.
+ * </p>
+ */
+@Slf4j
+public class SearchIndex implements Closeable {
+
+    /**
+     * Type des documents représentant un trade.
+     */
+    public static final String TRADE = "trade";
+
+    /**
+     * Type des documents représentant une offre.
+     */
+    public static final String BID_LIST = "bidlist";
+
+    private static final String KEY_FIELD = "key";
+    private static final String TYPE_FIELD = "type";
+    private static final String ID_FIELD = "id";
+    private static final String ALL_FIELD = "all";
+    private static final String PREFIX_FIELD = "prefix";
+    private static final String GENERATION_PREFIX = "gen-";
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int MAX_PREFIX_LENGTH = 16;
+
+    /**
+     * Document de l'index, tel qu'il est alimenté et tel qu'il est renvoyé par une recherche.
+     *
+     * @param type     {@link #TRADE} ou {@link #BID_LIST}.
+     * @param id       l'identifiant de la ligne en base.
+     * @param account  le compte.
+     * @param security le titre.
+     * @param trader   le trader.
+     * @param book     le book.
+     * @param dealName le nom du deal.
+     */
+    public record Entry(String type, Integer id, String account, String security, String trader, String book,
+                        String dealName) {
+    }
+
+    /**
+     * Référence vers une ligne modifiée pendant une reconstruction.
+     *
+     * @param type le type du document.
+     * @param id   l'identifiant de la ligne.
+     */
+    public record Key(String type, Integer id) {
+    }
+
+    private final Path root;
+    private final Analyzer analyzer = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = newTokenizer();
+            return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+        }
+    };
+    private final Set<Key> touchedDuringRebuild = new LinkedHashSet<>();
+
+    private volatile Generation current;
+    private Generation rebuilding;
+
+    private SearchIndex(Path root, Generation current) {
+        this.root = root;
+        this.current = current;
+    }
+
+    /**
+     * Ouvre la génération la plus récente de l'index (ou en crée une vide) et supprime les générations obsolètes.
+     *
+     * @param root le répertoire racine de l'index.
+     * @return l'index ouvert.
+     * @throws IOException si l'index ne peut pas être ouvert.
+     */
+    public static SearchIndex open(Path root) throws IOException {
+        Files.createDirectories(root);
+        List<Long> generations;
+        try (Stream<Path> children = Files.list(root)) {
+            generations = children
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches(GENERATION_PREFIX + "\\d+"))
+                    .map(name -> Long.parseLong(name.substring(GENERATION_PREFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        long latest = generations.isEmpty() ? 1 : generations.get(generations.size() - 1);
+        for (Long obsolete : generations.subList(0, Math.max(0, generations.size() - 1))) {
+            FileSystemUtils.deleteRecursively(generationPath(root, obsolete));
+        }
+        return new SearchIndex(root, Generation.open(root, latest, IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    private static Path generationPath(Path root, long number) {
+        return root.resolve(String.format("%s%06d", GENERATION_PREFIX, number));
+    }
+
+    /**
+     * Indique si la génération courante ne contient aucun document (premier démarrage).
+     *
+     * @return {@code true} si l'index est vide.
+     */
+    public boolean isEmpty() {
+        return current.writer.getDocStats().numDocs == 0;
+    }
+
+    /**
+     * Ajoute ou remplace un document.
+     *
+     * @param entry le document à indexer.
+     * @throws IOException si l'écriture échoue.
+     */
+    public synchronized void put(Entry entry) throws IOException {
+        Document document = toDocument(entry);
+        Term key = keyTerm(entry.type(), entry.id());
+        current.writer.updateDocument(key, document);
+        if (rebuilding != null) {
+            rebuilding.writer.updateDocument(key, document);
+            touchedDuringRebuild.add(new Key(entry.type(), entry.id()));
+        }
+    }
+
+    /**
+     * Retire un document de l'index ; sans effet s'il n'y figure pas.
+     *
+     * @param type le type du document.
+     * @param id   l'identifiant de la ligne.
+     * @throws IOException si l'écriture échoue.
+     */
+    public synchronized void remove(String type, Integer id) throws IOException {
+        Term key = keyTerm(type, id);
+        current.writer.deleteDocuments(key);
+        if (rebuilding != null) {
+            rebuilding.writer.deleteDocuments(key);
+            touchedDuringRebuild.add(new Key(type, id));
+        }
+    }
+
+    /**
+     * Rend durables les modifications de la génération courante et les rend visibles aux recherches.
+     *
+     * @throws IOException si la validation échoue.
+     */
+    public synchronized void commit() throws IOException {
+        current.writer.commit();
+        current.searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Recherche les documents dont les champs commencent par les mots saisis, ou en sont proches.
+     * <p>
+     * Chaque mot de la saisie doit correspondre à au moins un champ. Le dernier mot est traité comme
+     * un préfixe (saisie en cours), une correspondance exacte étant mieux classée qu'un préfixe. Si rien
+     * ne correspond, la recherche est relancée en tolérant une faute de frappe dans les mots d'au moins
+     * {@value #FUZZY_MIN_LENGTH} caractères.
+     * </p>
+     *
+     * @param type  {@link #TRADE}, {@link #BID_LIST}, ou {@code null} pour les deux.
+     * @param text  la saisie de l'utilisateur.
+     * @param limit le nombre maximal de résultats.
+     * @return les documents trouvés, du plus pertinent au moins pertinent.
+     * @throws IOException si la lecture de l'index échoue.
+     */
+    public List<Entry> search(String type, String text, int limit) throws IOException {
+        List<String> words = analyze(text);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        List<String> types = type != null ? List.of(type) : List.of(TRADE, BID_LIST);
+        try {
+            return search(current, types, words, limit);
+        } catch (AlreadyClosedException e) {
+            // La génération a été remplacée pendant la recherche : la nouvelle est interrogée.
+            return search(current, types, words, limit);
+        }
+    }
+
+    private static List<Entry> search(Generation generation, List<String> types, List<String> words, int limit)
+            throws IOException {
+        IndexSearcher searcher = generation.searcherManager.acquire();
+        try {
+            List<Entry> entries = collect(searcher, query(types, words, null), limit);
+            if (entries.isEmpty()) {
+                // Aucune correspondance exacte ni préfixe : seuls les mots absents de l'index sont corrigés,
+                // une combinaison de mots existants sans document commun ne relance pas de recherche.
+                Query fuzzy = query(types, words, searcher.getIndexReader());
+                if (fuzzy != null) {
+                    entries = collect(searcher, fuzzy, limit);
+                }
+            }
+            return entries;
+        } finally {
+            generation.searcherManager.release(searcher);
+        }
+    }
+
+    private static List<Entry> collect(IndexSearcher searcher, Query query, int limit) throws IOException {
+        StoredFields storedFields = searcher.storedFields();
+        List<Entry> entries = new ArrayList<>();
+        for (ScoreDoc scoreDoc : searcher.search(query, limit).scoreDocs) {
+            entries.add(toEntry(storedFields.document(scoreDoc.doc)));
+        }
+        return entries;
+    }
+
+    /**
+     * Requête d'une saisie sur les types demandés ; en mode approché ({@code fuzzyReader} renseigné),
+     * {@code null} si aucun mot n'est à corriger.
+     */
+    private static Query query(List<String> types, List<String> words, IndexReader fuzzyReader) throws IOException {
+        List<Query> queries = new ArrayList<>();
+        for (String type : types) {
+            Query query = typeQuery(type, words, fuzzyReader);
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        if (queries.size() <= 1) {
+            return queries.isEmpty() ? null : queries.get(0);
+        }
+        BooleanQuery.Builder anyType = new BooleanQuery.Builder();
+        queries.forEach(query -> anyType.add(query, Occur.SHOULD));
+        return anyType.build();
+    }
+
+    /**
+     * Requête d'une saisie sur les champs d'un type. Chaque mot est obligatoire : les premiers mots complets
+     * (champ {@code all}), le dernier en tant que préfixe (champ {@code prefix}), une correspondance exacte de
+     * ce dernier étant mieux classée. En mode approché, les mots d'au moins {@value #FUZZY_MIN_LENGTH}
+     * caractères absents de l'index tolèrent une faute de frappe.
+     */
+    private static Query typeQuery(String type, List<String> words, IndexReader fuzzyReader) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean misspelled = false;
+        for (int i = 0; i < words.size(); i++) {
+            boolean last = i == words.size() - 1;
+            String word = words.get(i);
+            Term term = last
+                    ? new Term(type + "." + PREFIX_FIELD, word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word)
+                    : new Term(type + "." + ALL_FIELD, word);
+            if (fuzzyReader != null && word.length() >= FUZZY_MIN_LENGTH && fuzzyReader.docFreq(term) == 0) {
+                query.add(new FuzzyQuery(term, 1, 1), Occur.MUST);
+                misspelled = true;
+            } else {
+                query.add(new TermQuery(term), Occur.MUST);
+            }
+            if (last && fuzzyReader == null) {
+                query.add(new BoostQuery(new TermQuery(new Term(type + "." + ALL_FIELD, word)), 2f), Occur.SHOULD);
+            }
+        }
+        return fuzzyReader != null && !misspelled ? null : query.build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        try (TokenStream tokens = analyzer.tokenStream(ALL_FIELD, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokens.end();
+        }
+        return words;
+    }
+
+    /**
+     * Commence la reconstruction de l'index dans une nouvelle génération.
+     * Tant qu'elle n'est pas terminée, les mises à jour sont appliquées aux deux générations.
+     *
+     * @return la reconstruction en cours.
+     * @throws IOException           si la nouvelle génération ne peut pas être créée.
+     * @throws IllegalStateException si une reconstruction est déjà en cours.
+     */
+    public synchronized Rebuild startRebuild() throws IOException {
+        if (rebuilding != null) {
+            throw new IllegalStateException("Une reconstruction de l'index est déjà en cours.");
+        }
+        rebuilding = Generation.open(root, current.number + 1, IndexWriterConfig.OpenMode.CREATE);
+        touchedDuringRebuild.clear();
+        return new Rebuild(rebuilding);
+    }
+
+    /**
+     * Reconstruction en cours, alimentée par un parcours complet de la base.
+     */
+    public final class Rebuild {
+
+        private final Generation generation;
+
+        private Rebuild(Generation generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * Ajoute un document lu lors du parcours complet.
+         * Un document déjà reçu par {@link SearchIndex#put} pendant la reconstruction est remplacé : les lignes
+         * concernées doivent donc être relues, voir {@link #touched()}.
+         *
+         * @param entry le document.
+         * @throws IOException si l'écriture échoue.
+         */
+        public void add(Entry entry) throws IOException {
+            generation.writer.updateDocument(keyTerm(entry.type(), entry.id()), toDocument(entry));
+        }
+
+        /**
+         * Renvoie et oublie les lignes modifiées depuis le début de la reconstruction, que le parcours complet
+         * a pu écraser avec une version plus ancienne.
+         *
+         * @return les lignes à relire.
+         */
+        public List<Key> touched() {
+            synchronized (SearchIndex.this) {
+                List<Key> keys = new ArrayList<>(touchedDuringRebuild);
+                touchedDuringRebuild.clear();
+                return keys;
+            }
+        }
+
+        /**
+         * Valide la nouvelle génération et la substitue à la génération courante, puis supprime l'ancienne.
+         *
+         * @throws IOException si la validation échoue.
+         */
+        public void complete() throws IOException {
+            Generation previous;
+            synchronized (SearchIndex.this) {
+                generation.writer.commit();
+                generation.searcherManager.maybeRefreshBlocking();
+                previous = current;
+                current = generation;
+                rebuilding = null;
+                touchedDuringRebuild.clear();
+            }
+            previous.close();
+            FileSystemUtils.deleteRecursively(previous.path);
+            log.info("Index de recherche reconstruit : génération {} ({} documents)",
+                    generation.number, generation.writer.getDocStats().numDocs);
+        }
+
+        /**
+         * Abandonne la reconstruction ; la génération courante reste en service.
+         */
+        public void abort() {
+            synchronized (SearchIndex.this) {
+                rebuilding = null;
+                touchedDuringRebuild.clear();
+            }
+            try {
+                generation.close();
+                FileSystemUtils.deleteRecursively(generation.path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (rebuilding != null) {
+            rebuilding.close();
+            rebuilding = null;
+        }
+        current.writer.commit();
+        current.close();
+    }
+
+    private static Term keyTerm(String type, Integer id) {
+        return new Term(KEY_FIELD, type + ":" + id);
+    }
+
+    private static Document toDocument(Entry entry) {
+        Document document = new Document();
+        document.add(new StringField(KEY_FIELD, entry.type() + ":" + entry.id(), Field.Store.NO));
+        document.add(new StoredField(TYPE_FIELD, entry.type()));
+        document.add(new StoredField(ID_FIELD, entry.id()));
+        addText(document, entry.type(), "account", entry.account());
+        addText(document, entry.type(), "security", entry.security());
+        addText(document, entry.type(), "trader", entry.trader());
+        addText(document, entry.type(), "book", entry.book());
+        addText(document, entry.type(), "dealName", entry.dealName());
+        return document;
+    }
+
+    private static void addText(Document document, String type, String field, String value) {
+        if (value != null) {
+            document.add(new StoredField(field, value));
+            document.add(new TextField(type + "." + ALL_FIELD, value, Field.Store.NO));
+            document.add(new TextField(type + "." + PREFIX_FIELD, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Découpe le texte en mots faits de lettres, de chiffres et des séparateurs internes {@code - _ . /} :
+     * un identifiant comme {@code ACC-123} reste un seul mot.
+     */
+    private static Tokenizer newTokenizer() {
+        return CharTokenizer.fromTokenCharPredicate(c -> Character.isLetterOrDigit(c) || "-_./".indexOf(c) >= 0);
+    }
+
+    /**
+     * Analyseur d'indexation : chaque mot en minuscules, accompagné de ses parties s'il en compte plusieurs
+     * ({@code acc-123}, {@code acc}, {@code 123}) et, pour les champs {@code prefix}, de tous ses débuts
+     * jusqu'à {@value #MAX_PREFIX_LENGTH} caractères. La saisie, elle, n'est pas découpée en parties : un
+     * identifiant tapé en entier se résout en un seul terme peu fréquent.
+     */
+    private static Analyzer newIndexAnalyzer() {
+        return new Analyzer(Analyzer.PER_FIELD_REUSE_STRATEGY) {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = newTokenizer();
+                TokenStream stream = new LowerCaseFilter(new FlattenGraphFilter(new WordDelimiterGraphFilter(tokenizer,
+                        WordDelimiterGraphFilter.GENERATE_WORD_PARTS | WordDelimiterGraphFilter.GENERATE_NUMBER_PARTS
+                                | WordDelimiterGraphFilter.PRESERVE_ORIGINAL, null)));
+                if (fieldName.endsWith("." + PREFIX_FIELD)) {
+                    stream = new EdgeNGramTokenFilter(stream, 1, MAX_PREFIX_LENGTH, true);
+                }
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+        };
+    }
+
+    private static Entry toEntry(Document document) {
+        return new Entry(document.get(TYPE_FIELD), document.getField(ID_FIELD).numericValue().intValue(),
+                document.get("account"), document.get("security"), document.get("trader"),
+                document.get("book"), document.get("dealName"));
+    }
+
+    /**
+     * Une génération de l'index : répertoire, writer et gestionnaire de lecteurs temps réel.
+     */
+    private static final class Generation implements Closeable {
+
+        private final long number;
+        private final Path path;
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+
+        private Generation(long number, Path path, Directory directory, IndexWriter writer,
+                           SearcherManager searcherManager) {
+            this.number = number;
+            this.path = path;
+            this.directory = directory;
+            this.writer = writer;
+            this.searcherManager = searcherManager;
+        }
+
+        static Generation open(Path root, long number, IndexWriterConfig.OpenMode mode) throws IOException {
+            Path path = generationPath(root, number);
+            Directory directory = FSDirectory.open(path);
+            IndexWriterConfig config = new IndexWriterConfig(newIndexAnalyzer()).setOpenMode(mode);
+            IndexWriter writer = new IndexWriter(directory, config);
+            return new Generation(number, path, directory, writer, new SearcherManager(writer, null));
+        }
+
+        @Override
+        public void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.BidList;
+import com.nnk.poseidon.domain.Trade;
+import com.nnk.poseidon.repositories.BidListRepository;
+import com.nnk.poseidon.repositories.TradeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche plein texte et par préfixe sur les trades et les offres, adossée au {@link SearchIndex} Lucene.
+ * <p>
+ * L'index est tenu à jour de façon incrémentale : {@link TradeService}, {@link BidListService} et le mode
+ * write-behind publient un {@link TradeChangedEvent} ou un {@link BidListChangedEvent} dans la transaction
+ * d'écriture ; après le commit, les identifiants concernés sont mis en file et un thread d'indexation relit
+ * les lignes par lots pour mettre l'index à jour. Les écritures ne sont donc jamais ralenties par l'indexation,
+ * et une ligne n'apparaît dans les résultats que quelques millisecondes après son commit.
+ * </p>
+ * <p>
+ * Active par défaut ; désactivable avec {@code poseidon.search.enabled=false} (les recherches se rabattent
+ * alors sur des requêtes SQL par préfixe). L'index est reconstruit au premier démarrage, et peut l'être à
+ * chaud avec {@link #rebuild()} sans interrompre les recherches.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.search.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchIndexService {
+
+    private final TradeRepository tradeRepository;
+    private final BidListRepository bidListRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path directory;
+    private final int batchSize;
+    private final BlockingQueue<SearchIndex.Key> pending = new LinkedBlockingQueue<>();
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+    /**
+     * Sérialise l'application des lots avec la fin d'une reconstruction : chaque lot relit la base sous ce verrou,
+     * la dernière version lue d'une ligne est donc toujours la dernière écrite dans l'index.
+     */
+    private final Object indexLock = new Object();
+
+    private SearchIndex index;
+    private Thread indexerThread;
+    private volatile boolean running;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param tradeRepository    le repository des trades.
+     * @param bidListRepository  le repository des offres.
+     * @param entityManager      le contexte de persistance, pour détacher les entités lues lors d'une reconstruction.
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param directory          le répertoire local de l'index.
+     * @param batchSize          le nombre maximal de lignes relues par lot d'indexation.
+     */
+    public SearchIndexService(TradeRepository tradeRepository,
+                              BidListRepository bidListRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${poseidon.search.directory:./data/search-index}") Path directory,
+                              @Value("${poseidon.search.batch-size:500}") int batchSize) {
+        this.tradeRepository = tradeRepository;
+        this.bidListRepository = bidListRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = directory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ouvre l'index, démarre le thread d'indexation et lance une reconstruction si l'index est vide.
+     *
+     * @throws IOException si l'index ne peut pas être ouvert.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        index = SearchIndex.open(directory);
+        running = true;
+        indexerThread = new Thread(this::indexLoop, "search-indexer");
+        indexerThread.setDaemon(true);
+        indexerThread.start();
+        if (index.isEmpty()) {
+            log.info("Index de recherche vide, reconstruction en arrière-plan");
+            rebuild();
+        }
+    }
+
+    /**
+     * Arrête le thread d'indexation après avoir traité les changements en attente, puis ferme l'index.
+     *
+     * @throws IOException si la fermeture de l'index échoue.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        if (indexerThread != null) {
+            try {
+                indexerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (indexLock) {
+            index.close();
+        }
+    }
+
+    /**
+     * Met en file les trades modifiés, une fois leur transaction validée.
+     *
+     * @param event l'événement publié par l'écriture.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChanged(TradeChangedEvent event) {
+        event.tradeIds().forEach(id -> pending.add(new SearchIndex.Key(SearchIndex.TRADE, id)));
+    }
+
+    /**
+     * Met en file les offres modifiées, une fois leur transaction validée.
+     *
+     * @param event l'événement publié par l'écriture.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidListChanged(BidListChangedEvent event) {
+        event.bidListIds().forEach(id -> pending.add(new SearchIndex.Key(SearchIndex.BID_LIST, id)));
+    }
+
+    /**
+     * Recherche par préfixe et approchée sur {@code account}, {@code security}, {@code trader}, {@code book}
+     * et {@code dealName}. Les résultats sont lus dans l'index, sans accès à la base.
+     *
+     * @param type  {@link SearchIndex#TRADE}, {@link SearchIndex#BID_LIST}, ou {@code null} pour les deux.
+     * @param text  la saisie de l'utilisateur.
+     * @param limit le nombre maximal de résultats.
+     * @return les documents trouvés, du plus pertinent au moins pertinent.
+     */
+    public List<SearchIndex.Entry> search(String type, String text, int limit) {
+        try {
+            return index.search(type, text, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Construit le motif {@code LIKE} des recherches de repli par préfixe, lorsque l'index est désactivé.
+     *
+     * @param text la saisie de l'utilisateur.
+     * @return le motif en minuscules, caractères spéciaux échappés, suivi de {@code %}.
+     */
+    static String likePrefix(String text) {
+        return text.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Reconstruit l'index à partir de la base, en arrière-plan et sans interrompre les recherches :
+     * l'ancienne génération sert les requêtes jusqu'à la bascule.
+     *
+     * @return le nombre de documents indexés, une fois la reconstruction terminée.
+     * @throws IllegalStateException si une reconstruction est déjà en cours.
+     */
+    public CompletableFuture<Integer> rebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Une reconstruction de l'index est déjà en cours.");
+        }
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Thread rebuilder = new Thread(() -> {
+            try {
+                result.complete(doRebuild());
+            } catch (Exception e) {
+                log.error("Échec de la reconstruction de l'index de recherche", e);
+                result.completeExceptionally(e);
+            } finally {
+                rebuildRunning.set(false);
+            }
+        }, "search-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+        return result;
+    }
+
+    private int doRebuild() throws IOException {
+        long start = System.nanoTime();
+        SearchIndex.Rebuild rebuild = index.startRebuild();
+        try {
+            int count = readOnlyTransaction.execute(status -> {
+                int[] indexed = {0};
+                try (var trades = tradeRepository.streamAllBy()) {
+                    trades.forEach(trade -> {
+                        add(rebuild, toEntry(trade));
+                        entityManager.detach(trade);
+                        indexed[0]++;
+                    });
+                }
+                try (var bidLists = bidListRepository.streamAllBy()) {
+                    bidLists.forEach(bidList -> {
+                        add(rebuild, toEntry(bidList));
+                        entityManager.detach(bidList);
+                        indexed[0]++;
+                    });
+                }
+                return indexed[0];
+            });
+            synchronized (indexLock) {
+                // Les lignes modifiées pendant le parcours ont pu être écrasées par une version plus ancienne.
+                apply(rebuild.touched());
+                rebuild.complete();
+            }
+            log.info("{} documents indexés en {} ms", count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return count;
+        } catch (RuntimeException | IOException e) {
+            rebuild.abort();
+            throw e;
+        }
+    }
+
+    private static void add(SearchIndex.Rebuild rebuild, SearchIndex.Entry entry) {
+        try {
+            rebuild.add(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void indexLoop() {
+        List<SearchIndex.Key> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    SearchIndex.Key first = pending.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, batchSize - 1);
+                }
+                synchronized (indexLock) {
+                    apply(batch);
+                    index.commit();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                // Base ou disque indisponible : le lot est conservé et réessayé.
+                log.error("Échec de l'indexation de {} lignes, nouvel essai : {}", batch.size(), e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Relit les lignes désignées et met l'index à jour ; une ligne absente de la base est retirée de l'index.
+     * La relecture se fait hors transaction en lecture seule, donc sur la base principale : un réplica en retard
+     * renverrait l'état antérieur au commit.
+     */
+    private void apply(List<SearchIndex.Key> keys) throws IOException {
+        Map<String, Set<Integer>> idsByType = keys.stream().collect(Collectors.groupingBy(
+                SearchIndex.Key::type, Collectors.mapping(SearchIndex.Key::id, Collectors.toCollection(LinkedHashSet::new))));
+        List<SearchIndex.Entry> entries = transactionTemplate.execute(status -> {
+            List<SearchIndex.Entry> found = new ArrayList<>();
+            tradeRepository.findAllById(idsByType.getOrDefault(SearchIndex.TRADE, Set.of()))
+                    .forEach(trade -> found.add(toEntry(trade)));
+            bidListRepository.findAllById(idsByType.getOrDefault(SearchIndex.BID_LIST, Set.of()))
+                    .forEach(bidList -> found.add(toEntry(bidList)));
+            return found;
+        });
+        Set<SearchIndex.Key> missing = new HashSet<>(keys);
+        for (SearchIndex.Entry entry : entries) {
+            index.put(entry);
+            missing.remove(new SearchIndex.Key(entry.type(), entry.id()));
+        }
+        for (SearchIndex.Key key : missing) {
+            index.remove(key.type(), key.id());
+        }
+    }
+
+    private static SearchIndex.Entry toEntry(Trade trade) {
+        return new SearchIndex.Entry(SearchIndex.TRADE, trade.getTradeId(), trade.getAccount(), trade.getSecurity(),
+                trade.getTrader(), trade.getBook(), trade.getDealName());
+    }
+
+    private static SearchIndex.Entry toEntry(BidList bidList) {
+        return new SearchIndex.Entry(SearchIndex.BID_LIST, bidList.getBidListId(), bidList.getAccount(),
+                bidList.getSecurity(), bidList.getTrader(), bidList.getBook(), bidList.getDealName());
+    }
+}
@@ -0,0 +1,315 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Émission et vérification des jetons signés du mode d'authentification sans session.
+ * <p>
+ * Un jeton porte l'utilisateur, ses rôles et ses dates d'émission et d'expiration, signés par HMAC-SHA256 :
+ * {@code <clé>.<contenu>.<signature>}, en Base64 URL. Sa vérification ne lit ni {@link CustomUserDetailsService}
+ * ni la base ; un rôle retiré ne prend donc effet qu'à l'expiration des jetons, sauf révocation.
+ * </p>
+ * <p>
+ * Rotation des clés : toutes les clés de {@code poseidon.security.stateless.keys} sont acceptées, seule
+ * {@code active-key} signe. Pour changer de clé, ajouter la nouvelle, la rendre active, puis retirer l'ancienne
+ * une durée de vie de jeton plus tard.
+ * </p>
+ * <p>
+ * Révocation : un jeton (déconnexion) ou tous les jetons d'un utilisateur émis jusqu'à maintenant (modification
+ * ou suppression du compte) sont inscrits dans {@code RevokedToken}. Chaque nœud en garde une copie en mémoire,
+ * relue toutes les {@code revocation-refresh-ms} : une révocation faite sur un autre nœud y prend effet dans ce
+ * délai. Les lignes sont purgées à l'expiration des jetons visés.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.security.stateless.enabled", havingValue = "true")
+public class SignedTokenService {
+
+    /**
+     * Contenu d'un jeton vérifié.
+     *
+     * @param id          l'identifiant unique du jeton, utilisé pour sa révocation.
+     * @param username    l'utilisateur.
+     * @param authorities ses rôles à l'émission.
+     * @param issuedAt    la date d'émission, en millisecondes.
+     * @param expiresAt   la date d'expiration, en millisecondes.
+     */
+    public record TokenClaims(String id, String username, List<String> authorities, long issuedAt, long expiresAt) {
+    }
+
+    static final String USER_REVOCATION_PREFIX = "user:";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final long PURGE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final String SELECT_SQL = "SELECT tokenId, username, revokedAt, expiresAt FROM RevokedToken WHERE expiresAt > ?";
+    private static final String INSERT_SQL = "INSERT INTO RevokedToken (tokenId, username, revokedAt, expiresAt) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM RevokedToken WHERE tokenId = ?";
+    private static final String PURGE_SQL = "DELETE FROM RevokedToken WHERE expiresAt <= ?";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final String activeKey;
+    private final long ttlMillis;
+    private final long refreshMillis;
+
+    /**
+     * Jetons révoqués encore valides, avec leur date d'expiration.
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Pour chaque utilisateur révoqué, la date jusqu'à laquelle ses jetons émis sont refusés.
+     */
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService refresher;
+    private long lastPurge;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param jdbcTemplate  accès JDBC à la liste de révocation.
+     * @param environment   l'environnement, d'où sont lues les clés ({@code poseidon.security.stateless.keys.<id>},
+     *                      en Base64, 32 octets au moins).
+     * @param activeKey     l'identifiant de la clé qui signe les nouveaux jetons.
+     * @param ttlSeconds    la durée de vie d'un jeton.
+     * @param refreshMillis l'intervalle de relecture de la liste de révocation.
+     */
+    public SignedTokenService(JdbcTemplate jdbcTemplate,
+                              Environment environment,
+                              @Value("${poseidon.security.stateless.active-key}") String activeKey,
+                              @Value("${poseidon.security.stateless.ttl-seconds:900}") long ttlSeconds,
+                              @Value("${poseidon.security.stateless.revocation-refresh-ms:5000}") long refreshMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        Binder.get(environment)
+                .bind("poseidon.security.stateless.keys", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((id, secret) -> keys.put(id, toKey(id, secret)));
+        if (!keys.containsKey(activeKey)) {
+            throw new IllegalArgumentException("La clé de signature active " + activeKey + " n'est pas configurée.");
+        }
+        if (ttlSeconds < 1) {
+            throw new IllegalArgumentException("La durée de vie des jetons doit être positive.");
+        }
+        this.activeKey = activeKey;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * Charge la liste de révocation et planifie sa relecture.
+     */
+    @PostConstruct
+    public void start() {
+        refreshRevocations();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshRevocations, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        log.info("Authentification par jetons signés active (clé {}, {} clé(s) acceptée(s), durée de vie {} s)",
+                activeKey, keys.size(), TimeUnit.MILLISECONDS.toSeconds(ttlMillis));
+    }
+
+    /**
+     * Arrête la relecture de la liste de révocation.
+     */
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Renvoie la durée de vie d'un jeton.
+     *
+     * @return la durée de vie, en millisecondes.
+     */
+    public long ttlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Émet un jeton pour un utilisateur authentifié.
+     *
+     * @param authentication l'authentification réussie.
+     * @return le jeton signé.
+     */
+    public String issue(Authentication authentication) {
+        return issue(authentication.getName(),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Émet un nouveau jeton aux mêmes droits qu'un jeton encore valide.
+     *
+     * @param claims le contenu du jeton à renouveler.
+     * @return le nouveau jeton signé.
+     */
+    public String renew(TokenClaims claims) {
+        return issue(claims.username(), claims.authorities(), System.currentTimeMillis());
+    }
+
+    String issue(String username, List<String> authorities, long now) {
+        TokenClaims claims = new TokenClaims(UUID.randomUUID().toString(), username, List.copyOf(authorities), now, now + ttlMillis);
+        try {
+            String signed = activeKey + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return signed + "." + ENCODER.encodeToString(sign(keys.get(activeKey), signed));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation du jeton impossible", e);
+        }
+    }
+
+    /**
+     * Vérifie un jeton : signature par une clé acceptée, expiration et révocation.
+     *
+     * @param token le jeton reçu.
+     * @return son contenu, ou vide si le jeton est invalide, expiré ou révoqué.
+     */
+    public Optional<TokenClaims> verify(String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    Optional<TokenClaims> verify(String token, long now) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !keys.containsKey(parts[0])) {
+            return Optional.empty();
+        }
+        try {
+            byte[] expected = sign(keys.get(parts[0]), parts[0] + "." + parts[1]);
+            if (!MessageDigest.isEqual(expected, DECODER.decode(parts[2]))) {
+                log.warn("Jeton à la signature invalide refusé (clé {})", parts[0]);
+                return Optional.empty();
+            }
+            TokenClaims claims = objectMapper.readValue(DECODER.decode(parts[1]), TokenClaims.class);
+            if (now >= claims.expiresAt() || revokedTokens.containsKey(claims.id())
+                    || claims.issuedAt() <= revokedUsers.getOrDefault(claims.username(), Long.MIN_VALUE)) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Jeton illisible refusé : {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Indique si un jeton a dépassé la moitié de sa durée de vie et doit être renouvelé.
+     *
+     * @param claims le contenu du jeton.
+     * @return {@code true} si le jeton doit être renouvelé.
+     */
+    public boolean shouldRenew(TokenClaims claims) {
+        return System.currentTimeMillis() - claims.issuedAt() > ttlMillis / 2;
+    }
+
+    /**
+     * Révoque un jeton, par exemple à la déconnexion.
+     *
+     * @param claims le contenu du jeton.
+     */
+    public void revoke(TokenClaims claims) {
+        revokedTokens.put(claims.id(), claims.expiresAt());
+        jdbcTemplate.update(INSERT_SQL, claims.id(), claims.username(), new Timestamp(System.currentTimeMillis()),
+                new Timestamp(claims.expiresAt()));
+    }
+
+    /**
+     * Révoque tous les jetons déjà émis pour un utilisateur, par exemple quand son compte change.
+     *
+     * @param username l'utilisateur.
+     */
+    public void revokeUser(String username) {
+        long now = System.currentTimeMillis();
+        revokedUsers.merge(username, now, Math::max);
+        jdbcTemplate.update(DELETE_SQL, USER_REVOCATION_PREFIX + username);
+        jdbcTemplate.update(INSERT_SQL, USER_REVOCATION_PREFIX + username, username, new Timestamp(now),
+                new Timestamp(now + ttlMillis));
+        log.info("Jetons de l'utilisateur {} révoqués", username);
+    }
+
+    /**
+     * Relit la liste de révocation ; les entrées locales ne sont retirées qu'à leur expiration, pour ne pas
+     * oublier une révocation dont la transaction n'est pas encore validée.
+     */
+    void refreshRevocations() {
+        long now = System.currentTimeMillis();
+        try {
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                String tokenId = rs.getString("tokenId");
+                if (tokenId.startsWith(USER_REVOCATION_PREFIX)) {
+                    revokedUsers.merge(rs.getString("username"), rs.getTimestamp("revokedAt").getTime(), Math::max);
+                } else {
+                    revokedTokens.put(tokenId, rs.getTimestamp("expiresAt").getTime());
+                }
+            }, new Timestamp(now));
+            revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+            revokedUsers.values().removeIf(revokedAt -> revokedAt + ttlMillis <= now);
+            if (now - lastPurge >= PURGE_INTERVAL_MS) {
+                lastPurge = now;
+                jdbcTemplate.update(PURGE_SQL, new Timestamp(now));
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de la relecture de la liste de révocation des jetons : {}", e.getMessage());
+        }
+    }
+
+    private static SecretKeySpec toKey(String id, String secret) {
+        byte[] bytes = secret == null ? new byte[0] : Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("La clé de signature " + id + " doit compter au moins "
+                    + MIN_KEY_BYTES + " octets (en Base64).");
+        }
+        return new SecretKeySpec(bytes, HMAC_ALGORITHM);
+    }
+
+    private static byte[] sign(SecretKeySpec key, String content) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signature HMAC indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Barre OHLC d'un titre sur un intervalle de temps, calculée à partir des trades conclus dans l'intervalle.
+ * <p>
+ * Le prix et la quantité d'un trade sont ceux de sa jambe achat ({@code buyPrice}, {@code buyQuantity}) ou, à
+ * défaut, de sa jambe vente ; un trade sans titre, sans date de conclusion ou sans prix et quantité positive
+ * n'entre dans aucune barre. L'ouverture et la clôture sont les prix des trades conclus le plus tôt et le plus
+ * tard, quel que soit leur ordre d'arrivée.
+ * </p>
+ *
+ * @param security     le titre.
+ * @param resolution   la durée de l'intervalle.
+ * @param start        le début de l'intervalle (inclus).
+ * @param open         le prix d'ouverture.
+ * @param high         le plus haut.
+ * @param low          le plus bas.
+ * @param close        le prix de clôture.
+ * @param volume       la quantité échangée.
+ * @param notional     la somme des prix multipliés par les quantités.
+ * @param tradeCount   le nombre de trades.
+ * @param firstTradeAt la date de conclusion du trade d'ouverture.
+ * @param lastTradeAt  la date de conclusion du trade de clôture.
+ */
+public record TradeBar(String security, Resolution resolution, LocalDateTime start, double open, double high,
+                       double low, double close, double volume, double notional, int tradeCount,
+                       LocalDateTime firstTradeAt, LocalDateTime lastTradeAt) {
+
+    /**
+     * Durées des barres, de la plus fine à la plus large ; chacune est un multiple de la précédente.
+     */
+    public enum Resolution {
+        M1("1m", Duration.ofMinutes(1)),
+        M5("5m", Duration.ofMinutes(5)),
+        H1("1h", Duration.ofHours(1)),
+        D1("1d", Duration.ofDays(1));
+
+        private final String label;
+        private final Duration duration;
+
+        Resolution(String label, Duration duration) {
+            this.label = label;
+            this.duration = duration;
+        }
+
+        /**
+         * @return le libellé court ({@code 1m}, {@code 5m}, {@code 1h}, {@code 1d}).
+         */
+        public String label() {
+            return label;
+        }
+
+        /**
+         * @return la durée d'une barre.
+         */
+        public Duration duration() {
+            return duration;
+        }
+
+        /**
+         * Début de la barre contenant la date donnée.
+         *
+         * @param time la date.
+         * @return la date tronquée à la résolution.
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+            return switch (this) {
+                case M1 -> minute;
+                case M5 -> minute.minusMinutes(minute.getMinute() % 5);
+                case H1 -> time.truncatedTo(ChronoUnit.HOURS);
+                case D1 -> time.truncatedTo(ChronoUnit.DAYS);
+            };
+        }
+
+        /**
+         * Résolution désignée par son nom ({@code M5}) ou son libellé ({@code 5m}).
+         *
+         * @param value le nom ou le libellé.
+         * @return la résolution.
+         * @throws IllegalArgumentException si la valeur ne désigne aucune résolution.
+         */
+        public static Resolution parse(String value) {
+            for (Resolution resolution : values()) {
+                if (resolution.label.equalsIgnoreCase(value) || resolution.name().equalsIgnoreCase(value)) {
+                    return resolution;
+                }
+            }
+            throw new IllegalArgumentException("Résolution inconnue : " + value + " (1m, 5m, 1h ou 1d).");
+        }
+    }
+
+    /**
+     * Prix et quantité d'un trade, à sa date de conclusion (à la milliseconde, précision de la table).
+     *
+     * @param security le titre.
+     * @param at       la date de conclusion.
+     * @param price    le prix.
+     * @param quantity la quantité, strictement positive.
+     */
+    public record Tick(String security, LocalDateTime at, double price, double quantity) {
+
+        /**
+         * Extrait le tick d'un trade.
+         *
+         * @return le tick, ou {@code null} si le trade n'entre dans aucune barre.
+         */
+        static Tick of(String security, LocalDateTime tradeDate, Double buyPrice, Double buyQuantity,
+                       Double sellPrice, Double sellQuantity) {
+            if (security == null || tradeDate == null) {
+                return null;
+            }
+            LocalDateTime at = tradeDate.truncatedTo(ChronoUnit.MILLIS);
+            if (buyPrice != null && buyQuantity != null && buyQuantity > 0) {
+                return new Tick(security, at, buyPrice, buyQuantity);
+            }
+            if (sellPrice != null && sellQuantity != null && sellQuantity > 0) {
+                return new Tick(security, at, sellPrice, sellQuantity);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return le prix moyen pondéré par les quantités.
+     */
+    @JsonProperty("vwap")
+    public double vwap() {
+        return notional / volume;
+    }
+
+    /**
+     * Barre ouverte par un premier trade.
+     *
+     * @param resolution la résolution de la barre.
+     * @param tick       le trade.
+     * @return la barre ne contenant que ce trade.
+     */
+    static TradeBar of(Resolution resolution, Tick tick) {
+        return new TradeBar(tick.security(), resolution, resolution.truncate(tick.at()), tick.price(), tick.price(),
+                tick.price(), tick.price(), tick.quantity(), tick.price() * tick.quantity(), 1, tick.at(), tick.at());
+    }
+
+    /**
+     * Ajoute un trade de l'intervalle à la barre.
+     *
+     * @param tick le trade.
+     * @return la nouvelle barre.
+     */
+    TradeBar plus(Tick tick) {
+        boolean opens = tick.at().isBefore(firstTradeAt);
+        boolean closes = !tick.at().isBefore(lastTradeAt);
+        return new TradeBar(security, resolution, start, opens ? tick.price() : open, Math.max(high, tick.price()),
+                Math.min(low, tick.price()), closes ? tick.price() : close, volume + tick.quantity(),
+                notional + tick.price() * tick.quantity(), tradeCount + 1,
+                opens ? tick.at() : firstTradeAt, closes ? tick.at() : lastTradeAt);
+    }
+
+    /**
+     * Agrège des barres plus fines en une barre de la résolution donnée.
+     *
+     * @param resolution la résolution de la barre agrégée.
+     * @param start      le début de la barre agrégée.
+     * @param bars       les barres plus fines de l'intervalle, dans l'ordre chronologique ; au moins une.
+     * @return la barre agrégée.
+     */
+    static TradeBar rollUp(Resolution resolution, LocalDateTime start, List<TradeBar> bars) {
+        TradeBar first = bars.get(0);
+        TradeBar last = bars.get(bars.size() - 1);
+        double high = first.high;
+        double low = first.low;
+        double volume = 0;
+        double notional = 0;
+        int tradeCount = 0;
+        for (TradeBar bar : bars) {
+            high = Math.max(high, bar.high);
+            low = Math.min(low, bar.low);
+            volume += bar.volume;
+            notional += bar.notional;
+            tradeCount += bar.tradeCount;
+        }
+        return new TradeBar(first.security, resolution, start, first.open, high, low, last.close, volume, notional,
+                tradeCount, first.firstTradeAt, last.lastTradeAt);
+    }
+}
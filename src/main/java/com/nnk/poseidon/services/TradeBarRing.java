@@ -0,0 +1,193 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.services.TradeBar.Resolution;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dernières barres d'un titre pour une résolution, rangées dans un anneau de tableaux de primitives
+ * (76 octets par barre, sans objet par barre).
+ * <p>
+ * La barre d'intervalle {@code n} occupe la case {@code n mod capacité} : l'anneau couvre les {@code capacité}
+ * intervalles qui précèdent la barre la plus récente, et avancer d'un intervalle libère la case la plus ancienne.
+ * Il fait foi à partir de son horizon : un intervalle postérieur absent de l'anneau n'a pas de barre, un
+ * intervalle antérieur doit être lu dans la table {@code TradeBar}. Les méthodes sont synchronisées : le thread
+ * d'agrégation écrit pendant que les requêtes lisent.
+ * </p>
+ */
+class TradeBarRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final String security;
+    private final Resolution resolution;
+    private final long stepSeconds;
+    private final int capacity;
+    private final long loadedFrom;
+
+    private final long[] buckets;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    private final double[] notional;
+    private final int[] tradeCount;
+    private final long[] firstTradeAt;
+    private final long[] lastTradeAt;
+    private long newest = EMPTY;
+
+    /**
+     * @param security   le titre.
+     * @param resolution la résolution des barres.
+     * @param capacity   le nombre de barres conservées.
+     * @param loadedFrom le début de la première barre chargée depuis la table, ou {@code null} si l'anneau fait
+     *                   foi depuis l'origine (reconstruction complète).
+     */
+    TradeBarRing(String security, Resolution resolution, int capacity, LocalDateTime loadedFrom) {
+        this.security = security;
+        this.resolution = resolution;
+        this.stepSeconds = resolution.duration().toSeconds();
+        this.capacity = capacity;
+        this.loadedFrom = loadedFrom == null ? EMPTY : bucket(loadedFrom);
+        this.buckets = new long[capacity];
+        Arrays.fill(buckets, EMPTY);
+        this.open = new double[capacity];
+        this.high = new double[capacity];
+        this.low = new double[capacity];
+        this.close = new double[capacity];
+        this.volume = new double[capacity];
+        this.notional = new double[capacity];
+        this.tradeCount = new int[capacity];
+        this.firstTradeAt = new long[capacity];
+        this.lastTradeAt = new long[capacity];
+    }
+
+    private long bucket(LocalDateTime start) {
+        return Math.floorDiv(start.toEpochSecond(ZoneOffset.UTC), stepSeconds);
+    }
+
+    private LocalDateTime startOf(long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * stepSeconds, 0, ZoneOffset.UTC);
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) capacity);
+    }
+
+    private long horizon() {
+        return newest == EMPTY ? loadedFrom : Math.max(loadedFrom, newest - capacity + 1);
+    }
+
+    /**
+     * @return le début de la première barre dont l'anneau fait foi, ou {@code null} s'il fait foi depuis l'origine.
+     */
+    synchronized LocalDateTime horizonStart() {
+        long horizon = horizon();
+        return horizon == EMPTY ? null : startOf(horizon);
+    }
+
+    /**
+     * @param start le début d'une barre.
+     * @return {@code true} si l'anneau fait foi pour cette barre (présente ou absente).
+     */
+    synchronized boolean covers(LocalDateTime start) {
+        return bucket(start) >= horizon();
+    }
+
+    /**
+     * @param start le début d'une barre couverte par l'anneau.
+     * @return la barre, ou {@code null} si l'intervalle n'a pas de trade.
+     */
+    synchronized TradeBar get(LocalDateTime start) {
+        long bucket = bucket(start);
+        int slot = slot(bucket);
+        return buckets[slot] == bucket ? read(slot) : null;
+    }
+
+    /**
+     * Range la barre, en avançant l'anneau si elle est plus récente que toutes les autres. Une barre antérieure
+     * à l'horizon est ignorée : elle ne vit que dans la table.
+     *
+     * @param bar la barre.
+     */
+    synchronized void put(TradeBar bar) {
+        long bucket = bucket(bar.start());
+        if (bucket < horizon()) {
+            return;
+        }
+        if (newest == EMPTY || bucket > newest) {
+            newest = bucket;
+        }
+        int slot = slot(bucket);
+        buckets[slot] = bucket;
+        open[slot] = bar.open();
+        high[slot] = bar.high();
+        low[slot] = bar.low();
+        close[slot] = bar.close();
+        volume[slot] = bar.volume();
+        notional[slot] = bar.notional();
+        tradeCount[slot] = bar.tradeCount();
+        firstTradeAt[slot] = toMillis(bar.firstTradeAt());
+        lastTradeAt[slot] = toMillis(bar.lastTradeAt());
+    }
+
+    /**
+     * Retire la barre d'un intervalle dont tous les trades ont été supprimés.
+     *
+     * @param start le début de la barre.
+     */
+    synchronized void remove(LocalDateTime start) {
+        long bucket = bucket(start);
+        int slot = slot(bucket);
+        if (buckets[slot] == bucket) {
+            buckets[slot] = EMPTY;
+        }
+    }
+
+    /**
+     * Barres de l'anneau dont le début est dans {@code [from, to)}, dans l'ordre chronologique.
+     *
+     * @param from le début de la période (inclus).
+     * @param to   la fin de la période (exclue).
+     * @return les barres.
+     */
+    synchronized List<TradeBar> range(LocalDateTime from, LocalDateTime to) {
+        List<TradeBar> bars = new ArrayList<>();
+        if (newest == EMPTY) {
+            return bars;
+        }
+        long first = Math.max(Math.floorDiv(ceilSeconds(from) + stepSeconds - 1, stepSeconds), newest - capacity + 1);
+        long last = Math.min(Math.floorDiv(ceilSeconds(to) - 1, stepSeconds), newest);
+        for (long bucket = first; bucket <= last; bucket++) {
+            int slot = slot(bucket);
+            if (buckets[slot] == bucket) {
+                bars.add(read(slot));
+            }
+        }
+        return bars;
+    }
+
+    private TradeBar read(int slot) {
+        return new TradeBar(security, resolution, startOf(buckets[slot]), open[slot], high[slot], low[slot],
+                close[slot], volume[slot], notional[slot], tradeCount[slot], fromMillis(firstTradeAt[slot]),
+                fromMillis(lastTradeAt[slot]));
+    }
+
+    private static long ceilSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) + (time.getNano() > 0 ? 1 : 0);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,590 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.config.ReplicaRoutingDataSource;
+import com.nnk.poseidon.domain.Trade;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.repositories.TradeRepository;
+import com.nnk.poseidon.services.TradeBar.Resolution;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Barres OHLC/VWAP des trades par titre, aux résolutions 1m, 5m, 1h et 1d, tenues à jour au fil des écritures.
+ * <p>
+ * Chaque trade créé est ajouté, après le commit, aux quatre barres qui le contiennent : une mise à jour en temps
+ * constant par résolution, sans relecture. Une correction (prix, quantité, titre ou date d'un trade modifiés,
+ * trade supprimé) recalcule la minute concernée à partir des trades de cette minute (index
+ * {@code idx_trade_security_trade_date}), puis les barres 5m, 1h et 1d qui la contiennent à partir des barres
+ * d'une minute.
+ * </p>
+ * <p>
+ * Les {@code ring-size} dernières barres de chaque titre et de chaque résolution sont gardées en mémoire dans un
+ * {@link TradeBarRing} ; toutes les barres sont enregistrées dans la table {@code TradeBar} par le thread
+ * d'agrégation, à la fin de chaque lot. Les anneaux ne reçoivent une barre qu'une fois son enregistrement validé :
+ * un lot dont l'enregistrement échoue est abandonné sans que la mémoire s'écarte de la table. Les requêtes par
+ * période lisent l'anneau et, pour la partie plus ancienne, la table des barres : jamais la table des trades.
+ * Une barre reflète un trade quelques millisecondes après son commit. Les trades sont relus sur la base
+ * principale, un réplica en retard pouvant ignorer ceux qui viennent d'être validés.
+ * </p>
+ * <p>
+ * Actif avec {@code poseidon.bars.enabled=true}, sur un seul nœud : chaque nœud n'agrège que les écritures
+ * qu'il voit passer. Au premier démarrage (table des barres vide), les barres sont reconstruites à partir de
+ * tous les trades.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.bars.enabled", havingValue = "true")
+public class TradeBarService {
+
+    /**
+     * Nombre maximal de barres d'une requête par période.
+     */
+    static final int MAX_BARS_PER_QUERY = 10_000;
+
+    /**
+     * Nombre de barres accumulées avant enregistrement pendant une reconstruction.
+     */
+    private static final int REBUILD_FLUSH_SIZE = 5_000;
+
+    /**
+     * Durée pendant laquelle les trades relus par un recalcul restent marqués comme déjà comptés.
+     */
+    private static final long FENCE_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final String COLUMNS = "security, resolution, barStart, openPrice, highPrice, lowPrice, closePrice, "
+            + "volume, notional, tradeCount, firstTradeAt, lastTradeAt";
+    private static final String SELECT_RANGE_SQL = "SELECT " + COLUMNS + " FROM TradeBar "
+            + "WHERE security = ? AND resolution = ? AND barStart >= ? AND barStart < ? ORDER BY barStart";
+    private static final String SELECT_SINCE_SQL = "SELECT " + COLUMNS + " FROM TradeBar "
+            + "WHERE resolution = ? AND barStart >= ? ORDER BY barStart";
+    private static final String UPDATE_SQL = "UPDATE TradeBar SET openPrice = ?, highPrice = ?, lowPrice = ?, "
+            + "closePrice = ?, volume = ?, notional = ?, tradeCount = ?, firstTradeAt = ?, lastTradeAt = ? "
+            + "WHERE security = ? AND resolution = ? AND barStart = ?";
+    private static final String INSERT_SQL = "INSERT INTO TradeBar (" + COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM TradeBar WHERE security = ? AND resolution = ? AND barStart = ?";
+    private static final String DELETE_ALL_SQL = "DELETE FROM TradeBar";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM TradeBar";
+
+    private static final RowMapper<TradeBar> BAR_MAPPER = (rs, rowNum) -> new TradeBar(rs.getString("security"),
+            Resolution.valueOf(rs.getString("resolution")), rs.getTimestamp("barStart").toLocalDateTime(),
+            rs.getDouble("openPrice"), rs.getDouble("highPrice"), rs.getDouble("lowPrice"), rs.getDouble("closePrice"),
+            rs.getDouble("volume"), rs.getDouble("notional"), rs.getInt("tradeCount"),
+            rs.getTimestamp("firstTradeAt").toLocalDateTime(), rs.getTimestamp("lastTradeAt").toLocalDateTime());
+
+    /**
+     * Travail du thread d'agrégation.
+     */
+    private sealed interface Work permits Apply, Recompute {
+    }
+
+    /**
+     * Ajout d'un trade créé à ses barres.
+     */
+    private record Apply(Integer tradeId, TradeBar.Tick tick) implements Work {
+    }
+
+    /**
+     * Recalcul d'une minute d'un titre après une correction.
+     */
+    private record Recompute(String security, LocalDateTime minute) implements Work {
+    }
+
+    private record BarKey(String security, Resolution resolution, LocalDateTime start) {
+
+        static BarKey of(String security, Resolution resolution, LocalDateTime time) {
+            return new BarKey(security, resolution, resolution.truncate(time));
+        }
+    }
+
+    /**
+     * Trades d'une minute relus par un recalcul : leur ajout, s'il est encore en file, est ignoré.
+     */
+    private record Fence(Set<Integer> tradeIds, long createdAt) {
+    }
+
+    private final TradeRepository tradeRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int ringSize;
+    private final int batchSize;
+    private final Map<String, TradeBarRing[]> rings = new ConcurrentHashMap<>();
+    private final Map<BarKey, Fence> fences = new HashMap<>();
+    private final BlockingQueue<Work> pending = new LinkedBlockingQueue<>();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+
+    private volatile Map<Resolution, LocalDateTime> loadedFrom = new EnumMap<>(Resolution.class);
+    private Thread aggregatorThread;
+    private volatile boolean running;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param tradeRepository    le repository des trades, lu pour les recalculs et la reconstruction.
+     * @param entityManager      le contexte de persistance, pour détacher les trades lus lors d'une reconstruction.
+     * @param jdbcTemplate       accès JDBC à la table des barres.
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param ringSize           le nombre de barres gardées en mémoire par titre et par résolution.
+     * @param batchSize          le nombre maximal de changements agrégés par lot.
+     */
+    public TradeBarService(TradeRepository tradeRepository,
+                           EntityManager entityManager,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${poseidon.bars.ring-size:120}") int ringSize,
+                           @Value("${poseidon.bars.batch-size:1000}") int batchSize) {
+        this.tradeRepository = tradeRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        // Transaction propre : une reconstruction enregistre ses barres pendant la lecture en flux des trades.
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ringSize = ringSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Charge les barres récentes dans les anneaux, ou reconstruit toutes les barres si la table est vide, puis
+     * démarre le thread d'agrégation.
+     */
+    @PostConstruct
+    public void start() {
+        Integer bars = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class);
+        if (bars == null || bars == 0) {
+            rebuild();
+        } else {
+            loadRecentBars();
+        }
+        running = true;
+        aggregatorThread = new Thread(this::aggregateLoop, "trade-bars");
+        aggregatorThread.setDaemon(true);
+        aggregatorThread.start();
+    }
+
+    /**
+     * Arrête le thread d'agrégation après avoir traité les changements en attente.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (aggregatorThread != null) {
+            try {
+                aggregatorThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Met en file les trades créés, et les minutes touchées par une modification dont l'état antérieur est connu,
+     * une fois la transaction validée. Les autres écritures passent par {@link #beforeTradesRewritten(Collection)}.
+     *
+     * @param event l'événement d'audit publié par l'écriture.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeAudited(EntityAuditedEvent event) {
+        if (!EntityAuditedEvent.TRADE.equals(event.entityType()) || !(event.after() instanceof TradeDTO after)) {
+            return;
+        }
+        TradeBar.Tick tick = tick(after);
+        if (event.action() == EntityAuditedEvent.Action.CREATE) {
+            if (tick != null) {
+                enqueue(new Apply(event.entityId(), tick));
+            }
+            return;
+        }
+        TradeBar.Tick previous = event.before() instanceof TradeDTO before ? tick(before) : null;
+        if (event.before() != null && Objects.equals(previous, tick)) {
+            return;
+        }
+        // Sans état antérieur (write-behind), l'ancienne minute a été relevée avant la réécriture.
+        Set<Recompute> minutes = new LinkedHashSet<>();
+        if (previous != null) {
+            minutes.add(new Recompute(previous.security(), Resolution.M1.truncate(previous.at())));
+        }
+        if (tick != null) {
+            minutes.add(new Recompute(tick.security(), Resolution.M1.truncate(tick.at())));
+        }
+        minutes.forEach(this::enqueue);
+    }
+
+    /**
+     * Relève les minutes de barres des trades qu'une écriture va supprimer ou réécrire sans connaître leur état
+     * antérieur ; elles sont recalculées une fois la transaction validée. À appeler dans la transaction de
+     * l'écriture, avant celle-ci.
+     *
+     * @param tradeIds les identifiants des trades concernés.
+     */
+    public void beforeTradesRewritten(Collection<Integer> tradeIds) {
+        List<Recompute> minutes = tradeRepository.findBarKeys(tradeIds).stream()
+                .map(row -> new Recompute((String) row[0], Resolution.M1.truncate((LocalDateTime) row[1])))
+                .distinct()
+                .toList();
+        if (minutes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    minutes.forEach(TradeBarService.this::enqueue);
+                }
+            });
+        } else {
+            minutes.forEach(this::enqueue);
+        }
+    }
+
+    /**
+     * Barres d'un titre dont le début est dans {@code [from, to)}, dans l'ordre chronologique ; les intervalles
+     * sans trade n'ont pas de barre. La partie couverte par l'anneau est lue en mémoire, le reste dans la table
+     * des barres.
+     *
+     * @param security   le titre.
+     * @param resolution la résolution.
+     * @param from       le début de la période (inclus).
+     * @param to         la fin de la période (exclue).
+     * @return les barres.
+     * @throws IllegalArgumentException si le titre manque, si la période est vide ou si elle couvre plus de
+     *                                  {@value #MAX_BARS_PER_QUERY} barres.
+     */
+    public List<TradeBar> findBars(String security, Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        if (security == null || security.isBlank()) {
+            throw new IllegalArgumentException("Le titre (security) est obligatoire.");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("La période doit être non vide : from doit précéder to.");
+        }
+        if (Duration.between(from, to).dividedBy(resolution.duration()) > MAX_BARS_PER_QUERY) {
+            throw new IllegalArgumentException("La période couvre plus de " + MAX_BARS_PER_QUERY + " barres "
+                    + resolution.label() + ".");
+        }
+        TradeBarRing[] securityRings = rings.get(security);
+        TradeBarRing ring = securityRings == null ? null : securityRings[resolution.ordinal()];
+        LocalDateTime split = to;
+        if (ring != null) {
+            LocalDateTime horizon = ring.horizonStart();
+            split = horizon == null || horizon.isBefore(from) ? from : horizon.isAfter(to) ? to : horizon;
+        }
+        List<TradeBar> bars = new ArrayList<>();
+        if (from.isBefore(split)) {
+            bars.addAll(jdbcTemplate.query(SELECT_RANGE_SQL, BAR_MAPPER, security, resolution.name(),
+                    Timestamp.valueOf(from), Timestamp.valueOf(split)));
+        }
+        if (ring != null && split.isBefore(to)) {
+            bars.addAll(ring.range(split, to));
+        }
+        return bars;
+    }
+
+    /**
+     * Attend que les changements mis en file avant l'appel soient agrégés et enregistrés.
+     *
+     * @param timeoutMs l'attente maximale.
+     * @return {@code false} si le délai a expiré avant.
+     */
+    boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (processed.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private void enqueue(Work work) {
+        enqueued.incrementAndGet();
+        pending.add(work);
+    }
+
+    private void aggregateLoop() {
+        List<Work> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                Work first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Échec de l'agrégation de {} changement(s) de trades en barres", batch.size(), e);
+            } finally {
+                processed.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Applique un lot : ajouts des trades créés, puis recalcul des minutes corrigées et des barres qui les
+     * contiennent. Les recalculs relisent les trades validés, ajouts du lot compris.
+     */
+    private void process(List<Work> batch) {
+        long now = System.nanoTime();
+        fences.values().removeIf(fence -> now - fence.createdAt() > FENCE_RETENTION_NANOS);
+        Map<BarKey, TradeBar> upserts = new LinkedHashMap<>();
+        Set<BarKey> deletions = new LinkedHashSet<>();
+        Set<Recompute> recomputes = new LinkedHashSet<>();
+        for (Work work : batch) {
+            if (work instanceof Apply apply) {
+                Fence fence = fences.get(BarKey.of(apply.tick().security(), Resolution.M1, apply.tick().at()));
+                if (fence == null || !fence.tradeIds().remove(apply.tradeId())) {
+                    applyTick(apply.tick(), upserts);
+                }
+            } else if (work instanceof Recompute recompute) {
+                recomputes.add(recompute);
+            }
+        }
+        flush(upserts, deletions);
+        if (recomputes.isEmpty()) {
+            return;
+        }
+        Set<BarKey> rollUps = new LinkedHashSet<>();
+        Map<BarKey, Fence> newFences = new HashMap<>();
+        for (Recompute recompute : recomputes) {
+            recomputeMinute(recompute, upserts, deletions, newFences);
+            for (Resolution resolution : List.of(Resolution.M5, Resolution.H1, Resolution.D1)) {
+                rollUps.add(BarKey.of(recompute.security(), resolution, recompute.minute()));
+            }
+        }
+        flush(upserts, deletions);
+        // Les trades relus ne sont écartés des ajouts suivants qu'une fois leur minute enregistrée.
+        fences.putAll(newFences);
+        for (BarKey key : rollUps) {
+            List<TradeBar> minutes = jdbcTemplate.query(SELECT_RANGE_SQL, BAR_MAPPER, key.security(), Resolution.M1.name(),
+                    Timestamp.valueOf(key.start()), Timestamp.valueOf(key.start().plus(key.resolution().duration())));
+            store(key, minutes.isEmpty() ? null : TradeBar.rollUp(key.resolution(), key.start(), minutes), upserts, deletions);
+        }
+        flush(upserts, deletions);
+    }
+
+    private void applyTick(TradeBar.Tick tick, Map<BarKey, TradeBar> upserts) {
+        for (Resolution resolution : Resolution.values()) {
+            BarKey key = BarKey.of(tick.security(), resolution, tick.at());
+            TradeBar current = upserts.containsKey(key) ? upserts.get(key) : load(key);
+            upserts.put(key, current == null ? TradeBar.of(resolution, tick) : current.plus(tick));
+        }
+    }
+
+    /**
+     * Lit une barre dans l'anneau s'il fait foi pour elle, dans la table sinon.
+     */
+    private TradeBar load(BarKey key) {
+        TradeBarRing ring = ring(key.security(), key.resolution());
+        if (ring.covers(key.start())) {
+            return ring.get(key.start());
+        }
+        List<TradeBar> bars = jdbcTemplate.query(SELECT_RANGE_SQL, BAR_MAPPER, key.security(), key.resolution().name(),
+                Timestamp.valueOf(key.start()), Timestamp.valueOf(key.start().plus(key.resolution().duration())));
+        return bars.isEmpty() ? null : bars.get(0);
+    }
+
+    private void recomputeMinute(Recompute recompute, Map<BarKey, TradeBar> upserts, Set<BarKey> deletions,
+                                 Map<BarKey, Fence> newFences) {
+        List<Trade> trades = readFromPrimary(() -> readOnlyTransaction.execute(status -> tradeRepository.findBarTrades(
+                recompute.security(), recompute.minute(), recompute.minute().plusMinutes(1))));
+        Set<Integer> tradeIds = new HashSet<>();
+        TradeBar bar = null;
+        for (Trade trade : trades == null ? List.<Trade>of() : trades) {
+            tradeIds.add(trade.getTradeId());
+            TradeBar.Tick tick = tick(trade);
+            if (tick != null) {
+                bar = bar == null ? TradeBar.of(Resolution.M1, tick) : bar.plus(tick);
+            }
+        }
+        BarKey key = new BarKey(recompute.security(), Resolution.M1, recompute.minute());
+        newFences.put(key, new Fence(tradeIds, System.nanoTime()));
+        store(key, bar, upserts, deletions);
+    }
+
+    private void store(BarKey key, TradeBar bar, Map<BarKey, TradeBar> upserts, Set<BarKey> deletions) {
+        if (bar == null) {
+            upserts.remove(key);
+            deletions.add(key);
+        } else {
+            deletions.remove(key);
+            upserts.put(key, bar);
+        }
+    }
+
+    /**
+     * Enregistre les barres modifiées et supprime les barres vidées, dans une même transaction, puis reporte
+     * ces changements dans les anneaux une fois la transaction validée.
+     */
+    private void flush(Map<BarKey, TradeBar> upserts, Set<BarKey> deletions) {
+        if (upserts.isEmpty() && deletions.isEmpty()) {
+            return;
+        }
+        List<TradeBar> bars = List.copyOf(upserts.values());
+        List<Object[]> deleteRows = deletions.stream()
+                .map(key -> new Object[]{key.security(), key.resolution().name(), Timestamp.valueOf(key.start())})
+                .toList();
+        writeTransaction.executeWithoutResult(status -> {
+            if (!deleteRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deleteRows);
+            }
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, bars.stream().map(bar -> new Object[]{
+                    bar.open(), bar.high(), bar.low(), bar.close(), bar.volume(), bar.notional(), bar.tradeCount(),
+                    Timestamp.valueOf(bar.firstTradeAt()), Timestamp.valueOf(bar.lastTradeAt()),
+                    bar.security(), bar.resolution().name(), Timestamp.valueOf(bar.start())}).toList());
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < bars.size(); i++) {
+                if (updated[i] == 0) {
+                    TradeBar bar = bars.get(i);
+                    inserts.add(new Object[]{bar.security(), bar.resolution().name(), Timestamp.valueOf(bar.start()),
+                            bar.open(), bar.high(), bar.low(), bar.close(), bar.volume(), bar.notional(),
+                            bar.tradeCount(), Timestamp.valueOf(bar.firstTradeAt()), Timestamp.valueOf(bar.lastTradeAt())});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+        });
+        deletions.forEach(key -> ring(key.security(), key.resolution()).remove(key.start()));
+        bars.forEach(bar -> ring(bar.security(), bar.resolution()).put(bar));
+        upserts.clear();
+        deletions.clear();
+    }
+
+    private TradeBarRing ring(String security, Resolution resolution) {
+        return rings.computeIfAbsent(security, this::newRings)[resolution.ordinal()];
+    }
+
+    private TradeBarRing[] newRings(String security) {
+        Map<Resolution, LocalDateTime> from = loadedFrom;
+        TradeBarRing[] securityRings = new TradeBarRing[Resolution.values().length];
+        for (Resolution resolution : Resolution.values()) {
+            securityRings[resolution.ordinal()] = new TradeBarRing(security, resolution, ringSize, from.get(resolution));
+        }
+        return securityRings;
+    }
+
+    /**
+     * Charge dans les anneaux les {@code ring-size} dernières barres de chaque résolution jusqu'à maintenant,
+     * et les barres postérieures.
+     */
+    private void loadRecentBars() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Resolution, LocalDateTime> from = new EnumMap<>(Resolution.class);
+        for (Resolution resolution : Resolution.values()) {
+            from.put(resolution, resolution.truncate(now).minus(resolution.duration().multipliedBy(ringSize - 1L)));
+        }
+        loadedFrom = from;
+        rings.clear();
+        int loaded = 0;
+        for (Resolution resolution : Resolution.values()) {
+            List<TradeBar> bars = jdbcTemplate.query(SELECT_SINCE_SQL, BAR_MAPPER, resolution.name(),
+                    Timestamp.valueOf(from.get(resolution)));
+            bars.forEach(bar -> ring(bar.security(), bar.resolution()).put(bar));
+            loaded += bars.size();
+        }
+        log.info("{} barre(s) récente(s) chargée(s) pour {} titre(s)", loaded, rings.size());
+    }
+
+    /**
+     * Reconstruit toutes les barres à partir des trades, lus en flux titre par titre et dans l'ordre de conclusion.
+     */
+    private void rebuild() {
+        long start = System.nanoTime();
+        // Aucun horizon : les anneaux font foi depuis l'origine, la table étant réécrite en entier.
+        loadedFrom = new EnumMap<>(Resolution.class);
+        rings.clear();
+        fences.clear();
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update(DELETE_ALL_SQL));
+        Map<BarKey, TradeBar> upserts = new LinkedHashMap<>();
+        Set<BarKey> deletions = new LinkedHashSet<>();
+        long[] trades = new long[1];
+        readFromPrimary(() -> readOnlyTransaction.execute(status -> {
+            try (Stream<Trade> stream = tradeRepository.streamBarTrades()) {
+                stream.forEach(trade -> {
+                    TradeBar.Tick tick = tick(trade);
+                    if (tick != null) {
+                        applyTick(tick, upserts);
+                        trades[0]++;
+                    }
+                    entityManager.detach(trade);
+                    if (upserts.size() >= REBUILD_FLUSH_SIZE) {
+                        flush(upserts, deletions);
+                    }
+                });
+            }
+            return null;
+        }));
+        flush(upserts, deletions);
+        log.info("Barres reconstruites à partir de {} trade(s) en {} ms", trades[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Exécute une lecture sur la base principale, même dans une transaction en lecture seule.
+     */
+    private static <T> T readFromPrimary(Supplier<T> read) {
+        boolean primaryRequired = ReplicaRoutingDataSource.isPrimaryRequired();
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        try {
+            return read.get();
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(primaryRequired);
+        }
+    }
+
+    private static TradeBar.Tick tick(TradeDTO trade) {
+        return TradeBar.Tick.of(trade.getSecurity(), trade.getTradeDate(), trade.getBuyPrice(), trade.getBuyQuantity(),
+                trade.getSellPrice(), trade.getSellQuantity());
+    }
+
+    private static TradeBar.Tick tick(Trade trade) {
+        return TradeBar.Tick.of(trade.getSecurity(), trade.getTradeDate(), trade.getBuyPrice(), trade.getBuyQuantity(),
+                trade.getSellPrice(), trade.getSellQuantity());
+    }
+}
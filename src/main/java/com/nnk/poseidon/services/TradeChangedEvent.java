@@ -0,0 +1,26 @@
+package com.nnk.poseidon.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Événement publié par les écritures de trades, au sein de la transaction qui les porte.
+ * <p>
+ * Les écouteurs {@code @TransactionalEventListener} ne le reçoivent qu'une fois la transaction validée ;
+ * ils relisent alors l'état courant des trades concernés (un trade absent a été supprimé).
+ * </p>
+ *
+ * @param tradeIds les identifiants des trades créés, modifiés ou supprimés.
+ */
+public record TradeChangedEvent(Collection<Integer> tradeIds) {
+
+    /**
+     * Événement portant sur un seul trade.
+     *
+     * @param tradeId l'identifiant du trade.
+     * @return l'événement.
+     */
+    public static TradeChangedEvent of(Integer tradeId) {
+        return new TradeChangedEvent(List.of(tradeId));
+    }
+}
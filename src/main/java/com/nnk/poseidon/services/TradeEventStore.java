@@ -0,0 +1,406 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.repositories.TradeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Mode event-sourcing des trades.
+ * <p>
+ * Lorsqu'il est activé ({@code poseidon.trade.event-sourcing.enabled=true}), chaque écriture de {@link TradeService}
+ * ajoute, dans la transaction de l'écriture, un événement immuable à la table {@code TradeEvent} : création (état complet),
+ * modification (champs modifiés seulement) ou suppression. Les versions d'un trade se suivent à partir de 1.
+ * La table {@code Trade} n'est plus qu'une projection de ces événements, tenue à jour dans la même transaction
+ * et reconstructible à tout moment avec {@link #rebuildProjection()}.
+ * </p>
+ * <p>
+ * Tous les {@code snapshot-interval} événements, l'état du trade est enregistré dans {@code TradeSnapshot} :
+ * l'état à une date donnée ({@link #stateAsOf}) part du dernier instantané antérieur à cette date et ne rejoue
+ * que les événements suivants, au plus {@code snapshot-interval - 1}.
+ * </p>
+ * <p>
+ * Au démarrage, un événement de création est enregistré pour chaque trade qui n'en a pas encore (trades antérieurs
+ * à l'activation du mode) : leur historique commence à cette date. Le mode est incompatible avec le mode
+ * write-behind.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.trade.event-sourcing.enabled", havingValue = "true")
+public class TradeEventStore {
+
+    /**
+     * Nature d'un événement de trade.
+     */
+    public enum Type {
+        /** Création : la charge utile est l'état complet du trade. */
+        CREATED,
+        /** Modification : la charge utile ne contient que les champs modifiés (ou l'état complet pour un remplacement). */
+        UPDATED,
+        /** Suppression : pas de charge utile. */
+        DELETED
+    }
+
+    /**
+     * Événement à enregistrer.
+     *
+     * @param tradeId l'identifiant du trade.
+     * @param type    la nature de l'événement.
+     * @param payload l'état complet ou les champs modifiés (DTO ou table nom vers valeur), {@code null} pour une suppression.
+     */
+    public record Event(Integer tradeId, Type type, Object payload) {
+
+        /**
+         * Création d'un trade.
+         *
+         * @param tradeId l'identifiant attribué au trade.
+         * @param state   l'état complet du trade.
+         * @return l'événement.
+         */
+        public static Event created(Integer tradeId, Object state) {
+            return new Event(tradeId, Type.CREATED, state);
+        }
+
+        /**
+         * Modification d'un trade.
+         *
+         * @param tradeId l'identifiant du trade.
+         * @param changes les champs modifiés, ou l'état complet.
+         * @return l'événement.
+         */
+        public static Event updated(Integer tradeId, Object changes) {
+            return new Event(tradeId, Type.UPDATED, changes);
+        }
+
+        /**
+         * Suppression d'un trade.
+         *
+         * @param tradeId l'identifiant du trade.
+         * @return l'événement.
+         */
+        public static Event deleted(Integer tradeId) {
+            return new Event(tradeId, Type.DELETED, null);
+        }
+    }
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO TradeEvent (tradeId, version, eventType, occurredAt, payload) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO TradeSnapshot (tradeId, version, occurredAt, state) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_HEADS_SQL = "SELECT e.tradeId, e.version, e.eventType FROM TradeEvent e "
+            + "WHERE e.tradeId IN (:ids) AND e.version = (SELECT MAX(l.version) FROM TradeEvent l WHERE l.tradeId = e.tradeId)";
+    private static final String SELECT_SNAPSHOTS_SQL = "SELECT s.tradeId, s.state FROM TradeSnapshot s "
+            + "WHERE s.tradeId IN (:ids) AND s.version = (SELECT MAX(l.version) FROM TradeSnapshot l "
+            + "WHERE l.tradeId = s.tradeId AND l.occurredAt <= :asOf)";
+    private static final String SELECT_EVENTS_SQL = "SELECT e.tradeId, e.eventType, e.payload FROM TradeEvent e "
+            + "WHERE e.tradeId IN (:ids) AND e.occurredAt <= :asOf AND e.version > COALESCE((SELECT MAX(l.version) "
+            + "FROM TradeSnapshot l WHERE l.tradeId = e.tradeId AND l.occurredAt <= :asOf), 0) "
+            + "ORDER BY e.tradeId, e.version";
+    private static final String SELECT_UNTRACKED_SQL = "SELECT t.TradeId FROM Trade t "
+            + "WHERE NOT EXISTS (SELECT 1 FROM TradeEvent e WHERE e.tradeId = t.TradeId) ORDER BY t.TradeId";
+    private static final String SELECT_PARTITION_SQL = "SELECT DISTINCT e.tradeId FROM TradeEvent e "
+            + "WHERE MOD(e.tradeId, ?) = ? AND NOT EXISTS (SELECT 1 FROM Trade t WHERE t.TradeId = e.tradeId) "
+            + "ORDER BY e.tradeId";
+    private static final String DELETE_PARTITION_SQL = "DELETE FROM Trade WHERE MOD(TradeId, ?) = ?";
+    private static final String INSERT_PROJECTION_SQL = "INSERT INTO Trade (account, type, buyQuantity, sellQuantity, "
+            + "buyPrice, sellPrice, tradeDate, security, status, trader, benchmark, book, creationName, creationDate, "
+            + "revisionName, revisionDate, dealName, dealType, sourceListId, side, TradeId) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final TypeReference<LinkedHashMap<String, Object>> STATE_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TradeRepository tradeRepository;
+    private final ObjectProvider<TradeWriteBehindService> writeBehindProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int snapshotInterval;
+    private final int rebuildPartitions;
+    private final int batchSize;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param jdbcTemplate        accès JDBC aux tables d'événements et à la projection.
+     * @param transactionManager  le gestionnaire de transactions de l'application.
+     * @param objectMapper        le mapper JSON de l'application, pour les charges utiles et les instantanés.
+     * @param tradeRepository     le repository des trades, pour initialiser l'historique des trades existants.
+     * @param writeBehindProvider fournit le {@link TradeWriteBehindService}, dont la présence est refusée.
+     * @param eventPublisher      publie un {@link TradeChangedEvent} pour les trades réécrits par une reconstruction.
+     * @param snapshotInterval    le nombre d'événements entre deux instantanés d'un trade.
+     * @param rebuildPartitions   le nombre de partitions reconstruites en parallèle.
+     * @param batchSize           le nombre de trades rejoués et réécrits par lot.
+     */
+    public TradeEventStore(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           TradeRepository tradeRepository,
+                           ObjectProvider<TradeWriteBehindService> writeBehindProvider,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${poseidon.trade.event-sourcing.snapshot-interval:50}") int snapshotInterval,
+                           @Value("${poseidon.trade.event-sourcing.rebuild-partitions:4}") int rebuildPartitions,
+                           @Value("${poseidon.trade.event-sourcing.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.tradeRepository = tradeRepository;
+        this.writeBehindProvider = writeBehindProvider;
+        this.eventPublisher = eventPublisher;
+        this.snapshotInterval = snapshotInterval;
+        this.rebuildPartitions = rebuildPartitions;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Vérifie la configuration puis enregistre un événement de création pour les trades qui n'ont pas d'historique.
+     *
+     * @throws IllegalStateException si le mode write-behind est aussi activé.
+     */
+    @PostConstruct
+    public void start() {
+        if (writeBehindProvider.getIfAvailable() != null) {
+            throw new IllegalStateException("Les modes write-behind et event-sourcing des trades ne peuvent pas être combinés.");
+        }
+        List<Integer> untracked = jdbcTemplate.queryForList(SELECT_UNTRACKED_SQL, Integer.class);
+        for (int start = 0; start < untracked.size(); start += batchSize) {
+            List<Integer> chunk = untracked.subList(start, Math.min(start + batchSize, untracked.size()));
+            transactionTemplate.executeWithoutResult(status -> appendAll(tradeRepository.findAllById(chunk).stream()
+                    .map(trade -> Event.created(trade.getTradeId(), trade))
+                    .toList()));
+        }
+        if (!untracked.isEmpty()) {
+            log.info("Historique initialisé pour {} trades existants", untracked.size());
+        }
+        log.info("Mode event-sourcing des trades actif (instantané tous les {} événements)", snapshotInterval);
+    }
+
+    /**
+     * Enregistre un événement ; doit être appelée dans la transaction qui met à jour la projection.
+     *
+     * @param event l'événement.
+     * @return {@code true} si l'événement a été enregistré (voir {@link #appendAll}).
+     */
+    public boolean append(Event event) {
+        return appendAll(List.of(event)) == 1;
+    }
+
+    /**
+     * Enregistre des événements dans l'ordre, en un batch JDBC, puis les instantanés des trades dont la nouvelle
+     * version est un multiple de l'intervalle. Doit être appelée dans la transaction qui met à jour la projection.
+     * <p>
+     * Une modification ou une suppression d'un trade inconnu ou déjà supprimé est ignorée, comme le font les
+     * opérations ensemblistes ; deux écritures concurrentes d'un même trade sont départagées par l'unicité de
+     * la version ({@link org.springframework.dao.DuplicateKeyException} pour la seconde).
+     * </p>
+     *
+     * @param events les événements.
+     * @return le nombre d'événements enregistrés.
+     */
+    public int appendAll(List<Event> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, Head> heads = heads(events.stream().map(Event::tradeId).distinct().toList());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Object[]> rows = new ArrayList<>(events.size());
+        Map<Integer, Integer> snapshots = new LinkedHashMap<>();
+        for (Event event : events) {
+            Head head = heads.get(event.tradeId());
+            boolean live = head != null && head.type() != Type.DELETED;
+            if (event.type() == Type.CREATED ? head != null : !live) {
+                continue;
+            }
+            int version = head == null ? 1 : head.version() + 1;
+            heads.put(event.tradeId(), new Head(version, event.type()));
+            rows.add(new Object[]{event.tradeId(), version, event.type().name(), Timestamp.valueOf(now),
+                    event.payload() == null ? null : toJson(event.payload())});
+            if (version % snapshotInterval == 0 && event.type() != Type.DELETED) {
+                snapshots.put(event.tradeId(), version);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, rows);
+        if (!snapshots.isEmpty()) {
+            Map<Integer, Map<String, Object>> states = replay(snapshots.keySet(), now);
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, snapshots.entrySet().stream()
+                    .map(snapshot -> new Object[]{snapshot.getKey(), snapshot.getValue(), Timestamp.valueOf(now),
+                            toJson(states.get(snapshot.getKey()))})
+                    .toList());
+        }
+        return rows.size();
+    }
+
+    /**
+     * Reconstruit l'état d'un trade à une date donnée, à partir du dernier instantané antérieur et des événements suivants.
+     *
+     * @param tradeId l'identifiant du trade.
+     * @param asOf    la date de l'état voulu.
+     * @return l'état du trade à cette date, ou {@link Optional#empty()} s'il n'existait pas encore ou était supprimé.
+     */
+    public Optional<TradeDTO> stateAsOf(Integer tradeId, LocalDateTime asOf) {
+        return Optional.ofNullable(replay(List.of(tradeId), asOf).get(tradeId))
+                .map(state -> objectMapper.convertValue(state, TradeDTO.class));
+    }
+
+    /**
+     * Reconstruit la projection {@code Trade} à partir des événements, par partitions de trades
+     * ({@code MOD(tradeId, partitions)}) traitées en parallèle, chacune dans sa propre transaction.
+     * <p>
+     * Chaque partition est effacée puis réécrite, dans la même transaction, à partir du dernier instantané de
+     * chaque trade sans ligne restante : un trade créé pendant l'opération n'est ni perdu ni dupliqué. Les
+     * modifications de trades doivent toutefois être suspendues pendant l'opération.
+     * </p>
+     *
+     * @return le nombre de trades réécrits dans la projection.
+     * @throws IllegalStateException si la reconstruction d'une partition échoue (cette partition est alors intacte).
+     */
+    public int rebuildProjection() {
+        long startNanos = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildPartitions, runnable -> {
+            Thread thread = new Thread(runnable, "trade-projection-rebuild-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Integer>> partitions = IntStream.range(0, rebuildPartitions)
+                    .mapToObj(partition -> executor.submit(() -> rebuildPartition(partition)))
+                    .toList();
+            int rebuilt = 0;
+            for (Future<Integer> partition : partitions) {
+                rebuilt += partition.get();
+            }
+            log.info("Projection des trades reconstruite : {} trades en {} ms ({} partitions)", rebuilt,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), rebuildPartitions);
+            return rebuilt;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstruction de la projection des trades interrompue.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec de la reconstruction de la projection des trades : "
+                    + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int rebuildPartition(int partition) {
+        Integer rebuilt = transactionTemplate.execute(status -> {
+            // Les identifiants sont lus après l'effacement : un trade créé entre-temps a déjà sa ligne et est écarté.
+            jdbcTemplate.update(DELETE_PARTITION_SQL, rebuildPartitions, partition);
+            List<Integer> tradeIds = jdbcTemplate.queryForList(SELECT_PARTITION_SQL, Integer.class,
+                    rebuildPartitions, partition);
+            LocalDateTime now = LocalDateTime.now();
+            int count = 0;
+            for (int start = 0; start < tradeIds.size(); start += batchSize) {
+                Map<Integer, Map<String, Object>> states =
+                        replay(tradeIds.subList(start, Math.min(start + batchSize, tradeIds.size())), now);
+                List<Object[]> rows = states.entrySet().stream()
+                        .filter(state -> state.getValue() != null)
+                        .map(state -> TradeWriteBehindService.fullRow(
+                                objectMapper.convertValue(state.getValue(), TradeDTO.class), state.getKey()))
+                        .toList();
+                jdbcTemplate.batchUpdate(INSERT_PROJECTION_SQL, rows);
+                count += rows.size();
+            }
+            eventPublisher.publishEvent(new TradeChangedEvent(tradeIds));
+            return count;
+        });
+        log.debug("Partition {} de la projection des trades reconstruite : {} trades", partition, rebuilt);
+        return rebuilt == null ? 0 : rebuilt;
+    }
+
+    /**
+     * Rejoue les événements des trades donnés jusqu'à une date, à partir de leur dernier instantané antérieur.
+     *
+     * @return l'état de chaque trade (valeur {@code null} si le trade est supprimé) ; les trades inexistants à
+     *         cette date sont absents.
+     */
+    private Map<Integer, Map<String, Object>> replay(Collection<Integer> tradeIds, LocalDateTime asOf) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", tradeIds)
+                .addValue("asOf", Timestamp.valueOf(asOf));
+        Map<Integer, Map<String, Object>> states = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_SNAPSHOTS_SQL, parameters, rs -> {
+            states.put(rs.getInt("tradeId"), fromJson(rs.getString("state")));
+        });
+        namedJdbcTemplate.query(SELECT_EVENTS_SQL, parameters, rs -> {
+            Integer tradeId = rs.getInt("tradeId");
+            switch (Type.valueOf(rs.getString("eventType"))) {
+                case CREATED -> states.put(tradeId, fromJson(rs.getString("payload")));
+                case UPDATED -> {
+                    Map<String, Object> state = states.get(tradeId);
+                    if (state != null) {
+                        state.putAll(fromJson(rs.getString("payload")));
+                    }
+                }
+                case DELETED -> states.put(tradeId, null);
+            }
+        });
+        return states;
+    }
+
+    private Map<Integer, Head> heads(List<Integer> tradeIds) {
+        Map<Integer, Head> heads = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_HEADS_SQL, new MapSqlParameterSource("ids", tradeIds), rs -> {
+            heads.put(rs.getInt("tradeId"), new Head(rs.getInt("version"), Type.valueOf(rs.getString("eventType"))));
+        });
+        return heads;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation d'un événement de trade impossible.", e);
+        }
+    }
+
+    private LinkedHashMap<String, Object> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, STATE_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Événement de trade illisible.", e);
+        }
+    }
+
+    /**
+     * Dernière version enregistrée d'un trade et nature de l'événement correspondant.
+     */
+    private record Head(int version, Type type) {
+    }
+}
@@ -0,0 +1,358 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nnk.poseidon.dto.TradeDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal append-only des mutations de trades, découpé en segments sur disque.
+ * <p>
+ * Chaque enregistrement est précédé de sa longueur et d'un CRC32, ce qui permet de détecter une fin
+ * de segment tronquée après un arrêt brutal. Les ajouts concurrents sont regroupés par un unique thread
+ * d'écriture qui n'appelle {@code fsync} qu'une seule fois par groupe (group commit) : un appelant n'est
+ * acquitté qu'une fois son enregistrement rendu durable.
+ * </p>
+ * <p>
+ * Les segments sont nommés d'après la séquence de leur premier enregistrement, ce qui permet de supprimer
+ * un segment dès que toutes ses entrées ont été appliquées en base.
+ * </p>
+ */
+@Slf4j
+public class TradeJournal implements AutoCloseable {
+
+    /**
+     * Nature d'une mutation journalisée.
+     */
+    public enum Operation {
+        /** Insertion d'un nouveau trade (identifiant attribué par la base lors de l'application). */
+        CREATE,
+        /** Remplacement complet d'un trade existant, équivalent à {@code saveTrade} avec un ID. */
+        REPLACE,
+        /** Mise à jour partielle, équivalente à {@code updateTrade}. */
+        UPDATE,
+        /** Suppression d'un trade par son identifiant. */
+        DELETE
+    }
+
+    /**
+     * Enregistrement du journal.
+     *
+     * @param sequence  numéro de séquence strictement croissant attribué à l'écriture.
+     * @param operation la nature de la mutation.
+     * @param tradeId   l'identifiant du trade ciblé, {@code null} pour une création.
+     * @param trade     l'état du trade à appliquer, {@code null} pour une suppression.
+     */
+    public record Entry(long sequence, Operation operation, Integer tradeId, TradeDTO trade) {
+    }
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final long segmentSizeBytes;
+    private final int maxGroupSize;
+    private final Consumer<List<Entry>> durableListener;
+    private final BlockingQueue<PendingAppend> pending = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+    private FileChannel activeChannel;
+    private volatile Path activeSegment;
+    private long nextSequence;
+
+    /**
+     * Ouvre (ou crée) le journal dans le répertoire donné et démarre le thread d'écriture.
+     * <p>
+     * Une éventuelle fin tronquée du dernier segment est coupée, puis un nouveau segment est ouvert.
+     * </p>
+     *
+     * @param directory        le répertoire contenant les segments.
+     * @param objectMapper     le mapper JSON utilisé pour sérialiser les entrées.
+     * @param segmentSizeBytes la taille au-delà de laquelle un nouveau segment est ouvert.
+     * @param maxGroupSize     le nombre maximal d'enregistrements rendus durables par un même {@code fsync}.
+     * @param minimumSequence  la séquence minimale à attribuer (dernière séquence déjà appliquée + 1).
+     * @param durableListener  appelé par le thread d'écriture avec chaque groupe rendu durable.
+     */
+    public TradeJournal(Path directory, ObjectMapper objectMapper, long segmentSizeBytes, int maxGroupSize,
+                        long minimumSequence, Consumer<List<Entry>> durableListener) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.maxGroupSize = maxGroupSize;
+        this.durableListener = durableListener;
+        try {
+            Files.createDirectories(directory);
+            long lastSequence = recover();
+            this.nextSequence = Math.max(lastSequence + 1, minimumSequence);
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal des trades dans " + directory, e);
+        }
+        this.writerThread = new Thread(this::writeLoop, "trade-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Ajoute une mutation au journal et bloque jusqu'à ce qu'elle soit durable sur disque.
+     *
+     * @param operation la nature de la mutation.
+     * @param tradeId   l'identifiant du trade ciblé, ou {@code null} pour une création.
+     * @param trade     l'état du trade, ou {@code null} pour une suppression.
+     * @return l'entrée journalisée, avec sa séquence.
+     * @throws IllegalStateException si le journal est fermé ou si l'écriture a échoué.
+     */
+    public Entry append(Operation operation, Integer tradeId, TradeDTO trade) {
+        if (!running) {
+            throw new IllegalStateException("Le journal des trades est fermé.");
+        }
+        PendingAppend request = new PendingAppend(operation, tradeId, trade, new CompletableFuture<>());
+        pending.add(request);
+        try {
+            return request.result().join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Échec de l'écriture dans le journal des trades", e.getCause());
+        }
+    }
+
+    /**
+     * Relit tous les enregistrements valides dont la séquence est strictement supérieure à celle donnée.
+     *
+     * @param afterSequence la dernière séquence déjà appliquée.
+     * @return les entrées restant à appliquer, dans l'ordre du journal.
+     */
+    public List<Entry> readAfter(long afterSequence) {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : listSegments()) {
+            for (Entry entry : readSegment(segment, false)) {
+                if (entry.sequence() > afterSequence) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Supprime les segments clos dont toutes les entrées ont été appliquées en base.
+     *
+     * @param appliedSequence la dernière séquence appliquée.
+     */
+    public void deleteAppliedSegments(long appliedSequence) {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            Path segment = segments.get(i);
+            long lastSequenceInSegment = firstSequence(segments.get(i + 1)) - 1;
+            if (segment.equals(activeSegment) || lastSequenceInSegment > appliedSequence) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segment);
+                log.debug("Segment de journal appliqué supprimé : {}", segment.getFileName());
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer le segment de journal {} : {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Arrête le thread d'écriture après avoir rendu durables les ajouts en attente, puis ferme le segment actif.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            activeChannel.close();
+        } catch (IOException e) {
+            log.warn("Erreur lors de la fermeture du segment de journal {} : {}", activeSegment, e.getMessage());
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>(maxGroupSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingAppend first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                pending.drainTo(group, maxGroupSize - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        List<Entry> written = new ArrayList<>(group.size());
+        long groupStart = -1;
+        try {
+            if (activeChannel.size() >= segmentSizeBytes) {
+                activeChannel.force(true);
+                activeChannel.close();
+                openSegment();
+            }
+            groupStart = activeChannel.size();
+            long sequence = nextSequence;
+            for (PendingAppend request : group) {
+                Entry entry = new Entry(sequence++, request.operation(), request.tradeId(), request.trade());
+                writeRecord(objectMapper.writeValueAsBytes(entry));
+                written.add(entry);
+            }
+            activeChannel.force(false);
+            nextSequence = sequence;
+        } catch (IOException e) {
+            log.error("Échec de l'écriture d'un groupe de {} mutations dans le journal : {}", group.size(), e.getMessage(), e);
+            discardGroup(groupStart, group.size());
+            group.forEach(request -> request.result().completeExceptionally(e));
+            return;
+        }
+        durableListener.accept(written);
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result().complete(written.get(i));
+        }
+    }
+
+    /**
+     * Retire du segment actif les enregistrements d'un groupe en échec, dont les appelants reçoivent une erreur :
+     * ils ne doivent pas être rejoués, et leurs séquences seront réattribuées. Si le segment ne peut pas être
+     * coupé, ces séquences sont abandonnées et un nouveau segment est ouvert, pour qu'aucune ne soit réutilisée.
+     */
+    private void discardGroup(long groupStart, int groupSize) {
+        if (groupStart < 0) {
+            return;
+        }
+        try {
+            activeChannel.truncate(groupStart);
+            activeChannel.force(true);
+        } catch (IOException e) {
+            log.error("Impossible de couper le segment {} à l'octet {}, séquences {} à {} abandonnées : {}",
+                    activeSegment.getFileName(), groupStart, nextSequence, nextSequence + groupSize - 1, e.getMessage());
+            nextSequence += groupSize;
+            try {
+                activeChannel.close();
+                openSegment();
+            } catch (IOException reopenFailure) {
+                log.error("Impossible d'ouvrir un nouveau segment de journal : {}", reopenFailure.getMessage());
+            }
+        }
+    }
+
+    private void writeRecord(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        activeSegment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(activeSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Parcourt les segments existants, coupe une éventuelle fin tronquée et retourne la dernière séquence valide.
+     */
+    private long recover() {
+        long lastSequence = 0;
+        for (Path segment : listSegments()) {
+            List<Entry> entries = readSegment(segment, true);
+            if (!entries.isEmpty()) {
+                lastSequence = entries.get(entries.size() - 1).sequence();
+            }
+        }
+        return lastSequence;
+    }
+
+    private List<Entry> readSegment(Path segment, boolean truncateTornTail) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int expectedCrc = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    buffer.position(start);
+                    break;
+                }
+                entries.add(objectMapper.readValue(payload, Entry.class));
+            }
+            if (buffer.hasRemaining()) {
+                log.warn("Fin tronquée détectée dans le segment {} à l'octet {}", segment.getFileName(), buffer.position());
+                if (truncateTornTail) {
+                    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                        channel.truncate(buffer.position());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture impossible du segment de journal " + segment, e);
+        }
+        return entries;
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture impossible du répertoire de journal " + directory, e);
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record PendingAppend(Operation operation, Integer tradeId, TradeDTO trade, CompletableFuture<Entry> result) {
+    }
+}
@@ -1,48 +1,188 @@
 package com.nnk.poseidon.services;
 
+import com.nnk.poseidon.domain.AuditEvent;
 import com.nnk.poseidon.domain.Trade;
+import com.nnk.poseidon.dto.AuditEventDTO;
 import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.dto.TradeFilter;
+import com.nnk.poseidon.repositories.AuditEventRepository;
+import com.nnk.poseidon.repositories.IdRange;
 import com.nnk.poseidon.repositories.TradeRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service pour la gestion des opérations CRUD sur les entités {@link com.nnk.poseidon.domain.Trade}.
  * Gère la logique métier et interagit avec {@link TradeRepository} pour l'accès aux données.
+ * <p>
+ * Lorsque le mode write-behind est actif ({@link TradeWriteBehindService}), les écritures sont journalisées
+ * localement et acquittées sans attendre le commit en base ; sinon les sauvegardes passent par le
+ * {@link TransactionBatchingExecutor}, qui peut les regrouper avec d'autres écritures concurrentes.
+ * Chaque écriture publie un {@link EntityAuditedEvent}, consigné hors du chemin d'écriture dans le journal d'audit.
+ * En mode event-sourcing ({@link TradeEventStore}), chaque écriture enregistre aussi un événement immuable dans
+ * sa transaction, la table {@code Trade} devenant une projection de ces événements.
+ * </p>
  */
 @Service
 public class TradeService { // Le nom de la classe est maintenant TradeService
 
+    private static final Logger logger = LoggerFactory.getLogger(TradeService.class);
+
+    /**
+     * Longueur maximale de la colonne {@code status}.
+     */
+    private static final int STATUS_MAX_LENGTH = 10;
+
     private final TradeRepository tradeRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionBatchingExecutor transactionBatchingExecutor;
+    private final ObjectProvider<TradeWriteBehindService> writeBehindProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<SearchIndexService> searchProvider;
+    private final AuditEventRepository auditEventRepository;
+    private final ObjectProvider<TradeEventStore> eventStoreProvider;
+    private final ObjectProvider<ParallelChunkMapper> parallelMapperProvider;
+    private final ObjectProvider<TradeBarService> barsProvider;
 
     /**
      * Constructeur pour l'injection de dépendances.
      *
-     * @param tradeRepository le repository pour les entités Trade.
+     * @param tradeRepository     le repository pour les entités Trade.
+     * @param entityManager       le contexte de persistance, pour détacher les entités lues en flux.
+     * @param transactionManager  le gestionnaire de transactions utilisé pour les suppressions.
+     * @param transactionBatchingExecutor l'exécuteur regroupant les sauvegardes concurrentes en une transaction.
+     * @param writeBehindProvider fournit le {@link TradeWriteBehindService} lorsque le mode write-behind est actif.
+     * @param eventPublisher      publie un {@link TradeChangedEvent} à chaque écriture.
+     * @param searchProvider      fournit le {@link SearchIndexService} lorsque l'index de recherche est actif.
+     * @param auditEventRepository le repository du journal d'audit, pour l'historique des trades.
+     * @param eventStoreProvider  fournit le {@link TradeEventStore} lorsque le mode event-sourcing est actif.
+     * @param parallelMapperProvider fournit le {@link ParallelChunkMapper} des lectures complètes volumineuses.
+     * @param barsProvider        fournit le {@link TradeBarService} lorsque l'agrégation en barres est active.
      */
     @Autowired
-    public TradeService(TradeRepository tradeRepository) { // Le constructeur reflète le nouveau nom de classe
+    public TradeService(TradeRepository tradeRepository, // Le constructeur reflète le nouveau nom de classe
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        TransactionBatchingExecutor transactionBatchingExecutor,
+                        ObjectProvider<TradeWriteBehindService> writeBehindProvider,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectProvider<SearchIndexService> searchProvider,
+                        AuditEventRepository auditEventRepository,
+                        ObjectProvider<TradeEventStore> eventStoreProvider,
+                        ObjectProvider<ParallelChunkMapper> parallelMapperProvider,
+                        ObjectProvider<TradeBarService> barsProvider) {
         this.tradeRepository = tradeRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionBatchingExecutor = transactionBatchingExecutor;
+        this.writeBehindProvider = writeBehindProvider;
+        this.eventPublisher = eventPublisher;
+        this.searchProvider = searchProvider;
+        this.auditEventRepository = auditEventRepository;
+        this.eventStoreProvider = eventStoreProvider;
+        this.parallelMapperProvider = parallelMapperProvider;
+        this.barsProvider = barsProvider;
     }
 
     /**
-     * Récupère tous les trades.
+     * Récupère tous les trades. Au-delà du seuil du {@link ParallelChunkMapper}, la table est lue et convertie
+     * par plages d'identifiants en parallèle, et les trades sont alors renvoyés par identifiant croissant.
+     * Sans transaction englobante : chaque lecture a la sienne, et l'appelant ne garde pas de connexion
+     * pendant que les threads du pool en occupent une chacun.
      *
      * @return une liste de {@link TradeDTO} représentant tous les trades.
      */
-    @Transactional(readOnly = true)
     public List<TradeDTO> findAllTrades() {
+        ParallelChunkMapper parallelMapper = parallelMapperProvider.getIfAvailable();
+        if (parallelMapper != null) {
+            IdRange range = tradeRepository.findIdRange();
+            if (parallelMapper.shouldSplit(range)) {
+                return parallelMapper.map(range, tradeRepository::findByTradeIdBetween, this::convertToDTO);
+            }
+        }
         return tradeRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère les trades répondant à un critère, en s'appuyant sur l'index secondaire correspondant.
+     *
+     * @param filter le critère : compte, book (et titre), trader (et période) ou statut.
+     * @return les trades correspondants ; pour un trader, du plus récent au plus ancien.
+     * @throws IllegalArgumentException si aucun critère, plusieurs critères ou un critère incomplet sont fournis.
+     */
+    @Transactional(readOnly = true)
+    public List<TradeDTO> findTrades(TradeFilter filter) {
+        long criteria = Stream.of(filter.account(), filter.book(), filter.trader(), filter.status())
+                .filter(Objects::nonNull).count();
+        if (criteria != 1) {
+            throw new IllegalArgumentException("Un seul critère de filtre est accepté : account, book, trader ou status.");
+        }
+        if (filter.security() != null && filter.book() == null) {
+            throw new IllegalArgumentException("Le filtre security s'utilise avec book.");
+        }
+        if ((filter.from() != null || filter.to() != null)
+                && (filter.trader() == null || filter.from() == null || filter.to() == null)) {
+            throw new IllegalArgumentException("La période from/to s'utilise complète, avec trader.");
+        }
+        List<Trade> trades;
+        if (filter.account() != null) {
+            trades = tradeRepository.findByAccount(filter.account());
+        } else if (filter.book() != null) {
+            trades = filter.security() != null
+                    ? tradeRepository.findByBookAndSecurity(filter.book(), filter.security())
+                    : tradeRepository.findByBook(filter.book());
+        } else if (filter.trader() != null) {
+            trades = filter.from() != null
+                    ? tradeRepository.findByTraderAndTradeDateBetweenOrderByTradeDateDesc(filter.trader(), filter.from(), filter.to())
+                    : tradeRepository.findByTraderOrderByTradeDateDesc(filter.trader());
+        } else {
+            trades = tradeRepository.findByStatus(filter.status());
+        }
+        return trades.stream().map(this::convertToDTO).toList();
+    }
+
+    /**
+     * Parcourt tous les trades en flux et transmet chaque DTO à l'action fournie, sans construire la liste complète.
+     * Chaque entité est détachée du contexte de persistance dès sa conversion, la mémoire consommée
+     * reste donc constante quel que soit le nombre de lignes.
+     *
+     * @param action l'action appliquée à chaque {@link TradeDTO}, dans l'ordre de lecture.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<TradeDTO> action) {
+        try (Stream<Trade> trades = tradeRepository.streamAllBy()) {
+            trades.forEach(trade -> {
+                action.accept(convertToDTO(trade));
+                entityManager.detach(trade);
+            });
+        }
+    }
+
     /**
      * Récupère un trade par son identifiant.
      *
@@ -55,28 +195,122 @@ public class TradeService { // Le nom de la classe est maintenant TradeService
                 .map(this::convertToDTO);
     }
 
+    /**
+     * Recherche les trades dont {@code account}, {@code security}, {@code trader}, {@code book} ou
+     * {@code dealName} commence par les mots saisis (ou en est proche), du plus pertinent au moins pertinent.
+     * Sans index de recherche, se rabat sur une recherche SQL par préfixe de la saisie entière.
+     *
+     * @param query la saisie de l'utilisateur.
+     * @param limit le nombre maximal de résultats.
+     * @return les trades trouvés.
+     */
+    @Transactional(readOnly = true)
+    public List<TradeDTO> searchTrades(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        SearchIndexService search = searchProvider.getIfAvailable();
+        if (search == null) {
+            return tradeRepository.searchByPrefix(SearchIndexService.likePrefix(query), PageRequest.of(0, limit))
+                    .stream().map(this::convertToDTO).toList();
+        }
+        List<Integer> ids = search.search(SearchIndex.TRADE, query, limit).stream().map(SearchIndex.Entry::id).toList();
+        Map<Integer, Trade> tradesById = tradeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Trade::getTradeId, Function.identity()));
+        // Ordre de pertinence de l'index ; un trade supprimé depuis sa dernière indexation est ignoré.
+        return ids.stream().map(tradesById::get).filter(Objects::nonNull).map(this::convertToDTO).toList();
+    }
+
     /**
      * Sauvegarde un nouveau trade ou met à jour un trade existant.
      * Pour un nouveau trade, la date de création est initialisée.
      * La date de révision est mise à jour à chaque sauvegarde.
      *
      * @param tradeDTO le {@link TradeDTO} contenant les informations du trade à sauvegarder.
-     * @return le {@link TradeDTO} sauvegardé.
+     * @return le {@link TradeDTO} sauvegardé (sans identifiant pour une création en mode write-behind).
      */
-    @Transactional
     public TradeDTO saveTrade(TradeDTO tradeDTO) {
+        TradeWriteBehindService writeBehind = writeBehindProvider.getIfAvailable();
+        if (writeBehind != null) {
+            return writeBehind.saveTrade(convertToDTO(prepareForSave(tradeDTO)));
+        }
+        // L'entité est construite dans l'opération pour qu'un lot annulé puisse la rejouer à l'identique.
+        return transactionBatchingExecutor.execute(() -> {
+            // L'état antérieur d'un trade remplacé est de toute façon chargé par la fusion : il est lu ici pour l'audit.
+            TradeDTO before = tradeDTO.getTradeId() == null ? null
+                    : tradeRepository.findById(tradeDTO.getTradeId()).map(this::convertToDTO).orElse(null);
+            Trade savedTrade = tradeRepository.save(prepareForSave(tradeDTO));
+            TradeDTO saved = convertToDTO(savedTrade);
+            eventPublisher.publishEvent(TradeChangedEvent.of(savedTrade.getTradeId()));
+            eventPublisher.publishEvent(before == null
+                    ? EntityAuditedEvent.created(EntityAuditedEvent.TRADE, saved.getTradeId(), saved)
+                    : EntityAuditedEvent.updated(EntityAuditedEvent.TRADE, saved.getTradeId(), before, saved));
+            eventStoreProvider.ifAvailable(store -> store.append(before == null
+                    ? TradeEventStore.Event.created(saved.getTradeId(), saved)
+                    : TradeEventStore.Event.updated(saved.getTradeId(), saved)));
+            return saved;
+        });
+    }
+
+    /**
+     * Importe un lot de nouveaux trades.
+     * Les identifiants éventuellement fournis sont ignorés ; tous les trades sont insérés dans une
+     * même transaction, ou journalisés un à un en mode write-behind.
+     *
+     * @param tradeDTOs les trades à créer.
+     * @return le nombre de trades importés.
+     */
+    public int importTrades(List<TradeDTO> tradeDTOs) {
+        tradeDTOs.forEach(dto -> dto.setTradeId(null));
+        TradeWriteBehindService writeBehind = writeBehindProvider.getIfAvailable();
+        if (writeBehind != null) {
+            tradeDTOs.forEach(dto -> writeBehind.saveTrade(convertToDTO(prepareForSave(dto))));
+            return tradeDTOs.size();
+        }
+        int imported = insertTrades(tradeDTOs);
+        logger.info("{} trade(s) importé(s)", imported);
+        return imported;
+    }
+
+    /**
+     * Insère un lot de nouveaux trades en base, sans passer par le journal du mode write-behind : dans la
+     * transaction courante s'il y en a une, pour que les trades soient validés ou annulés avec elle.
+     * Utilisée par le {@link MatchingEngine}, qui enregistre les exécutions avec les quantités restantes
+     * des offres.
+     *
+     * @param tradeDTOs les trades à créer, sans identifiant.
+     * @return le nombre de trades insérés.
+     */
+    public int insertTrades(List<TradeDTO> tradeDTOs) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            List<Trade> saved = tradeRepository.saveAll(tradeDTOs.stream().map(this::prepareForSave).toList());
+            eventPublisher.publishEvent(new TradeChangedEvent(saved.stream().map(Trade::getTradeId).toList()));
+            saved.forEach(trade -> eventPublisher.publishEvent(
+                    EntityAuditedEvent.created(EntityAuditedEvent.TRADE, trade.getTradeId(), convertToDTO(trade))));
+            eventStoreProvider.ifAvailable(store -> store.appendAll(saved.stream()
+                    .map(trade -> TradeEventStore.Event.created(trade.getTradeId(), convertToDTO(trade)))
+                    .toList()));
+            return saved.size();
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    /**
+     * Convertit le DTO en entité et positionne les dates et auteurs de création et de révision.
+     *
+     * @param tradeDTO le DTO à sauvegarder.
+     * @return l'entité prête à être persistée.
+     */
+    private Trade prepareForSave(TradeDTO tradeDTO) {
         Trade trade = convertToEntity(tradeDTO);
+        String actor = EntityAuditedEvent.currentActor();
         if (trade.getTradeId() == null) { // Nouveau trade
             trade.setCreationDate(LocalDateTime.now());
-            // Vous pourriez aussi vouloir définir creationName ici si vous avez l'utilisateur courant
-            // trade.setCreationName(SecurityContextHolder.getContext().getAuthentication().getName());
+            trade.setCreationName(actor);
         }
         trade.setRevisionDate(LocalDateTime.now());
-        // Et revisionName
-        // trade.setRevisionName(SecurityContextHolder.getContext().getAuthentication().getName());
-
-        Trade savedTrade = tradeRepository.save(trade);
-        return convertToDTO(savedTrade);
+        trade.setRevisionName(actor);
+        return trade;
     }
 
     /**
@@ -87,12 +321,20 @@ public class TradeService { // Le nom de la classe est maintenant TradeService
      * @param id l'identifiant du trade à mettre à jour.
      * @param tradeDTO le {@link TradeDTO} contenant les nouvelles informations pour le trade.
      * @return un {@link Optional} contenant le {@link TradeDTO} mis à jour si le trade original a été trouvé,
-     *         sinon {@link Optional#empty()}.
+     *         sinon {@link Optional#empty()}. En mode write-behind, l'existence du trade n'est pas vérifiée
+     *         et la mise à jour est acquittée dès qu'elle est journalisée ; si le trade n'existe pas, elle est
+     *         consignée dans le fichier des mutations rejetées au lieu d'être appliquée.
      */
-    @Transactional
     public Optional<TradeDTO> updateTrade(Integer id, TradeDTO tradeDTO) {
-        return tradeRepository.findById(id)
+        TradeWriteBehindService writeBehind = writeBehindProvider.getIfAvailable();
+        if (writeBehind != null) {
+            tradeDTO.setRevisionDate(LocalDateTime.now());
+            tradeDTO.setRevisionName(EntityAuditedEvent.currentActor());
+            return Optional.of(writeBehind.updateTrade(id, tradeDTO));
+        }
+        return transactionBatchingExecutor.execute(() -> tradeRepository.findById(id)
                 .map(existingTrade -> {
+                    TradeDTO before = convertToDTO(existingTrade);
                     existingTrade.setAccount(tradeDTO.getAccount());
                     existingTrade.setType(tradeDTO.getType());
                     existingTrade.setBuyQuantity(tradeDTO.getBuyQuantity());
@@ -100,27 +342,200 @@ public class TradeService { // Le nom de la classe est maintenant TradeService
                     // s'ils ne sont pas dans le DTO ou gérés par ce flux.
 
                     existingTrade.setRevisionDate(LocalDateTime.now());
-                    // existingTrade.setRevisionName(SecurityContextHolder.getContext().getAuthentication().getName());
+                    existingTrade.setRevisionName(EntityAuditedEvent.currentActor());
 
                     Trade updatedTrade = tradeRepository.save(existingTrade);
-                    return convertToDTO(updatedTrade);
-                });
+                    TradeDTO updated = convertToDTO(updatedTrade);
+                    eventPublisher.publishEvent(TradeChangedEvent.of(id));
+                    eventPublisher.publishEvent(EntityAuditedEvent.updated(EntityAuditedEvent.TRADE, id, before, updated));
+                    eventStoreProvider.ifAvailable(store -> {
+                        Map<String, Object> changes = new LinkedHashMap<>();
+                        changes.put("account", updated.getAccount());
+                        changes.put("type", updated.getType());
+                        changes.put("buyQuantity", updated.getBuyQuantity());
+                        changes.put("revisionName", updated.getRevisionName());
+                        changes.put("revisionDate", updated.getRevisionDate());
+                        store.append(TradeEventStore.Event.updated(id, changes));
+                    });
+                    return updated;
+                }));
     }
 
     /**
-     * Supprime un trade par son identifiant.
-     * Si le trade n'existe pas, l'opération n'a aucun effet et aucune erreur n'est levée.
+     * Supprime un trade par son identifiant, en une seule requête.
+     * Si le trade n'existe pas, l'opération n'a aucun effet, ne publie aucun événement et ne lève aucune erreur.
      *
      * @param id l'identifiant du trade à supprimer.
      */
-    @Transactional
     public void deleteTradeById(Integer id) {
-        if (!tradeRepository.existsById(id)) {
-            // Optionnel: logger un avertissement si l'ID n'est pas trouvé
-            // logger.warn("Tentative de suppression d'un trade non existant avec ID: {}", id);
+        TradeWriteBehindService writeBehind = writeBehindProvider.getIfAvailable();
+        if (writeBehind != null) {
+            writeBehind.deleteTrade(id);
             return;
         }
-        tradeRepository.deleteById(id);
+        Integer deleted = transactionTemplate.execute(status -> {
+            // Les barres relisent l'état antérieur : le trade est verrouillé d'abord et relevé seulement s'il existe.
+            barsProvider.ifAvailable(bars -> {
+                if (!tradeRepository.lockExistingIds(List.of(id)).isEmpty()) {
+                    bars.beforeTradesRewritten(List.of(id));
+                }
+            });
+            int count = tradeRepository.deleteByIdReturningCount(id);
+            if (count > 0) {
+                eventPublisher.publishEvent(TradeChangedEvent.of(id));
+                eventPublisher.publishEvent(EntityAuditedEvent.deleted(EntityAuditedEvent.TRADE, id));
+                eventStoreProvider.ifAvailable(store -> store.append(TradeEventStore.Event.deleted(id)));
+            }
+            return count;
+        });
+        if (deleted == null || deleted == 0) {
+            logger.warn("Tentative de suppression d'un trade non existant avec ID: {}", id);
+        }
+    }
+
+    /**
+     * Supprime un ensemble de trades en une seule requête ensembliste.
+     * <p>
+     * En mode write-behind, les mutations déjà journalisées sont d'abord appliquées en base,
+     * afin que la suppression porte sur un état à jour. Les trades existants sont relus et verrouillés avant la
+     * suppression : seuls eux donnent lieu à une entrée d'audit et à un événement.
+     * </p>
+     *
+     * @param ids les identifiants des trades à supprimer ; les identifiants inconnus sont ignorés.
+     * @return le nombre de trades effectivement supprimés.
+     */
+    public int deleteTrades(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        awaitWriteBehind();
+        int deleted = transactionTemplate.execute(status -> {
+            List<Integer> existing = tradeRepository.lockExistingIds(ids);
+            if (existing.isEmpty()) {
+                return 0;
+            }
+            eventPublisher.publishEvent(new TradeChangedEvent(existing));
+            existing.forEach(id -> eventPublisher.publishEvent(EntityAuditedEvent.deleted(EntityAuditedEvent.TRADE, id)));
+            eventStoreProvider.ifAvailable(store -> store.appendAll(existing.stream().map(TradeEventStore.Event::deleted).toList()));
+            barsProvider.ifAvailable(bars -> bars.beforeTradesRewritten(existing));
+            return tradeRepository.deleteAllByIds(existing);
+        });
+        logger.info("Suppression groupée : {} trades supprimés sur {} demandés", deleted, ids.size());
+        return deleted;
+    }
+
+    /**
+     * Modifie le statut d'un ensemble de trades en une seule requête ensembliste.
+     * La date de révision des trades modifiés est actualisée. Seuls les trades existants, relus et verrouillés
+     * avant la modification, donnent lieu à un événement. L'ancien statut n'étant pas relu, l'entrée d'audit
+     * de chaque trade ne porte que le nouveau.
+     *
+     * @param ids    les identifiants des trades à modifier ; les identifiants inconnus sont ignorés.
+     * @param status le nouveau statut (10 caractères au plus).
+     * @return le nombre de trades effectivement modifiés.
+     * @throws IllegalArgumentException si le statut est vide ou trop long.
+     */
+    public int updateTradeStatus(Collection<Integer> ids, String status) {
+        if (status == null || status.isBlank() || status.length() > STATUS_MAX_LENGTH) {
+            throw new IllegalArgumentException("Le statut doit contenir entre 1 et " + STATUS_MAX_LENGTH + " caractères.");
+        }
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        awaitWriteBehind();
+        int updated = transactionTemplate.execute(transaction -> {
+            List<Integer> existing = tradeRepository.lockExistingIds(ids);
+            if (existing.isEmpty()) {
+                return 0;
+            }
+            eventPublisher.publishEvent(new TradeChangedEvent(existing));
+            Map<String, String> change = Map.of("status", status);
+            existing.forEach(id -> eventPublisher.publishEvent(EntityAuditedEvent.updated(EntityAuditedEvent.TRADE, id, null, change)));
+            LocalDateTime revisionDate = LocalDateTime.now();
+            eventStoreProvider.ifAvailable(store -> store.appendAll(existing.stream()
+                    .map(id -> TradeEventStore.Event.updated(id, Map.of("status", status, "revisionDate", revisionDate)))
+                    .toList()));
+            return tradeRepository.updateStatusByIds(existing, status, revisionDate);
+        });
+        logger.info("Mise à jour groupée : {} trades passés au statut '{}' sur {} demandés", updated, status, ids.size());
+        return updated;
+    }
+
+    /**
+     * Récupère une page de l'historique d'audit d'un trade, de l'écriture la plus récente à la plus ancienne.
+     * Le journal étant alimenté de façon asynchrone, une écriture n'y apparaît que peu après son commit.
+     *
+     * @param id   l'identifiant du trade (éventuellement supprimé depuis).
+     * @param page le numéro de page, à partir de 0.
+     * @param size le nombre d'entrées par page.
+     * @return la page d'entrées d'audit.
+     * @throws IllegalArgumentException si la page est négative ou la taille hors de [1, 100].
+     */
+    @Transactional(readOnly = true)
+    public Page<AuditEventDTO> findTradeHistory(Integer id, int page, int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("La page doit être positive et sa taille comprise entre 1 et 100.");
+        }
+        return auditEventRepository.findByEntityTypeAndEntityIdOrderByIdDesc(EntityAuditedEvent.TRADE, id,
+                PageRequest.of(page, size)).map(this::convertToDTO);
+    }
+
+    /**
+     * Reconstruit un trade tel qu'il était à une date donnée, à partir de ses événements (mode event-sourcing).
+     *
+     * @param id   l'identifiant du trade.
+     * @param asOf la date de l'état voulu.
+     * @return l'état du trade à cette date, ou {@link Optional#empty()} s'il n'existait pas ou était supprimé.
+     * @throws IllegalArgumentException si le mode event-sourcing n'est pas actif.
+     */
+    public Optional<TradeDTO> findTradeAsOf(Integer id, LocalDateTime asOf) {
+        return requireEventStore().stateAsOf(id, asOf);
+    }
+
+    /**
+     * Reconstruit la table {@code Trade} à partir des événements (mode event-sourcing), par partitions en parallèle.
+     *
+     * @return le nombre de trades réécrits.
+     * @throws IllegalArgumentException si le mode event-sourcing n'est pas actif.
+     */
+    public int rebuildTradeProjection() {
+        return requireEventStore().rebuildProjection();
+    }
+
+    /**
+     * Barres OHLC/VWAP d'un titre sur une période, lues dans les barres agrégées et non dans la table des trades.
+     *
+     * @param security   le titre.
+     * @param resolution la résolution ({@code 1m}, {@code 5m}, {@code 1h} ou {@code 1d}).
+     * @param from       le début de la période (inclus).
+     * @param to         la fin de la période (exclue).
+     * @return les barres des intervalles ayant au moins un trade, dans l'ordre chronologique.
+     * @throws IllegalArgumentException si l'agrégation en barres n'est pas active, ou si la résolution ou la
+     *                                  période est invalide.
+     */
+    public List<TradeBar> findTradeBars(String security, String resolution, LocalDateTime from, LocalDateTime to) {
+        TradeBarService bars = barsProvider.getIfAvailable();
+        if (bars == null) {
+            throw new IllegalArgumentException("Cette opération nécessite l'agrégation des trades en barres "
+                    + "(poseidon.bars.enabled=true).");
+        }
+        return bars.findBars(security, TradeBar.Resolution.parse(resolution), from, to);
+    }
+
+    private TradeEventStore requireEventStore() {
+        TradeEventStore store = eventStoreProvider.getIfAvailable();
+        if (store == null) {
+            throw new IllegalArgumentException("Cette opération nécessite le mode event-sourcing des trades "
+                    + "(poseidon.trade.event-sourcing.enabled=true).");
+        }
+        return store;
+    }
+
+    private void awaitWriteBehind() {
+        TradeWriteBehindService writeBehind = writeBehindProvider.getIfAvailable();
+        if (writeBehind != null) {
+            writeBehind.awaitDrained();
+        }
     }
 
     /**
@@ -155,6 +570,17 @@ public class TradeService { // Le nom de la classe est maintenant TradeService
         return dto;
     }
 
+    /**
+     * Convertit une entrée du journal d'audit en {@link AuditEventDTO}.
+     *
+     * @param event l'entrée à convertir.
+     * @return le DTO résultant.
+     */
+    private AuditEventDTO convertToDTO(AuditEvent event) {
+        return new AuditEventDTO(event.getId(), event.getEntityType(), event.getEntityId(), event.getAction(),
+                event.getActor(), event.getOccurredAt(), event.getChanges());
+    }
+
     /**
      * Convertit un {@link TradeDTO} en entité {@link Trade}.
      *
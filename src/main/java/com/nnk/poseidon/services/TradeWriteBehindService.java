@@ -0,0 +1,491 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.services.EntityAuditedEvent.Action;
+import com.nnk.poseidon.services.TradeJournal.Entry;
+import com.nnk.poseidon.services.TradeJournal.Operation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mode d'écriture différée (write-behind) des trades.
+ * <p>
+ * Lorsqu'il est activé ({@code poseidon.trade.write-behind.enabled=true}), chaque mutation de trade est
+ * d'abord ajoutée au {@link TradeJournal} local et l'utilisateur est acquitté dès que l'entrée est durable
+ * sur disque. Un thread de vidage applique ensuite les mutations en base par lots JDBC, et enregistre
+ * la dernière séquence appliquée dans la table {@code TradeJournalCheckpoint} au sein de la même
+ * transaction : une mutation n'est donc jamais appliquée deux fois.
+ * </p>
+ * <p>
+ * Au démarrage, les entrées du journal postérieures au checkpoint sont rejouées avant toute nouvelle écriture.
+ * Une mutation refusée par la base, ou qui vise un trade inexistant, n'est ni publiée ni auditée : elle est
+ * consignée dans le fichier {@code rejected.log} du répertoire du journal.
+ * </p>
+ * <p>
+ * <b>Note :</b> l'identifiant d'un nouveau trade est attribué par la base lors de l'application ; le DTO
+ * retourné à la création a donc un {@code tradeId} nul, et le trade n'apparaît dans les listes qu'une fois
+ * le lot appliqué (quelques millisecondes en régime normal).
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "poseidon.trade.write-behind.enabled", havingValue = "true")
+public class TradeWriteBehindService {
+
+    private static final String INSERT_SQL = "INSERT INTO Trade (account, type, buyQuantity, sellQuantity, buyPrice, "
+            + "sellPrice, tradeDate, security, status, trader, benchmark, book, creationName, creationDate, "
+            + "revisionName, revisionDate, dealName, dealType, sourceListId, side) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String REPLACE_SQL = "UPDATE Trade SET account = ?, type = ?, buyQuantity = ?, "
+            + "sellQuantity = ?, buyPrice = ?, sellPrice = ?, tradeDate = ?, security = ?, status = ?, trader = ?, "
+            + "benchmark = ?, book = ?, creationName = ?, creationDate = ?, revisionName = ?, revisionDate = ?, "
+            + "dealName = ?, dealType = ?, sourceListId = ?, side = ? WHERE TradeId = ?";
+    private static final String UPDATE_SQL = "UPDATE Trade SET account = ?, type = ?, buyQuantity = ?, "
+            + "revisionName = ?, revisionDate = ? WHERE TradeId = ?";
+    private static final String DELETE_SQL = "DELETE FROM Trade WHERE TradeId = ?";
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT appliedSequence FROM TradeJournalCheckpoint WHERE Id = 1";
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT INTO TradeJournalCheckpoint (Id, appliedSequence) VALUES (1, 0)";
+    private static final String UPDATE_CHECKPOINT_SQL = "UPDATE TradeJournalCheckpoint SET appliedSequence = ? WHERE Id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<TradeBarService> barsProvider;
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final int maxGroupSize;
+    private final int drainBatchSize;
+    private final long drainIntervalMs;
+    private final BlockingQueue<Entry> toApply = new LinkedBlockingQueue<>();
+
+    private TradeJournal journal;
+    private Thread drainerThread;
+    private volatile boolean running;
+    private volatile long appliedSequence;
+    private volatile long journaledSequence;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param jdbcTemplate       accès JDBC utilisé pour appliquer les lots.
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param objectMapper       le mapper JSON de l'application.
+     * @param eventPublisher     publie un {@link TradeChangedEvent} pour chaque lot appliqué.
+     * @param barsProvider       fournit le {@link TradeBarService} lorsque l'agrégation en barres est active.
+     * @param directory          le répertoire des segments du journal.
+     * @param segmentSizeBytes   la taille maximale d'un segment.
+     * @param maxGroupSize       le nombre maximal de mutations par {@code fsync}.
+     * @param drainBatchSize     le nombre maximal de mutations appliquées par transaction.
+     * @param drainIntervalMs    l'attente maximale du thread de vidage lorsque le journal est vide.
+     */
+    public TradeWriteBehindService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ObjectProvider<TradeBarService> barsProvider,
+                                   @Value("${poseidon.trade.write-behind.directory:./data/trade-journal}") Path directory,
+                                   @Value("${poseidon.trade.write-behind.segment-size-bytes:67108864}") long segmentSizeBytes,
+                                   @Value("${poseidon.trade.write-behind.max-group-size:256}") int maxGroupSize,
+                                   @Value("${poseidon.trade.write-behind.drain-batch-size:500}") int drainBatchSize,
+                                   @Value("${poseidon.trade.write-behind.drain-interval-ms:5}") long drainIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.barsProvider = barsProvider;
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.maxGroupSize = maxGroupSize;
+        this.drainBatchSize = drainBatchSize;
+        this.drainIntervalMs = drainIntervalMs;
+    }
+
+    /**
+     * Lit le checkpoint, ouvre le journal, rejoue les entrées non appliquées puis démarre le thread de vidage.
+     */
+    @PostConstruct
+    public void start() {
+        appliedSequence = readCheckpoint();
+        journaledSequence = appliedSequence;
+        journal = new TradeJournal(directory, objectMapper, segmentSizeBytes, maxGroupSize,
+                appliedSequence + 1, this::onDurable);
+        List<Entry> unapplied = journal.readAfter(appliedSequence);
+        if (!unapplied.isEmpty()) {
+            journaledSequence = unapplied.get(unapplied.size() - 1).sequence();
+            log.info("Rejeu de {} mutations de trades non appliquées (checkpoint : {})", unapplied.size(), appliedSequence);
+            toApply.addAll(unapplied);
+        }
+        running = true;
+        drainerThread = new Thread(this::drainLoop, "trade-journal-drainer");
+        drainerThread.setDaemon(true);
+        drainerThread.start();
+        log.info("Mode write-behind des trades actif, journal : {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Ferme le journal puis applique les mutations restantes avant l'arrêt.
+     */
+    @PreDestroy
+    public void stop() {
+        journal.close();
+        running = false;
+        try {
+            drainerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!toApply.isEmpty()) {
+            log.warn("{} mutations de trades restent à appliquer ; elles seront rejouées au prochain démarrage", toApply.size());
+        }
+    }
+
+    /**
+     * Journalise la sauvegarde d'un trade et l'acquitte dès qu'elle est durable.
+     *
+     * @param tradeDTO le trade à sauvegarder, dont les dates d'audit ont déjà été positionnées.
+     * @return le trade tel qu'il sera appliqué en base.
+     */
+    public TradeDTO saveTrade(TradeDTO tradeDTO) {
+        Operation operation = tradeDTO.getTradeId() == null ? Operation.CREATE : Operation.REPLACE;
+        journal.append(operation, tradeDTO.getTradeId(), tradeDTO);
+        return tradeDTO;
+    }
+
+    /**
+     * Journalise la mise à jour partielle d'un trade (compte, type, quantité achetée).
+     *
+     * @param id       l'identifiant du trade à mettre à jour.
+     * @param tradeDTO les nouvelles valeurs, dont la date et l'auteur de la révision.
+     * @return le trade tel qu'il sera appliqué en base.
+     */
+    public TradeDTO updateTrade(Integer id, TradeDTO tradeDTO) {
+        journal.append(Operation.UPDATE, id, tradeDTO);
+        return tradeDTO;
+    }
+
+    /**
+     * Journalise la suppression d'un trade, avec son auteur pour le journal d'audit.
+     *
+     * @param id l'identifiant du trade à supprimer.
+     */
+    public void deleteTrade(Integer id) {
+        TradeDTO revision = new TradeDTO();
+        revision.setRevisionName(EntityAuditedEvent.currentActor());
+        revision.setRevisionDate(LocalDateTime.now());
+        journal.append(Operation.DELETE, id, revision);
+    }
+
+    /**
+     * Attend que toutes les mutations déjà journalisées soient appliquées en base.
+     * <p>
+     * Appelée avant une opération ensembliste exécutée directement en SQL, pour qu'elle ne soit pas
+     * dépassée par des mutations plus anciennes encore en attente dans le journal.
+     * </p>
+     *
+     * @throws IllegalStateException si le journal n'est pas vidé dans le délai imparti.
+     */
+    public void awaitDrained() {
+        long target = journaledSequence;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (appliedSequence < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Le journal des trades n'a pas été appliqué en base dans le délai imparti.");
+            }
+            try {
+                Thread.sleep(Math.max(drainIntervalMs, 1L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attente de l'application du journal des trades interrompue.", e);
+            }
+        }
+    }
+
+    private void onDurable(List<Entry> entries) {
+        journaledSequence = entries.get(entries.size() - 1).sequence();
+        toApply.addAll(entries);
+    }
+
+    private long readCheckpoint() {
+        List<Long> checkpoint = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class);
+        if (checkpoint.isEmpty()) {
+            jdbcTemplate.update(INSERT_CHECKPOINT_SQL);
+            return 0L;
+        }
+        return checkpoint.get(0);
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(drainBatchSize);
+        while (running || !toApply.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = toApply.poll(drainIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    toApply.drainTo(batch, drainBatchSize - 1);
+                }
+                applyBatch(batch);
+                batch.clear();
+                journal.deleteAppliedSegments(appliedSequence);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Base indisponible ou erreur transitoire : le lot est conservé et réessayé.
+                log.error("Échec de l'application d'un lot de {} mutations de trades, nouvel essai : {}",
+                        batch.size(), e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Applique un lot ; lorsqu'il est réessayé après un échec de l'application unitaire, les entrées déjà validées
+     * une à une (séquence inférieure ou égale au checkpoint) sont ignorées.
+     */
+    private void applyBatch(List<Entry> batch) {
+        List<Entry> pending = batch.stream().filter(entry -> entry.sequence() > appliedSequence).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            List<Entry> missing = transactionTemplate.execute(status -> {
+                List<Entry> withoutEffect = applyInOrder(pending);
+                jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, pending.get(pending.size() - 1).sequence());
+                return withoutEffect;
+            });
+            rejectMissing(missing);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Lot de mutations rejeté par la base ({}), application unitaire", e.getMostSpecificCause().getMessage());
+            for (Entry entry : pending) {
+                applySingle(entry);
+            }
+        }
+        appliedSequence = pending.get(pending.size() - 1).sequence();
+        log.debug("Mutations de trades appliquées jusqu'à la séquence {}", appliedSequence);
+    }
+
+    /**
+     * Applique une entrée dans sa propre transaction, avec le checkpoint ; la séquence appliquée avance aussitôt,
+     * pour qu'un nouvel essai du lot ne la rejoue pas.
+     */
+    private void applySingle(Entry entry) {
+        try {
+            List<Entry> missing = transactionTemplate.execute(status -> {
+                List<Entry> withoutEffect = applyInOrder(List.of(entry));
+                jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, entry.sequence());
+                return withoutEffect;
+            });
+            rejectMissing(missing);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Mutation de trade {} rejetée définitivement : {}", entry.sequence(), e.getMostSpecificCause().getMessage());
+            reject(entry);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, entry.sequence()));
+        }
+        appliedSequence = entry.sequence();
+    }
+
+    /**
+     * Applique les entrées en regroupant les opérations consécutives de même nature dans un même batch JDBC,
+     * afin de préserver l'ordre du journal, puis publie les identifiants des trades touchés et une entrée
+     * d'audit par mutation. L'état antérieur n'étant pas relu, l'audit ne porte que les nouvelles valeurs.
+     * Une modification ou une suppression qui ne touche aucune ligne (trade inexistant) n'est ni publiée
+     * ni auditée : elle est renvoyée pour être consignée une fois la transaction validée.
+     *
+     * @return les entrées restées sans effet.
+     */
+    private List<Entry> applyInOrder(List<Entry> entries) {
+        List<Integer> tradeIds = new ArrayList<>(entries.size());
+        List<EntityAuditedEvent> audits = new ArrayList<>(entries.size());
+        List<Entry> missing = new ArrayList<>();
+        int start = 0;
+        while (start < entries.size()) {
+            Operation operation = entries.get(start).operation();
+            int end = start;
+            while (end < entries.size() && entries.get(end).operation() == operation) {
+                end++;
+            }
+            List<Entry> run = entries.subList(start, end);
+            if (operation != Operation.CREATE) {
+                // L'état antérieur n'est pas relu : les barres des trades réécrits sont relevées avant l'écriture.
+                barsProvider.ifAvailable(bars -> bars.beforeTradesRewritten(run.stream().map(Entry::tradeId).toList()));
+            }
+            List<Integer> runIds = operation == Operation.CREATE ? insertAll(run) : run.stream().map(Entry::tradeId).toList();
+            int[] counts = switch (operation) {
+                case CREATE -> null;
+                case REPLACE -> jdbcTemplate.batchUpdate(REPLACE_SQL, run.stream().map(e -> fullRow(e.trade(), e.tradeId())).toList());
+                case UPDATE -> jdbcTemplate.batchUpdate(UPDATE_SQL, run.stream().map(e -> new Object[]{
+                        e.trade().getAccount(), e.trade().getType(), e.trade().getBuyQuantity(),
+                        e.trade().getRevisionName(), e.trade().getRevisionDate(), e.tradeId()}).toList());
+                case DELETE -> jdbcTemplate.batchUpdate(DELETE_SQL, run.stream().map(e -> new Object[]{e.tradeId()}).toList(),
+                        new int[]{Types.INTEGER});
+            };
+            for (int i = 0; i < run.size(); i++) {
+                // Statement.SUCCESS_NO_INFO (pilote qui ne compte pas les lignes d'un batch) vaut application.
+                if (counts != null && counts[i] == 0) {
+                    missing.add(run.get(i));
+                    continue;
+                }
+                tradeIds.add(runIds.get(i));
+                audits.add(auditEvent(run.get(i), runIds.get(i)));
+            }
+            start = end;
+        }
+        if (!tradeIds.isEmpty()) {
+            eventPublisher.publishEvent(new TradeChangedEvent(tradeIds));
+        }
+        audits.forEach(eventPublisher::publishEvent);
+        return missing;
+    }
+
+    /**
+     * Construit l'entrée d'audit d'une mutation appliquée ; l'auteur et la date sont ceux de la révision journalisée.
+     */
+    private static EntityAuditedEvent auditEvent(Entry entry, Integer tradeId) {
+        TradeDTO trade = entry.trade();
+        String actor = trade != null && trade.getRevisionName() != null ? trade.getRevisionName() : EntityAuditedEvent.SYSTEM_ACTOR;
+        LocalDateTime occurredAt = trade != null && trade.getRevisionDate() != null ? trade.getRevisionDate() : LocalDateTime.now();
+        return switch (entry.operation()) {
+            case CREATE -> new EntityAuditedEvent(EntityAuditedEvent.TRADE, tradeId, Action.CREATE, actor, occurredAt, null, trade);
+            case REPLACE -> new EntityAuditedEvent(EntityAuditedEvent.TRADE, tradeId, Action.UPDATE, actor, occurredAt, null, trade);
+            case UPDATE -> {
+                Map<String, Object> applied = new LinkedHashMap<>();
+                applied.put("account", trade.getAccount());
+                applied.put("type", trade.getType());
+                applied.put("buyQuantity", trade.getBuyQuantity());
+                yield new EntityAuditedEvent(EntityAuditedEvent.TRADE, tradeId, Action.UPDATE, actor, occurredAt, null, applied);
+            }
+            case DELETE -> new EntityAuditedEvent(EntityAuditedEvent.TRADE, tradeId, Action.DELETE, actor, occurredAt, null, null);
+        };
+    }
+
+    /**
+     * Insère les nouveaux trades en un batch JDBC et renvoie les identifiants attribués par la base.
+     */
+    private List<Integer> insertAll(List<Entry> run) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        new ArgumentPreparedStatementSetter(fullRow(run.get(i).trade(), null)).setValues(ps);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return run.size();
+                    }
+                }, keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).intValue())
+                .toList();
+    }
+
+    /**
+     * Valeurs de toutes les colonnes d'un trade, dans l'ordre de {@link #INSERT_SQL}, suivies de l'identifiant
+     * s'il est fourni. Également utilisée par le {@link TradeEventStore} pour réécrire la projection.
+     */
+    static Object[] fullRow(TradeDTO trade, Integer tradeId) {
+        List<Object> row = new ArrayList<>(21);
+        row.add(trade.getAccount());
+        row.add(trade.getType());
+        row.add(trade.getBuyQuantity());
+        row.add(trade.getSellQuantity());
+        row.add(trade.getBuyPrice());
+        row.add(trade.getSellPrice());
+        row.add(trade.getTradeDate());
+        row.add(trade.getSecurity());
+        row.add(trade.getStatus());
+        row.add(trade.getTrader());
+        row.add(trade.getBenchmark());
+        row.add(trade.getBook());
+        row.add(trade.getCreationName());
+        row.add(trade.getCreationDate());
+        row.add(trade.getRevisionName());
+        row.add(trade.getRevisionDate());
+        row.add(trade.getDealName());
+        row.add(trade.getDealType());
+        row.add(trade.getSourceListId());
+        row.add(trade.getSide());
+        if (tradeId != null) {
+            row.add(tradeId);
+        }
+        return row.toArray();
+    }
+
+    /**
+     * Consigne les mutations restées sans effet : le trade visé n'existe pas (ou plus) en base.
+     */
+    private void rejectMissing(List<Entry> missing) {
+        if (missing == null) {
+            return;
+        }
+        for (Entry entry : missing) {
+            log.warn("Mutation de trade {} sans effet : le trade {} n'existe pas", entry.sequence(), entry.tradeId());
+            reject(entry);
+        }
+    }
+
+    private void reject(Entry entry) {
+        try {
+            Files.writeString(directory.resolve("rejected.log"),
+                    objectMapper.writeValueAsString(entry) + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Impossible de conserver la mutation rejetée {} : {}", entry.sequence(), e.getMessage());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(Math.max(drainIntervalMs, 1000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Indique la dernière séquence du journal appliquée en base.
+     *
+     * @return la séquence du checkpoint courant.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+}
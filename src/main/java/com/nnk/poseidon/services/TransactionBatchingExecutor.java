@@ -0,0 +1,220 @@
+package com.nnk.poseidon.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Exécuteur regroupant les petites écritures concurrentes dans une même transaction (group commit).
+ * <p>
+ * Lorsque le regroupement est actif ({@code poseidon.tx-batching.enabled=true}), chaque appel à
+ * {@link #execute(Supplier)} est placé dans une file. Des threads de travail collectent les écritures
+ * arrivées pendant une fenêtre courte ({@code window-ms}) ou jusqu'à {@code max-batch-size} opérations,
+ * puis les exécutent dans une seule transaction : la base ne paie qu'un commit (et un {@code fsync})
+ * pour tout le lot.
+ * </p>
+ * <p>
+ * Chaque appelant reçoit son propre résultat. Si une opération échoue, le lot entier est annulé puis
+ * chaque opération est rejouée dans sa propre transaction, de sorte que seule l'opération fautive
+ * remonte son exception à son appelant.
+ * </p>
+ * <p>
+ * Lorsque le regroupement est désactivé, ou si l'appelant est déjà dans une transaction,
+ * l'opération est exécutée immédiatement dans le thread courant, avec la même sémantique que
+ * {@code @Transactional}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TransactionBatchingExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int workers;
+    private final BlockingQueue<BatchedWork<?>> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private final ThreadLocal<Boolean> insideWorker = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private volatile boolean running;
+
+    /**
+     * Constructeur pour l'injection de dépendances et de la configuration.
+     *
+     * @param transactionManager le gestionnaire de transactions de l'application.
+     * @param enabled            active le regroupement des écritures.
+     * @param windowMs           la durée maximale d'attente pour compléter un lot, en millisecondes.
+     * @param maxBatchSize       le nombre maximal d'opérations par transaction.
+     * @param workers            le nombre de threads exécutant les lots en parallèle.
+     */
+    public TransactionBatchingExecutor(PlatformTransactionManager transactionManager,
+                                       @Value("${poseidon.tx-batching.enabled:false}") boolean enabled,
+                                       @Value("${poseidon.tx-batching.window-ms:2}") long windowMs,
+                                       @Value("${poseidon.tx-batching.max-batch-size:64}") int maxBatchSize,
+                                       @Value("${poseidon.tx-batching.workers:4}") int workers) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = maxBatchSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Démarre les threads de travail si le regroupement est actif.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::workLoop, "tx-batching-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+        log.info("Regroupement des transactions actif : fenêtre {} µs, {} opérations max, {} threads",
+                TimeUnit.NANOSECONDS.toMicros(windowNanos), maxBatchSize, workers);
+    }
+
+    /**
+     * Arrête les threads de travail après avoir exécuté les opérations encore en file.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread thread : workerThreads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Exécute une écriture dans une transaction, éventuellement partagée avec d'autres écritures concurrentes.
+     *
+     * @param work l'opération à exécuter ; elle doit pouvoir être rejouée si son lot est annulé.
+     * @param <T>  le type du résultat.
+     * @return le résultat de l'opération.
+     * @throws RuntimeException l'exception levée par l'opération elle-même, inchangée.
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (!running || insideWorker.get() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        BatchedWork<T> batched = new BatchedWork<>(work, SecurityContextHolder.getContext(), new CompletableFuture<>());
+        queue.add(batched);
+        try {
+            return batched.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void workLoop() {
+        insideWorker.set(Boolean.TRUE);
+        List<BatchedWork<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                BatchedWork<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    BatchedWork<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runBatch(List<BatchedWork<?>> batch) {
+        if (batch.size() > 1) {
+            try {
+                List<Object> results = transactionTemplate.execute(status -> {
+                    List<Object> values = new ArrayList<>(batch.size());
+                    for (BatchedWork<?> work : batch) {
+                        values.add(work.run());
+                    }
+                    return values;
+                });
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).complete(results.get(i));
+                }
+                log.debug("Lot de {} écritures validé en une transaction", batch.size());
+                return;
+            } catch (RuntimeException e) {
+                log.debug("Lot de {} écritures annulé ({}), exécution unitaire", batch.size(), e.getMessage());
+            }
+        }
+        for (BatchedWork<?> work : batch) {
+            try {
+                work.complete(transactionTemplate.execute(status -> work.run()));
+            } catch (RuntimeException e) {
+                work.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Écriture en attente, avec le contexte de sécurité de l'appelant pour qu'elle s'exécute sous son identité.
+     */
+    private record BatchedWork<T>(Supplier<T> work, SecurityContext securityContext, CompletableFuture<T> result) {
+
+        Object run() {
+            SecurityContext previous = SecurityContextHolder.getContext();
+            SecurityContextHolder.setContext(securityContext);
+            try {
+                return work.get();
+            } finally {
+                SecurityContextHolder.setContext(previous);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object value) {
+            result.complete((T) value);
+        }
+    }
+}
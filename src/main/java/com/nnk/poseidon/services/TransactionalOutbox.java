@@ -0,0 +1,67 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+
+/**
+ * Écriture de l'outbox transactionnel (table {@code OutboxEvent}) des trades et des offres.
+ * <p>
+ * Chaque {@link EntityAuditedEvent} publié par {@link TradeService}, {@link BidListService} ou le mode
+ * write-behind est inséré juste avant le commit de la transaction d'écriture, donc dans cette même
+ * transaction : le changement et sa ligne d'outbox sont validés ou annulés ensemble. Une erreur
+ * d'insertion annule l'écriture. La publication vers les consommateurs est faite par l'{@link OutboxRelay}.
+ * </p>
+ * <p>
+ * Désactivé par défaut ; activé avec {@code poseidon.outbox.enabled=true}.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "poseidon.outbox.enabled", havingValue = "true")
+public class TransactionalOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO OutboxEvent (aggregateType, aggregateId, eventType, actor, occurredAt, payload) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructeur pour l'injection de dépendances.
+     *
+     * @param jdbcTemplate accès JDBC, qui participe à la transaction courante.
+     * @param objectMapper le mapper JSON de l'application, pour sérialiser l'état après le changement.
+     */
+    public TransactionalOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Ajoute le changement à l'outbox, dans la transaction qui l'a produit.
+     *
+     * @param event l'événement publié par l'écriture.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onEntityAudited(EntityAuditedEvent event) {
+        jdbcTemplate.update(INSERT_SQL, event.entityType(), event.entityId(), event.action().name(), event.actor(),
+                Timestamp.valueOf(event.occurredAt()), payload(event.after()));
+    }
+
+    private String payload(Object after) {
+        if (after == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(after);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("État non sérialisable pour l'outbox : " + e.getOriginalMessage(), e);
+        }
+    }
+}
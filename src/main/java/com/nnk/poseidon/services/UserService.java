@@ -3,6 +3,9 @@ package com.nnk.poseidon.service; // Créez ce package si nécessaire
 import com.nnk.poseidon.domain.User;
 import com.nnk.poseidon.dto.UserDTO;
 import com.nnk.poseidon.repositories.UserRepository;
+import com.nnk.poseidon.services.CacheInvalidationBus;
+import com.nnk.poseidon.services.SignedTokenService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -22,17 +25,25 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder; // Injecter l'encodeur
+    private final ObjectProvider<SignedTokenService> tokenServiceProvider;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationProvider;
 
     /**
      * Constructeur pour l'injection de dépendances.
      *
-     * @param userRepository  le repository pour les entités User.
-     * @param passwordEncoder l'encodeur de mot de passe.
+     * @param userRepository            le repository pour les entités User.
+     * @param passwordEncoder           l'encodeur de mot de passe.
+     * @param tokenServiceProvider      le service des jetons signés, présent en mode d'authentification sans session.
+     * @param cacheInvalidationProvider le bus d'invalidation des caches des autres nœuds, s'il est activé.
      */
     @Autowired
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder,
+                       ObjectProvider<SignedTokenService> tokenServiceProvider,
+                       ObjectProvider<CacheInvalidationBus> cacheInvalidationProvider) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenServiceProvider = tokenServiceProvider;
+        this.cacheInvalidationProvider = cacheInvalidationProvider;
     }
 
     /**
@@ -108,6 +119,9 @@ public class UserService {
                         throw new IllegalArgumentException("Username " + userDTO.getUsername() + " is already taken by another user.");
                     }
 
+                    // Les jetons déjà émis portent l'ancien nom et l'ancien rôle : ils sont révoqués.
+                    String previousUsername = existingUser.getUsername();
+                    tokenServiceProvider.ifAvailable(tokenService -> tokenService.revokeUser(previousUsername));
                     existingUser.setUsername(userDTO.getUsername());
                     existingUser.setFullname(userDTO.getFullname());
                     existingUser.setRole(userDTO.getRole());
@@ -119,6 +133,7 @@ public class UserService {
                     // Sinon, l'ancien mot de passe reste.
 
                     User updatedUser = userRepository.save(existingUser);
+                    cacheInvalidationProvider.ifAvailable(bus -> bus.publish(User.class, id));
                     return convertToDTO(updatedUser);
                 });
     }
@@ -131,10 +146,11 @@ public class UserService {
      */
     @Transactional
     public void deleteUserById(Integer id) {
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("Invalid user Id:" + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid user Id:" + id));
+        tokenServiceProvider.ifAvailable(tokenService -> tokenService.revokeUser(user.getUsername()));
         userRepository.deleteById(id);
+        cacheInvalidationProvider.ifAvailable(bus -> bus.publish(User.class, id));
     }
 
     /**
@@ -0,0 +1,11 @@
+-- Identifiants de l'outbox sautés par le relais (voir la version MySQL).
+
+CREATE TABLE OutboxGap (
+  consumer VARCHAR(64) NOT NULL,
+  Id BIGINT NOT NULL,
+  skippedAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (consumer, Id)
+);
+
+CREATE INDEX idx_outboxgap_id ON OutboxGap (Id);
@@ -0,0 +1,8 @@
+-- Dernière séquence du journal write-behind appliquée en base (voir la version MySQL).
+
+CREATE TABLE IF NOT EXISTS TradeJournalCheckpoint (
+  Id INT NOT NULL,
+  appliedSequence BIGINT NOT NULL,
+
+  PRIMARY KEY (Id)
+);
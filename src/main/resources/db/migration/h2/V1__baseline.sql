@@ -0,0 +1,101 @@
+-- Schéma initial pour H2 (tests et développement local), équivalent à doc/data.sql
+-- avec des clés INT et la colonne CurvePoint.value protégée (mot réservé H2).
+
+CREATE TABLE BidList (
+  BidListId INT NOT NULL AUTO_INCREMENT,
+  account VARCHAR(30) NOT NULL,
+  type VARCHAR(30) NOT NULL,
+  bidQuantity DOUBLE PRECISION,
+  askQuantity DOUBLE PRECISION,
+  bid DOUBLE PRECISION,
+  ask DOUBLE PRECISION,
+  benchmark VARCHAR(125),
+  bidListDate TIMESTAMP,
+  commentary VARCHAR(125),
+  security VARCHAR(125),
+  status VARCHAR(10),
+  trader VARCHAR(125),
+  book VARCHAR(125),
+  creationName VARCHAR(125),
+  creationDate TIMESTAMP,
+  revisionName VARCHAR(125),
+  revisionDate TIMESTAMP,
+  dealName VARCHAR(125),
+  dealType VARCHAR(125),
+  sourceListId VARCHAR(125),
+  side VARCHAR(125),
+
+  PRIMARY KEY (BidListId)
+);
+
+CREATE TABLE Trade (
+  TradeId INT NOT NULL AUTO_INCREMENT,
+  account VARCHAR(30) NOT NULL,
+  type VARCHAR(30) NOT NULL,
+  buyQuantity DOUBLE PRECISION,
+  sellQuantity DOUBLE PRECISION,
+  buyPrice DOUBLE PRECISION,
+  sellPrice DOUBLE PRECISION,
+  tradeDate TIMESTAMP,
+  security VARCHAR(125),
+  status VARCHAR(10),
+  trader VARCHAR(125),
+  benchmark VARCHAR(125),
+  book VARCHAR(125),
+  creationName VARCHAR(125),
+  creationDate TIMESTAMP,
+  revisionName VARCHAR(125),
+  revisionDate TIMESTAMP,
+  dealName VARCHAR(125),
+  dealType VARCHAR(125),
+  sourceListId VARCHAR(125),
+  side VARCHAR(125),
+
+  PRIMARY KEY (TradeId)
+);
+
+CREATE TABLE CurvePoint (
+  Id INT NOT NULL AUTO_INCREMENT,
+  CurveId INT,
+  asOfDate TIMESTAMP,
+  term DOUBLE PRECISION,
+  "value" DOUBLE PRECISION,
+  creationDate TIMESTAMP,
+
+  PRIMARY KEY (Id)
+);
+
+CREATE TABLE Rating (
+  Id INT NOT NULL AUTO_INCREMENT,
+  moodysRating VARCHAR(125),
+  sandPRating VARCHAR(125),
+  fitchRating VARCHAR(125),
+  orderNumber INT,
+
+  PRIMARY KEY (Id)
+);
+
+CREATE TABLE RuleName (
+  Id INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(125),
+  description VARCHAR(125),
+  json VARCHAR(125),
+  template VARCHAR(512),
+  sqlStr VARCHAR(125),
+  sqlPart VARCHAR(125),
+
+  PRIMARY KEY (Id)
+);
+
+CREATE TABLE Users (
+  Id INT NOT NULL AUTO_INCREMENT,
+  username VARCHAR(125),
+  password VARCHAR(125),
+  fullname VARCHAR(125),
+  role VARCHAR(125),
+
+  PRIMARY KEY (Id)
+);
+
+INSERT INTO Users(fullname, username, password, role) VALUES ('Administrator', 'admin', '$2a$10$pBV8ILO/s/nao4wVnGLrh.sa/rnr5pDpbeC4E.KNzQWoy8obFZdaa', 'ADMIN');
+INSERT INTO Users(fullname, username, password, role) VALUES ('User', 'user', '$2a$10$pBV8ILO/s/nao4wVnGLrh.sa/rnr5pDpbeC4E.KNzQWoy8obFZdaa', 'USER');
@@ -0,0 +1,13 @@
+-- Index secondaires des recherches par compte, book/titre, trader/date, courbe et statut
+-- (voir la version MySQL, construite en ligne).
+
+CREATE INDEX idx_trade_account ON Trade (account);
+CREATE INDEX idx_trade_book_security ON Trade (book, security);
+CREATE INDEX idx_trade_trader_trade_date ON Trade (trader, tradeDate);
+CREATE INDEX idx_trade_status ON Trade (status);
+
+CREATE INDEX idx_bidlist_account ON BidList (account);
+CREATE INDEX idx_bidlist_book_security ON BidList (book, security);
+CREATE INDEX idx_bidlist_status ON BidList (status);
+
+CREATE INDEX idx_curvepoint_curve_as_of_date_term ON CurvePoint (CurveId, asOfDate, term);
@@ -0,0 +1,15 @@
+-- Journal d'audit en ajout seul des trades et des offres (voir la version MySQL).
+
+CREATE TABLE AuditEvent (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  entityType VARCHAR(30) NOT NULL,
+  entityId INT NOT NULL,
+  action VARCHAR(10) NOT NULL,
+  actor VARCHAR(125),
+  occurredAt TIMESTAMP NOT NULL,
+  changes VARCHAR(65535),
+
+  PRIMARY KEY (Id)
+);
+
+CREATE INDEX idx_auditevent_entity ON AuditEvent (entityType, entityId, Id);
@@ -0,0 +1,22 @@
+-- Mode event-sourcing des trades (voir la version MySQL).
+
+CREATE TABLE TradeEvent (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  tradeId INT NOT NULL,
+  version INT NOT NULL,
+  eventType VARCHAR(10) NOT NULL,
+  occurredAt TIMESTAMP(6) NOT NULL,
+  payload VARCHAR(65535),
+
+  PRIMARY KEY (Id),
+  CONSTRAINT uk_tradeevent_trade_version UNIQUE (tradeId, version)
+);
+
+CREATE TABLE TradeSnapshot (
+  tradeId INT NOT NULL,
+  version INT NOT NULL,
+  occurredAt TIMESTAMP(6) NOT NULL,
+  state VARCHAR(65535) NOT NULL,
+
+  PRIMARY KEY (tradeId, version)
+);
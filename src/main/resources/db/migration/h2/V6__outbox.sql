@@ -0,0 +1,21 @@
+-- Outbox transactionnel et positions des destinations (voir la version MySQL).
+
+CREATE TABLE OutboxEvent (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  aggregateType VARCHAR(30) NOT NULL,
+  aggregateId INT NOT NULL,
+  eventType VARCHAR(10) NOT NULL,
+  actor VARCHAR(125),
+  occurredAt TIMESTAMP(6) NOT NULL,
+  payload VARCHAR(65535),
+
+  PRIMARY KEY (Id)
+);
+
+CREATE TABLE OutboxOffset (
+  consumer VARCHAR(64) NOT NULL,
+  lastId BIGINT NOT NULL,
+  updatedAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (consumer)
+);
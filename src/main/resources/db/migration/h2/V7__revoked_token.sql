@@ -0,0 +1,12 @@
+-- Liste de révocation des jetons signés (voir la version MySQL).
+
+CREATE TABLE RevokedToken (
+  tokenId VARCHAR(160) NOT NULL,
+  username VARCHAR(125) NOT NULL,
+  revokedAt TIMESTAMP(6) NOT NULL,
+  expiresAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (tokenId)
+);
+
+CREATE INDEX idx_revokedtoken_expires_at ON RevokedToken (expiresAt);
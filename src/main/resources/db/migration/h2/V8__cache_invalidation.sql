@@ -0,0 +1,13 @@
+-- Invalidations de cache entre nœuds (voir la version MySQL).
+
+CREATE TABLE CacheInvalidation (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  entityName VARCHAR(64) NOT NULL,
+  entityId INT,
+  originNode VARCHAR(64) NOT NULL,
+  createdAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (Id)
+);
+
+CREATE INDEX idx_cacheinvalidation_created_at ON CacheInvalidation (createdAt);
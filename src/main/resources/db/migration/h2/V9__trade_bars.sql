@@ -0,0 +1,20 @@
+-- Barres OHLC/VWAP des trades par titre (voir la version MySQL).
+
+CREATE TABLE TradeBar (
+  security VARCHAR(125) NOT NULL,
+  resolution VARCHAR(3) NOT NULL,
+  barStart TIMESTAMP NOT NULL,
+  openPrice DOUBLE NOT NULL,
+  highPrice DOUBLE NOT NULL,
+  lowPrice DOUBLE NOT NULL,
+  closePrice DOUBLE NOT NULL,
+  volume DOUBLE NOT NULL,
+  notional DOUBLE NOT NULL,
+  tradeCount INT NOT NULL,
+  firstTradeAt TIMESTAMP(3) NOT NULL,
+  lastTradeAt TIMESTAMP(3) NOT NULL,
+
+  PRIMARY KEY (security, resolution, barStart)
+);
+
+CREATE INDEX idx_trade_security_trade_date ON Trade (security, tradeDate);
@@ -0,0 +1,13 @@
+-- Identifiants de l'outbox sautés par le relais après l'attente d'un trou : rien ne distingue une transaction
+-- annulée d'une transaction encore en cours, ils sont donc relus à chaque cycle par destination et publiés
+-- s'ils apparaissent. Oubliés après la durée de rétention de l'outbox.
+
+CREATE TABLE OutboxGap (
+  consumer VARCHAR(64) NOT NULL,
+  Id BIGINT NOT NULL,
+  skippedAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (consumer, Id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_outboxgap_id ON OutboxGap (Id);
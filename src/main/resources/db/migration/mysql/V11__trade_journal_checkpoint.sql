@@ -0,0 +1,10 @@
+-- Dernière séquence du journal write-behind appliquée en base (une seule ligne, Id = 1). Créée ici et non
+-- dans le schéma initial, pour qu'une base existante enregistrée en V1 la reçoive aussi ; IF NOT EXISTS
+-- pour une base de développement qui l'avait déjà.
+
+CREATE TABLE IF NOT EXISTS TradeJournalCheckpoint (
+  Id INT NOT NULL,
+  appliedSequence BIGINT NOT NULL,
+
+  PRIMARY KEY (Id)
+) ENGINE=InnoDB;
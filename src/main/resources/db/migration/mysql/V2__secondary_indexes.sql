@@ -0,0 +1,20 @@
+-- Index secondaires des recherches par compte, book/titre, trader/date, courbe et statut.
+-- ALGORITHM=INPLACE, LOCK=NONE : l'index est construit en ligne, sans bloquer les écritures ;
+-- si InnoDB ne peut pas le garantir, la migration échoue au lieu de verrouiller la table.
+
+ALTER TABLE Trade
+  ADD INDEX idx_trade_account (account),
+  ADD INDEX idx_trade_book_security (book, security),
+  ADD INDEX idx_trade_trader_trade_date (trader, tradeDate),
+  ADD INDEX idx_trade_status (status),
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE BidList
+  ADD INDEX idx_bidlist_account (account),
+  ADD INDEX idx_bidlist_book_security (book, security),
+  ADD INDEX idx_bidlist_status (status),
+  ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE CurvePoint
+  ADD INDEX idx_curvepoint_curve_as_of_date_term (CurveId, asOfDate, term),
+  ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,10 @@
+-- Les clés TINYINT limitent chaque table à 127 lignes. Le changement de type d'une colonne reconstruit
+-- la table (ALGORITHM=COPY, écritures bloquées le temps de la copie) : il est sans conséquence tant que
+-- les tables sont aussi petites que ce type l'impose, et doit passer avant tout chargement de volume.
+
+ALTER TABLE BidList MODIFY BidListId INT NOT NULL AUTO_INCREMENT;
+ALTER TABLE Trade MODIFY TradeId INT NOT NULL AUTO_INCREMENT;
+ALTER TABLE CurvePoint MODIFY Id INT NOT NULL AUTO_INCREMENT, MODIFY CurveId INT;
+ALTER TABLE Rating MODIFY Id INT NOT NULL AUTO_INCREMENT, MODIFY orderNumber INT;
+ALTER TABLE RuleName MODIFY Id INT NOT NULL AUTO_INCREMENT;
+ALTER TABLE Users MODIFY Id INT NOT NULL AUTO_INCREMENT;
@@ -0,0 +1,16 @@
+-- Journal d'audit en ajout seul des trades et des offres : une ligne par écriture, avec l'auteur et
+-- le différentiel des champs modifiés (JSON compact). Les lignes ne sont jamais modifiées ni supprimées.
+-- L'index couvre la lecture paginée de l'historique d'une ligne, du plus récent au plus ancien.
+
+CREATE TABLE AuditEvent (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  entityType VARCHAR(30) NOT NULL,
+  entityId INT NOT NULL,
+  action VARCHAR(10) NOT NULL,
+  actor VARCHAR(125),
+  occurredAt TIMESTAMP NOT NULL,
+  changes TEXT,
+
+  PRIMARY KEY (Id),
+  INDEX idx_auditevent_entity (entityType, entityId, Id)
+) ENGINE=InnoDB;
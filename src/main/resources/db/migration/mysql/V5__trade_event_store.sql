@@ -0,0 +1,23 @@
+-- Mode event-sourcing des trades : événements immuables (une version par trade, à partir de 1) et
+-- instantanés de l'état tous les N événements. La table Trade devient une projection de ces événements.
+
+CREATE TABLE TradeEvent (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  tradeId INT NOT NULL,
+  version INT NOT NULL,
+  eventType VARCHAR(10) NOT NULL,
+  occurredAt TIMESTAMP(6) NOT NULL,
+  payload TEXT,
+
+  PRIMARY KEY (Id),
+  UNIQUE KEY uk_tradeevent_trade_version (tradeId, version)
+) ENGINE=InnoDB;
+
+CREATE TABLE TradeSnapshot (
+  tradeId INT NOT NULL,
+  version INT NOT NULL,
+  occurredAt TIMESTAMP(6) NOT NULL,
+  state TEXT NOT NULL,
+
+  PRIMARY KEY (tradeId, version)
+) ENGINE=InnoDB;
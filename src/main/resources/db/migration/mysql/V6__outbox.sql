@@ -0,0 +1,23 @@
+-- Outbox transactionnel : chaque écriture de trade ou d'offre y ajoute une ligne dans la même transaction ;
+-- le relais les publie ensuite dans l'ordre des identifiants vers les destinations configurées, dont la
+-- position (dernier identifiant publié) est conservée dans OutboxOffset.
+
+CREATE TABLE OutboxEvent (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  aggregateType VARCHAR(30) NOT NULL,
+  aggregateId INT NOT NULL,
+  eventType VARCHAR(10) NOT NULL,
+  actor VARCHAR(125),
+  occurredAt TIMESTAMP(6) NOT NULL,
+  payload TEXT,
+
+  PRIMARY KEY (Id)
+) ENGINE=InnoDB;
+
+CREATE TABLE OutboxOffset (
+  consumer VARCHAR(64) NOT NULL,
+  lastId BIGINT NOT NULL,
+  updatedAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (consumer)
+) ENGINE=InnoDB;
@@ -0,0 +1,14 @@
+-- Liste de révocation des jetons signés (mode d'authentification sans session) : un jeton révoqué
+-- (tokenId) ou tous les jetons d'un utilisateur émis avant revokedAt (tokenId = 'user:<username>').
+-- Chaque nœud en garde une copie en mémoire ; une ligne devient inutile à l'expiration des jetons visés.
+
+CREATE TABLE RevokedToken (
+  tokenId VARCHAR(160) NOT NULL,
+  username VARCHAR(125) NOT NULL,
+  revokedAt TIMESTAMP(6) NOT NULL,
+  expiresAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (tokenId)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_revokedtoken_expires_at ON RevokedToken (expiresAt);
@@ -0,0 +1,15 @@
+-- Invalidations de cache entre nœuds : chaque écriture d'une donnée mise en cache localement y ajoute une ligne
+-- dans sa transaction (entité et identifiant, ou identifiant nul pour toute l'entité) ; chaque nœud lit les
+-- lignes postérieures à sa position et vide ses caches en conséquence. Les lignes anciennes sont purgées.
+
+CREATE TABLE CacheInvalidation (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  entityName VARCHAR(64) NOT NULL,
+  entityId INT,
+  originNode VARCHAR(64) NOT NULL,
+  createdAt TIMESTAMP(6) NOT NULL,
+
+  PRIMARY KEY (Id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_cacheinvalidation_created_at ON CacheInvalidation (createdAt);
@@ -0,0 +1,25 @@
+-- Barres OHLC/VWAP des trades par titre (résolutions 1m, 5m, 1h et 1d), tenues à jour au fil des écritures.
+-- notional est la somme prix x quantité : le VWAP de la barre vaut notional / volume. firstTradeAt et lastTradeAt
+-- sont les dates des trades d'ouverture et de clôture, pour qu'un trade arrivé en retard reste bien placé.
+-- L'index sur Trade (security, tradeDate) sert le recalcul d'une minute de barres après une correction.
+
+CREATE TABLE TradeBar (
+  security VARCHAR(125) NOT NULL,
+  resolution VARCHAR(3) NOT NULL,
+  barStart TIMESTAMP NOT NULL,
+  openPrice DOUBLE NOT NULL,
+  highPrice DOUBLE NOT NULL,
+  lowPrice DOUBLE NOT NULL,
+  closePrice DOUBLE NOT NULL,
+  volume DOUBLE NOT NULL,
+  notional DOUBLE NOT NULL,
+  tradeCount INT NOT NULL,
+  firstTradeAt TIMESTAMP(3) NOT NULL,
+  lastTradeAt TIMESTAMP(3) NOT NULL,
+
+  PRIMARY KEY (security, resolution, barStart)
+) ENGINE=InnoDB;
+
+ALTER TABLE Trade
+  ADD INDEX idx_trade_security_trade_date (security, tradeDate),
+  ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,40 @@
+/*
+ * Saisie semi-automatique des champs de recherche des listes.
+ * Un champ <input data-search-type="trade|bidlist" list="..."> est complété par les valeurs
+ * renvoyées par /api/v1/search (compte, titre, trader, book ou deal) commençant par le dernier mot saisi.
+ */
+document.querySelectorAll('input[data-search-type]').forEach(function (input) {
+    var suggestions = document.getElementById(input.getAttribute('list'));
+    var timer = null;
+    input.addEventListener('input', function () {
+        clearTimeout(timer);
+        timer = setTimeout(function () {
+            var text = input.value.trim();
+            if (text.length < 2) {
+                suggestions.innerHTML = '';
+                return;
+            }
+            var words = text.toLowerCase().split(/\s+/);
+            var last = words[words.length - 1];
+            fetch('/api/v1/search?limit=10&type=' + input.dataset.searchType + '&q=' + encodeURIComponent(text),
+                {headers: {'Accept': 'application/json'}})
+                .then(function (response) { return response.ok ? response.json() : []; })
+                .then(function (entries) {
+                    var values = [];
+                    entries.forEach(function (entry) {
+                        [entry.account, entry.security, entry.trader, entry.book, entry.dealName].forEach(function (value) {
+                            if (value && value.toLowerCase().indexOf(last) === 0 && values.indexOf(value) < 0) {
+                                values.push(value);
+                            }
+                        });
+                    });
+                    suggestions.innerHTML = '';
+                    values.forEach(function (value) {
+                        var option = document.createElement('option');
+                        option.value = words.slice(0, -1).concat([value]).join(' ');
+                        suggestions.appendChild(option);
+                    });
+                });
+        }, 150);
+    });
+});
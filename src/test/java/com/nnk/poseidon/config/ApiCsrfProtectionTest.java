@@ -0,0 +1,84 @@
+package com.nnk.poseidon.config;
+
+import com.nnk.poseidon.controllers.ApiJsonWriter;
+import com.nnk.poseidon.controllers.TradeApiController;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.services.CustomUserDetailsService;
+import com.nnk.poseidon.services.TradeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la protection CSRF de l'API REST avec la configuration de sécurité de l'application : une écriture
+ * authentifiée par cookie exige un jeton CSRF, une écriture authentifiée par HTTP Basic s'en passe.
+ */
+@WebMvcTest(controllers = TradeApiController.class)
+@Import({SecurityConfig.class, ApiJsonWriter.class})
+class ApiCsrfProtectionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TradeService tradeService;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        TradeDTO created = new TradeDTO();
+        created.setTradeId(1);
+        when(tradeService.saveTrade(any(TradeDTO.class))).thenReturn(created);
+        when(userDetailsService.loadUserByUsername("api")).thenReturn(User.withUsername("api")
+                .password(new BCryptPasswordEncoder().encode("secret")).authorities("USER").build());
+    }
+
+    private static MockHttpServletRequestBuilder createTrade() {
+        return post("/api/v1/trades")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"account\":\"Account 1\",\"type\":\"Type 1\",\"buyQuantity\":10.0}");
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Écriture authentifiée par la session, sans jeton CSRF : 403")
+    void sessionWrite_withoutCsrfToken_shouldBeForbidden() throws Exception {
+        mockMvc.perform(createTrade()).andExpect(status().isForbidden());
+
+        verify(tradeService, never()).saveTrade(any(TradeDTO.class));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Écriture authentifiée par la session, avec jeton CSRF : 201")
+    void sessionWrite_withCsrfToken_shouldBeAccepted() throws Exception {
+        mockMvc.perform(createTrade().with(csrf())).andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("Écriture authentifiée par HTTP Basic, sans jeton CSRF : 201")
+    void basicWrite_withoutCsrfToken_shouldBeAccepted() throws Exception {
+        mockMvc.perform(createTrade().with(httpBasic("api", "secret"))).andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,160 @@
+package com.nnk.poseidon.config;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.aayushatharva.brotli4j.decoder.DecoderJNI;
+import com.aayushatharva.brotli4j.decoder.DirectDecompress;
+import com.nnk.poseidon.controllers.ReactiveReadApiController;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.services.ReactiveReadService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Tests unitaires pour {@link BrotliCompressionFilter}.
+ */
+class BrotliCompressionFilterTest {
+
+    private static final String BODY = "[" + "{\"account\":\"Account\",\"type\":\"Type\"},".repeat(200) + "{}]";
+
+    private final BrotliCompressionFilter filter = new BrotliCompressionFilter(5);
+
+    private MockHttpServletResponse perform(String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/trades");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+        return response;
+    }
+
+    @Test
+    @DisplayName("Un client acceptant br reçoit un corps compressé en Brotli, plus petit que l'original")
+    void acceptsBrotli_shouldCompressBody() throws Exception {
+        MockHttpServletResponse response = perform("gzip, deflate, br");
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("br");
+        assertThat(response.getHeaders("Vary")).contains("Accept-Encoding");
+        byte[] compressed = response.getContentAsByteArray();
+        assertThat(compressed.length).isLessThan(BODY.length() / 10);
+        DirectDecompress decompressed = Decoder.decompress(compressed);
+        assertThat(decompressed.getResultStatus()).isEqualTo(DecoderJNI.Status.DONE);
+        assertThat(new String(decompressed.getDecompressedData(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("Sans br dans Accept-Encoding (ou avec q=0), le corps est laissé tel quel")
+    void withoutBrotli_shouldNotCompress() throws Exception {
+        for (String acceptEncoding : new String[]{null, "gzip", "br;q=0"}) {
+            MockHttpServletResponse response = perform(acceptEncoding);
+
+            assertThat(response.getHeader("Content-Encoding")).isNull();
+            assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    @DisplayName("Flux NDJSON diffusé après le premier passage : le flux Brotli n'est terminé qu'après le dernier élément")
+    void asyncStream_shouldBeCompletelyCompressed() throws Exception {
+        ReactiveReadService reactiveReadService = mock(ReactiveReadService.class);
+        // Éléments émis sur un autre thread, après le retour du premier passage dans le filtre.
+        when(reactiveReadService.streamTrades()).thenReturn(Flux.range(1, 200).map(id -> {
+            TradeDTO trade = new TradeDTO();
+            trade.setTradeId(id);
+            trade.setAccount("Account " + id);
+            trade.setType("SPOT");
+            return trade;
+        }).publishOn(Schedulers.boundedElastic()));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ReactiveReadApiController(reactiveReadService))
+                .addFilters(filter).build();
+
+        MvcResult started = mockMvc.perform(get("/api/v1/stream/trades")
+                        .accept("application/x-ndjson").header("Accept-Encoding", "br"))
+                .andExpect(request().asyncStarted()).andReturn();
+        started.getAsyncResult();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse();
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("br");
+        DirectDecompress decompressed = Decoder.decompress(response.getContentAsByteArray());
+        assertThat(decompressed.getResultStatus()).isEqualTo(DecoderJNI.Status.DONE);
+        String[] lines = new String(decompressed.getDecompressedData(), StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(200);
+        IntStream.of(0, 99, 199).forEach(i ->
+                assertThat(lines[i]).startsWith("{\"tradeId\":" + (i + 1) + ",").contains("\"Account " + (i + 1) + "\""));
+    }
+
+    @Test
+    @DisplayName("Écriture non bloquante : l'écouteur et l'état d'écriture sont ceux du flux de la réponse")
+    void nonBlockingWrite_shouldUseResponseStream() throws Exception {
+        AtomicReference<WriteListener> registered = new AtomicReference<>();
+        ServletOutputStream target = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                // Corps ignoré : seul l'écouteur est vérifié.
+            }
+
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                registered.set(writeListener);
+            }
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/trades");
+        request.addHeader("Accept-Encoding", "br");
+        WriteListener listener = mock(WriteListener.class);
+        AtomicReference<Boolean> ready = new AtomicReference<>();
+
+        filter.doFilter(request, new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return target;
+            }
+        }, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                ServletOutputStream out = resp.getOutputStream();
+                out.setWriteListener(listener);
+                ready.set(out.isReady());
+            }
+        }));
+
+        assertThat(registered).hasValue(listener);
+        assertThat(ready).hasValue(false);
+    }
+}
@@ -0,0 +1,119 @@
+package com.nnk.poseidon.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour {@link RateLimitFilter} et {@link TokenBucketRateLimiter}, sur une horloge contrôlée.
+ */
+class RateLimitFilterTest {
+
+    private static final Map<String, TokenBucketRateLimiter.EndpointGroup> GROUPS = Map.of(
+            "forms", new TokenBucketRateLimiter.EndpointGroup(Set.of("POST"), List.of("/trade/**", "/bidList/**"), 2, 3));
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private int perform(RateLimitFilter filter, String user, String method, String path) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                user, null, AuthorityUtils.createAuthorityList("USER")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Test
+    @DisplayName("Au-delà de la rafale, les écritures d'un utilisateur reçoivent 429 jusqu'au jeton suivant")
+    void overBurst_shouldRejectWithRetryAfter() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new TokenBucketRateLimiter(GROUPS, 100, 60_000, clock::get));
+
+        assertThat(perform(filter, "alice", "POST", "/trade/validate")).isEqualTo(200);
+        assertThat(perform(filter, "alice", "POST", "/bidList/validate")).isEqualTo(200);
+        assertThat(perform(filter, "alice", "POST", "/trade/validate")).isEqualTo(200);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/trade/validate"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+
+        // Les lectures, les autres chemins et les autres utilisateurs ne sont pas concernés.
+        assertThat(perform(filter, "alice", "GET", "/trade/list")).isEqualTo(200);
+        assertThat(perform(filter, "alice", "POST", "/rating/validate")).isEqualTo(200);
+        assertThat(perform(filter, "bob", "POST", "/trade/validate")).isEqualTo(200);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500)); // un jeton regagné à 2 requêtes/s
+        assertThat(perform(filter, "alice", "POST", "/trade/validate")).isEqualTo(200);
+        assertThat(perform(filter, "alice", "POST", "/trade/validate")).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("Des threads concurrents sur un même seau n'obtiennent jamais plus de jetons que la rafale")
+    void concurrentAcquire_shouldNeverExceedBurst() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(GROUPS, 100, 60_000, clock::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> accepted = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                accepted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        count += limiter.tryAcquire("forms", "alice") == 0 ? 1 : 0;
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> future : accepted) {
+                total += future.get();
+            }
+            assertThat(total).isEqualTo(3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("La table des seaux est bornée : débordement partagé, puis éviction des seaux redevenus pleins")
+    void buckets_shouldStayBoundedAndEvictIdle() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(GROUPS, 2, 10_000, clock::get);
+
+        assertThat(limiter.tryAcquire("forms", "alice")).isZero();
+        assertThat(limiter.tryAcquire("forms", "bob")).isZero();
+        // Table pleine : carol et dave partagent le seau de débordement.
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("forms", i % 2 == 0 ? "carol" : "dave")).isZero();
+        }
+        assertThat(limiter.tryAcquire("forms", "dave")).isPositive();
+        assertThat(limiter.size()).isEqualTo(3);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThat(limiter.tryAcquire("forms", "erin")).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
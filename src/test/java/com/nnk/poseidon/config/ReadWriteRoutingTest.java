@@ -0,0 +1,182 @@
+package com.nnk.poseidon.config;
+
+import com.nnk.poseidon.services.SignedTokenService;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests du routage lecture/écriture, avec deux bases H2 en mémoire jouant la base principale et le réplica.
+ */
+class ReadWriteRoutingTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE Origin AS SELECT '" + name + "' AS name");
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, database("replica")));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String origin(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM Origin", String.class));
+    }
+
+    @Test
+    @DisplayName("Les transactions en lecture seule sont servies par le réplica, les autres par la base principale")
+    void readOnlyTransactions_shouldUseReplica() {
+        assertThat(origin(readOnlyTransaction)).isEqualTo("replica");
+        assertThat(origin(writeTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Une session relit sur la base principale juste après une écriture, puis revient au réplica")
+    void readAfterWrite_shouldUsePrimaryWithinLagWindow() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(60_000, false);
+        MockHttpSession session = new MockHttpSession();
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockFilterChain readingChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                seen.set(origin(readOnlyTransaction));
+            }
+        };
+
+        filter.doFilter(request("GET", session), new MockHttpServletResponse(), readingChain);
+        assertThat(seen.get()).isEqualTo("replica");
+
+        filter.doFilter(request("POST", session), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("GET", session), new MockHttpServletResponse(), readingChain);
+        assertThat(seen.get()).isEqualTo("primary");
+
+        session.setAttribute(ReadYourWritesFilter.LAST_WRITE_ATTRIBUTE, System.currentTimeMillis() - 120_000);
+        filter.doFilter(request("GET", session), new MockHttpServletResponse(), readingChain);
+        assertThat(seen.get()).isEqualTo("replica");
+        assertThat(origin(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Mode sans session : la dernière écriture, portée par un cookie, renvoie les lectures sur la base principale")
+    void statelessReadAfterWrite_shouldUsePrimaryWithinLagWindow() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE RevokedToken (tokenId VARCHAR(160) PRIMARY KEY, username VARCHAR(125),"
+                + " revokedAt TIMESTAMP(6), expiresAt TIMESTAMP(6))");
+        MockEnvironment environment = new MockEnvironment().withProperty("poseidon.security.stateless.keys.k1",
+                Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        SignedTokenService tokenService = new SignedTokenService(jdbcTemplate, environment, "k1", 900, 3_600_000);
+        tokenService.start();
+        try {
+            Cookie token = new Cookie(SignedTokenAuthenticationFilter.COOKIE_NAME, tokenService.issue(
+                    UsernamePasswordAuthenticationToken.authenticated("alice", null, AuthorityUtils.createAuthorityList("USER"))));
+            MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new DeskController(() -> origin(readOnlyTransaction)))
+                    .addFilters(new ReadYourWritesFilter(60_000, true), new SignedTokenAuthenticationFilter(tokenService))
+                    .build();
+
+            mockMvc.perform(get("/trade/list").cookie(token)).andExpect(content().string("alice:replica"));
+
+            MvcResult write = mockMvc.perform(post("/trade/update").cookie(token))
+                    .andExpect(status().isFound()).andReturn();
+            Cookie lastWrite = write.getResponse().getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE);
+            assertThat(lastWrite).isNotNull();
+            assertThat(write.getRequest().getSession(false)).isNull();
+            mockMvc.perform(get("/trade/list").cookie(token, lastWrite)).andExpect(content().string("alice:primary"));
+
+            Cookie expired = new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE, Long.toString(System.currentTimeMillis() - 120_000));
+            mockMvc.perform(get("/trade/list").cookie(token, expired)).andExpect(content().string("alice:replica"));
+            assertThat(mockMvc.perform(post("/trade/reject").cookie(token)).andExpect(status().isBadRequest()).andReturn()
+                    .getResponse().getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE)).isNull();
+        } finally {
+            tokenService.stop();
+        }
+    }
+
+    /**
+     * Contrôleur minimal : une écriture suivie d'une redirection, et une lecture renvoyant l'utilisateur et la base lue.
+     */
+    @RestController
+    static class DeskController {
+
+        private final Supplier<String> origin;
+
+        DeskController(Supplier<String> origin) {
+            this.origin = origin;
+        }
+
+        @GetMapping("/trade/list")
+        String list() {
+            return SecurityContextHolder.getContext().getAuthentication().getName() + ":" + origin.get();
+        }
+
+        @PostMapping("/trade/update")
+        void update(HttpServletResponse response) throws IOException {
+            response.sendRedirect("/trade/list");
+        }
+
+        @PostMapping("/trade/reject")
+        void reject(HttpServletResponse response) throws IOException {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/trade/list");
+        request.setSession(session);
+        return request;
+    }
+}
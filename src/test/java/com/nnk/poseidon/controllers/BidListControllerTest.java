@@ -230,4 +230,27 @@ class BidListControllerTest {
 
         verify(bidListServiceMock, times(1)).deleteById(99);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDeleteBids_devraitSupprimerLaSelectionEtRediriger() throws Exception {
+        when(bidListServiceMock.deleteAllById(Arrays.asList(1, 2))).thenReturn(2);
+
+        mockMvc.perform(post("/bidList/bulk/delete").param("ids", "1", "2"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/bidList/list"))
+                .andExpect(flash().attribute("successMessage", "2 offre(s) supprimée(s)."));
+
+        verify(bidListServiceMock, times(1)).deleteAllById(Arrays.asList(1, 2));
+    }
+
+    @Test
+    void testUpdateBidsStatus_siStatutInvalide_devraitRedirigerAvecMessageErreur() throws Exception {
+        when(bidListServiceMock.updateStatus(Arrays.asList(1, 2), " "))
+                .thenThrow(new IllegalArgumentException("Le statut doit contenir entre 1 et 10 caractères."));
+
+        mockMvc.perform(post("/bidList/bulk/status").param("ids", "1", "2").param("status", " "))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/bidList/list"))
+                .andExpect(flash().attributeExists("errorMessage"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.nnk.poseidon.controllers;
+
+import com.nnk.poseidon.services.CurvePointService;
+import com.nnk.poseidon.services.CurveScenarioEngine;
+import com.nnk.poseidon.services.CurveScenarioEngine.ScenarioSet;
+import com.nnk.poseidon.services.CurveSensitivities;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de l'API REST {@code /api/v1/curvepoints/sensitivities} ({@link CurvePointApiController}).
+ */
+@WebMvcTest(controllers = CurvePointApiController.class,
+        excludeAutoConfiguration = {SecurityAutoConfiguration.class})
+@Import(ApiJsonWriter.class)
+class CurvePointApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CurvePointService curvePointService;
+
+    @MockitoBean
+    private CurveScenarioEngine curveScenarioEngine;
+
+    @Test
+    @DisplayName("GET /api/v1/curvepoints/sensitivities - Devrait renvoyer la matrice de chaque courbe")
+    void sensitivities_ShouldReturnMatrixPerCurve() throws Exception {
+        LocalDateTime asOfDate = LocalDateTime.of(2024, 6, 30, 0, 0);
+        CurveSensitivities curve = new CurveSensitivities(1, asOfDate, new double[]{0.5, 2.0},
+                new double[]{-50.0, 0.0, 50.0}, new double[]{1.01, 1.0, 0.99},
+                new double[][]{{-0.1, -0.2}, {-0.11, -0.21}, {-0.12, -0.22}});
+        when(curveScenarioEngine.computeSensitivities(asOfDate, new ScenarioSet(3, 50, 2, 4.5)))
+                .thenReturn(List.of(curve));
+
+        mockMvc.perform(get("/api/v1/curvepoints/sensitivities").param("asOfDate", "2024-06-30T00:00:00")
+                        .param("scenarios", "3").param("maxShiftBp", "50").param("bumpBp", "2").param("coupon", "4.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].curveId").value(1))
+                .andExpect(jsonPath("$[0].terms", hasSize(2)))
+                .andExpect(jsonPath("$[0].shiftsBp[2]").value(50.0))
+                .andExpect(jsonPath("$[0].sensitivities", hasSize(3)))
+                .andExpect(jsonPath("$[0].sensitivities[1][1]").value(-0.21));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/curvepoints/sensitivities - Devrait appliquer les paramètres par défaut")
+    void sensitivities_WithoutParameters_ShouldUseDefaults() throws Exception {
+        when(curveScenarioEngine.computeSensitivities(null, new ScenarioSet(201, 100, 1, 5))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/curvepoints/sensitivities"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/curvepoints/sensitivities - Devrait répondre 400 si un paramètre est refusé")
+    void sensitivities_WithInvalidParameter_ShouldReturnBadRequest() throws Exception {
+        when(curveScenarioEngine.computeSensitivities(isNull(), any(ScenarioSet.class)))
+                .thenThrow(new IllegalArgumentException("Le déplacement extrême (maxShiftBp) doit être un nombre fini."));
+
+        mockMvc.perform(get("/api/v1/curvepoints/sensitivities").param("maxShiftBp", "Infinity"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,286 @@
+package com.nnk.poseidon.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.dto.TradeFilter;
+import com.nnk.poseidon.services.TradeBar;
+import com.nnk.poseidon.services.TradeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de l'API REST {@code /api/v1/trades} ({@link TradeApiController}).
+ */
+@WebMvcTest(controllers = TradeApiController.class,
+        excludeAutoConfiguration = {SecurityAutoConfiguration.class})
+@Import(ApiJsonWriter.class)
+class TradeApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private TradeService tradeService;
+
+    private TradeDTO trade1;
+    private TradeDTO trade2;
+
+    @BeforeEach
+    void setUp() {
+        trade1 = new TradeDTO();
+        trade1.setTradeId(1);
+        trade1.setAccount("Account 1");
+        trade1.setType("Type 1");
+        trade1.setBuyQuantity(10.0);
+        trade1.setCreationDate(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+
+        trade2 = new TradeDTO();
+        trade2.setTradeId(2);
+        trade2.setAccount("Account 2");
+        trade2.setType("Type 2");
+        trade2.setBuyQuantity(20.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTrades(TradeDTO... trades) {
+        doAnswer(invocation -> {
+            Consumer<TradeDTO> action = invocation.getArgument(0);
+            for (TradeDTO trade : trades) {
+                action.accept(trade);
+            }
+            return null;
+        }).when(tradeService).streamAll(any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades - Devrait écrire tous les trades en un tableau JSON")
+    void list_ShouldStreamAllTrades() throws Exception {
+        givenTrades(trade1, trade2);
+
+        mockMvc.perform(get("/api/v1/trades"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].account").value("Account 1"))
+                .andExpect(jsonPath("$[0].creationDate").value("2024-01-02T03:04:05"))
+                .andExpect(jsonPath("$[1].tradeId").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades?trader=...&from=...&to=... - Devrait transmettre le filtre au service")
+    void list_WithFilter_ShouldUseFinder() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 6, 30, 0, 0);
+        when(tradeService.findTrades(new TradeFilter(null, null, null, "Jean", from, to, null)))
+                .thenReturn(List.of(trade2));
+
+        mockMvc.perform(get("/api/v1/trades")
+                        .param("trader", "Jean")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-06-30T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].tradeId").value(2));
+        verify(tradeService, never()).streamAll(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades?account=...&status=... - Devrait renvoyer 400 si le filtre est refusé")
+    void list_WithInvalidFilter_ShouldReturnBadRequest() throws Exception {
+        when(tradeService.findTrades(any(TradeFilter.class)))
+                .thenThrow(new IllegalArgumentException("Un seul critère de filtre est accepté."));
+
+        mockMvc.perform(get("/api/v1/trades").param("account", "A").param("status", "OPEN"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Un seul critère de filtre est accepté."));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades?fields=... - Devrait ne renvoyer que les champs demandés")
+    void list_WithFields_ShouldOnlyWriteSelectedFields() throws Exception {
+        givenTrades(trade1);
+
+        mockMvc.perform(get("/api/v1/trades").param("fields", "tradeId,account"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tradeId").value(1))
+                .andExpect(jsonPath("$[0].account").value("Account 1"))
+                .andExpect(jsonPath("$[0].type").doesNotExist())
+                .andExpect(jsonPath("$[0].buyQuantity").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades?fields=inconnu - Devrait répondre 400 sans interroger le service")
+    void list_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/trades").param("fields", "tradeId,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").exists());
+
+        verify(tradeService, never()).streamAll(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades/{id} - Devrait renvoyer 404 si le trade n'existe pas")
+    void get_WhenNotFound_ShouldReturnNotFound() throws Exception {
+        when(tradeService.findTradeById(99)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/trades/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades/{id}?asOf= - Devrait renvoyer l'état du trade à la date demandée")
+    void get_WithAsOf_ShouldReturnPointInTimeState() throws Exception {
+        LocalDateTime asOf = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(tradeService.findTradeAsOf(1, asOf)).thenReturn(Optional.of(trade1));
+
+        mockMvc.perform(get("/api/v1/trades/1").param("asOf", "2024-03-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tradeId").value(1));
+
+        verify(tradeService, never()).findTradeById(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades/bars - Devrait renvoyer les barres du titre avec leur VWAP")
+    void bars_ShouldReturnBarsWithVwap() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 3, 1, 11, 0);
+        TradeBar bar = new TradeBar("FR0000131104", TradeBar.Resolution.M5, from, 100, 102, 98, 101, 20, 2010, 3,
+                from.plusSeconds(10), from.plusSeconds(200));
+        when(tradeService.findTradeBars("FR0000131104", "5m", from, to)).thenReturn(List.of(bar));
+
+        mockMvc.perform(get("/api/v1/trades/bars").param("security", "FR0000131104").param("resolution", "5m")
+                        .param("from", "2024-03-01T10:00:00").param("to", "2024-03-01T11:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].open").value(100.0))
+                .andExpect(jsonPath("$[0].close").value(101.0))
+                .andExpect(jsonPath("$[0].vwap").value(100.5));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/trades - Devrait créer le trade et renvoyer 201 avec Location")
+    void create_ShouldReturnCreated() throws Exception {
+        when(tradeService.saveTrade(any(TradeDTO.class))).thenReturn(trade1);
+
+        mockMvc.perform(post("/api/v1/trades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"account\":\"Account 1\",\"type\":\"Type 1\",\"buyQuantity\":10.0}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/api/v1/trades/1"))
+                .andExpect(jsonPath("$.tradeId").value(1));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/trades - Devrait répondre 400 avec les champs invalides")
+    void create_WithInvalidBody_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/trades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"Type 1\",\"buyQuantity\":-1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.account").exists())
+                .andExpect(jsonPath("$.errors.buyQuantity").exists());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/trades/{id} - Devrait supprimer et renvoyer 204")
+    void delete_ShouldReturnNoContent() throws Exception {
+        mockMvc.perform(delete("/api/v1/trades/1"))
+                .andExpect(status().isNoContent());
+
+        verify(tradeService).deleteTradeById(1);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/trades (Accept: application/cbor) - Devrait écrire un tableau CBOR plus compact que le JSON")
+    void list_WithCborAccept_ShouldWriteCompactCbor() throws Exception {
+        TradeDTO[] trades = new TradeDTO[50];
+        for (int i = 0; i < trades.length; i++) {
+            trades[i] = new TradeDTO();
+            trades[i].setTradeId(i);
+            trades[i].setAccount("Account " + i);
+            trades[i].setBook("Book EMEA Rates");
+            trades[i].setTrader("Trader Dupont");
+            trades[i].setSecurity("FR0000131104");
+        }
+        givenTrades(trades);
+
+        byte[] json = mockMvc.perform(get("/api/v1/trades"))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/api/v1/trades").header("Accept", "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode decoded = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        assertThat(decoded).hasSize(50);
+        assertThat(decoded.get(49).get("account").asText()).isEqualTo("Account 49");
+        assertThat(decoded.get(49).get("book").asText()).isEqualTo("Book EMEA Rates");
+        assertThat(cbor.length).isLessThan(json.length / 3);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/trades/batch - Devrait importer un lot transmis en CBOR")
+    void importBatch_WithCborBody_ShouldImportAll() throws Exception {
+        when(tradeService.importTrades(anyList())).thenReturn(2);
+        ObjectMapper cborMapper = objectMapper.copyWith(CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF).build());
+        trade2.setCreationDate(LocalDateTime.of(2024, 5, 6, 7, 8, 9));
+
+        mockMvc.perform(post("/api/v1/trades/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(List.of(trade1, trade2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        verify(tradeService).importTrades(List.of(trade1, trade2));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/trades/batch - Devrait répondre 400 en désignant l'élément invalide du lot")
+    void importBatch_WithInvalidElement_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"account\":\"A\",\"type\":\"T\",\"buyQuantity\":1.0},"
+                                + "{\"type\":\"T\",\"buyQuantity\":1.0}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['[1].account']").exists());
+
+        verify(tradeService, never()).importTrades(anyList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.nnk.poseidon.controllers;
 
+import com.nnk.poseidon.dto.AuditEventDTO;
 import com.nnk.poseidon.dto.TradeDTO;
 import com.nnk.poseidon.services.TradeService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -95,7 +99,9 @@ class TradeControllerTest {
             mockMvc.perform(get("/trade/list"))
                     .andExpect(status().isOk())
                     .andExpect(view().name("trade/list"))
-                    .andExpect(model().attribute("trades", hasSize(0)));
+                    .andExpect(model().attribute("trades", hasSize(0)))
+                    // Entrée dans le champ de statut : l'action par défaut du formulaire groupé est le changement de statut.
+                    .andExpect(content().string(containsString("<form class=\"row\" action=\"/trade/bulk/status\" method=\"post\">")));
         }
     }
 
@@ -277,4 +283,57 @@ class TradeControllerTest {
             verify(tradeService, never()).deleteTradeById(99); // Ne devrait pas appeler delete si non trouvé
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Tests pour les opérations groupées sur les trades")
+    class BulkTradeTests {
+        @Test
+        @DisplayName("POST /trade/bulk/delete - Devrait supprimer la sélection et rediriger")
+        void deleteTrades_ShouldDeleteSelectionAndRedirect() throws Exception {
+            when(tradeService.deleteTrades(List.of(1, 2))).thenReturn(2);
+
+            mockMvc.perform(post("/trade/bulk/delete")
+                            .param("ids", "1", "2")
+                            .with(csrf()))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/trade/list"))
+                    .andExpect(flash().attribute("successMessage", "2 trade(s) supprimé(s)."));
+
+            verify(tradeService, times(1)).deleteTrades(List.of(1, 2));
+        }
+
+        @Test
+        @DisplayName("POST /trade/bulk/status - Devrait modifier le statut de la sélection et rediriger")
+        void updateTradesStatus_ShouldUpdateSelectionAndRedirect() throws Exception {
+            when(tradeService.updateTradeStatus(List.of(1), "Closed")).thenReturn(1);
+
+            mockMvc.perform(post("/trade/bulk/status")
+                            .param("ids", "1")
+                            .param("status", "Closed")
+                            .with(csrf()))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/trade/list"))
+                    .andExpect(flash().attribute("successMessage", "1 trade(s) mis à jour."));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests pour l'historique d'un trade (GET /trade/history/{id})")
+    class HistoryTests {
+        @Test
+        @DisplayName("Devrait afficher la page demandée de l'historique d'audit")
+        void history_ShouldReturnHistoryViewWithRequestedPage() throws Exception {
+            AuditEventDTO update = new AuditEventDTO(2L, "Trade", 1, "UPDATE", "alice", LocalDateTime.now(),
+                    "{\"account\":[\"A\",\"B\"]}");
+            Page<AuditEventDTO> history = new PageImpl<>(List.of(update), PageRequest.of(1, 20), 21);
+            when(tradeService.findTradeHistory(1, 1, 20)).thenReturn(history);
+
+            mockMvc.perform(get("/trade/history/1").param("page", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("trade/history"))
+                    .andExpect(model().attribute("tradeId", 1))
+                    .andExpect(model().attribute("history", history))
+                    .andExpect(content().string(containsString("alice")));
+        }
+    }
+}
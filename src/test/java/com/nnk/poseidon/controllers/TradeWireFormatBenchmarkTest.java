@@ -0,0 +1,115 @@
+package com.nnk.poseidon.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.nnk.poseidon.dto.TradeDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark des formats d'échange en masse des trades : taille des charges utiles et débit
+ * d'encodage/décodage du JSON, du CBOR simple et du CBOR avec dictionnaire de chaînes (stringref).
+ * <p>
+ * Les trades générés reprennent la répartition d'un export réel : peu de books, de traders et de
+ * titres distincts, répétés sur des milliers de lignes.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=TradeWireFormatBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+class TradeWireFormatBenchmarkTest {
+
+    private static final int TRADES = 20_000;
+    private static final int ROUNDS = 10;
+    private static final TypeReference<List<TradeDTO>> TRADE_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper plainCborMapper = jsonMapper.copyWith(new CBORFactory());
+    private final ApiJsonWriter apiJsonWriter = new ApiJsonWriter(jsonMapper);
+
+    @Test
+    @DisplayName("Taille et débit JSON / CBOR / CBOR stringref pour 20 000 trades")
+    void compareFormats() throws Exception {
+        List<TradeDTO> trades = generateTrades();
+
+        byte[] json = encode(trades, MediaType.APPLICATION_JSON);
+        byte[] cbor = plainCborMapper.writeValueAsBytes(trades);
+        byte[] stringRefCbor = encode(trades, MediaType.APPLICATION_CBOR);
+
+        assertThat(jsonMapper.readValue(json, TRADE_LIST)).isEqualTo(trades);
+        assertThat(plainCborMapper.readValue(stringRefCbor, TRADE_LIST)).isEqualTo(trades);
+
+        report("JSON", json, measure(() -> encode(trades, MediaType.APPLICATION_JSON)),
+                measure(() -> jsonMapper.readValue(json, TRADE_LIST)));
+        report("CBOR", cbor, measure(() -> plainCborMapper.writeValueAsBytes(trades)),
+                measure(() -> plainCborMapper.readValue(cbor, TRADE_LIST)));
+        report("CBOR stringref", stringRefCbor, measure(() -> encode(trades, MediaType.APPLICATION_CBOR)),
+                measure(() -> plainCborMapper.readValue(stringRefCbor, TRADE_LIST)));
+
+        assertThat(stringRefCbor.length).isLessThan(cbor.length).isLessThan(json.length);
+    }
+
+    private byte[] encode(List<TradeDTO> trades, MediaType format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        apiJsonWriter.writeArray(out, format, TradeDTO.class, null, trades::forEach);
+        return out.toByteArray();
+    }
+
+    private static double measure(Codec codec) throws IOException {
+        codec.run(); // préchauffage
+        codec.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            codec.run();
+        }
+        return (double) TRADES * ROUNDS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void report(String format, byte[] payload, double encodePerSecond, double decodePerSecond)
+            throws IOException {
+        System.out.printf("%-15s %,10d octets (%,9d gzip) | encodage %,10.0f trades/s | décodage %,10.0f trades/s%n",
+                format, payload.length, gzipSize(payload), encodePerSecond, decodePerSecond);
+    }
+
+    private static int gzipSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+
+    private static List<TradeDTO> generateTrades() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 2, 9, 0);
+        List<TradeDTO> trades = new ArrayList<>(TRADES);
+        for (int i = 0; i < TRADES; i++) {
+            LocalDateTime date = base.plusMinutes(i);
+            trades.add(new TradeDTO(i, "ACC-" + (i % 200), i % 2 == 0 ? "SPOT" : "FORWARD",
+                    100.0 + i % 17, 50.0 + i % 13, 99.5 + (i % 100) / 100.0, 100.5 + (i % 100) / 100.0,
+                    date, "FR00001311" + String.format("%02d", i % 50), "VALIDATED", "Trader " + (i % 20),
+                    "EURIBOR 3M", "Book " + (i % 10), "import-batch", date, "import-batch", date,
+                    "Deal " + (i % 30), "OTC", "LIST-" + (i % 5), i % 2 == 0 ? "BUY" : "SELL"));
+        }
+        return trades;
+    }
+
+    @FunctionalInterface
+    private interface Codec {
+        Object run() throws IOException;
+    }
+}
@@ -0,0 +1,203 @@
+package com.nnk.poseidon.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mélange d'opérations d'un poste de négociation, joué par un utilisateur simulé.
+ * <p>
+ * Chaque itération tire une entité (offres et trades en majorité) puis une action : consultation de la liste
+ * (55 %), ajout (20 %), modification (15 %) ou suppression (10 %). Les actions passent par les pages comme un
+ * navigateur : formulaire lu avec son jeton CSRF, envoi, puis redirection suivie vers la liste. Les
+ * modifications portent sur des lignes vues dans la dernière liste ; les suppressions, sur les lignes créées
+ * pendant le run seulement, pour que le volume de référence reste stable.
+ * </p>
+ */
+class DeskScenario {
+
+    /**
+     * Entités manipulées, avec leur poids dans le mélange et un formulaire valide.
+     */
+    enum Entity {
+        BID_LIST("bidList", 30) {
+            @Override
+            Map<String, String> form(Random random, String tag) {
+                return Map.of("account", "LT-" + tag, "type", random.nextBoolean() ? "BUY" : "SELL",
+                        "bidQuantity", Integer.toString(1 + random.nextInt(1000)));
+            }
+        },
+        TRADE("trade", 30) {
+            @Override
+            Map<String, String> form(Random random, String tag) {
+                return Map.of("account", "LT-" + tag, "type", random.nextBoolean() ? "BUY" : "SELL",
+                        "buyQuantity", Integer.toString(1 + random.nextInt(1000)));
+            }
+        },
+        CURVE_POINT("curvePoint", 20) {
+            @Override
+            Map<String, String> form(Random random, String tag) {
+                return Map.of("curveId", Integer.toString(1 + random.nextInt(20)),
+                        "term", Integer.toString(random.nextInt(30)), "value", String.format(Locale.ROOT, "%.4f", random.nextDouble() * 5));
+            }
+        },
+        RATING("rating", 10) {
+            @Override
+            Map<String, String> form(Random random, String tag) {
+                return Map.of("moodysRating", "Aa" + random.nextInt(3), "sandPRating", "AA", "fitchRating", "AA",
+                        "orderNumber", Integer.toString(random.nextInt(100)));
+            }
+        },
+        RULE_NAME("ruleName", 10) {
+            @Override
+            Map<String, String> form(Random random, String tag) {
+                return Map.of("name", "LT-" + tag, "description", "Règle de charge", "json", "{}",
+                        "template", "t", "sql", "SELECT 1", "sqlPart", "1");
+            }
+        };
+
+        final String path;
+        final int weight;
+        final Pattern updateLink;
+
+        Entity(String path, int weight) {
+            this.path = path;
+            this.weight = weight;
+            this.updateLink = Pattern.compile("/" + path + "/update/(\\d+)\"");
+        }
+
+        abstract Map<String, String> form(Random random, String tag);
+    }
+
+    private static final int TOTAL_WEIGHT = List.of(Entity.values()).stream().mapToInt(entity -> entity.weight).sum();
+
+    private final DeskUser user;
+    private final Random random;
+    private final String userTag;
+    private final Map<Entity, Integer> seededMaxIds;
+    private final Map<Entity, List<Integer>> visibleIds = new EnumMap<>(Entity.class);
+    private long sequence;
+
+    /**
+     * @param user         le client HTTP connecté.
+     * @param seed         la graine du tirage, pour rejouer le même mélange.
+     * @param userTag      le suffixe des lignes créées par cet utilisateur.
+     * @param seededMaxIds le plus grand identifiant des données de référence, par entité.
+     */
+    DeskScenario(DeskUser user, long seed, String userTag, Map<Entity, Integer> seededMaxIds) {
+        this.user = user;
+        this.random = new Random(seed);
+        this.userTag = userTag;
+        this.seededMaxIds = seededMaxIds;
+    }
+
+    /**
+     * Joue une opération tirée au hasard et enregistre la latence de chacune de ses requêtes.
+     *
+     * @param recorder le collecteur des latences, ou {@code null} pendant le préchauffage.
+     */
+    void next(LoadReport.Recorder recorder) throws IOException, InterruptedException {
+        Entity entity = pickEntity();
+        int action = random.nextInt(100);
+        if (action < 55 || !visibleIds.containsKey(entity)) {
+            list(entity, recorder);
+        } else if (action < 75) {
+            add(entity, recorder);
+        } else if (action < 90) {
+            update(entity, recorder);
+        } else {
+            delete(entity, recorder);
+        }
+    }
+
+    private Entity pickEntity() {
+        int draw = random.nextInt(TOTAL_WEIGHT);
+        for (Entity entity : Entity.values()) {
+            draw -= entity.weight;
+            if (draw < 0) {
+                return entity;
+            }
+        }
+        return Entity.BID_LIST;
+    }
+
+    private void list(Entity entity, LoadReport.Recorder recorder) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        DeskUser.Response page = user.get("/" + entity.path + "/list");
+        record(recorder, entity.path + ".list", start, page.status() == 200);
+        List<Integer> ids = new ArrayList<>();
+        Matcher matcher = entity.updateLink.matcher(page.body());
+        while (matcher.find()) {
+            ids.add(Integer.parseInt(matcher.group(1)));
+        }
+        visibleIds.put(entity, ids);
+    }
+
+    private void add(Entity entity, LoadReport.Recorder recorder) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        DeskUser.Response form = user.get("/" + entity.path + "/add");
+        record(recorder, entity.path + ".add.form", start, form.status() == 200);
+        submit(entity, "/" + entity.path + "/validate", form, entity.path + ".add.submit", recorder);
+    }
+
+    private void update(Entity entity, LoadReport.Recorder recorder) throws IOException, InterruptedException {
+        List<Integer> ids = visibleIds.get(entity);
+        if (ids.isEmpty()) {
+            list(entity, recorder);
+            return;
+        }
+        int id = ids.get(random.nextInt(ids.size()));
+        long start = System.nanoTime();
+        DeskUser.Response form = user.get("/" + entity.path + "/update/" + id);
+        // Une ligne supprimée entre-temps par un autre utilisateur renvoie vers la liste.
+        record(recorder, entity.path + ".update.form", start, form.status() == 200 || form.redirected());
+        if (form.status() == 200) {
+            submit(entity, "/" + entity.path + "/update/" + id, form, entity.path + ".update.submit", recorder);
+        }
+    }
+
+    private void delete(Entity entity, LoadReport.Recorder recorder) throws IOException, InterruptedException {
+        int seededMax = seededMaxIds.getOrDefault(entity, 0);
+        List<Integer> created = visibleIds.get(entity).stream().filter(id -> id > seededMax).toList();
+        if (created.isEmpty()) {
+            add(entity, recorder);
+            return;
+        }
+        int id = created.get(random.nextInt(created.size()));
+        long start = System.nanoTime();
+        DeskUser.Response response = user.get("/" + entity.path + "/delete/" + id);
+        record(recorder, entity.path + ".delete", start, response.redirected());
+        if (response.redirected()) {
+            list(entity, recorder);
+        }
+    }
+
+    private void submit(Entity entity, String path, DeskUser.Response form, String operation,
+                        LoadReport.Recorder recorder) throws IOException, InterruptedException {
+        if (form.status() != 200) {
+            return;
+        }
+        Map<String, String> fields = new HashMap<>(entity.form(random, userTag + "-" + (++sequence)));
+        fields.put("_csrf", DeskUser.csrf(form));
+        long start = System.nanoTime();
+        DeskUser.Response response = user.post(path, fields);
+        // Un formulaire réaffiché (200) signale une erreur de validation.
+        record(recorder, operation, start, response.redirected());
+        if (response.redirected()) {
+            list(entity, recorder);
+        }
+    }
+
+    private static void record(LoadReport.Recorder recorder, String operation, long start, boolean success) {
+        if (recorder != null) {
+            recorder.record(operation, System.nanoTime() - start, success);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.nnk.poseidon.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Client HTTP d'un utilisateur simulé : ses propres cookies (session ou jeton), aucune redirection suivie
+ * automatiquement, et lecture du jeton CSRF des formulaires comme le ferait un navigateur.
+ */
+class DeskUser {
+
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final HttpClient client;
+
+    /**
+     * Réponse lue en entier.
+     *
+     * @param status   le statut HTTP.
+     * @param body     le corps, en texte.
+     * @param location l'en-tête {@code Location}, ou une chaîne vide.
+     */
+    record Response(int status, String body, String location) {
+
+        /**
+         * @return {@code true} pour une redirection qui ne renvoie pas vers la page de connexion.
+         */
+        boolean redirected() {
+            return status == 302 && !location.contains("/login");
+        }
+    }
+
+    DeskUser(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Se connecte par le formulaire {@code /login}, avec le jeton CSRF de la page.
+     *
+     * @throws IllegalStateException si la connexion est refusée.
+     */
+    void login(String username, String password) throws IOException, InterruptedException {
+        Response loginPage = get("/login");
+        Response response = post("/login", Map.of("username", username, "password", password, "_csrf", csrf(loginPage)));
+        if (!response.redirected()) {
+            throw new IllegalStateException("Connexion refusée pour " + username + " (" + response.status() + " "
+                    + response.location() + ")");
+        }
+    }
+
+    Response get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(baseUri.resolve(path)).timeout(TIMEOUT).GET().build());
+    }
+
+    Response post(String path, Map<String, String> form) throws IOException, InterruptedException {
+        String body = form.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        return send(HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    /**
+     * Extrait le jeton CSRF d'une page contenant un formulaire.
+     *
+     * @throws IllegalStateException si la page n'en contient pas (session perdue, page d'erreur...).
+     */
+    static String csrf(Response page) {
+        Matcher matcher = CSRF_INPUT.matcher(page.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("Jeton CSRF absent de la page (statut " + page.status() + ")");
+        }
+        return matcher.group(1);
+    }
+
+    private Response send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return new Response(response.statusCode(), response.body(),
+                response.headers().firstValue("Location").orElse(""));
+    }
+}
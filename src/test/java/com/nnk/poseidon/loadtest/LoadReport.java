@@ -0,0 +1,174 @@
+package com.nnk.poseidon.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rapport d'un test de charge : débit, erreurs et percentiles de latence de chaque opération, écrit en JSON pour
+ * être comparé d'un build à l'autre.
+ *
+ * @param label           le libellé du run (build, commit...).
+ * @param users           le nombre d'utilisateurs simulés.
+ * @param durationSeconds la durée de la mesure, préchauffage exclu.
+ * @param requests        le nombre de requêtes mesurées.
+ * @param errors          le nombre de requêtes en erreur.
+ * @param throughput      le débit global, en requêtes par seconde.
+ * @param operations      les statistiques par opération, triées par nom.
+ */
+record LoadReport(String label, int users, double durationSeconds, long requests, long errors, double throughput,
+                  List<OperationStats> operations) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * En deçà, le p99 d'une opération est trop instable pour signaler une régression.
+     */
+    private static final long MIN_SAMPLES_FOR_REGRESSION = 100;
+
+    /**
+     * Statistiques d'une opération ; latences en millisecondes.
+     */
+    record OperationStats(String name, long count, long errors, double throughput, double p50, double p90, double p99,
+                          double p999, double max) {
+    }
+
+    /**
+     * Latences brutes d'un utilisateur simulé, fusionnées en fin de run.
+     */
+    static class Recorder {
+
+        private final Map<String, long[]> samples = new HashMap<>();
+        private final Map<String, Integer> counts = new HashMap<>();
+        private final Map<String, Long> errors = new HashMap<>();
+
+        void record(String operation, long nanos, boolean success) {
+            long[] values = samples.computeIfAbsent(operation, key -> new long[256]);
+            int count = counts.getOrDefault(operation, 0);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                samples.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+            if (!success) {
+                errors.merge(operation, 1L, Long::sum);
+            }
+        }
+
+        void mergeInto(Recorder total) {
+            counts.forEach((operation, count) -> {
+                long[] values = samples.get(operation);
+                for (int i = 0; i < count; i++) {
+                    total.record(operation, values[i], true);
+                }
+            });
+            errors.forEach((operation, count) -> total.errors.merge(operation, count, Long::sum));
+        }
+    }
+
+    /**
+     * Calcule le rapport à partir des latences de tous les utilisateurs.
+     */
+    static LoadReport of(String label, int users, double durationSeconds, List<Recorder> recorders) {
+        Recorder total = new Recorder();
+        recorders.forEach(recorder -> recorder.mergeInto(total));
+        List<OperationStats> operations = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(total.counts).entrySet()) {
+            int count = entry.getValue();
+            long[] sorted = Arrays.copyOf(total.samples.get(entry.getKey()), count);
+            Arrays.sort(sorted);
+            long operationErrors = total.errors.getOrDefault(entry.getKey(), 0L);
+            operations.add(new OperationStats(entry.getKey(), count, operationErrors, count / durationSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted[count - 1] / 1e6));
+            requests += count;
+            errors += operationErrors;
+        }
+        return new LoadReport(label, users, durationSeconds, requests, errors, requests / durationSeconds, operations);
+    }
+
+    /**
+     * Percentile au rang le plus proche, en millisecondes.
+     */
+    private static double percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    double errorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    /**
+     * Tableau lisible du rapport.
+     */
+    String format() {
+        StringBuilder table = new StringBuilder(String.format(
+                "Run %s : %d utilisateurs, %.0f s, %,d requêtes, %.1f req/s, %d erreurs (%.2f %%)%n",
+                label, users, durationSeconds, requests, throughput, errors, 100 * errorRate()));
+        table.append(String.format("%-24s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "opération", "requêtes", "erreurs", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationStats op : operations) {
+            table.append(String.format("%-24s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    op.name(), op.count(), op.errors(), op.throughput(), op.p50(), op.p90(), op.p99(), op.p999(), op.max()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Compare ce run à un run de référence et liste les opérations dont le p99 a augmenté de plus de
+     * {@code maxP99Regression} (0,25 pour 25 %), parmi celles mesurées au moins {@value #MIN_SAMPLES_FOR_REGRESSION}
+     * fois dans les deux runs.
+     *
+     * @return les lignes de comparaison, et en fin de liste les régressions préfixées par {@code "RÉGRESSION "}.
+     */
+    List<String> compareTo(LoadReport baseline, double maxP99Regression) {
+        Map<String, OperationStats> before = new HashMap<>();
+        baseline.operations().forEach(op -> before.put(op.name(), op));
+        List<String> lines = new ArrayList<>();
+        List<String> regressions = new ArrayList<>();
+        lines.add(String.format("Comparaison avec %s : débit %.1f → %.1f req/s (%+.1f %%)", baseline.label(),
+                baseline.throughput(), throughput, change(baseline.throughput(), throughput)));
+        for (OperationStats op : operations) {
+            OperationStats reference = before.get(op.name());
+            if (reference == null) {
+                continue;
+            }
+            double p99Change = change(reference.p99(), op.p99());
+            lines.add(String.format("%-24s p50 %8.1f → %8.1f ms (%+6.1f %%)   p99 %8.1f → %8.1f ms (%+6.1f %%)",
+                    op.name(), reference.p50(), op.p50(), change(reference.p50(), op.p50()),
+                    reference.p99(), op.p99(), p99Change));
+            if (p99Change > 100 * maxP99Regression && op.count() >= MIN_SAMPLES_FOR_REGRESSION
+                    && reference.count() >= MIN_SAMPLES_FOR_REGRESSION) {
+                regressions.add(String.format("RÉGRESSION %s : p99 %+.1f %%", op.name(), p99Change));
+            }
+        }
+        lines.addAll(regressions);
+        return lines;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : 100 * (after - before) / before;
+    }
+}
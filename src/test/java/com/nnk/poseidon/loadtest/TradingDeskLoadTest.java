@@ -0,0 +1,218 @@
+package com.nnk.poseidon.loadtest;
+
+import com.nnk.poseidon.PoseidonApplication;
+import com.nnk.poseidon.dto.UserDTO;
+import com.nnk.poseidon.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de charge d'un poste de négociation : des utilisateurs simulés se connectent par {@code /login} puis
+ * enchaînent consultations, ajouts, modifications et suppressions sur les offres, trades, points de courbe,
+ * notations et règles (voir {@link DeskScenario}), avec le jeton CSRF de chaque formulaire.
+ * <p>
+ * Par défaut l'application est démarrée dans ce processus sur une base H2 en mémoire, alimentée de
+ * {@code loadtest.seed-rows} lignes par table et de {@code loadtest.users} comptes. Avec
+ * {@code -Dloadtest.base-url=...}, le test cible une application déjà lancée, où tous les utilisateurs simulés
+ * se connectent avec {@code loadtest.username} / {@code loadtest.password}.
+ * </p>
+ * <p>
+ * Le rapport (débit, erreurs, p50/p90/p99/p99.9 par opération) est affiché et écrit dans
+ * {@code target/load-test/<loadtest.label>.json}. Avec {@code -Dloadtest.baseline=<rapport d'un build précédent>},
+ * les deux runs sont comparés et le test échoue si le p99 d'une opération augmente de plus de
+ * {@code loadtest.max-p99-regression} (0,25 par défaut). Le taux d'erreur doit rester sous
+ * {@code loadtest.max-error-rate} (1 % par défaut).
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=TradingDeskLoadTest -Dloadtest.users=50 -Dloadtest.duration-seconds=60}.
+ * </p>
+ */
+@Tag("benchmark")
+class TradingDeskLoadTest {
+
+    private static final String PASSWORD = "LoadTest1!";
+
+    private final int users = Integer.getInteger("loadtest.users", 50);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 60);
+    private final long thinkTimeMs = Long.getLong("loadtest.think-time-ms", 0L);
+    private final int seedRows = Integer.getInteger("loadtest.seed-rows", 200);
+    private final String label = System.getProperty("loadtest.label", "current");
+
+    @Test
+    @DisplayName("Débit et latences d'un poste de négociation sous charge")
+    void tradingDesk() throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url");
+        ConfigurableApplicationContext application = baseUrl == null ? startApplication() : null;
+        try {
+            URI baseUri;
+            Map<DeskScenario.Entity, Integer> seededMaxIds = new EnumMap<>(DeskScenario.Entity.class);
+            List<String> usernames;
+            String password;
+            if (application == null) {
+                baseUri = URI.create(baseUrl);
+                usernames = IntStream.range(0, users).mapToObj(i -> System.getProperty("loadtest.username", "user")).toList();
+                password = System.getProperty("loadtest.password", "");
+            } else {
+                baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort());
+                seedReferenceData(application.getBean(JdbcTemplate.class), seededMaxIds);
+                usernames = createUsers(application.getBean(UserService.class));
+                password = PASSWORD;
+            }
+
+            LoadReport report = run(baseUri, usernames, password, seededMaxIds);
+            System.out.print(report.format());
+            Path reportFile = Path.of("target", "load-test", label + ".json");
+            report.write(reportFile);
+            System.out.println("Rapport écrit dans " + reportFile);
+
+            List<String> regressions = List.of();
+            String baseline = System.getProperty("loadtest.baseline");
+            if (baseline != null) {
+                List<String> comparison = report.compareTo(LoadReport.read(Path.of(baseline)),
+                        Double.parseDouble(System.getProperty("loadtest.max-p99-regression", "0.25")));
+                comparison.forEach(System.out::println);
+                regressions = comparison.stream().filter(line -> line.startsWith("RÉGRESSION")).toList();
+            }
+            assertThat(report.requests()).isPositive();
+            assertThat(report.errorRate())
+                    .isLessThanOrEqualTo(Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")));
+            assertThat(regressions).isEmpty();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    /**
+     * Démarre l'application sur un port libre et une base H2 en mémoire migrée par Flyway. Les journaux
+     * applicatifs sont limités aux avertissements, pour mesurer l'application plutôt que la console.
+     */
+    private ConfigurableApplicationContext startApplication() {
+        // Arguments de ligne de commande : prioritaires sur application.properties.
+        return new SpringApplicationBuilder(PoseidonApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--poseidon.search.directory=target/load-test/search-index",
+                "--logging.level.com.nnk.poseidon=WARN");
+    }
+
+    /**
+     * Alimente chaque table de {@link #seedRows} lignes et note le plus grand identifiant de référence.
+     */
+    private void seedReferenceData(JdbcTemplate jdbcTemplate, Map<DeskScenario.Entity, Integer> seededMaxIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < seedRows; i++) {
+            rows.add(new Object[]{i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO BidList (account, type, bidQuantity) VALUES (CONCAT('ACC-', ?), 'BUY', 100)", rows);
+        jdbcTemplate.batchUpdate("INSERT INTO Trade (account, type, buyQuantity) VALUES (CONCAT('ACC-', ?), 'SELL', 50)", rows);
+        jdbcTemplate.batchUpdate("INSERT INTO CurvePoint (CurveId, term, \"value\") VALUES (1 + MOD(?, 10), 1, 0.5)", rows);
+        jdbcTemplate.batchUpdate("INSERT INTO Rating (moodysRating, sandPRating, fitchRating, orderNumber) VALUES ('Aaa', 'AAA', 'AAA', ?)", rows);
+        jdbcTemplate.batchUpdate("INSERT INTO RuleName (name, description) VALUES (CONCAT('Rule-', ?), 'Référence')", rows);
+        seededMaxIds.put(DeskScenario.Entity.BID_LIST, maxId(jdbcTemplate, "SELECT MAX(BidListId) FROM BidList"));
+        seededMaxIds.put(DeskScenario.Entity.TRADE, maxId(jdbcTemplate, "SELECT MAX(TradeId) FROM Trade"));
+        seededMaxIds.put(DeskScenario.Entity.CURVE_POINT, maxId(jdbcTemplate, "SELECT MAX(Id) FROM CurvePoint"));
+        seededMaxIds.put(DeskScenario.Entity.RATING, maxId(jdbcTemplate, "SELECT MAX(Id) FROM Rating"));
+        seededMaxIds.put(DeskScenario.Entity.RULE_NAME, maxId(jdbcTemplate, "SELECT MAX(Id) FROM RuleName"));
+    }
+
+    private static int maxId(JdbcTemplate jdbcTemplate, String sql) {
+        Integer max = jdbcTemplate.queryForObject(sql, Integer.class);
+        return max == null ? 0 : max;
+    }
+
+    private List<String> createUsers(UserService userService) {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String username = "desk" + i;
+            userService.createUser(new UserDTO(null, username, PASSWORD, "Desk user " + i, "USER"));
+            usernames.add(username);
+        }
+        return usernames;
+    }
+
+    /**
+     * Connecte les utilisateurs, les fait jouer le scénario pendant le préchauffage puis la mesure, et
+     * calcule le rapport.
+     */
+    private LoadReport run(URI baseUri, List<String> usernames, String password,
+                           Map<DeskScenario.Entity, Integer> seededMaxIds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        CountDownLatch loggedIn = new CountDownLatch(users);
+        CountDownLatch started = new CountDownLatch(1);
+        long[] window = new long[2];
+        List<LoadReport.Recorder> recorders = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < users; i++) {
+                LoadReport.Recorder recorder = new LoadReport.Recorder();
+                recorders.add(recorder);
+                int userIndex = i;
+                futures.add(pool.submit(() -> {
+                    DeskUser user = new DeskUser(baseUri);
+                    try {
+                        user.login(usernames.get(userIndex), password);
+                    } finally {
+                        loggedIn.countDown();
+                    }
+                    started.await();
+                    DeskScenario scenario = new DeskScenario(user, 42L + userIndex, "u" + userIndex, seededMaxIds);
+                    while (System.nanoTime() < window[1]) {
+                        long start = System.nanoTime();
+                        boolean measured = start >= window[0];
+                        try {
+                            scenario.next(measured ? recorder : null);
+                        } catch (IOException | IllegalStateException e) {
+                            // Réponse inattendue (page d'erreur, connexion perdue) : comptée en erreur.
+                            if (measured) {
+                                recorder.record("unexpected", System.nanoTime() - start, false);
+                            }
+                        }
+                        if (thinkTimeMs > 0) {
+                            Thread.sleep(thinkTimeMs);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            loggedIn.await();
+            // Le préchauffage commence une fois tous les utilisateurs connectés.
+            window[0] = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            window[1] = window[0] + TimeUnit.SECONDS.toNanos(durationSeconds);
+            started.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return LoadReport.of(label, users, durationSeconds, recorders);
+    }
+}
@@ -0,0 +1,148 @@
+package com.nnk.poseidon.migration;
+
+import com.nnk.poseidon.config.MigrationConfig;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationState;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests du rattrapage de données par lots, exécuté par Flyway sur une base H2 en mémoire.
+ */
+class BatchedBackfillMigrationTest {
+
+    private static final int ROWS = 2_500;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rattrapage de test : recopie {@code amount} dans {@code amountCopy} là où elle manque.
+     */
+    static class V2__BackfillAmountCopy extends BatchedBackfillMigration {
+
+        V2__BackfillAmountCopy(int batchSize, long pauseMillis) {
+            super(batchSize, pauseMillis);
+        }
+
+        V2__BackfillAmountCopy(Environment environment) {
+            super(environment);
+        }
+
+        @Override
+        protected String table() {
+            return "Ledger";
+        }
+
+        @Override
+        protected String keyColumn() {
+            return "Id";
+        }
+
+        @Override
+        protected String updateStatement() {
+            return "UPDATE Ledger SET amountCopy = amount WHERE Id >= ? AND Id < ? AND amountCopy IS NULL";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE Ledger (Id INT PRIMARY KEY, amount INT, amountCopy INT)");
+        jdbcTemplate.execute("INSERT INTO Ledger (Id, amount) SELECT X, X * 2 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+    }
+
+    /**
+     * Flyway configuré comme l'application : la table existante est enregistrée en version 1.
+     */
+    private Flyway flyway(BatchedBackfillMigration migration) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .locations("classpath:db/migration/none")
+                .javaMigrations(migration)
+                .load();
+    }
+
+    @Test
+    @DisplayName("Toutes les lignes sont rattrapées, par lots, et la migration est enregistrée comme appliquée")
+    void migrate_shouldBackfillEveryRowInBatches() {
+        Flyway flyway = flyway(new V2__BackfillAmountCopy(1_000, 0));
+
+        MigrateResult result = flyway.migrate();
+
+        assertThat(result.migrationsExecuted).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Ledger WHERE amountCopy = amount", Integer.class))
+                .isEqualTo(ROWS);
+        assertThat(flyway.info().current().getState()).isEqualTo(MigrationState.SUCCESS);
+        assertThat(flyway.migrate().migrationsExecuted).isZero();
+    }
+
+    @Test
+    @DisplayName("La pause entre deux lots ralentit le rattrapage")
+    void migrate_shouldPauseBetweenBatches() {
+        long start = System.nanoTime();
+
+        flyway(new V2__BackfillAmountCopy(500, 40)).migrate();
+
+        // 5 lots, donc 4 pauses.
+        assertThat((System.nanoTime() - start) / 1_000_000).isGreaterThanOrEqualTo(160);
+    }
+
+    @Test
+    @DisplayName("Les lots validés avant une erreur sont conservés et la réexécution termine le rattrapage")
+    void migrate_afterFailure_shouldResumeWhereItStopped() {
+        jdbcTemplate.execute("ALTER TABLE Ledger ADD CONSTRAINT small_copy CHECK (amountCopy < 3000)");
+
+        assertThatThrownBy(() -> flyway(new V2__BackfillAmountCopy(1_000, 0)).migrate()).isInstanceOf(Exception.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Ledger WHERE amountCopy IS NOT NULL", Integer.class))
+                .isEqualTo(1_000);
+
+        jdbcTemplate.execute("ALTER TABLE Ledger DROP CONSTRAINT small_copy");
+        Flyway flyway = flyway(new V2__BackfillAmountCopy(1_000, 0));
+        flyway.repair();
+        flyway.migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Ledger WHERE amountCopy = amount", Integer.class))
+                .isEqualTo(ROWS);
+    }
+
+    @Test
+    @DisplayName("Lots dimensionnés par la configuration, et reprise au démarrage suivant sans repair manuel")
+    void startupStrategy_shouldResumeInterruptedBackfillConfiguredFromEnvironment() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(BatchedBackfillMigration.BATCH_SIZE_PROPERTY, "400")
+                .withProperty(BatchedBackfillMigration.PAUSE_MS_PROPERTY, "0");
+        FlywayMigrationStrategy startup = new MigrationConfig().loggingMigrationStrategy();
+        jdbcTemplate.execute("ALTER TABLE Ledger ADD CONSTRAINT small_copy CHECK (amountCopy < 3000)");
+
+        assertThatThrownBy(() -> startup.migrate(flyway(new V2__BackfillAmountCopy(environment))))
+                .isInstanceOf(Exception.class);
+        // Trois lots de 400 validés : le quatrième contient la ligne 1500, qui viole la contrainte.
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Ledger WHERE amountCopy IS NOT NULL", Integer.class))
+                .isEqualTo(1_200);
+
+        jdbcTemplate.execute("ALTER TABLE Ledger DROP CONSTRAINT small_copy");
+        Flyway flyway = flyway(new V2__BackfillAmountCopy(environment));
+        startup.migrate(flyway);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Ledger WHERE amountCopy = amount", Integer.class))
+                .isEqualTo(ROWS);
+        assertThat(flyway.info().current().getState()).isEqualTo(MigrationState.SUCCESS);
+    }
+}
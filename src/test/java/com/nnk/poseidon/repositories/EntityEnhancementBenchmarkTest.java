@@ -0,0 +1,106 @@
+package com.nnk.poseidon.repositories;
+
+import com.nnk.poseidon.domain.BidList;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark du contexte de persistance sur 20 000 offres chargées dans une même transaction, dont une sur cent
+ * est modifiée : mémoire retenue par entité gérée et durée du flush, dominée par la recherche des modifications.
+ * <p>
+ * Les entités étant enrichies à la compilation, la comparaison avec des entités non enrichies se fait en
+ * relançant le benchmark après avoir retiré {@code hibernate-enhance-maven-plugin} du {@code pom.xml}. Sur H2 en
+ * mémoire, les chaînes lues sont celles conservées par la base : le gain mémoire des colonnes différées y est
+ * sous-estimé par rapport à une base distante.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=EntityEnhancementBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityEnhancementBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int MODIFIED_EVERY = 100;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    @DisplayName("Mémoire par entité gérée et durée du flush de 20 000 offres dont 200 modifiées")
+    void flushCostAndMemoryPerEntity() {
+        insertBids();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long[] bytesPerEntity = new long[ROUNDS + 1];
+        long[] flushMicros = new long[ROUNDS + 1];
+        for (int round = 0; round <= ROUNDS; round++) { // le premier tour sert de préchauffage
+            int current = round;
+            transactionTemplate.executeWithoutResult(status -> {
+                long before = usedMemory();
+                List<BidList> bids = entityManager.createQuery("select b from BidList b", BidList.class).getResultList();
+                bytesPerEntity[current] = (usedMemory() - before) / bids.size();
+                for (int i = 0; i < bids.size(); i += MODIFIED_EVERY) {
+                    bids.get(i).setBidQuantity(bids.get(i).getBidQuantity() + 1);
+                }
+                long start = System.nanoTime();
+                entityManager.flush();
+                flushMicros[current] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                assertThat(bids).hasSize(ROWS);
+                entityManager.clear();
+            });
+        }
+        long[] measuredBytes = Arrays.copyOfRange(bytesPerEntity, 1, ROUNDS + 1);
+        long[] measuredFlush = Arrays.copyOfRange(flushMicros, 1, ROUNDS + 1);
+        Arrays.sort(measuredBytes);
+        Arrays.sort(measuredFlush);
+        System.out.printf("Mémoire par entité gérée : %,d octets (médiane)%nFlush de %,d offres dont %,d modifiées : %,d µs (médiane)%n",
+                measuredBytes[ROUNDS / 2], ROWS, ROWS / MODIFIED_EVERY, measuredFlush[ROUNDS / 2]);
+    }
+
+    private void insertBids() {
+        String wide = "x".repeat(120);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{"ACC-" + (i % 500), "SPOT", (double) i, "Security " + (i % 100), "Trader " + (i % 40),
+                    "Book " + (i % 20), wide, wide, wide, wide, wide, wide, wide, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO BidList (account, type, bidQuantity, security, trader, book, benchmark, "
+                + "commentary, creationName, revisionName, dealType, sourceListId, side, creationDate) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,102 @@
+package com.nnk.poseidon.repositories;
+
+import com.nnk.poseidon.domain.BidList;
+import com.nnk.poseidon.domain.CurvePoint;
+import com.nnk.poseidon.domain.RuleName;
+import com.nnk.poseidon.domain.Trade;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie l'enrichissement des entités à la compilation : suivi des modifications intégré et chargement
+ * différé des colonnes larges de {@link BidList}.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nnk.poseidon.repositories.SqlStatementRecorder"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityEnhancementTest {
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Integer insertBid() {
+        BidList bid = new BidList();
+        bid.setAccount("ACC-LAZY");
+        bid.setType("SPOT");
+        bid.setBidQuantity(10.0);
+        bid.setCommentary("Commentaire conservé");
+        bid.setSide("Buy");
+        bid.setCreationDate(LocalDateTime.now());
+        return bidListRepository.save(bid).getBidListId();
+    }
+
+    @Test
+    @DisplayName("Les entités suivent elles-mêmes leurs modifications")
+    void entities_shouldBeEnhancedForDirtyTracking() {
+        assertThat(List.of(BidList.class, Trade.class, CurvePoint.class, RuleName.class))
+                .allMatch(SelfDirtinessTracker.class::isAssignableFrom);
+    }
+
+    @Test
+    @DisplayName("Une mise à jour ne charge pas les colonnes différées et ne réécrit que les colonnes modifiées")
+    void update_shouldNotLoadLazyColumns() {
+        Integer id = insertBid();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            BidList bid = bidListRepository.findById(id).orElseThrow();
+            assertThat(Hibernate.isPropertyInitialized(bid, "account")).isTrue();
+            assertThat(Hibernate.isPropertyInitialized(bid, "commentary")).isFalse();
+
+            SqlStatementRecorder.clear();
+            bid.setBidQuantity(20.0);
+            assertThat(((SelfDirtinessTracker) bid).$$_hibernate_getDirtyAttributes()).containsExactly("bidQuantity");
+            assertThat(bid.toString()).contains("ACC-LAZY");
+            assertThat(Hibernate.isPropertyInitialized(bid, "commentary")).isFalse();
+        });
+
+        List<String> statements = SqlStatementRecorder.statements();
+        assertThat(statements).hasSize(1);
+        assertThat(statements.get(0)).startsWith("update BidList set bidQuantity=? where").doesNotContain("commentary");
+        assertThat(jdbcTemplate.queryForMap("SELECT bidQuantity, commentary, side FROM BidList WHERE BidListId = ?", id))
+                .containsEntry("BIDQUANTITY", 20.0)
+                .containsEntry("COMMENTARY", "Commentaire conservé")
+                .containsEntry("SIDE", "Buy");
+    }
+
+    @Test
+    @DisplayName("Les colonnes différées sont chargées ensemble au premier accès")
+    void lazyColumns_shouldLoadOnFirstAccess() {
+        Integer id = insertBid();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            BidList bid = bidListRepository.findById(id).orElseThrow();
+            SqlStatementRecorder.clear();
+            assertThat(bid.getCommentary()).isEqualTo("Commentaire conservé");
+            assertThat(bid.getSide()).isEqualTo("Buy");
+            assertThat(SqlStatementRecorder.statements()).hasSize(1);
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.nnk.poseidon.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie, par {@code EXPLAIN}, que chaque finder des repositories est servi par l'index secondaire
+ * créé par la migration {@code V2__secondary_indexes.sql} et non par un parcours complet de la table.
+ * Le schéma est celui des migrations Flyway H2, validé contre le mapping JPA.
+ * <p>
+ * La requête réellement émise par Hibernate est capturée par {@link SqlStatementRecorder}, puis son plan
+ * est demandé à H2 : un finder renommé, une condition réécrite ou un index supprimé fait échouer le test.
+ * </p>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nnk.poseidon.repositories.SqlStatementRecorder"
+})
+class SecondaryIndexPlanTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 12, 31, 23, 59);
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private CurvePointRepository curvePointRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void clearRecordedStatements() {
+        SqlStatementRecorder.clear();
+    }
+
+    /**
+     * Renvoie le plan H2 de l'unique requête émise depuis le dernier {@link SqlStatementRecorder#clear()}.
+     */
+    private String planOfLastQuery(Object... parameters) throws SQLException {
+        List<String> statements = SqlStatementRecorder.statements();
+        assertThat(statements).hasSize(1);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statements.get(0))) {
+            for (int i = 0; i < parameters.length; i++) {
+                explain.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Trades par compte : index idx_trade_account")
+    void tradeFindByAccount_shouldUseAccountIndex() throws SQLException {
+        tradeRepository.findByAccount("ACC-1");
+        assertThat(planOfLastQuery("ACC-1")).contains("IDX_TRADE_ACCOUNT").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Trades par book, avec ou sans titre : index idx_trade_book_security")
+    void tradeFindByBookAndSecurity_shouldUseBookSecurityIndex() throws SQLException {
+        tradeRepository.findByBookAndSecurity("Rates", "FR0000131104");
+        assertThat(planOfLastQuery("Rates", "FR0000131104")).contains("IDX_TRADE_BOOK_SECURITY").doesNotContain("tableScan");
+
+        SqlStatementRecorder.clear();
+        tradeRepository.findByBook("Rates");
+        assertThat(planOfLastQuery("Rates")).contains("IDX_TRADE_BOOK_SECURITY").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Trades par trader et période : index idx_trade_trader_trade_date")
+    void tradeFindByTrader_shouldUseTraderTradeDateIndex() throws SQLException {
+        tradeRepository.findByTraderAndTradeDateBetweenOrderByTradeDateDesc("Jean Dupont", FROM, TO);
+        assertThat(planOfLastQuery("Jean Dupont", FROM, TO))
+                .contains("IDX_TRADE_TRADER_TRADE_DATE").doesNotContain("tableScan");
+
+        SqlStatementRecorder.clear();
+        tradeRepository.findByTraderOrderByTradeDateDesc("Jean Dupont");
+        assertThat(planOfLastQuery("Jean Dupont"))
+                .contains("IDX_TRADE_TRADER_TRADE_DATE").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Trades par statut : index idx_trade_status")
+    void tradeFindByStatus_shouldUseStatusIndex() throws SQLException {
+        tradeRepository.findByStatus("OPEN");
+        assertThat(planOfLastQuery("OPEN")).contains("IDX_TRADE_STATUS").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Trades d'un titre sur une période (recalcul des barres) : index idx_trade_security_trade_date")
+    void tradeFindBarTrades_shouldUseSecurityTradeDateIndex() throws SQLException {
+        tradeRepository.findBarTrades("FR0000131104", FROM, TO);
+        assertThat(planOfLastQuery("FR0000131104", FROM, TO))
+                .contains("IDX_TRADE_SECURITY_TRADE_DATE").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Offres par compte, book/titre et statut : index idx_bidlist_*")
+    void bidListFinders_shouldUseSecondaryIndexes() throws SQLException {
+        bidListRepository.findByAccount("ACC-1");
+        assertThat(planOfLastQuery("ACC-1")).contains("IDX_BIDLIST_ACCOUNT").doesNotContain("tableScan");
+
+        SqlStatementRecorder.clear();
+        bidListRepository.findByBookAndSecurity("Rates", "FR0000131104");
+        assertThat(planOfLastQuery("Rates", "FR0000131104")).contains("IDX_BIDLIST_BOOK_SECURITY").doesNotContain("tableScan");
+
+        SqlStatementRecorder.clear();
+        bidListRepository.findByBook("Rates");
+        assertThat(planOfLastQuery("Rates")).contains("IDX_BIDLIST_BOOK_SECURITY").doesNotContain("tableScan");
+
+        SqlStatementRecorder.clear();
+        bidListRepository.findByStatus("OPEN");
+        assertThat(planOfLastQuery("OPEN")).contains("IDX_BIDLIST_STATUS").doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Points d'une courbe : index idx_curvepoint_curve_as_of_date_term")
+    void curvePointFinders_shouldUseCurveIndex() throws SQLException {
+        curvePointRepository.findByCurveIdOrderByAsOfDateAscTermAsc(1);
+        assertThat(planOfLastQuery(1))
+                .contains("IDX_CURVEPOINT_CURVE_AS_OF_DATE_TERM").doesNotContain("tableScan");
+
+        SqlStatementRecorder.clear();
+        curvePointRepository.findByCurveIdAndAsOfDateOrderByTermAsc(1, FROM);
+        assertThat(planOfLastQuery(1, FROM))
+                .contains("IDX_CURVEPOINT_CURVE_AS_OF_DATE_TERM").doesNotContain("tableScan");
+    }
+}
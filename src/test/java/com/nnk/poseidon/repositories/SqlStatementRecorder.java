@@ -0,0 +1,40 @@
+package com.nnk.poseidon.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enregistre les requêtes SQL émises par Hibernate, pour les tests qui examinent leur plan d'exécution.
+ * <p>
+ * Activé par la propriété {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} ;
+ * Hibernate instancie la classe lui-même, l'enregistrement est donc partagé (statique) et propre au thread.
+ * </p>
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Oublie les requêtes enregistrées jusqu'ici par le thread courant.
+     */
+    public static void clear() {
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * Renvoie les requêtes enregistrées par le thread courant depuis le dernier {@link #clear()}.
+     *
+     * @return les requêtes, dans l'ordre d'émission.
+     */
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+}
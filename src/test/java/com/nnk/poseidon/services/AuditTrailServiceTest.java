@@ -0,0 +1,202 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.AuditEventDTO;
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.TradeDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que les écritures des services alimentent le journal d'audit après le commit, avec leur auteur et
+ * le différentiel des champs, et que l'historique d'un trade se lit par pages.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({TradeService.class, BidListService.class, AuditTrailService.class, TransactionBatchingExecutor.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class AuditTrailServiceTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, "n/a", AuthorityUtils.createAuthorityList("USER")));
+    }
+
+    private static TradeDTO trade(String account, Double buyQuantity) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(buyQuantity);
+        return trade;
+    }
+
+    /**
+     * Le journal est alimenté de façon asynchrone après le commit : attend que la condition soit vérifiée.
+     */
+    private static <T> T await(Supplier<T> supplier, Predicate<T> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        T value = supplier.get();
+        while (!condition.test(value) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            value = supplier.get();
+        }
+        return value;
+    }
+
+    @Test
+    @DisplayName("Chaque écriture d'un trade est journalisée avec son auteur et les seuls champs modifiés")
+    void tradeWrites_shouldBeJournaledWithActorAndFieldDiff() throws Exception {
+        authenticate("alice");
+        TradeDTO created = tradeService.saveTrade(trade("ACC-1", 10.0));
+        authenticate("bob");
+        tradeService.updateTrade(created.getTradeId(), trade("ACC-2", 10.0));
+        tradeService.updateTradeStatus(List.of(created.getTradeId()), "CLOSED");
+        tradeService.deleteTradeById(created.getTradeId());
+
+        Page<AuditEventDTO> history = await(() -> tradeService.findTradeHistory(created.getTradeId(), 0, 10),
+                page -> page.getTotalElements() == 4);
+
+        assertThat(history.getContent()).extracting(AuditEventDTO::getAction)
+                .containsExactly("DELETE", "UPDATE", "UPDATE", "CREATE");
+        assertThat(history.getContent()).extracting(AuditEventDTO::getActor)
+                .containsExactly("bob", "bob", "bob", "alice");
+        assertThat(history.getContent()).extracting(AuditEventDTO::getChanges).containsExactly(
+                null,
+                "{\"status\":[null,\"CLOSED\"]}",
+                "{\"account\":[\"ACC-1\",\"ACC-2\"]}",
+                "{\"account\":[null,\"ACC-1\"],\"type\":[null,\"SPOT\"],\"buyQuantity\":[null,10.0]}");
+        assertThat(tradeService.findTradeById(created.getTradeId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Une écriture annulée ne laisse aucune trace dans le journal")
+    void rolledBackWrite_shouldNotBeJournaled() throws Exception {
+        TradeDTO created = tradeService.saveTrade(trade("ACC-ROLLBACK", 1.0));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tradeService.updateTrade(created.getTradeId(), trade("ACC-LOST", 1.0));
+            status.setRollbackOnly();
+        });
+        BidListDTO bid = bidListService.save(new BidListDTO(null, "ACC-BID", "SPOT", 5.0, null));
+
+        // L'entrée de l'offre, écrite après l'annulation, garantit que le journal a rattrapé les écritures précédentes.
+        await(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM AuditEvent WHERE entityType = 'BidList' AND entityId = ?",
+                Integer.class, bid.getBidListId()), count -> count == 1);
+        assertThat(tradeService.findTradeHistory(created.getTradeId(), 0, 10).getContent())
+                .extracting(AuditEventDTO::getAction).containsExactly("CREATE");
+        assertThat(tradeService.findTradeHistory(created.getTradeId(), 0, 10).getContent().get(0).getActor())
+                .isEqualTo(EntityAuditedEvent.SYSTEM_ACTOR);
+    }
+
+    @Test
+    @DisplayName("Les écritures groupées et la suppression unitaire ne journalisent que les identifiants existants")
+    void bulkWrites_shouldNotJournalMissingIds() throws Exception {
+        TradeDTO created = tradeService.saveTrade(trade("ACC-BULK-AUDIT", 1.0));
+        BidListDTO bid = bidListService.save(new BidListDTO(null, "ACC-BULK-AUDIT", "SPOT", 5.0, null));
+        int missing = Integer.MAX_VALUE - 1;
+
+        assertThat(tradeService.updateTradeStatus(List.of(created.getTradeId(), missing), "CLOSED")).isEqualTo(1);
+        assertThat(tradeService.deleteTrades(List.of(missing))).isZero();
+        tradeService.deleteTradeById(missing);
+        assertThat(bidListService.updateStatus(List.of(missing), "CLOSED")).isZero();
+        assertThat(bidListService.deleteAllById(List.of(bid.getBidListId(), missing))).isEqualTo(1);
+
+        await(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM AuditEvent WHERE entityType = 'BidList' AND entityId = ?",
+                Integer.class, bid.getBidListId()), count -> count == 2);
+        assertThat(tradeService.findTradeHistory(created.getTradeId(), 0, 10).getContent())
+                .extracting(AuditEventDTO::getAction).containsExactly("UPDATE", "CREATE");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM AuditEvent WHERE entityId = ?",
+                Integer.class, missing)).isZero();
+        assertThat(applicationEvents.stream(TradeChangedEvent.class).flatMap(event -> event.tradeIds().stream()))
+                .doesNotContain(missing);
+    }
+
+    @Test
+    @DisplayName("Une entrée refusée par la base est abandonnée sans bloquer les autres entrées de son lot")
+    void rejectedEntry_shouldNotBlockJournal() throws Exception {
+        TradeDTO created = tradeService.saveTrade(trade("ACC-REJECTED", 1.0));
+        LocalDateTime now = LocalDateTime.now();
+        // Publiées dans la même transaction, les deux entrées sont mises en file ensemble et écrites dans le même lot.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new EntityAuditedEvent(EntityAuditedEvent.TRADE, created.getTradeId(),
+                    EntityAuditedEvent.Action.UPDATE, "x".repeat(200), now, null, Map.of("status", "LOST")));
+            eventPublisher.publishEvent(new EntityAuditedEvent(EntityAuditedEvent.TRADE, created.getTradeId(),
+                    EntityAuditedEvent.Action.UPDATE, "alice", now, null, Map.of("status", "KEPT")));
+        });
+
+        Page<AuditEventDTO> history = await(() -> tradeService.findTradeHistory(created.getTradeId(), 0, 10),
+                page -> page.getTotalElements() == 2);
+
+        assertThat(history.getContent()).extracting(AuditEventDTO::getChanges)
+                .containsExactly("{\"status\":[null,\"KEPT\"]}", "{\"account\":[null,\"ACC-REJECTED\"],\"type\":[null,\"SPOT\"],\"buyQuantity\":[null,1.0]}");
+    }
+
+    @Test
+    @DisplayName("L'historique d'un trade se lit par pages, du plus récent au plus ancien")
+    void history_shouldBePaginatedNewestFirst() throws Exception {
+        TradeDTO created = tradeService.saveTrade(trade("ACC-PAGE", 0.0));
+        for (int i = 1; i <= 24; i++) {
+            tradeService.updateTrade(created.getTradeId(), trade("ACC-PAGE", (double) i));
+        }
+
+        await(() -> tradeService.findTradeHistory(created.getTradeId(), 0, 10),
+                page -> page.getTotalElements() == 25);
+        // Relue une fois les 25 entrées écrites : la page attendue peut dater d'avant le comptage.
+        Page<AuditEventDTO> first = tradeService.findTradeHistory(created.getTradeId(), 0, 10);
+        Page<AuditEventDTO> last = tradeService.findTradeHistory(created.getTradeId(), 2, 10);
+
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(first.getContent().get(0).getChanges()).isEqualTo("{\"buyQuantity\":[23.0,24.0]}");
+        assertThat(last.getContent()).hasSize(5);
+        assertThat(last.getContent().get(4).getAction()).isEqualTo("CREATE");
+    }
+}
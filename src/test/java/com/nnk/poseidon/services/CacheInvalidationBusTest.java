@@ -0,0 +1,199 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.Rating;
+import com.nnk.poseidon.domain.RuleName;
+import com.nnk.poseidon.dto.RatingDTO;
+import com.nnk.poseidon.dto.RuleNameDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le bus d'invalidation des caches : les écritures d'un autre nœud retirent les entrées et les listes
+ * périmées du cache local au cycle suivant, les positions manquantes sont rattrapées, et un transport
+ * indisponible au-delà de l'obsolescence maximale fait ignorer les caches.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "poseidon.cache-invalidation.enabled=true",
+        "poseidon.cache-invalidation.node-id=node-a",
+        "poseidon.cache-invalidation.poll-interval-ms=60000",
+        "poseidon.cache-invalidation.max-staleness-ms=60000"})
+@Import({RatingService.class, RuleNameService.class, TransactionBatchingExecutor.class, CacheInvalidationBus.class,
+        InMemoryCacheInvalidationTransport.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheInvalidationBusTest {
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RuleNameService ruleNameService;
+
+    @Autowired
+    private CacheInvalidationBus localBus;
+
+    @Autowired
+    private InMemoryCacheInvalidationTransport transport;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<CacheInvalidationBus> remoteNodes = new ArrayList<>();
+
+    @AfterEach
+    void stopRemoteNodes() {
+        remoteNodes.forEach(CacheInvalidationBus::stop);
+    }
+
+    /**
+     * Démarre un autre nœud partageant la base et le cache de second niveau de ce contexte.
+     */
+    private CacheInvalidationBus remoteNode(String nodeId, CacheInvalidationTransport nodeTransport,
+                                            long pollIntervalMs, long maxStalenessMs) {
+        return remoteNode(nodeId, nodeTransport, pollIntervalMs, 5000, maxStalenessMs);
+    }
+
+    private CacheInvalidationBus remoteNode(String nodeId, CacheInvalidationTransport nodeTransport,
+                                            long pollIntervalMs, long gapTimeoutMs, long maxStalenessMs) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry()));
+        CacheInvalidationBus bus = new CacheInvalidationBus(nodeTransport, entityManagerFactory,
+                beans.getBeanProvider(SignedTokenService.class), beans.getBeanProvider(MeterRegistry.class),
+                nodeId, pollIntervalMs, 500, gapTimeoutMs, maxStalenessMs, 60);
+        bus.start();
+        remoteNodes.add(bus);
+        return bus;
+    }
+
+    private double applied() {
+        return meterRegistry.counter("poseidon.cache.invalidations.applied").count();
+    }
+
+    @Test
+    @DisplayName("Une écriture d'un autre nœud invalide l'entité et les listes en cache au cycle suivant")
+    void remoteWrite_shouldEvictStaleEntriesOnNextPoll() {
+        CacheInvalidationBus nodeB = remoteNode("node-b", transport, 60000, 60000);
+        RatingDTO rating = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 1));
+        RuleNameDTO rule = new RuleNameDTO();
+        rule.setName("Rule");
+        ruleNameService.save(rule);
+        localBus.pollOnce();
+        double appliedBefore = applied();
+        ratingService.getRatingById(rating.getId());
+        int rulesBefore = ruleNameService.findAll().size();
+
+        // Écritures faites par le nœud B directement en base : le cache du nœud A les ignore.
+        jdbcTemplate.update("UPDATE Rating SET moodysRating = 'Baa' WHERE Id = ?", rating.getId());
+        jdbcTemplate.update("INSERT INTO RuleName (name) VALUES ('Other')");
+        nodeB.publish(Rating.class, rating.getId());
+        nodeB.publish(RuleName.class, null);
+        assertThat(ratingService.getRatingById(rating.getId())).get()
+                .extracting(RatingDTO::getMoodysRating).isEqualTo("Aaa");
+        assertThat(ruleNameService.findAll()).hasSize(rulesBefore);
+
+        assertThat(localBus.pollOnce()).isEqualTo(2);
+        assertThat(ratingService.getRatingById(rating.getId())).get()
+                .extracting(RatingDTO::getMoodysRating).isEqualTo("Baa");
+        assertThat(ruleNameService.findAll()).hasSize(rulesBefore + 1);
+        // Les invalidations du nœud A lui-même ne sont pas réappliquées.
+        assertThat(applied()).isEqualTo(appliedBefore + 2);
+        assertThat(meterRegistry.timer("poseidon.cache.invalidation.lag").count()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Une invalidation lisible après une position supérieure est appliquée à son arrivée")
+    void lateCommit_shouldBeAppliedWhenItBecomesVisible() {
+        CacheInvalidationBus nodeB = remoteNode("node-b", transport, 60000, 60000);
+        RatingDTO slow = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 1));
+        RatingDTO fast = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 2));
+        localBus.pollOnce();
+        ratingService.getRatingById(slow.getId());
+        ratingService.getRatingById(fast.getId());
+        double appliedBefore = applied();
+
+        // La première invalidation est lisible après la seconde, comme une transaction plus lente à valider.
+        transport.holdNext();
+        nodeB.publish(Rating.class, slow.getId());
+        nodeB.publish(Rating.class, fast.getId());
+        assertThat(localBus.pollOnce()).isEqualTo(1);
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, fast.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, slow.getId())).isTrue();
+
+        transport.release();
+        assertThat(localBus.pollOnce()).isEqualTo(2);
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, slow.getId())).isFalse();
+        assertThat(applied()).isEqualTo(appliedBefore + 2);
+    }
+
+    @Test
+    @DisplayName("Une invalidation validée après l'attente de son trou est appliquée à son arrivée, pas perdue")
+    void commitAfterGapTimeout_shouldStillBeApplied() throws InterruptedException {
+        CacheInvalidationBus nodeB = remoteNode("node-b", transport, 60000, 60000);
+        CacheInvalidationBus nodeC = remoteNode("node-c", transport, 60000, 50, 60000);
+        RatingDTO slow = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 1));
+        RatingDTO fast = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 2));
+        nodeC.pollOnce();
+
+        transport.holdNext();
+        nodeB.publish(Rating.class, slow.getId());
+        nodeB.publish(Rating.class, fast.getId());
+        nodeC.pollOnce();
+        Thread.sleep(100);
+        // Trou sauté : la position du nœud C dépasse l'invalidation encore invisible.
+        nodeC.pollOnce();
+        ratingService.getRatingById(slow.getId());
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, slow.getId())).isTrue();
+
+        transport.release();
+        nodeC.pollOnce();
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, slow.getId())).isFalse();
+        // Appliquée une seule fois : elle n'est plus relue ensuite.
+        ratingService.getRatingById(slow.getId());
+        nodeC.pollOnce();
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, slow.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Transport indisponible au-delà de l'obsolescence maximale : les caches sont vidés à chaque cycle")
+    void transportOutage_shouldBypassCachesBeyondMaxStaleness() throws InterruptedException {
+        InMemoryCacheInvalidationTransport failing = new InMemoryCacheInvalidationTransport();
+        CacheInvalidationBus nodeC = remoteNode("node-c", failing, 50, 1000);
+        RatingDTO rating = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 1));
+        ratingService.getRatingById(rating.getId());
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, rating.getId())).isTrue();
+
+        failing.setAvailable(false);
+        nodeC.pollOnce();
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, rating.getId())).isTrue();
+        Thread.sleep(1100);
+        nodeC.pollOnce();
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, rating.getId())).isFalse();
+
+        failing.setAvailable(true);
+        nodeC.pollOnce();
+        ratingService.getRatingById(rating.getId());
+        assertThat(entityManagerFactory.getCache().contains(Rating.class, rating.getId())).isTrue();
+    }
+}
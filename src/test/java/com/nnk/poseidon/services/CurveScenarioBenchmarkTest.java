@@ -0,0 +1,97 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.services.CurveScenarioEngine.Curve;
+import com.nnk.poseidon.services.CurveScenarioEngine.ScenarioSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark du {@link CurveScenarioEngine} : sensibilités de courbes synthétiques sous des centaines de scénarios,
+ * évaluées avec 1, 2, 4… threads jusqu'au nombre de processeurs ; la lecture en base est exclue.
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=CurveScenarioBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+class CurveScenarioBenchmarkTest {
+
+    private static final int CURVES = 200;
+    private static final int TERMS = 30;
+    private static final ScenarioSet SCENARIOS = new ScenarioSet(500, 200, 1, 5);
+    private static final int ROUNDS = 3;
+
+    @Test
+    @DisplayName("Temps de calcul et accélération selon le nombre de threads")
+    void sensitivitiesScaleWithThreads() {
+        List<Curve> curves = curves();
+        double sequentialSeconds = 0;
+        double[][] reference = null;
+        for (int threads : threadCounts()) {
+            CurveScenarioEngine engine = new CurveScenarioEngine(null, null, null, threads, SCENARIOS.scenarios());
+            try {
+                engine.evaluate(curves, SCENARIOS);
+                long best = Long.MAX_VALUE;
+                List<CurveSensitivities> results = null;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    results = engine.evaluate(curves, SCENARIOS);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                double seconds = best / 1e9;
+                if (threads == 1) {
+                    sequentialSeconds = seconds;
+                    reference = results.get(CURVES - 1).sensitivities();
+                }
+                long repricings = (long) CURVES * SCENARIOS.scenarios() * (TERMS + 1);
+                System.out.printf("Scénarios de courbes : %d thread(s), %,d réévaluations en %.3f s "
+                                + "(%,.0f réévaluations/s), accélération x%.2f%n",
+                        threads, repricings, seconds, repricings / seconds, sequentialSeconds / seconds);
+
+                assertThat(results).hasSize(CURVES);
+                assertThat(results.get(CURVES - 1).sensitivities()).isDeepEqualTo(reference);
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Puissances de 2 jusqu'au nombre de processeurs, celui-ci compris.
+     */
+    private static List<Integer> threadCounts() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(processors);
+        return counts;
+    }
+
+    /**
+     * Courbes ascendantes bruitées, termes de 3 mois à 30 ans.
+     */
+    private static List<Curve> curves() {
+        Random random = new Random(42);
+        LocalDateTime asOfDate = LocalDateTime.of(2024, 6, 30, 0, 0);
+        List<Curve> curves = new ArrayList<>();
+        for (int id = 1; id <= CURVES; id++) {
+            double[] terms = new double[TERMS];
+            double[] rates = new double[TERMS];
+            for (int i = 0; i < TERMS; i++) {
+                terms[i] = i == 0 ? 0.25 : i;
+                rates[i] = 1 + Math.log1p(terms[i]) + random.nextGaussian() * 0.05;
+            }
+            curves.add(new Curve(id, asOfDate, terms, rates, SCENARIOS.coupon()));
+        }
+        return curves;
+    }
+}
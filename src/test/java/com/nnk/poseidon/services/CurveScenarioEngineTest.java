@@ -0,0 +1,170 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.CurvePoint;
+import com.nnk.poseidon.repositories.CurvePointRepository;
+import com.nnk.poseidon.services.CurveScenarioEngine.ScenarioSet;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests d'intégration de {@link CurveScenarioEngine} sur le schéma des migrations Flyway H2 : sensibilités
+ * comparées à une réévaluation calculée à la main, choix de la date de valeur, et résultats identiques quel que
+ * soit le nombre de threads.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "poseidon.scenarios.parallelism=4"
+})
+@Import(CurveScenarioEngine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CurveScenarioEngineTest {
+
+    private static final LocalDateTime OLD_DATE = LocalDateTime.of(2024, 6, 28, 0, 0);
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 6, 30, 0, 0);
+
+    @Autowired
+    private CurveScenarioEngine engine;
+
+    @Autowired
+    private CurvePointRepository curvePointRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        curvePointRepository.deleteAll();
+        // Courbe 1 : termes 0,5 an et 2 ans ; le flux à 1 an est interpolé au tiers entre les deux.
+        point(1, DATE, 0.5, 2.0);
+        point(1, DATE, 2.0, 3.0);
+        point(1, OLD_DATE, 2.0, 9.0);
+        // Courbe 2 : dix termes annuels, pour comparer les calculs séquentiel et parallèle.
+        for (int year = 1; year <= 10; year++) {
+            point(2, DATE, year, 1.5 + year * 0.2);
+        }
+    }
+
+    private void point(int curveId, LocalDateTime asOfDate, double term, double value) {
+        curvePointRepository.save(new CurvePoint(null, curveId, asOfDate, term, value, LocalDateTime.now()));
+    }
+
+    private static double discount(double ratePercent, double time) {
+        return Math.exp(-ratePercent / 100 * time);
+    }
+
+    @Test
+    @DisplayName("Sensibilités d'un terme : réévaluation de l'obligation avec le terme choqué et le taux interpolé")
+    void sensitivities_shouldMatchHandRepricing() {
+        List<CurveSensitivities> results = engine.computeSensitivities(null, new ScenarioSet(3, 100, 1, 5));
+
+        CurveSensitivities curve = results.get(0);
+        assertThat(curve.curveId()).isEqualTo(1);
+        assertThat(curve.asOfDate()).isEqualTo(DATE);
+        assertThat(curve.terms()).containsExactly(0.5, 2.0);
+        assertThat(curve.shiftsBp()).containsExactly(-100.0, 0.0, 100.0);
+        assertThat(curve.sensitivities()).hasDimensions(3, 2);
+
+        // Scénario central : flux de 0,05 à 1 an (taux 2 + (3 - 2) / 3) et de 1,05 à 2 ans (taux 3).
+        double rateAt1 = 2.0 + 1.0 / 3;
+        double base = 0.05 * discount(rateAt1, 1) + 1.05 * discount(3.0, 2);
+        assertThat(curve.presentValues()[1]).isCloseTo(base, within(1e-12));
+        double shortBumped = 0.05 * discount(rateAt1 + 0.01 * 2 / 3, 1) + 1.05 * discount(3.0, 2);
+        double longBumped = 0.05 * discount(rateAt1 + 0.01 / 3, 1) + 1.05 * discount(3.01, 2);
+        assertThat(curve.sensitivities()[1][0]).isCloseTo(shortBumped - base, within(1e-12));
+        assertThat(curve.sensitivities()[1][1]).isCloseTo(longBumped - base, within(1e-12));
+
+        // Scénario +100 pb : les mêmes sensibilités, autour de la courbe relevée de 1 %.
+        double shiftedBase = 0.05 * discount(rateAt1 + 1, 1) + 1.05 * discount(4.0, 2);
+        double shiftedLong = 0.05 * discount(rateAt1 + 1 + 0.01 / 3, 1) + 1.05 * discount(4.01, 2);
+        assertThat(curve.presentValues()[2]).isCloseTo(shiftedBase, within(1e-12));
+        assertThat(curve.sensitivities()[2][1]).isCloseTo(shiftedLong - shiftedBase, within(1e-12));
+    }
+
+    @Test
+    @DisplayName("Date de valeur demandée : seuls ses points sont utilisés")
+    void asOfDate_shouldSelectPoints() {
+        List<CurveSensitivities> results = engine.computeSensitivities(OLD_DATE, new ScenarioSet(1, 0, 1, 5));
+
+        assertThat(results).singleElement().satisfies(curve -> {
+            assertThat(curve.curveId()).isEqualTo(1);
+            assertThat(curve.terms()).containsExactly(2.0);
+            assertThat(curve.presentValues()[0])
+                    .isCloseTo(0.05 * discount(9.0, 1) + 1.05 * discount(9.0, 2), within(1e-12));
+        });
+    }
+
+    @Test
+    @DisplayName("Centaines de scénarios : résultats identiques sur un thread et sur quatre")
+    void parallelEvaluation_shouldMatchSequential() {
+        CurveScenarioEngine sequential = new CurveScenarioEngine(curvePointRepository, entityManager,
+                transactionManager, 1, 1000);
+        try {
+            ScenarioSet scenarios = new ScenarioSet(301, 150, 1, 4);
+            List<CurveSensitivities> parallel = engine.computeSensitivities(null, scenarios);
+            List<CurveSensitivities> expected = sequential.computeSensitivities(null, scenarios);
+
+            assertThat(parallel).hasSize(2);
+            for (int c = 0; c < parallel.size(); c++) {
+                assertThat(parallel.get(c).sensitivities()).isDeepEqualTo(expected.get(c).sensitivities());
+                assertThat(parallel.get(c).presentValues()).containsExactly(expected.get(c).presentValues());
+            }
+            double[] centralRow = parallel.get(1).sensitivities()[150];
+            assertThat(centralRow).hasSize(10);
+            assertThat(Arrays.stream(centralRow)).allSatisfy(sensitivity -> assertThat(sensitivity).isNegative());
+        } finally {
+            sequential.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Paramètres invalides : IllegalArgumentException")
+    void invalidScenarios_shouldBeRejected() {
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(0, 100, 1, 5)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(1001, 100, 1, 5)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(10, 100, 0, 5)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("bumpBp");
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(10, Double.POSITIVE_INFINITY, 1, 5)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("maxShiftBp");
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(10, -1, 1, 5)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("maxShiftBp");
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(10, 100, Double.NaN, 5)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("bumpBp");
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(10, 100, Double.POSITIVE_INFINITY, 5)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("bumpBp");
+        assertThatThrownBy(() -> engine.computeSensitivities(null, new ScenarioSet(10, 100, 1, Double.NEGATIVE_INFINITY)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Le coupon doit être un nombre fini.");
+    }
+
+    @Test
+    @DisplayName("Points répétés pour un même terme : le dernier enregistré l'emporte")
+    void repeatedTerm_shouldUseLatestSavedPoint() {
+        point(3, DATE, 1.0, 9.0);
+        point(3, DATE, 1.0, 2.0);
+
+        // Un seul terme à 1 an : l'obligation de référence est remboursée avec son coupon dans un an.
+        assertThat(engine.computeSensitivities(DATE, new ScenarioSet(1, 0, 1, 5)))
+                .filteredOn(curve -> curve.curveId() == 3).singleElement()
+                .satisfies(curve -> assertThat(curve.presentValues()[0]).isCloseTo(1.05 * discount(2.0, 1), within(1e-12)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.nnk.poseidon.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Transport d'invalidations en mémoire tenant lieu de table partagée dans les tests du bus : positions
+ * attribuées à la publication, publication retenue pour simuler une transaction lente à valider, et
+ * indisponibilité simulée.
+ */
+class InMemoryCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final TreeMap<Long, CacheInvalidation> visible = new TreeMap<>();
+    private final List<CacheInvalidation> held = new ArrayList<>();
+    private long sequence;
+    private boolean holdNext;
+    private boolean available = true;
+
+    @Override
+    public synchronized void publish(CacheInvalidation invalidation) {
+        CacheInvalidation published = new CacheInvalidation(++sequence, invalidation.entityName(),
+                invalidation.entityId(), invalidation.originNode(), invalidation.createdAt());
+        if (holdNext) {
+            holdNext = false;
+            held.add(published);
+        } else {
+            visible.put(published.id(), published);
+        }
+    }
+
+    @Override
+    public synchronized List<CacheInvalidation> poll(long afterId, int limit) {
+        checkAvailable();
+        return visible.tailMap(afterId, false).values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public synchronized List<CacheInvalidation> find(Collection<Long> ids) {
+        checkAvailable();
+        return ids.stream().sorted().map(visible::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public synchronized long latestId() {
+        checkAvailable();
+        return visible.isEmpty() ? 0L : visible.lastKey();
+    }
+
+    @Override
+    public synchronized int purge(LocalDateTime before) {
+        checkAvailable();
+        int size = visible.size();
+        visible.values().removeIf(invalidation -> invalidation.createdAt().isBefore(before));
+        return size - visible.size();
+    }
+
+    /**
+     * Retient la prochaine publication, qui reçoit sa position sans être lisible.
+     */
+    synchronized void holdNext() {
+        holdNext = true;
+    }
+
+    /**
+     * Rend lisibles les publications retenues, comme au commit d'une transaction lente.
+     */
+    synchronized void release() {
+        held.forEach(invalidation -> visible.put(invalidation.id(), invalidation));
+        held.clear();
+    }
+
+    synchronized void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    private void checkAvailable() {
+        if (!available) {
+            throw new IllegalStateException("Transport indisponible (panne simulée)");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.nnk.poseidon.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Courtier en mémoire tenant lieu de broker de messages dans les tests de l'outbox : un journal ordonné des
+ * messages reçus, des positions par consommateur et des échecs de publication simulés.
+ */
+class InMemoryOutboxBroker implements OutboxSink {
+
+    private final List<OutboxMessage> log = new ArrayList<>();
+    private final Map<String, Long> committed = new ConcurrentHashMap<>();
+    private int failuresToSimulate;
+    private int failedPublications;
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        if (failuresToSimulate > 0) {
+            failuresToSimulate--;
+            failedPublications++;
+            throw new IllegalStateException("Broker indisponible (échec simulé)");
+        }
+        log.addAll(messages);
+    }
+
+    /**
+     * Fait échouer les prochaines publications.
+     *
+     * @param count le nombre de publications à refuser.
+     */
+    synchronized void failNext(int count) {
+        failuresToSimulate = count;
+    }
+
+    synchronized int failedPublications() {
+        return failedPublications;
+    }
+
+    /**
+     * Retourne tous les messages reçus, dans l'ordre de réception, doublons compris.
+     *
+     * @return les messages.
+     */
+    synchronized List<OutboxMessage> received() {
+        return List.copyOf(log);
+    }
+
+    /**
+     * Lit, pour un consommateur, les messages postérieurs à sa position validée, sans doublons.
+     *
+     * @param consumer le consommateur.
+     * @return les messages non encore validés, dans l'ordre.
+     */
+    synchronized List<OutboxMessage> poll(String consumer) {
+        long position = committed.getOrDefault(consumer, 0L);
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (OutboxMessage message : log) {
+            if (message.offset() > position) {
+                messages.add(message);
+                position = message.offset();
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Valide la position d'un consommateur.
+     *
+     * @param consumer le consommateur.
+     * @param offset   la position du dernier message traité.
+     */
+    void commit(String consumer, long offset) {
+        committed.merge(consumer, offset, Math::max);
+    }
+}
@@ -0,0 +1,115 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.services.OrderBook.Fill;
+import com.nnk.poseidon.services.OrderBook.Order;
+import com.nnk.poseidon.services.OrderBook.Side;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de l'appariement en mémoire du {@link MatchingEngine} : un thread par partition, chacun propriétaire
+ * des carnets de ses titres, comme dans le moteur ; l'enregistrement en base est exclu.
+ * <p>
+ * Les ordres simulés, achats et ventes de 1 à 100 unités à quelques centimes d'un prix de référence propre à
+ * chaque titre, se croisent souvent ; un ordre sur cinq est ensuite annulé. La latence est mesurée ordre par ordre.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=MatchingEngineBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+class MatchingEngineBenchmarkTest {
+
+    private static final int SECURITIES = 200;
+    private static final int ORDERS_PER_PARTITION = 1_000_000;
+    private static final int WARM_UP = 200_000;
+
+    /**
+     * Résultat d'une partition.
+     */
+    private record Result(long fills, long[] latencies) {
+    }
+
+    @Test
+    @DisplayName("Exécutions par seconde et p99 de la latence d'un ordre, une partition par processeur")
+    void matchingThroughputAndLatency() throws Exception {
+        int partitions = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        try {
+            long start = System.nanoTime();
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int index = 0; index < partitions; index++) {
+                int partition = index;
+                futures.add(executor.submit(() -> run(partition, partitions)));
+            }
+            long fills = 0;
+            long[] latencies = new long[0];
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                fills += result.fills();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + result.latencies().length);
+                System.arraycopy(result.latencies(), 0, latencies, offset, result.latencies().length);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            double p50 = latencies[latencies.length / 2] / 1e3;
+            double p99 = latencies[(int) (latencies.length * 0.99)] / 1e3;
+            System.out.printf("Appariement : %d partition(s), %,d ordres, %,d exécutions en %.2f s (%,.0f exécutions/s, "
+                            + "%,.0f ordres/s), p50 %.2f µs, p99 %.2f µs, max %.2f µs%n",
+                    partitions, (long) partitions * ORDERS_PER_PARTITION, fills, seconds, fills / seconds,
+                    partitions * ORDERS_PER_PARTITION / seconds, p50, p99, latencies[latencies.length - 1] / 1e3);
+
+            assertThat(fills).isGreaterThan((long) partitions * ORDERS_PER_PARTITION / 4);
+            assertThat(p99).isLessThan(100.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Apparie le flux d'ordres d'une partition ; seules les latences postérieures au préchauffage sont gardées.
+     */
+    private static Result run(int partition, int partitions) {
+        Random random = new Random(42 + partition);
+        int securities = Math.max(1, SECURITIES / partitions);
+        OrderBook[] books = new OrderBook[securities];
+        for (int i = 0; i < securities; i++) {
+            books[i] = new OrderBook("SEC-" + partition + "-" + i);
+        }
+        List<Fill> fills = new ArrayList<>();
+        long[] latencies = new long[ORDERS_PER_PARTITION - WARM_UP];
+        long fillCount = 0;
+        for (int id = 0; id < ORDERS_PER_PARTITION; id++) {
+            int security = random.nextInt(securities);
+            OrderBook book = books[security];
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            double price = 100 + security + (random.nextInt(21) - 10) / 100.0;
+            Order order = new Order(id, side, price, 1 + random.nextInt(100));
+            boolean cancel = random.nextInt(5) == 0;
+            long start = System.nanoTime();
+            book.submit(order, fills);
+            if (cancel) {
+                book.cancel(id, side);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (id >= WARM_UP) {
+                latencies[id - WARM_UP] = elapsed;
+            }
+            fillCount += fills.size();
+            fills.clear();
+        }
+        return new Result(fillCount, latencies);
+    }
+}
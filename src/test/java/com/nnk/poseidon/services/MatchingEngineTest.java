@@ -0,0 +1,173 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.BidList;
+import com.nnk.poseidon.domain.Trade;
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.repositories.BidListRepository;
+import com.nnk.poseidon.repositories.TradeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests d'intégration de {@link MatchingEngine} sur le schéma des migrations Flyway H2 : offres enregistrées par
+ * {@link BidListService}, trades créés par {@link TradeService}, quantités restantes relues en base.
+ * <p>
+ * Chaque test utilise son propre titre : les offres et les trades ne sont pas nettoyés entre les tests.
+ * </p>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "poseidon.matching.enabled=true",
+        "poseidon.matching.partitions=2"
+})
+@Import({BidListService.class, TradeService.class, TransactionBatchingExecutor.class, MatchingEngine.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MatchingEngineTest {
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private MatchingEngine matchingEngine;
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private BidListDTO buy(String account, String security, double price, double quantity) {
+        BidListDTO order = new BidListDTO(null, account, "SPOT", quantity, null);
+        order.setSecurity(security);
+        order.setBid(price);
+        return bidListService.save(order);
+    }
+
+    private BidListDTO sell(String account, String security, double price, double quantity) {
+        BidListDTO order = new BidListDTO(null, account, "SPOT", 0.0, null);
+        order.setSecurity(security);
+        order.setAsk(price);
+        order.setAskQuantity(quantity);
+        return bidListService.save(order);
+    }
+
+    private List<Trade> trades(MatchingEngine engine, String security) throws InterruptedException {
+        assertThat(engine.awaitIdle(5_000)).isTrue();
+        return tradeRepository.findAll().stream().filter(trade -> security.equals(trade.getSecurity())).toList();
+    }
+
+    private BidList reload(BidListDTO order) {
+        return bidListRepository.findById(order.getBidListId()).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Vente croisant un achat en attente : trade au prix de l'achat, quantités restantes enregistrées")
+    void crossingOrders_shouldCreateTradeAndUpdateRemainingQuantities() throws Exception {
+        String security = "MATCH-1";
+        BidListDTO buy = buy("ACC-BUYER", security, 100, 10);
+        BidListDTO sell = sell("ACC-SELLER", security, 99, 4);
+
+        assertThat(trades(matchingEngine, security)).singleElement().satisfies(trade -> {
+            assertThat(trade.getAccount()).isEqualTo("ACC-BUYER");
+            assertThat(trade.getBuyPrice()).isEqualTo(100);
+            assertThat(trade.getSellPrice()).isEqualTo(100);
+            assertThat(trade.getBuyQuantity()).isEqualTo(4);
+            assertThat(trade.getSide()).isEqualTo("SELL");
+            assertThat(trade.getSourceListId()).isEqualTo(buy.getBidListId() + "/" + sell.getBidListId());
+        });
+        assertThat(reload(buy).getBidQuantity()).isEqualTo(6);
+        assertThat(reload(buy).getStatus()).isNull();
+        assertThat(reload(sell).getAskQuantity()).isZero();
+        assertThat(reload(sell).getStatus()).isEqualTo(MatchingEngine.FILLED);
+    }
+
+    @Test
+    @DisplayName("Quantité augmentée : priorité perdue ; offre annulée : plus exécutée")
+    void updatedAndCancelledOrders_shouldFollowPriorityRules() throws Exception {
+        String security = "MATCH-2";
+        BidListDTO first = buy("ACC-FIRST", security, 100, 5);
+        BidListDTO second = buy("ACC-SECOND", security, 100, 5);
+        assertThat(trades(matchingEngine, security)).isEmpty();
+
+        first.setBidQuantity(6.0);
+        bidListService.save(first);
+        sell("ACC-SELLER", security, 100, 5);
+        assertThat(trades(matchingEngine, security)).singleElement()
+                .satisfies(trade -> assertThat(trade.getAccount()).isEqualTo("ACC-SECOND"));
+        assertThat(reload(second).getStatus()).isEqualTo(MatchingEngine.FILLED);
+
+        bidListService.updateStatus(List.of(first.getBidListId()), "Cancelled");
+        sell("ACC-SELLER", security, 100, 5);
+        assertThat(trades(matchingEngine, security)).hasSize(1);
+        assertThat(reload(first).getBidQuantity()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Quantité modifiée en base pendant l'appariement : exécutions annulées, rejouées sur la quantité enregistrée")
+    void concurrentQuantityChange_shouldNotOverExecute() throws Exception {
+        String security = "MATCH-4";
+        BidListDTO buy = buy("ACC-BUYER", security, 100, 10);
+        assertThat(trades(matchingEngine, security)).isEmpty();
+        // Écriture concurrente que le moteur n'a pas encore vue : son carnet porte toujours 10.
+        jdbcTemplate.update("UPDATE BidList SET bidQuantity = 3 WHERE BidListId = ?", buy.getBidListId());
+
+        BidListDTO sell = sell("ACC-SELLER", security, 100, 5);
+
+        assertThat(trades(matchingEngine, security)).singleElement()
+                .satisfies(trade -> assertThat(trade.getBuyQuantity()).isEqualTo(3));
+        assertThat(reload(buy).getBidQuantity()).isZero();
+        assertThat(reload(buy).getStatus()).isEqualTo(MatchingEngine.FILLED);
+        assertThat(reload(sell).getAskQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Démarrage : offres en attente rechargées, celles qui se croisent déjà sont exécutées")
+    void start_shouldMatchOpenOrdersAlreadyCrossing() throws Exception {
+        String security = "MATCH-3";
+        jdbcTemplate.update("INSERT INTO BidList (account, type, bidQuantity, bid, security) VALUES (?, 'SPOT', ?, ?, ?)",
+                "ACC-BUYER", 3.0, 50.0, security);
+        jdbcTemplate.update("INSERT INTO BidList (account, type, askQuantity, ask, security) VALUES (?, 'SPOT', ?, ?, ?)",
+                "ACC-SELLER", 3.0, 49.0, security);
+
+        MatchingEngine restarted = new MatchingEngine(bidListRepository, tradeService, entityManager, jdbcTemplate,
+                transactionManager, eventPublisher, 1, 100);
+        restarted.start();
+        try {
+            assertThat(trades(restarted, security)).singleElement().satisfies(trade -> {
+                assertThat(trade.getBuyPrice()).isEqualTo(50);
+                assertThat(trade.getSide()).isEqualTo("SELL");
+            });
+            assertThat(restarted.fillCount()).isEqualTo(1);
+        } finally {
+            restarted.stop();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.services.OrderBook.Fill;
+import com.nnk.poseidon.services.OrderBook.Order;
+import com.nnk.poseidon.services.OrderBook.Side;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests unitaires de {@link OrderBook} : priorité prix-temps, exécutions partielles et retraits.
+ */
+class OrderBookTest {
+
+    private OrderBook book;
+    private List<Fill> fills;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook("FR0000131104");
+        fills = new ArrayList<>();
+    }
+
+    private Order submit(int id, Side side, double price, double quantity) {
+        Order order = new Order(id, side, price, quantity);
+        book.submit(order, fills);
+        return order;
+    }
+
+    @Test
+    @DisplayName("Ordres qui ne se croisent pas : mis en attente, meilleurs prix de chaque côté")
+    void nonCrossingOrders_shouldRest() {
+        submit(1, Side.BUY, 99, 10);
+        submit(2, Side.BUY, 100, 10);
+        submit(3, Side.SELL, 101, 10);
+        submit(4, Side.SELL, 102, 10);
+
+        assertThat(fills).isEmpty();
+        assertThat(book.bestPrice(Side.BUY)).isEqualTo(100);
+        assertThat(book.bestPrice(Side.SELL)).isEqualTo(101);
+    }
+
+    @Test
+    @DisplayName("Ordre entrant : meilleur prix d'abord, puis ordre d'arrivée, au prix des ordres en attente")
+    void crossingOrder_shouldMatchInPriceTimePriority() {
+        submit(1, Side.SELL, 101, 5);
+        submit(2, Side.SELL, 100, 5);
+        submit(3, Side.SELL, 100, 5);
+        submit(4, Side.SELL, 102, 5);
+
+        Order buy = submit(5, Side.BUY, 101, 12);
+
+        assertThat(fills).extracting(fill -> fill.sell().id, Fill::price, Fill::quantity, Fill::aggressor)
+                .containsExactly(tuple(2, 100.0, 5.0, Side.BUY), tuple(3, 100.0, 5.0, Side.BUY),
+                        tuple(1, 101.0, 2.0, Side.BUY));
+        assertThat(buy.remaining).isZero();
+        assertThat(book.find(5, Side.BUY)).isNull();
+        assertThat(book.find(1, Side.SELL).remaining).isEqualTo(3);
+        assertThat(book.bestPrice(Side.SELL)).isEqualTo(101);
+    }
+
+    @Test
+    @DisplayName("Reste d'un ordre entrant partiellement exécuté : mis en attente à son prix")
+    void partiallyFilledOrder_shouldRestRemainder() {
+        submit(1, Side.BUY, 100, 4);
+
+        Order sell = submit(2, Side.SELL, 99, 10);
+
+        assertThat(fills).singleElement().satisfies(fill -> {
+            assertThat(fill.price()).isEqualTo(100);
+            assertThat(fill.aggressor()).isEqualTo(Side.SELL);
+        });
+        assertThat(book.find(2, Side.SELL)).isSameAs(sell);
+        assertThat(sell.remaining).isEqualTo(6);
+        assertThat(book.bestPrice(Side.BUY)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deux jambes d'une même offre : jamais exécutées entre elles")
+    void ordersOfSameBidList_shouldNotMatchEachOther() {
+        submit(1, Side.BUY, 100, 5);
+        submit(2, Side.BUY, 100, 5);
+
+        submit(1, Side.SELL, 99, 8);
+
+        assertThat(fills).singleElement().satisfies(fill -> {
+            assertThat(fill.buy().id).isEqualTo(2);
+            assertThat(fill.quantity()).isEqualTo(5);
+        });
+        assertThat(book.find(1, Side.BUY).remaining).isEqualTo(5);
+        assertThat(book.find(1, Side.SELL).remaining).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Ordre retiré : plus exécuté, niveau de prix supprimé s'il est vide")
+    void cancelledOrder_shouldNotMatch() {
+        submit(1, Side.SELL, 100, 5);
+        submit(2, Side.SELL, 101, 5);
+
+        assertThat(book.cancel(1, Side.SELL)).isNotNull();
+        assertThat(book.cancel(1, Side.SELL)).isNull();
+        submit(3, Side.BUY, 101, 5);
+
+        assertThat(fills).extracting(fill -> fill.sell().id).containsExactly(2);
+        assertThat(book.isEmpty()).isTrue();
+    }
+}
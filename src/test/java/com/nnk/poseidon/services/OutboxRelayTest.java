@@ -0,0 +1,226 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.TradeDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie l'outbox transactionnel : ligne écrite dans la transaction de l'écriture, relais ordonné vers
+ * les destinations avec position par consommateur, republication après un échec, et publication d'une
+ * ligne validée après l'attente de son trou.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "poseidon.outbox.enabled=true",
+        "poseidon.outbox.file.enabled=true",
+        "poseidon.outbox.poll-interval-ms=20",
+        "poseidon.outbox.gap-timeout-ms=200",
+        "poseidon.outbox.batch-size=3"})
+@Import({TradeService.class, BidListService.class, TransactionalOutbox.class, OutboxRelay.class,
+        FileOutboxSink.class, InMemoryOutboxBroker.class, TransactionBatchingExecutor.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    private static final Path DIRECTORY = createDirectory();
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private InMemoryOutboxBroker broker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("outbox");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void outboxDirectory(DynamicPropertyRegistry registry) {
+        registry.add("poseidon.outbox.file.directory", DIRECTORY::toString);
+    }
+
+    private static TradeDTO trade(String account, Double buyQuantity) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(buyQuantity);
+        return trade;
+    }
+
+    /**
+     * Le relais publie de façon asynchrone : attend que la condition soit vérifiée.
+     */
+    private static <T> T await(Supplier<T> supplier, Predicate<T> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        T value = supplier.get();
+        while (!condition.test(value) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            value = supplier.get();
+        }
+        return value;
+    }
+
+    private List<String> outboxEventTypes(String aggregateType, Integer aggregateId) {
+        return jdbcTemplate.queryForList("SELECT eventType FROM OutboxEvent WHERE aggregateType = ? AND aggregateId = ? ORDER BY Id",
+                String.class, aggregateType, aggregateId);
+    }
+
+    @Test
+    @DisplayName("Les écritures validées ajoutent une ligne à l'outbox ; une écriture annulée n'en laisse aucune")
+    void writes_shouldAppendToOutboxInSameTransaction() {
+        TradeDTO created = tradeService.saveTrade(trade("ACC-OUTBOX", 1.0));
+        tradeService.updateTrade(created.getTradeId(), trade("ACC-OUTBOX-2", 2.0));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tradeService.updateTrade(created.getTradeId(), trade("ACC-LOST", 3.0));
+            status.setRollbackOnly();
+        });
+        BidListDTO bid = bidListService.save(new BidListDTO(null, "ACC-BID", "SPOT", 5.0, null));
+
+        assertThat(outboxEventTypes(EntityAuditedEvent.TRADE, created.getTradeId())).containsExactly("CREATE", "UPDATE");
+        assertThat(outboxEventTypes(EntityAuditedEvent.BID_LIST, bid.getBidListId())).containsExactly("CREATE");
+        assertThat(jdbcTemplate.queryForObject("SELECT payload FROM OutboxEvent WHERE aggregateType = 'Trade' AND aggregateId = ? "
+                + "AND eventType = 'UPDATE'", String.class, created.getTradeId())).contains("\"account\":\"ACC-OUTBOX-2\"");
+    }
+
+    @Test
+    @DisplayName("Le relais publie dans l'ordre vers chaque destination, republie après un échec et avance sa position")
+    void relay_shouldDeliverInOrderAtLeastOnce() throws Exception {
+        broker.failNext(1);
+        TradeDTO created = tradeService.saveTrade(trade("ACC-RELAY", 1.0));
+        for (int i = 2; i <= 5; i++) {
+            tradeService.updateTrade(created.getTradeId(), trade("ACC-RELAY", (double) i));
+        }
+        tradeService.deleteTradeById(created.getTradeId());
+        long lastId = jdbcTemplate.queryForObject("SELECT MAX(Id) FROM OutboxEvent", Long.class);
+
+        List<OutboxMessage> received = await(() -> broker.poll("risk"),
+                messages -> !messages.isEmpty() && messages.get(messages.size() - 1).offset() >= lastId);
+        List<OutboxMessage> relayed = received.stream()
+                .filter(message -> message.aggregateId().equals(created.getTradeId()))
+                .toList();
+
+        assertThat(broker.failedPublications()).isEqualTo(1);
+        assertThat(received).extracting(OutboxMessage::offset).isSorted().doesNotHaveDuplicates();
+        assertThat(relayed).extracting(OutboxMessage::eventType)
+                .containsExactly("CREATE", "UPDATE", "UPDATE", "UPDATE", "UPDATE", "DELETE");
+        assertThat(relayed.get(4).payload()).contains("\"buyQuantity\":5.0");
+        assertThat(relayed.get(5).payload()).isNull();
+        assertThat(await(() -> jdbcTemplate.queryForObject("SELECT lastId FROM OutboxOffset WHERE consumer = 'memory'", Long.class),
+                offset -> offset == lastId)).isEqualTo(lastId);
+
+        broker.commit("risk", lastId);
+        assertThat(broker.poll("risk")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Une ligne validée après l'attente de son trou est publiée en retard, pas perdue")
+    void lateCommit_shouldBeDeliveredAfterGapTimeout() throws Exception {
+        // Position établie : une destination nouvelle commencerait à la première ligne visible, sans trou.
+        TradeDTO before = tradeService.saveTrade(trade("ACC-BEFORE", 1.0));
+        await(broker::received, messages -> messages.stream()
+                .anyMatch(message -> message.aggregateId().equals(before.getTradeId())));
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Transaction lente : son identifiant est attribué, mais la ligne n'est visible qu'à son commit.
+            Future<Long> slow = executor.submit(() -> transaction.execute(status -> {
+                jdbcTemplate.update("INSERT INTO OutboxEvent (aggregateType, aggregateId, eventType, occurredAt) "
+                        + "VALUES ('Trade', -1, 'UPDATE', CURRENT_TIMESTAMP)");
+                Long id = jdbcTemplate.queryForObject("SELECT MAX(Id) FROM OutboxEvent WHERE aggregateId = -1", Long.class);
+                inserted.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return id;
+            }));
+            assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+            TradeDTO fast = tradeService.saveTrade(trade("ACC-FAST", 1.0));
+            List<OutboxMessage> received = await(broker::received, messages -> messages.stream()
+                    .anyMatch(message -> message.aggregateId().equals(fast.getTradeId())));
+            assertThat(received).anyMatch(message -> message.aggregateId().equals(fast.getTradeId()));
+            // Au-delà de l'attente du trou (200 ms), la position a dépassé la ligne encore invisible.
+            Thread.sleep(400);
+            long skipped = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM OutboxGap WHERE consumer = 'memory'", Long.class);
+            assertThat(skipped).isPositive();
+
+            commit.countDown();
+            long slowId = slow.get(5, TimeUnit.SECONDS);
+            assertThat(await(broker::received, messages -> messages.stream().anyMatch(message -> message.offset() == slowId)))
+                    .filteredOn(message -> message.offset() == slowId).singleElement()
+                    .satisfies(message -> assertThat(message.aggregateId()).isEqualTo(-1));
+            assertThat(await(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM OutboxGap WHERE Id = ?", Long.class, slowId),
+                    count -> count == 0)).isZero();
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("La destination fichier écrit un message JSON par ligne, avec sa position")
+    void fileSink_shouldAppendJsonLines() throws Exception {
+        BidListDTO bid = bidListService.save(new BidListDTO(null, "ACC-FILE", "SPOT", 7.0, null));
+        Path file = DIRECTORY.resolve("changes.jsonl");
+        String marker = "\"aggregateType\":\"BidList\",\"aggregateId\":" + bid.getBidListId() + ",";
+
+        List<String> lines = await(() -> readLines(file), content -> content.stream().anyMatch(line -> line.contains(marker)));
+
+        assertThat(lines).filteredOn(line -> line.contains(marker)).singleElement().satisfies(line -> {
+            assertThat(line).startsWith("{\"offset\":");
+            assertThat(line).contains("\"eventType\":\"CREATE\"", "\"payload\":{", "\"account\":\"ACC-FILE\"");
+        });
+    }
+
+    private static List<String> readLines(Path file) {
+        try {
+            return Files.exists(file) ? Files.readAllLines(file) : List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
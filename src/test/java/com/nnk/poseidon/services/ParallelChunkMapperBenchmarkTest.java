@@ -0,0 +1,107 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.Trade;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.repositories.IdRange;
+import com.nnk.poseidon.repositories.TradeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de la lecture complète des trades (500 000 lignes) : lecture et conversion sur le thread appelant,
+ * puis par plages de 10 000 identifiants avec 1 à 32 threads.
+ * <p>
+ * L'accélération n'est significative que sur une machine disposant d'autant de cœurs que de threads ; le nombre
+ * de processeurs disponibles est affiché avec les résultats.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=ParallelChunkMapperBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ParallelChunkMapperBenchmarkTest {
+
+    private static final int ROWS = 500_000;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int[] PARALLELISM = {1, 2, 4, 8, 16, 32};
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static TradeDTO toDTO(Trade trade) {
+        TradeDTO dto = new TradeDTO();
+        BeanUtils.copyProperties(trade, dto);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Lecture complète de 500 000 trades, séquentielle puis par plages en parallèle")
+    void parallelScaling() {
+        insertTrades();
+        IdRange range = tradeRepository.findIdRange();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.execute(status -> tradeRepository.findAll().stream().map(ParallelChunkMapperBenchmarkTest::toDTO).toList()); // préchauffage
+        long start = System.nanoTime();
+        List<TradeDTO> sequential = readOnly.execute(status ->
+                tradeRepository.findAll().stream().map(ParallelChunkMapperBenchmarkTest::toDTO).toList());
+        long sequentialMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("%d processeurs disponibles%nSéquentiel : %,d ms%n",
+                Runtime.getRuntime().availableProcessors(), sequentialMillis);
+
+        for (int parallelism : PARALLELISM) {
+            ParallelChunkMapper mapper = new ParallelChunkMapper(transactionManager, parallelism, CHUNK_SIZE, 0);
+            try {
+                mapper.map(range, tradeRepository::findByTradeIdBetween, ParallelChunkMapperBenchmarkTest::toDTO); // préchauffage
+                start = System.nanoTime();
+                List<TradeDTO> parallel = mapper.map(range, tradeRepository::findByTradeIdBetween,
+                        ParallelChunkMapperBenchmarkTest::toDTO);
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.printf("%2d threads : %,d ms (x%.1f)%n", parallelism, millis, (double) sequentialMillis / millis);
+                assertThat(parallel).hasSameSizeAs(sequential);
+            } finally {
+                mapper.shutdown();
+            }
+        }
+    }
+
+    private void insertTrades() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{"ACC-" + (i % 500), "SPOT", (double) i, 100.0 + i % 50, "Book " + (i % 20),
+                    "Trader " + (i % 40), "OPEN", now});
+            if (rows.size() == CHUNK_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO Trade (account, type, buyQuantity, buyPrice, book, trader, status, creationDate) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        assertThat(tradeRepository.count()).isEqualTo(ROWS);
+    }
+}
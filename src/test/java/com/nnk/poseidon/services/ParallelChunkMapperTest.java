@@ -0,0 +1,118 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.repositories.IdRange;
+import com.nnk.poseidon.repositories.TradeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la lecture parallèle par plages d'identifiants : résultat complet et ordonné malgré les trous, et
+ * chaque morceau lu dans sa propre transaction en lecture seule, sur les threads du pool.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "poseidon.parallel-mapping.parallelism=3",
+        "poseidon.parallel-mapping.chunk-size=4",
+        "poseidon.parallel-mapping.threshold=10"})
+@Import({TradeService.class, BidListService.class, ParallelChunkMapper.class, TransactionBatchingExecutor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ParallelChunkMapperTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private ParallelChunkMapper parallelChunkMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static TradeDTO trade(String account) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(1.0);
+        return trade;
+    }
+
+    @Test
+    @DisplayName("Au-delà du seuil, tous les trades sont renvoyés par identifiant croissant, trous compris")
+    void findAllTrades_shouldMergeChunksInIdOrder() {
+        List<Integer> ids = IntStream.range(0, 30)
+                .mapToObj(i -> tradeService.saveTrade(trade("ACC-CHUNK-" + i)).getTradeId())
+                .toList();
+        tradeService.deleteTrades(List.of(ids.get(3), ids.get(4), ids.get(5), ids.get(6), ids.get(20)));
+        List<TradeDTO> expected = new ArrayList<>();
+        tradeService.streamAll(expected::add);
+        expected.sort(Comparator.comparing(TradeDTO::getTradeId));
+
+        assertThat(tradeService.findAllTrades()).isEqualTo(expected);
+        assertThat(bidListService.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Chaque morceau est lu et converti sur un thread du pool, dans sa propre transaction en lecture seule")
+    void map_shouldFetchEachChunkInItsOwnReadOnlyTransaction() {
+        IntStream.range(0, 12).forEach(i -> tradeService.saveTrade(trade("ACC-TX-" + i)));
+        IdRange range = tradeRepository.findIdRange();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Set<String> transactions = ConcurrentHashMap.newKeySet();
+
+        List<Integer> mapped = parallelChunkMapper.map(range, (from, to) -> {
+            threads.add(Thread.currentThread().getName());
+            assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+            transactions.add(Thread.currentThread().getName() + "@" + from);
+            return tradeRepository.findByTradeIdBetween(from, to);
+        }, trade -> trade.getTradeId());
+
+        assertThat(mapped).isSorted().doesNotHaveDuplicates().hasSize((int) range.count());
+        assertThat(threads).allMatch(name -> name.startsWith("dto-mapper-"));
+        assertThat(transactions).hasSize((int) ((range.max() - range.min()) / 4 + 1));
+        assertThat(new ParallelChunkMapper(transactionManager, 1, 4, 10).shouldSplit(range)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Appelant en transaction : les morceaux sont lus par lui-même, sans connexion supplémentaire")
+    void map_insideTransaction_shouldReadChunksOnCallerThread() {
+        IntStream.range(0, 12).forEach(i -> tradeService.saveTrade(trade("ACC-CALLER-" + i)));
+        String caller = Thread.currentThread().getName();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Integer> mapped = readOnly.execute(status -> {
+            IdRange range = tradeRepository.findIdRange();
+            return parallelChunkMapper.map(range, (from, to) -> {
+                threads.add(Thread.currentThread().getName());
+                return tradeRepository.findByTradeIdBetween(from, to);
+            }, trade -> trade.getTradeId());
+        });
+
+        assertThat(mapped).isSorted().doesNotHaveDuplicates().hasSize((int) tradeRepository.count());
+        assertThat(threads).containsExactly(caller);
+    }
+}
@@ -0,0 +1,270 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.AuditEventDTO;
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.BidListFilter;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.dto.TradeFilter;
+import com.nnk.poseidon.repositories.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Budgets de requêtes et de temps des services {@link TradeService} et {@link BidListService}, sur le schéma des
+ * migrations Flyway H2 alimenté de {@value #SEED_ROWS} trades et offres.
+ * <p>
+ * Les tests de contrôleurs simulent les services : une requête N+1 ou une relecture ajoutée dans un service n'y
+ * apparaît pas. Ici, chaque appel de service est mesuré avec les requêtes SQL émises par Hibernate
+ * ({@link SqlStatementRecorder}) et sa durée ; un dépassement de budget fait échouer le build. Le plan
+ * d'exécution des requêtes filtrées (index plutôt que parcours complet) est vérifié par
+ * {@code SecondaryIndexPlanTest}.
+ * </p>
+ * <p>
+ * Les durées maximales sont larges, pour ne signaler que les écarts d'ordre de grandeur sur une machine de build
+ * chargée ; une lecture est mesurée après un premier appel de préchauffage.
+ * </p>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.nnk.poseidon.repositories.SqlStatementRecorder"
+})
+@Import({TradeService.class, BidListService.class, TransactionBatchingExecutor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryBudgetTest {
+
+    private static final int SEED_ROWS = 5_000;
+    private static final int HISTORY_ENTRIES = 25;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Résultat d'un appel mesuré.
+     *
+     * @param result     la valeur renvoyée par l'appel.
+     * @param statements les requêtes émises par Hibernate pendant l'appel.
+     * @param millis     la durée de l'appel.
+     */
+    private record Measured<T>(T result, List<String> statements, long millis) {
+    }
+
+    /**
+     * Exécute l'appel en enregistrant ses requêtes et sa durée, puis vérifie les deux budgets.
+     */
+    private static <T> Measured<T> withinBudget(String operation, int maxStatements, long maxMillis, Supplier<T> call) {
+        SqlStatementRecorder.clear();
+        long start = System.nanoTime();
+        T result = call.get();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        List<String> statements = SqlStatementRecorder.statements();
+        assertThat(statements).as("requêtes de %s", operation).hasSizeLessThanOrEqualTo(maxStatements);
+        assertThat(millis).as("durée de %s (ms)", operation).isLessThanOrEqualTo(maxMillis);
+        return new Measured<>(result, statements, millis);
+    }
+
+    private static <T> Measured<T> readWithinBudget(String operation, int maxStatements, long maxMillis, Supplier<T> call) {
+        call.get();
+        return withinBudget(operation, maxStatements, maxMillis, call);
+    }
+
+    /**
+     * Alimente les tables une seule fois : le contexte, et donc la base en mémoire, est partagé par les tests.
+     */
+    @BeforeEach
+    void seed() {
+        Integer trades = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Trade", Integer.class);
+        if (trades != null && trades >= SEED_ROWS) {
+            return;
+        }
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < SEED_ROWS; i++) {
+            rows.add(new Object[]{"ACC-" + (i % 100), "Book-" + (i % 10), "SEC-" + (i % 50), "Trader-" + (i % 20),
+                    base.plusMinutes(i), i % 4 == 0 ? "OPEN" : "CLOSED"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO Trade (account, type, buyQuantity, book, security, trader, tradeDate, status)"
+                + " VALUES (?, 'SPOT', 10, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.batchUpdate("INSERT INTO BidList (account, type, bidQuantity, book, security, creationDate, status)"
+                        + " VALUES (?, 'SPOT', 10, ?, ?, ?, ?)",
+                rows.stream().map(row -> new Object[]{row[0], row[1], row[2], row[4], row[5]}).toList());
+        Integer firstTrade = firstTradeId();
+        List<Object[]> history = new ArrayList<>();
+        for (int i = 0; i < HISTORY_ENTRIES; i++) {
+            history.add(new Object[]{firstTrade, base.plusMinutes(i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO AuditEvent (entityType, entityId, action, actor, occurredAt, changes)"
+                + " VALUES ('" + EntityAuditedEvent.TRADE + "', ?, 'UPDATE', 'budget', ?, '{}')", history);
+    }
+
+    private Integer firstTradeId() {
+        return jdbcTemplate.queryForObject("SELECT MIN(TradeId) FROM Trade", Integer.class);
+    }
+
+    private Integer firstBidListId() {
+        return jdbcTemplate.queryForObject("SELECT MIN(BidListId) FROM BidList", Integer.class);
+    }
+
+    private static TradeDTO trade(String account) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(5.0);
+        return trade;
+    }
+
+    private static BidListDTO bid(String account) {
+        BidListDTO bid = new BidListDTO();
+        bid.setAccount(account);
+        bid.setType("SPOT");
+        bid.setBidQuantity(5.0);
+        return bid;
+    }
+
+    @Test
+    @DisplayName("Trade : lecture par identifiant en une requête au plus")
+    void findTradeById_shouldIssueAtMostOneQuery() {
+        Integer id = firstTradeId();
+        Measured<Optional<TradeDTO>> found = readWithinBudget("findTradeById", 1, 100, () -> tradeService.findTradeById(id));
+        assertThat(found.result()).isPresent();
+    }
+
+    @Test
+    @DisplayName("Trade : liste complète en une requête, sans chargement ligne à ligne")
+    void findAllTrades_shouldIssueOneQuery() {
+        Measured<List<TradeDTO>> all = readWithinBudget("findAllTrades", 1, 2_000, tradeService::findAllTrades);
+        assertThat(all.result()).hasSizeGreaterThanOrEqualTo(SEED_ROWS);
+    }
+
+    @Test
+    @DisplayName("Trade : chaque filtre en une requête")
+    void findTrades_shouldIssueOneQueryPerFilter() {
+        assertThat(readWithinBudget("findTrades(account)", 1, 200,
+                () -> tradeService.findTrades(new TradeFilter("ACC-7", null, null, null, null, null, null))).result())
+                .hasSizeGreaterThanOrEqualTo(SEED_ROWS / 100);
+        assertThat(readWithinBudget("findTrades(book, security)", 1, 200,
+                () -> tradeService.findTrades(new TradeFilter(null, "Book-3", "SEC-3", null, null, null, null))).result())
+                .isNotEmpty();
+        assertThat(readWithinBudget("findTrades(trader, période)", 1, 200,
+                () -> tradeService.findTrades(new TradeFilter(null, null, null, "Trader-5",
+                        LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 2, 0, 0), null))).result())
+                .isNotEmpty();
+        assertThat(readWithinBudget("findTrades(status)", 1, 1_000,
+                () -> tradeService.findTrades(new TradeFilter(null, null, null, null, null, null, "OPEN"))).result())
+                .hasSizeGreaterThanOrEqualTo(SEED_ROWS / 4);
+    }
+
+    @Test
+    @DisplayName("Trade : une page d'historique en deux requêtes au plus (page et total)")
+    void findTradeHistory_shouldIssueAtMostTwoQueries() {
+        Integer id = firstTradeId();
+        Measured<Page<AuditEventDTO>> page = readWithinBudget("findTradeHistory", 2, 100,
+                () -> tradeService.findTradeHistory(id, 1, 10));
+        assertThat(page.result().getContent()).hasSize(10);
+        assertThat(page.result().getTotalElements()).isEqualTo(HISTORY_ENTRIES);
+    }
+
+    @Test
+    @DisplayName("Trade : recherche par préfixe sans index de recherche en une requête")
+    void searchTrades_shouldIssueOneQuery() {
+        Measured<List<TradeDTO>> found = readWithinBudget("searchTrades", 1, 200,
+                () -> tradeService.searchTrades("acc-4", 20));
+        assertThat(found.result()).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("Trade : création en une insertion, mise à jour en une lecture et une modification")
+    void saveAndUpdateTrade_shouldStayWithinStatementBudget() {
+        TradeDTO created = withinBudget("saveTrade (création)", 1, 200,
+                () -> tradeService.saveTrade(trade("ACC-BUDGET"))).result();
+
+        created.setBuyQuantity(7.0);
+        Measured<TradeDTO> replaced = withinBudget("saveTrade (remplacement)", 2, 200,
+                () -> tradeService.saveTrade(created));
+        assertThat(replaced.statements()).last().asString().startsWithIgnoringCase("update");
+
+        Measured<?> updated = withinBudget("updateTrade", 2, 200,
+                () -> tradeService.updateTrade(created.getTradeId(), trade("ACC-BUDGET-2")));
+        assertThat(updated.statements()).first().asString().startsWithIgnoringCase("select");
+        assertThat(updated.statements()).last().asString().startsWithIgnoringCase("update");
+    }
+
+    @Test
+    @DisplayName("Trade : suppression unitaire en une requête, écritures groupées après verrouillage des trades existants")
+    void bulkTradeWrites_shouldIssueOneStatement() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(tradeService.saveTrade(trade("ACC-BULK")).getTradeId());
+        }
+        Measured<Integer> updated = withinBudget("updateTradeStatus", 2, 200,
+                () -> tradeService.updateTradeStatus(ids, "BLOCKED"));
+        assertThat(updated.statements()).first().asString().containsIgnoringCase("for update");
+        withinBudget("deleteTradeById", 1, 200, () -> {
+            tradeService.deleteTradeById(ids.get(0));
+            return null;
+        });
+        Measured<Integer> deleted = withinBudget("deleteTrades", 2, 200,
+                () -> tradeService.deleteTrades(ids.subList(1, ids.size())));
+        assertThat(deleted.result()).isEqualTo(ids.size() - 1);
+    }
+
+    @Test
+    @DisplayName("BidList : lecture par identifiant, liste complète et filtres en une requête chacun")
+    void bidListReads_shouldIssueOneQuery() {
+        Integer id = firstBidListId();
+        assertThat(readWithinBudget("findById", 1, 100, () -> bidListService.findById(id)).result()).isPresent();
+        assertThat(readWithinBudget("findAll", 1, 2_000, bidListService::findAll).result())
+                .hasSizeGreaterThanOrEqualTo(SEED_ROWS);
+        assertThat(readWithinBudget("findAll(account)", 1, 200,
+                () -> bidListService.findAll(new BidListFilter("ACC-9", null, null, null))).result())
+                .hasSizeGreaterThanOrEqualTo(SEED_ROWS / 100);
+        assertThat(readWithinBudget("findAll(book)", 1, 500,
+                () -> bidListService.findAll(new BidListFilter(null, "Book-2", null, null))).result())
+                .hasSizeGreaterThanOrEqualTo(SEED_ROWS / 10);
+    }
+
+    @Test
+    @DisplayName("BidList : création en une insertion, mise à jour et écritures groupées en deux requêtes")
+    void bidListWrites_shouldStayWithinStatementBudget() {
+        BidListDTO created = withinBudget("save (création)", 1, 200, () -> bidListService.save(bid("ACC-BUDGET"))).result();
+
+        created.setBidQuantity(9.0);
+        Measured<BidListDTO> updated = withinBudget("save (mise à jour)", 2, 200, () -> bidListService.save(created));
+        assertThat(updated.statements()).first().asString().startsWithIgnoringCase("select");
+        assertThat(updated.statements()).last().asString().startsWithIgnoringCase("update");
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(bidListService.save(bid("ACC-BULK")).getBidListId());
+        }
+        withinBudget("updateStatus", 2, 200, () -> bidListService.updateStatus(ids, "BLOCKED"));
+        withinBudget("deleteById", 1, 200, () -> {
+            bidListService.deleteById(created.getBidListId());
+            return null;
+        });
+        assertThat(withinBudget("deleteAllById", 2, 200, () -> bidListService.deleteAllById(ids)).result())
+                .isEqualTo(ids.size());
+    }
+}
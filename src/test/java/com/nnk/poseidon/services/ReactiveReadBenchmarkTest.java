@@ -0,0 +1,238 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark comparant, pour de nombreux tableaux de bord lisant simultanément toute la table des trades, la
+ * lecture bloquante de l'API MVC (un thread et une connexion JDBC par requête, liste complète en mémoire) et la
+ * lecture réactive sur R2DBC ({@link ReactiveReadService}).
+ * <p>
+ * Les deux chemins disposent de pools de 10 connexions ; le pool JDBC refuse une requête après 3 s d'attente,
+ * comme en production. Chaque client sérialise les trades reçus en JSON. Sont mesurés la durée totale, le nombre
+ * de requêtes refusées, le pic de threads vivants et le pic de mémoire occupée. Par défaut la base est un
+ * fichier H2 sous {@code target/} (dont le pilote R2DBC s'exécute sur le thread appelant) ; MySQL, avec son
+ * pilote R2DBC non bloquant, peut être ciblé avec {@code -Dloadtest.jdbc-url=... -Dloadtest.r2dbc-url=...
+ * -Dloadtest.username=... -Dloadtest.password=...}, sur un schéma déjà migré.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=ReactiveReadBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+class ReactiveReadBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int CLIENTS = 200;
+    private static final int POOL_SIZE = 10;
+
+    private final ObjectWriter writer = new ObjectMapper().registerModule(new JavaTimeModule()).writerFor(TradeDTO.class);
+
+    @Test
+    @DisplayName("200 tableaux de bord lisant toute la table des trades : lecture bloquante contre lecture réactive")
+    void compareBlockingAndReactiveReads() throws Exception {
+        String username = System.getProperty("loadtest.username", "sa");
+        String password = System.getProperty("loadtest.password", "");
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("loadtest.jdbc-url", "jdbc:h2:file:./target/loadtest/reactive"));
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(POOL_SIZE);
+            dataSource.setConnectionTimeout(3000);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            if (System.getProperty("loadtest.jdbc-url") == null) {
+                Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").cleanDisabled(false).load().clean();
+                Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+                insertTrades(jdbcTemplate);
+            }
+
+            ConnectionFactoryOptions options = ConnectionFactoryOptions
+                    .parse(System.getProperty("loadtest.r2dbc-url", "r2dbc:h2:file:///./target/loadtest/reactive"))
+                    .mutate()
+                    .option(ConnectionFactoryOptions.USER, username)
+                    .option(ConnectionFactoryOptions.PASSWORD, password)
+                    .build();
+            ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                    .maxSize(POOL_SIZE).build());
+            try {
+                ReactiveReadService reactiveReadService = new ReactiveReadService(DatabaseClient.create(pool), 256);
+
+                blocking(jdbcTemplate); // préchauffage
+                reactive(reactiveReadService);
+                Result blocking = blocking(jdbcTemplate);
+                Result reactive = reactive(reactiveReadService);
+
+                System.out.printf("Lecture bloquante : %s%nLecture réactive  : %s%n", blocking, reactive);
+                assertThat(reactive.refused()).isZero();
+                assertThat(reactive.bytes()).isGreaterThanOrEqualTo(blocking.bytes());
+                assertThat(reactive.peakThreads()).isLessThan(blocking.peakThreads());
+            } finally {
+                pool.dispose();
+            }
+        }
+    }
+
+    private static void insertTrades(JdbcTemplate jdbcTemplate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = IntStream.range(0, ROWS)
+                .mapToObj(i -> new Object[]{"ACC-" + (i % 500), "SPOT", (double) i, 100.0 + i % 50, "Book " + (i % 20),
+                        "Trader " + (i % 40), "OPEN", now})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO Trade (account, type, buyQuantity, buyPrice, book, trader, status, creationDate) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Chemin bloquant : un thread par client (comme Tomcat), qui attend une connexion JDBC, charge la liste
+     * complète puis l'écrit.
+     */
+    private Result blocking(JdbcTemplate jdbcTemplate) throws Exception {
+        BeanPropertyRowMapper<TradeDTO> mapper = new BeanPropertyRowMapper<>(TradeDTO.class);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountingOutputStream out = new CountingOutputStream();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger refused = new AtomicInteger();
+        try (Measurement measurement = new Measurement()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                futures.add(clients.submit(() -> {
+                    startSignal.await();
+                    try {
+                        List<TradeDTO> trades = jdbcTemplate.query("SELECT * FROM Trade ORDER BY TradeId", mapper);
+                        for (TradeDTO trade : trades) {
+                            writer.writeValue(out, trade);
+                        }
+                    } catch (CannotGetJdbcConnectionException e) {
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return measurement.result(refused.get(), out.count.get());
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    /**
+     * Chemin réactif : chaque client s'abonne au flux et écrit les trades au fil de leur lecture.
+     */
+    private Result reactive(ReactiveReadService reactiveReadService) {
+        CountingOutputStream out = new CountingOutputStream();
+        try (Measurement measurement = new Measurement()) {
+            Flux.range(0, CLIENTS)
+                    .flatMap(client -> reactiveReadService.streamTrades().doOnNext(trade -> {
+                        try {
+                            writer.writeValue(out, trade);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }).then(), CLIENTS)
+                    .blockLast(Duration.ofMinutes(5));
+            return measurement.result(0, out.count.get());
+        }
+    }
+
+    private record Result(long millis, int refused, int peakThreads, long peakHeapBytes, long bytes) {
+        @Override
+        public String toString() {
+            return String.format("%,d ms, %d requêtes refusées, pic de %d threads, pic de %,d Mo de tas, %,d Mo écrits",
+                    millis, refused, peakThreads, peakHeapBytes >> 20, bytes >> 20);
+        }
+    }
+
+    /**
+     * Mesure la durée, le pic de threads vivants et le pic de mémoire occupée (échantillonné toutes les 5 ms).
+     */
+    private static final class Measurement implements AutoCloseable {
+
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final AtomicLong peakHeap = new AtomicLong();
+        private final Thread sampler;
+        private final long start;
+        private volatile boolean sampling = true;
+
+        Measurement() {
+            System.gc();
+            threads.resetPeakThreadCount();
+            Runtime runtime = Runtime.getRuntime();
+            sampler = new Thread(() -> {
+                while (sampling) {
+                    peakHeap.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.start();
+            start = System.nanoTime();
+        }
+
+        Result result(int refused, long bytes) {
+            return new Result(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), refused, threads.getPeakThreadCount(),
+                    peakHeap.get(), bytes);
+        }
+
+        @Override
+        public void close() {
+            sampling = false;
+            sampler.interrupt();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void write(int b) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count.addAndGet(len);
+        }
+    }
+}
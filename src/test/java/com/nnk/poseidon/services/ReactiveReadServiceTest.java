@@ -0,0 +1,138 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.config.ReactiveReadConfig;
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.CurvePointDTO;
+import com.nnk.poseidon.dto.TradeDTO;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie les lectures réactives sur R2DBC : mêmes DTO que les services bloquants, sur la même base, et
+ * lecture au rythme de la demande du client.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // Base nommée, dont l'URL sert aussi à la connexion R2DBC.
+        "spring.test.database.replace=none",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:reactive-read;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "poseidon.reactive.enabled=true",
+        "poseidon.reactive.prefetch=4"})
+@Import({ReactiveReadConfig.class, ReactiveReadService.class, TradeService.class, BidListService.class,
+        CurvePointService.class, TransactionBatchingExecutor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReactiveReadServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ReactiveReadService reactiveReadService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private CurvePointService curvePointService;
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    private static TradeDTO trade(String account, Double buyQuantity) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(buyQuantity);
+        trade.setTrader("Ken Sato");
+        return trade;
+    }
+
+    @Test
+    @DisplayName("Les trades et les offres lus sur R2DBC sont identiques à ceux des services bloquants")
+    void streams_shouldMatchBlockingServices() {
+        IntStream.range(0, 12).forEach(i -> tradeService.saveTrade(trade("ACC-R-" + i, (double) i)));
+        bidListService.save(new BidListDTO(null, "ACC-BID-R", "SPOT", 3.0, null));
+
+        List<TradeDTO> expectedTrades = tradeService.findAllTrades().stream()
+                .sorted(Comparator.comparing(TradeDTO::getTradeId)).toList();
+        List<BidListDTO> expectedBids = bidListService.findAll().stream()
+                .sorted(Comparator.comparing(BidListDTO::getBidListId)).toList();
+
+        assertThat(reactiveReadService.streamTrades().collectList().block(TIMEOUT)).isEqualTo(expectedTrades);
+        assertThat(reactiveReadService.streamBids().collectList().block(TIMEOUT)).isEqualTo(expectedBids);
+    }
+
+    @Test
+    @DisplayName("Les points d'une courbe sont diffusés par date de valeur puis par terme")
+    void streamCurvePoints_shouldFilterAndOrder() {
+        LocalDateTime today = LocalDateTime.of(2024, 5, 2, 0, 0);
+        curvePointService.save(new CurvePointDTO(null, 41, today, 10.0, 1.5, null));
+        curvePointService.save(new CurvePointDTO(null, 41, today.minusDays(1), 5.0, 1.1, null));
+        curvePointService.save(new CurvePointDTO(null, 41, today, 2.0, 1.2, null));
+        curvePointService.save(new CurvePointDTO(null, 42, today, 1.0, 9.9, null));
+
+        List<CurvePointDTO> points = reactiveReadService.streamCurvePoints(41).collectList().block(TIMEOUT);
+
+        assertThat(points).extracting(CurvePointDTO::getTerm).containsExactly(5.0, 2.0, 10.0);
+        assertThat(points).extracting(CurvePointDTO::getCurveId).containsOnly(41);
+    }
+
+    @Test
+    @DisplayName("Un client lent ne reçoit que ce qu'il demande, et l'annulation rend la connexion au pool")
+    void streamTrades_shouldHonourDemand() throws Exception {
+        IntStream.range(0, 30).forEach(i -> tradeService.saveTrade(trade("ACC-DEMAND-" + i, (double) i)));
+        List<TradeDTO> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<TradeDTO> slowClient = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(TradeDTO trade) {
+                received.add(trade);
+            }
+        };
+
+        reactiveReadService.streamTrades().subscribe(slowClient);
+        Thread.sleep(300);
+        assertThat(received).hasSize(2);
+
+        slowClient.request(3);
+        Thread.sleep(300);
+        assertThat(received).hasSize(5);
+
+        slowClient.cancel();
+        PoolMetrics metrics = ((ConnectionPool) reactiveDatabaseClient.getConnectionFactory()).getMetrics().orElseThrow();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metrics.acquiredSize() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(metrics.acquiredSize()).isZero();
+    }
+}
@@ -0,0 +1,81 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.domain.Rating;
+import com.nnk.poseidon.dto.RatingDTO;
+import com.nnk.poseidon.dto.RuleNameDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que le cache de second niveau sert les lectures de {@code Rating} et {@code RuleName}
+ * et reste cohérent avec les sauvegardes et suppressions faites par les services.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({RatingService.class, RuleNameService.class, TransactionBatchingExecutor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RuleNameService ruleNameService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Une lecture par ID répétée est servie par le cache, et reflète les mises à jour et suppressions")
+    void rating_readsShouldHitCacheAndStayConsistent() {
+        RatingDTO saved = ratingService.saveRating(new RatingDTO(null, "Aaa", "AAA", "AAA", 1));
+
+        ratingService.getRatingById(saved.getId());
+        statistics.clear();
+        assertThat(ratingService.getRatingById(saved.getId())).isPresent();
+        assertThat(ratingService.getRatingById(saved.getId())).isPresent();
+        assertThat(statistics.getDomainDataRegionStatistics("poseidon.rating").getHitCount()).isEqualTo(2);
+        assertThat(statistics.getEntityStatistics(Rating.class.getName()).getLoadCount()).isZero();
+
+        saved.setMoodysRating("Baa");
+        ratingService.saveRating(saved);
+        assertThat(ratingService.getRatingById(saved.getId())).get()
+                .extracting(RatingDTO::getMoodysRating).isEqualTo("Baa");
+
+        ratingService.deleteRating(saved.getId());
+        assertThat(ratingService.getRatingById(saved.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("La liste des règles est servie par le cache de requêtes et invalidée par une écriture")
+    void ruleName_findAllShouldUseQueryCache() {
+        RuleNameDTO rule = new RuleNameDTO();
+        rule.setName("Rule");
+        RuleNameDTO saved = ruleNameService.save(rule);
+
+        int sizeBefore = ruleNameService.findAll().size();
+        ruleNameService.findAll();
+        assertThat(statistics.getQueryRegionStatistics("poseidon.query.reference").getHitCount()).isEqualTo(1);
+
+        ruleNameService.deleteById(saved.getId());
+        assertThat(ruleNameService.findAll()).hasSize(sizeBefore - 1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.nnk.poseidon.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de la saisie semi-automatique sur un index d'un million de trades.
+ * <p>
+ * Les saisies simulées sont des débuts de compte, de trader ou de titre (2 à 6 caractères), parfois précédés
+ * d'un mot complet, et des mots avec une faute de frappe ; la latence est mesurée requête par requête.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=SearchIndexBenchmarkTest}.
+ * </p>
+ */
+@Tag("benchmark")
+class SearchIndexBenchmarkTest {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int QUERIES = 5_000;
+    private static final String[] TRADERS = {"Jean Dupont", "Mary Smith", "Ken Sato", "Ann Lee", "Paolo Rossi",
+            "Hans Muller", "Sofia Garcia", "Li Wei", "Olga Ivanova", "Omar Haddad"};
+    private static final String[] BOOKS = {"Rates EMEA", "Credit EMEA", "Equity APAC", "Tech US", "FX G10",
+            "Commodities EMEA", "Rates US", "Credit US"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Latence de la saisie semi-automatique sur un million de documents")
+    void typeaheadLatency() throws Exception {
+        try (SearchIndex index = SearchIndex.open(directory)) {
+            long start = System.nanoTime();
+            SearchIndex.Rebuild rebuild = index.startRebuild();
+            for (int i = 0; i < DOCUMENTS; i++) {
+                rebuild.add(entry(i));
+            }
+            rebuild.complete();
+            System.out.printf("Indexation de %,d documents : %,d ms%n", DOCUMENTS,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            Random random = new Random(42);
+            List<String> queries = IntStream.range(0, QUERIES)
+                    .mapToObj(i -> query(random))
+                    .toList();
+            for (String query : queries.subList(0, 500)) { // préchauffage
+                index.search(SearchIndex.TRADE, query, 10);
+            }
+            long[] latencies = new long[QUERIES];
+            int withResults = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                long queryStart = System.nanoTime();
+                if (!index.search(SearchIndex.TRADE, queries.get(i), 10).isEmpty()) {
+                    withResults++;
+                }
+                latencies[i] = System.nanoTime() - queryStart;
+            }
+            Arrays.sort(latencies);
+            double p50 = latencies[QUERIES / 2] / 1e6;
+            double p99 = latencies[QUERIES * 99 / 100] / 1e6;
+            System.out.printf("Saisie semi-automatique : p50 %.2f ms, p99 %.2f ms, max %.2f ms (%d/%d requêtes avec résultats)%n",
+                    p50, p99, latencies[QUERIES - 1] / 1e6, withResults, QUERIES);
+
+            assertThat(withResults).isGreaterThan(QUERIES * 9 / 10);
+            assertThat(p99).isLessThan(20.0);
+        }
+    }
+
+    private static SearchIndex.Entry entry(int i) {
+        return new SearchIndex.Entry(SearchIndex.TRADE, i, "ACC-" + (i % 50_000),
+                String.format("FR%010d", i % 20_000), TRADERS[i % TRADERS.length], BOOKS[i % BOOKS.length],
+                "Deal " + (i % 5_000));
+    }
+
+    private static String query(Random random) {
+        String word = switch (random.nextInt(4)) {
+            case 0 -> "acc-" + random.nextInt(50_000);
+            case 1 -> TRADERS[random.nextInt(TRADERS.length)].split(" ")[random.nextInt(2)];
+            case 2 -> String.format("fr%010d", random.nextInt(20_000));
+            default -> BOOKS[random.nextInt(BOOKS.length)].split(" ")[0];
+        };
+        String prefix = word.substring(0, Math.min(word.length(), 2 + random.nextInt(5)));
+        return switch (random.nextInt(4)) {
+            case 0 -> BOOKS[random.nextInt(BOOKS.length)].split(" ")[1] + " " + prefix;
+            case 1 -> word.length() > 4 ? word.substring(0, 2) + "x" + word.substring(3) : prefix;
+            default -> prefix;
+        };
+    }
+}
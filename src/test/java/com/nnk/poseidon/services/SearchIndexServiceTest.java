@@ -0,0 +1,127 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.BidListDTO;
+import com.nnk.poseidon.dto.TradeDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que l'index de recherche suit les écritures des services et se reconstruit sans interruption.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({TradeService.class, BidListService.class, SearchIndexService.class, TransactionBatchingExecutor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SearchIndexServiceTest {
+
+    @TempDir
+    static Path indexDirectory;
+
+    @DynamicPropertySource
+    static void searchProperties(DynamicPropertyRegistry registry) {
+        registry.add("poseidon.search.directory", () -> indexDirectory.toString());
+    }
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    private static TradeDTO trade(String account, String security, String trader, String book, String dealName) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(10.0);
+        trade.setSecurity(security);
+        trade.setTrader(trader);
+        trade.setBook(book);
+        trade.setDealName(dealName);
+        return trade;
+    }
+
+    /**
+     * L'index est mis à jour de façon asynchrone après le commit : attend que la condition soit vérifiée.
+     */
+    private static <T> T await(Supplier<T> supplier, java.util.function.Predicate<T> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        T value = supplier.get();
+        while (!condition.test(value) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            value = supplier.get();
+        }
+        return value;
+    }
+
+    @Test
+    @DisplayName("Les trades créés sont trouvés par préfixe, sur plusieurs mots et malgré une faute de frappe")
+    void savedTrades_shouldBeSearchableByPrefixAndFuzzy() throws Exception {
+        TradeDTO dupont = tradeService.saveTrade(trade("ACC-PARIS", "FR0000131104", "Jean Dupont", "Rates EMEA", "Alpha"));
+        tradeService.saveTrade(trade("ACC-LONDON", "GB0002634946", "Mary Smith", "Credit EMEA", "Beta"));
+
+        // Les deux trades peuvent être indexés dans des lots distincts : chacun est attendu avant d'être cherché.
+        List<TradeDTO> byPrefix = await(() -> tradeService.searchTrades("dupo", 10), found -> !found.isEmpty());
+        assertThat(byPrefix).extracting(TradeDTO::getTradeId).containsExactly(dupont.getTradeId());
+        assertThat(await(() -> tradeService.searchTrades("emea cred", 10), found -> !found.isEmpty()))
+                .extracting(TradeDTO::getAccount).containsExactly("ACC-LONDON");
+        assertThat(tradeService.searchTrades("dupomt", 10)).extracting(TradeDTO::getAccount)
+                .containsExactly("ACC-PARIS");
+        assertThat(searchIndexService.search(SearchIndex.TRADE, "fr000013", 10)).singleElement()
+                .satisfies(entry -> assertThat(entry.trader()).isEqualTo("Jean Dupont"));
+    }
+
+    @Test
+    @DisplayName("Une mise à jour ou une suppression est répercutée dans l'index, séparément pour les offres")
+    void updatesAndDeletes_shouldBeReflected() throws Exception {
+        TradeDTO trade = tradeService.saveTrade(trade("ACC-TOKYO", "JP3633400001", "Ken Sato", "Equity APAC", "Gamma"));
+        BidListDTO bid = bidListService.save(new BidListDTO(null, "ACC-TOKYO-BID", "SPOT", 5.0, null));
+        await(() -> searchIndexService.search(null, "acc-tokyo", 10), found -> found.size() == 2);
+
+        assertThat(searchIndexService.search(SearchIndex.BID_LIST, "acc-tokyo", 10))
+                .extracting(SearchIndex.Entry::id).containsExactly(bid.getBidListId());
+
+        tradeService.updateTrade(trade.getTradeId(), trade("ACC-OSAKA", null, null, null, null));
+        assertThat(await(() -> tradeService.searchTrades("osaka", 10), found -> !found.isEmpty())).hasSize(1);
+
+        tradeService.deleteTradeById(trade.getTradeId());
+        bidListService.deleteById(bid.getBidListId());
+        assertThat(await(() -> searchIndexService.search(null, "acc", 10),
+                found -> found.stream().noneMatch(entry -> entry.account().startsWith("ACC-OSAKA")
+                        || entry.account().startsWith("ACC-TOKYO"))))
+                .noneMatch(entry -> entry.account().startsWith("ACC-OSAKA") || entry.account().startsWith("ACC-TOKYO"));
+    }
+
+    @Test
+    @DisplayName("La reconstruction indexe toute la base sans interrompre les recherches")
+    void rebuild_shouldReindexEverythingWhileServingSearches() throws Exception {
+        tradeService.importTrades(List.of(
+                trade("ACC-REBUILD-1", "US0378331005", "Ann Lee", "Tech US", "Delta"),
+                trade("ACC-REBUILD-2", "US5949181045", "Ann Lee", "Tech US", "Delta")));
+        await(() -> tradeService.searchTrades("rebuild", 10), found -> found.size() == 2);
+
+        var rebuild = searchIndexService.rebuild();
+        assertThat(tradeService.searchTrades("rebuild", 10)).hasSize(2);
+        int indexed = rebuild.get(10, TimeUnit.SECONDS);
+
+        assertThat(indexed).isGreaterThanOrEqualTo(2);
+        assertThat(tradeService.searchTrades("ann lee tech", 10)).extracting(TradeDTO::getAccount)
+                .containsExactlyInAnyOrder("ACC-REBUILD-1", "ACC-REBUILD-2");
+    }
+}
@@ -0,0 +1,117 @@
+package com.nnk.poseidon.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie les jetons signés du mode sans session : signature, expiration, rotation des clés et révocation
+ * partagée entre nœuds par la table {@code RevokedToken}.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SignedTokenServiceTest {
+
+    private static final String KEY_1 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    private static final String KEY_2 = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<SignedTokenService> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(SignedTokenService::stop);
+        jdbcTemplate.update("DELETE FROM RevokedToken");
+    }
+
+    /**
+     * Démarre un nœud configuré avec les clés données, sans relecture périodique de la liste de révocation.
+     */
+    private SignedTokenService node(String activeKey, String... keyIds) {
+        MockEnvironment environment = new MockEnvironment();
+        for (String keyId : keyIds) {
+            environment.setProperty("poseidon.security.stateless.keys." + keyId, keyId.equals("k1") ? KEY_1 : KEY_2);
+        }
+        SignedTokenService service = new SignedTokenService(jdbcTemplate, environment, activeKey, 900, 3_600_000);
+        service.start();
+        nodes.add(service);
+        return service;
+    }
+
+    @Test
+    @DisplayName("Un jeton signé est vérifié sans base ; altéré ou expiré, il est refusé")
+    void verify_shouldRejectTamperedAndExpiredTokens() {
+        SignedTokenService service = node("k1", "k1");
+        long now = System.currentTimeMillis();
+        String token = service.issue("alice", List.of("USER"), now);
+
+        assertThat(service.verify(token, now)).get()
+                .satisfies(claims -> {
+                    assertThat(claims.username()).isEqualTo("alice");
+                    assertThat(claims.authorities()).containsExactly("USER");
+                    assertThat(claims.expiresAt()).isEqualTo(now + 900_000);
+                });
+        String[] parts = token.split("\\.");
+        String forged = service.issue("alice", List.of("ADMIN"), now).split("\\.")[1];
+        assertThat(service.verify(parts[0] + "." + forged + "." + parts[2], now)).isEmpty();
+        assertThat(service.verify(token, now + 900_000)).isEmpty();
+        assertThat(service.verify("not-a-token", now)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Rotation : les jetons de l'ancienne clé restent valides tant qu'elle est configurée")
+    void keyRotation_shouldAcceptConfiguredKeysOnly() {
+        long now = System.currentTimeMillis();
+        String oldToken = node("k1", "k1").issue("alice", List.of("USER"), now);
+
+        SignedTokenService rotating = node("k2", "k1", "k2");
+        String newToken = rotating.issue("alice", List.of("USER"), now);
+        assertThat(newToken).startsWith("k2.");
+        assertThat(rotating.verify(oldToken, now)).isPresent();
+        assertThat(rotating.verify(newToken, now)).isPresent();
+
+        SignedTokenService rotated = node("k2", "k2");
+        assertThat(rotated.verify(oldToken, now)).isEmpty();
+        assertThat(rotated.verify(newToken, now)).isPresent();
+        assertThatThrownBy(() -> node("k3", "k1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Une révocation faite sur un nœud est appliquée par les autres à la relecture de la liste")
+    void revocations_shouldPropagateBetweenNodes() {
+        SignedTokenService nodeA = node("k1", "k1");
+        SignedTokenService nodeB = node("k1", "k1");
+        long now = System.currentTimeMillis();
+        String aliceToken = nodeA.issue("alice", List.of("USER"), now - 1);
+        String otherAliceToken = nodeA.issue("alice", List.of("USER"), now - 1);
+        String bobToken = nodeA.issue("bob", List.of("ADMIN"), now - 1);
+
+        nodeA.revoke(nodeA.verify(aliceToken).orElseThrow());
+        nodeA.revokeUser("bob");
+        assertThat(nodeA.verify(aliceToken)).isEmpty();
+        assertThat(nodeA.verify(otherAliceToken)).isPresent();
+        assertThat(nodeA.verify(bobToken)).isEmpty();
+        assertThat(nodeB.verify(aliceToken)).isPresent();
+
+        nodeB.refreshRevocations();
+        assertThat(nodeB.verify(aliceToken)).isEmpty();
+        assertThat(nodeB.verify(bobToken)).isEmpty();
+        // Un jeton émis après la révocation de l'utilisateur est accepté.
+        assertThat(nodeB.verify(nodeB.issue("bob", List.of("ADMIN"), System.currentTimeMillis() + 1))).isPresent();
+    }
+}
@@ -0,0 +1,223 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.repositories.TradeRepository;
+import com.nnk.poseidon.services.TradeBar.Resolution;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests d'intégration de {@link TradeBarService} sur le schéma des migrations Flyway H2 : agrégation
+ * incrémentale des trades enregistrés, recalcul après correction ou suppression, requêtes de période à cheval
+ * entre la table et les anneaux (réduits à 3 barres), échec d'enregistrement et redémarrage.
+ * <p>
+ * Chaque test utilise son propre titre : les barres et les trades ne sont pas nettoyés entre les tests.
+ * </p>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "poseidon.bars.enabled=true",
+        "poseidon.bars.ring-size=3"
+})
+@Import({TradeService.class, TransactionBatchingExecutor.class, TradeBarService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeBarServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeBarService tradeBarService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TradeDTO save(String security, LocalDateTime at, double price, double quantity) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount("Compte");
+        trade.setType("Achat");
+        trade.setSecurity(security);
+        trade.setTradeDate(at);
+        trade.setBuyPrice(price);
+        trade.setBuyQuantity(quantity);
+        return tradeService.saveTrade(trade);
+    }
+
+    private List<TradeBar> bars(TradeBarService service, String security, Resolution resolution) {
+        try {
+            assertThat(service.awaitIdle(5_000)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return service.findBars(security, resolution, DAY, DAY.plusDays(1));
+    }
+
+    private List<TradeBar> bars(String security, Resolution resolution) {
+        return bars(tradeBarService, security, resolution);
+    }
+
+    @Test
+    @DisplayName("Trades arrivés dans le désordre : OHLC, volume et VWAP par minute, 5 minutes et jour")
+    void savedTrades_shouldBeAggregatedIncrementally() {
+        String security = "OHLC";
+        save(security, DAY.plusHours(10).plusSeconds(40), 102, 10);
+        save(security, DAY.plusHours(10).plusSeconds(5), 100, 20);
+        save(security, DAY.plusHours(10).plusSeconds(20), 99, 10);
+        save(security, DAY.plusHours(10).plusMinutes(3).plusSeconds(1), 105, 60);
+
+        List<TradeBar> minutes = bars(security, Resolution.M1);
+        assertThat(minutes).hasSize(2);
+        TradeBar first = minutes.get(0);
+        assertThat(first.start()).isEqualTo(DAY.plusHours(10));
+        assertThat(first.open()).isEqualTo(100);
+        assertThat(first.high()).isEqualTo(102);
+        assertThat(first.low()).isEqualTo(99);
+        assertThat(first.close()).isEqualTo(102);
+        assertThat(first.volume()).isEqualTo(40);
+        assertThat(first.tradeCount()).isEqualTo(3);
+        assertThat(first.vwap()).isCloseTo((102 * 10 + 100 * 20 + 99 * 10) / 40.0, within(1e-9));
+
+        List<TradeBar> fiveMinutes = bars(security, Resolution.M5);
+        assertThat(fiveMinutes).singleElement().satisfies(bar -> {
+            assertThat(bar.open()).isEqualTo(100);
+            assertThat(bar.close()).isEqualTo(105);
+            assertThat(bar.high()).isEqualTo(105);
+            assertThat(bar.volume()).isEqualTo(100);
+            assertThat(bar.tradeCount()).isEqualTo(4);
+        });
+        assertThat(bars(security, Resolution.D1)).singleElement()
+                .satisfies(bar -> assertThat(bar.start()).isEqualTo(DAY));
+    }
+
+    @Test
+    @DisplayName("Correction et suppression : les barres concernées sont recalculées ou retirées")
+    void correctedAndDeletedTrades_shouldBeRecomputed() {
+        String security = "FIX";
+        TradeDTO kept = save(security, DAY.plusHours(9), 50, 10);
+        TradeDTO corrected = save(security, DAY.plusHours(9).plusSeconds(30), 60, 10);
+        TradeDTO deleted = save(security, DAY.plusHours(9).plusMinutes(2), 70, 5);
+        assertThat(bars(security, Resolution.M1)).hasSize(2);
+
+        corrected.setBuyQuantity(30.0);
+        tradeService.updateTrade(corrected.getTradeId(), corrected);
+        tradeService.deleteTradeById(deleted.getTradeId());
+
+        assertThat(bars(security, Resolution.M1)).singleElement().satisfies(bar -> {
+            assertThat(bar.volume()).isEqualTo(40);
+            assertThat(bar.close()).isEqualTo(60);
+            assertThat(bar.vwap()).isCloseTo((50 * 10 + 60 * 30) / 40.0, within(1e-9));
+        });
+        assertThat(bars(security, Resolution.H1)).singleElement()
+                .satisfies(bar -> assertThat(bar.tradeCount()).isEqualTo(2));
+
+        tradeService.deleteTrades(List.of(kept.getTradeId(), corrected.getTradeId()));
+        assertThat(bars(security, Resolution.M1)).isEmpty();
+        assertThat(bars(security, Resolution.D1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Période plus longue que l'anneau : barres anciennes lues dans la table, récentes en mémoire")
+    void rangeQuery_shouldSpanTableAndRing() {
+        String security = "RING";
+        for (int minute = 0; minute < 6; minute++) {
+            save(security, DAY.plusHours(11).plusMinutes(minute), 100 + minute, 1);
+        }
+        // Trade tardif sur une minute sortie de l'anneau : seule la table le reçoit.
+        save(security, DAY.plusHours(11).plusSeconds(30), 90, 3);
+
+        List<TradeBar> minutes = bars(security, Resolution.M1);
+        assertThat(minutes).extracting(TradeBar::open).containsExactly(100.0, 101.0, 102.0, 103.0, 104.0, 105.0);
+        assertThat(minutes.get(0).volume()).isEqualTo(4);
+        assertThat(minutes.get(0).close()).isEqualTo(90);
+        assertThat(tradeBarService.findBars(security, Resolution.M1, DAY.plusHours(11).plusMinutes(2),
+                DAY.plusHours(11).plusMinutes(4))).extracting(TradeBar::open).containsExactly(102.0, 103.0);
+    }
+
+    @Test
+    @DisplayName("Redémarrage : barres rechargées depuis la table, ou reconstruites depuis les trades si elle est vide")
+    void restart_shouldReloadOrRebuildSameBars() {
+        String security = "RESTART";
+        save(security, DAY.plusHours(14), 10, 1);
+        save(security, DAY.plusHours(14).plusMinutes(7), 12, 2);
+        save(security, DAY.plusHours(15).plusMinutes(1), 11, 3);
+        List<TradeBar> expected = bars(security, Resolution.M5);
+        assertThat(expected).hasSize(3);
+        assertThat(bars(tradeBarService, security, Resolution.H1)).hasSize(2);
+
+        TradeBarService reloaded = new TradeBarService(tradeRepository, entityManager, jdbcTemplate,
+                transactionManager, 3, 1000);
+        reloaded.start();
+        try {
+            assertThat(bars(reloaded, security, Resolution.M5)).isEqualTo(expected);
+        } finally {
+            reloaded.stop();
+        }
+
+        jdbcTemplate.update("DELETE FROM TradeBar");
+        TradeBarService rebuilt = new TradeBarService(tradeRepository, entityManager, jdbcTemplate,
+                transactionManager, 3, 1000);
+        rebuilt.start();
+        try {
+            assertThat(bars(rebuilt, security, Resolution.M5)).isEqualTo(expected);
+        } finally {
+            rebuilt.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Enregistrement des barres en échec : les anneaux gardent l'état de la table")
+    void failedFlush_shouldLeaveRingsMatchingTable() {
+        String security = "FLUSH";
+        save(security, DAY.plusHours(16), 10, 5);
+        assertThat(bars(security, Resolution.M1)).singleElement().satisfies(bar -> assertThat(bar.volume()).isEqualTo(5));
+
+        jdbcTemplate.execute("ALTER TABLE TradeBar ADD CONSTRAINT bar_small_volume "
+                + "CHECK (security <> 'FLUSH' OR volume < 100)");
+        try {
+            save(security, DAY.plusHours(16).plusSeconds(30), 11, 500);
+            List<TradeBar> minutes = bars(security, Resolution.M1);
+
+            assertThat(minutes).singleElement().satisfies(bar -> assertThat(bar.volume()).isEqualTo(5));
+            assertThat(jdbcTemplate.queryForObject("SELECT volume FROM TradeBar WHERE security = ? AND resolution = 'M1'",
+                    Double.class, security)).isEqualTo(5);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE TradeBar DROP CONSTRAINT bar_small_volume");
+        }
+    }
+
+    @Test
+    @DisplayName("Période invalide ou résolution inconnue : IllegalArgumentException")
+    void invalidQuery_shouldBeRejected() {
+        assertThatThrownBy(() -> tradeService.findTradeBars("X", "1m", DAY.plusDays(1), DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tradeService.findTradeBars("X", "2m", DAY, DAY.plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
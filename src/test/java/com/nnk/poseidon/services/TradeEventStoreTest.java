@@ -0,0 +1,198 @@
+package com.nnk.poseidon.services;
+
+import com.nnk.poseidon.dto.TradeDTO;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le mode event-sourcing des trades : reconstruction à une date, instantanés et reconstruction
+ * de la projection.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "poseidon.trade.event-sourcing.enabled=true",
+        "poseidon.trade.event-sourcing.snapshot-interval=3",
+        "poseidon.trade.event-sourcing.rebuild-partitions=3",
+        "poseidon.trade.event-sourcing.batch-size=4"})
+@Import({TradeService.class, TradeEventStore.class, TransactionBatchingExecutor.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeEventStoreTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static TradeDTO trade(String account, Double buyQuantity) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(buyQuantity);
+        trade.setTrader("Ann Lee");
+        return trade;
+    }
+
+    /**
+     * Date strictement postérieure aux écritures déjà faites et antérieure aux suivantes.
+     */
+    private static LocalDateTime checkpoint() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(5);
+        return now;
+    }
+
+    @Test
+    @DisplayName("Un trade se reconstruit tel qu'il était à chaque date, y compris avant sa suppression")
+    void findTradeAsOf_shouldReturnStateAtEachDate() throws Exception {
+        LocalDateTime beforeCreation = checkpoint();
+        TradeDTO created = tradeService.saveTrade(trade("ACC-1", 10.0));
+        LocalDateTime afterCreation = checkpoint();
+        tradeService.updateTrade(created.getTradeId(), trade("ACC-2", 20.0));
+        LocalDateTime afterUpdate = checkpoint();
+        tradeService.updateTradeStatus(List.of(created.getTradeId()), "CLOSED");
+        LocalDateTime afterStatus = checkpoint();
+        tradeService.deleteTradeById(created.getTradeId());
+
+        Integer id = created.getTradeId();
+        assertThat(tradeService.findTradeAsOf(id, beforeCreation)).isEmpty();
+        assertThat(tradeService.findTradeAsOf(id, afterCreation)).get()
+                .satisfies(state -> {
+                    assertThat(state.getAccount()).isEqualTo("ACC-1");
+                    assertThat(state.getTrader()).isEqualTo("Ann Lee");
+                    assertThat(state.getStatus()).isNull();
+                });
+        assertThat(tradeService.findTradeAsOf(id, afterUpdate)).get()
+                .satisfies(state -> {
+                    assertThat(state.getAccount()).isEqualTo("ACC-2");
+                    assertThat(state.getBuyQuantity()).isEqualTo(20.0);
+                    assertThat(state.getTrader()).isEqualTo("Ann Lee");
+                });
+        assertThat(tradeService.findTradeAsOf(id, afterStatus)).get()
+                .extracting(TradeDTO::getStatus).isEqualTo("CLOSED");
+        assertThat(tradeService.findTradeAsOf(id, LocalDateTime.now())).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT eventType FROM TradeEvent WHERE tradeId = ? ORDER BY version",
+                String.class, id)).containsExactly("CREATED", "UPDATED", "UPDATED", "DELETED");
+    }
+
+    @Test
+    @DisplayName("La reconstruction part du dernier instantané et ne rejoue que les événements suivants")
+    void findTradeAsOf_shouldStartFromLatestSnapshot() throws Exception {
+        TradeDTO created = tradeService.saveTrade(trade("ACC-SNAP", 0.0));
+        Integer id = created.getTradeId();
+        for (int i = 1; i <= 7; i++) {
+            tradeService.updateTrade(id, trade("ACC-SNAP", (double) i));
+        }
+
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM TradeSnapshot WHERE tradeId = ? ORDER BY version",
+                Integer.class, id)).containsExactly(3, 6);
+        // Les événements couverts par un instantané ne sont plus relus : les altérer est sans effet.
+        jdbcTemplate.update("UPDATE TradeEvent SET payload = '{\"account\":\"ALTERED\"}' WHERE tradeId = ? AND version <= 6", id);
+
+        assertThat(tradeService.findTradeAsOf(id, LocalDateTime.now())).get()
+                .satisfies(state -> {
+                    assertThat(state.getAccount()).isEqualTo("ACC-SNAP");
+                    assertThat(state.getBuyQuantity()).isEqualTo(7.0);
+                });
+    }
+
+    @Test
+    @DisplayName("La projection est reconstruite à l'identique à partir des événements, par partitions")
+    void rebuildTradeProjection_shouldRestoreTradeTable() {
+        List<Integer> ids = IntStream.range(0, 10)
+                .mapToObj(i -> tradeService.saveTrade(trade("ACC-REBUILD-" + i, (double) i)).getTradeId())
+                .toList();
+        tradeService.updateTradeStatus(ids.subList(0, 5), "OPEN");
+        tradeService.deleteTrades(ids.subList(8, 10));
+        List<TradeDTO> expected = tradeService.findAllTrades();
+
+        jdbcTemplate.update("DELETE FROM Trade WHERE TradeId IN (?, ?)", ids.get(0), ids.get(1));
+        jdbcTemplate.update("UPDATE Trade SET account = 'CORRUPTED' WHERE TradeId = ?", ids.get(2));
+        int rebuilt = tradeService.rebuildTradeProjection();
+
+        assertThat(tradeService.findAllTrades()).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(rebuilt).isEqualTo(expected.size());
+    }
+
+    @Test
+    @DisplayName("Un trade créé pendant la reconstruction de sa partition n'est ni perdu ni dupliqué")
+    void rebuildTradeProjection_shouldKeepTradesCreatedMeanwhile() throws Exception {
+        tradeService.saveTrade(trade("ACC-REBUILD-BEFORE", 1.0));
+        List<TradeDTO> before = tradeService.findAllTrades();
+        CreatesTrades.tradeService = tradeService;
+        CreatesTrades.created.clear();
+        CreatesTrades.threads.clear();
+        jdbcTemplate.execute("CREATE TRIGGER trade_creates_trades BEFORE SELECT ON TradeEvent CALL '"
+                + CreatesTrades.class.getName() + "'");
+        try {
+            tradeService.rebuildTradeProjection();
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER trade_creates_trades");
+        }
+
+        // La première lecture des événements de chaque partition est précédée de la création de trois trades.
+        assertThat(CreatesTrades.created).hasSize(9);
+        assertThat(tradeService.findAllTrades()).hasSize(before.size() + 9)
+                .containsAll(before)
+                .extracting(TradeDTO::getTradeId).containsAll(CreatesTrades.created);
+    }
+
+    /**
+     * Déclencheur H2 exécuté avant la première lecture de {@code TradeEvent} de chaque thread de reconstruction :
+     * crée et valide trois trades d'identifiants consécutifs, un par partition, depuis une autre connexion, comme
+     * un utilisateur pendant la reconstruction.
+     */
+    public static class CreatesTrades implements Trigger {
+
+        static volatile TradeService tradeService;
+        static final List<Integer> created = new CopyOnWriteArrayList<>();
+        static final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) {
+            // Aucun état à préparer.
+        }
+
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+            String thread = Thread.currentThread().getName();
+            if (!thread.startsWith("trade-projection-rebuild-") || !threads.add(thread)) {
+                return;
+            }
+            try {
+                CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 3; i++) {
+                        created.add(tradeService.saveTrade(trade("ACC-REBUILD-DURING", (double) i)).getTradeId());
+                    }
+                }).get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new SQLException("Création concurrente impossible", e);
+            }
+        }
+    }
+}
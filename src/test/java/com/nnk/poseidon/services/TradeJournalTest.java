@@ -0,0 +1,177 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.services.TradeJournal.Entry;
+import com.nnk.poseidon.services.TradeJournal.Operation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires pour {@link TradeJournal}.
+ */
+class TradeJournalTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path directory;
+
+    private TradeDTO trade(String account) {
+        TradeDTO dto = new TradeDTO();
+        dto.setAccount(account);
+        dto.setType("Type");
+        dto.setBuyQuantity(10.0);
+        dto.setCreationDate(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Les ajouts concurrents reçoivent des séquences uniques et sont tous notifiés comme durables")
+    void append_concurrent_shouldAssignUniqueSequences() throws Exception {
+        List<Entry> durable = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try (TradeJournal journal = new TradeJournal(directory, objectMapper, 1 << 20, 64, 1, durable::addAll)) {
+            List<Future<Entry>> futures = IntStream.range(0, 200)
+                    .mapToObj(i -> executor.submit(() -> journal.append(Operation.CREATE, null, trade("A" + i))))
+                    .toList();
+            for (Future<Entry> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(durable).hasSize(200);
+        assertThat(durable.stream().map(Entry::sequence).distinct()).hasSize(200);
+        assertThat(durable.stream().mapToLong(Entry::sequence).max().orElseThrow()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Une réouverture rejoue uniquement les entrées postérieures au checkpoint")
+    void readAfter_afterReopen_shouldReturnUnappliedEntries() {
+        try (TradeJournal journal = new TradeJournal(directory, objectMapper, 1 << 20, 64, 1, entries -> { })) {
+            journal.append(Operation.CREATE, null, trade("A"));
+            journal.append(Operation.UPDATE, 7, trade("B"));
+            journal.append(Operation.DELETE, 7, null);
+        }
+
+        try (TradeJournal reopened = new TradeJournal(directory, objectMapper, 1 << 20, 64, 1, entries -> { })) {
+            List<Entry> unapplied = reopened.readAfter(1);
+
+            assertThat(unapplied).extracting(Entry::operation).containsExactly(Operation.UPDATE, Operation.DELETE);
+            assertThat(unapplied.get(0).trade().getAccount()).isEqualTo("B");
+            assertThat(unapplied.get(0).trade().getCreationDate()).isEqualTo(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+            assertThat(reopened.append(Operation.DELETE, 8, null).sequence()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    @DisplayName("Une fin de segment tronquée est ignorée puis coupée à la réouverture")
+    void reopen_withTornTail_shouldKeepValidEntriesOnly() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, objectMapper, 1 << 20, 64, 1, entries -> { })) {
+            journal.append(Operation.CREATE, null, trade("A"));
+        }
+        Path segment = listFiles().get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (TradeJournal reopened = new TradeJournal(directory, objectMapper, 1 << 20, 64, 1, entries -> { })) {
+            assertThat(reopened.readAfter(0)).extracting(Entry::sequence).containsExactly(1L);
+        }
+    }
+
+    @Test
+    @DisplayName("Un groupe en échec à mi-écriture est retiré du segment, et ses séquences réattribuées sans doublon")
+    void append_failingGroup_shouldDiscardPartialRecords() throws Exception {
+        ObjectMapper failingMapper = new ObjectMapper(objectMapper) {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                if (value instanceof Entry entry && entry.trade() != null && "FAIL".equals(entry.trade().getAccount())) {
+                    throw new JsonMappingException(null, "Échec d'écriture simulé");
+                }
+                return super.writeValueAsBytes(value);
+            }
+        };
+        CountDownLatch firstGroupDurable = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (TradeJournal journal = new TradeJournal(directory, failingMapper, 1 << 20, 64, 1, entries -> {
+            if (firstGroupDurable.getCount() > 0) {
+                // Le thread d'écriture est retenu : les deux ajouts suivants forment un même groupe.
+                firstGroupDurable.countDown();
+                await(queued);
+            }
+        })) {
+            Future<Entry> first = executor.submit(() -> journal.append(Operation.CREATE, null, trade("A")));
+            assertThat(firstGroupDurable.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Entry> written = executor.submit(() -> journal.append(Operation.CREATE, null, trade("OK")));
+            Thread.sleep(100);
+            Future<Entry> failing = executor.submit(() -> journal.append(Operation.CREATE, null, trade("FAIL")));
+            Thread.sleep(100);
+            queued.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).sequence()).isEqualTo(1);
+            assertThatThrownBy(() -> written.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(journal.append(Operation.CREATE, null, trade("B")).sequence()).isEqualTo(2);
+        } finally {
+            executor.shutdown();
+        }
+
+        try (TradeJournal reopened = new TradeJournal(directory, objectMapper, 1 << 20, 64, 1, entries -> { })) {
+            assertThat(reopened.readAfter(0)).extracting(entry -> entry.trade().getAccount()).containsExactly("A", "B");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Les segments entièrement appliqués sont supprimés, jamais le segment actif")
+    void deleteAppliedSegments_shouldRemoveOnlyClosedAppliedSegments() throws IOException {
+        try (TradeJournal journal = new TradeJournal(directory, objectMapper, 1, 1, 1, entries -> { })) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(Operation.CREATE, null, trade("A" + i));
+            }
+            assertThat(listFiles()).hasSize(3);
+
+            journal.deleteAppliedSegments(2);
+
+            assertThat(listFiles()).hasSize(1);
+            assertThat(journal.readAfter(0)).extracting(Entry::sequence).containsExactly(3L);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.nnk.poseidon.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nnk.poseidon.dto.TradeDTO;
+import com.nnk.poseidon.services.TradeJournal.Operation;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le mode write-behind des trades sur le schéma des migrations Flyway H2 : application des mutations
+ * journalisées, rejeu après un arrêt brutal, application unitaire d'un lot refusé et nouvel essai, chaque
+ * mutation n'étant appliquée qu'une fois.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "poseidon.trade.write-behind.enabled=true"})
+@Import({TradeService.class, TradeWriteBehindService.class, TransactionBatchingExecutor.class,
+        TradeWriteBehindServiceTest.PublishedEvents.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TradeWriteBehindServiceTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("poseidon.trade.write-behind.directory", () -> directory.toString());
+    }
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeWriteBehindService writeBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private PublishedEvents publishedEvents;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trade_fails_twice");
+        jdbcTemplate.update("DELETE FROM Trade");
+        jdbcTemplate.update("DELETE FROM TradeJournalCheckpoint");
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static TradeDTO trade(String account, Double buyQuantity) {
+        TradeDTO trade = new TradeDTO();
+        trade.setAccount(account);
+        trade.setType("SPOT");
+        trade.setBuyQuantity(buyQuantity);
+        trade.setCreationDate(LocalDateTime.now());
+        trade.setRevisionDate(LocalDateTime.now());
+        return trade;
+    }
+
+    private int count(String account) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Trade WHERE account = ?", Integer.class, account);
+    }
+
+    private long checkpoint() {
+        return jdbcTemplate.queryForObject("SELECT appliedSequence FROM TradeJournalCheckpoint WHERE Id = 1", Long.class);
+    }
+
+    /**
+     * Arrête le service puis journalise des mutations sans les appliquer, comme un processus arrêté après
+     * l'acquittement et avant le vidage ; renvoie un nouveau service démarré sur le même journal.
+     */
+    private TradeWriteBehindService crashAndRestart(Consumer<TradeJournal> unappliedWrites) {
+        writeBehind.stop();
+        try (TradeJournal journal = new TradeJournal(directory, objectMapper, 1 << 20, 64, checkpoint() + 1,
+                entries -> { })) {
+            unappliedWrites.accept(journal);
+        }
+        TradeWriteBehindService restarted = new TradeWriteBehindService(jdbcTemplate, transactionManager,
+                objectMapper, applicationContext, applicationContext.getBeanProvider(TradeBarService.class),
+                directory, 1 << 20, 64, 500, 5);
+        restarted.start();
+        return restarted;
+    }
+
+    @Test
+    @DisplayName("Mutations journalisées appliquées en base, puis rejouées une seule fois après un arrêt brutal")
+    void journaledWrites_shouldBeAppliedOnceAndReplayedAfterRestart() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(tradeService.saveTrade(trade("ACC-WB-LIVE", (double) i)).getTradeId()).isNull();
+        }
+        writeBehind.awaitDrained();
+        assertThat(count("ACC-WB-LIVE")).isEqualTo(3);
+        Integer existing = jdbcTemplate.queryForObject("SELECT MIN(TradeId) FROM Trade", Integer.class);
+
+        TradeWriteBehindService restarted = crashAndRestart(journal -> {
+            journal.append(Operation.CREATE, null, trade("ACC-WB-REPLAY", 1.0));
+            journal.append(Operation.CREATE, null, trade("ACC-WB-REPLAY", 2.0));
+            journal.append(Operation.UPDATE, existing, trade("ACC-WB-UPDATED", 9.0));
+        });
+        try {
+            restarted.awaitDrained();
+        } finally {
+            restarted.stop();
+        }
+        assertThat(count("ACC-WB-REPLAY")).isEqualTo(2);
+        assertThat(count("ACC-WB-UPDATED")).isEqualTo(1);
+        assertThat(checkpoint()).isEqualTo(6);
+
+        // Nouveau démarrage : le checkpoint couvre tout le journal, rien n'est rejoué.
+        TradeWriteBehindService again = crashAndRestart(journal -> { });
+        try {
+            again.awaitDrained();
+        } finally {
+            again.stop();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Trade", Integer.class)).isEqualTo(5);
+        assertThat(checkpoint()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Lot refusé : application unitaire, mutation invalide consignée, nouvel essai sans double application")
+    void rejectedBatch_shouldApplyEachEntryOnceAndLogReject() throws Exception {
+        FailsTwice.remaining.set(2);
+        jdbcTemplate.execute("CREATE TRIGGER trade_fails_twice BEFORE INSERT ON Trade FOR EACH ROW CALL '"
+                + FailsTwice.class.getName() + "'");
+
+        TradeWriteBehindService restarted = crashAndRestart(journal -> {
+            journal.append(Operation.CREATE, null, trade("ACC-WB-GOOD", 1.0));
+            journal.append(Operation.CREATE, null, trade("ACC-WB-" + "X".repeat(40), 2.0));
+            journal.append(Operation.CREATE, null, trade(FailsTwice.ACCOUNT, 3.0));
+        });
+        try {
+            restarted.awaitDrained();
+        } finally {
+            restarted.stop();
+        }
+
+        assertThat(FailsTwice.remaining).hasValue(0);
+        assertThat(count("ACC-WB-GOOD")).isEqualTo(1);
+        assertThat(count(FailsTwice.ACCOUNT)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Trade", Integer.class)).isEqualTo(2);
+        assertThat(checkpoint()).isEqualTo(3);
+        List<String> rejected = Files.readAllLines(directory.resolve("rejected.log"), StandardCharsets.UTF_8);
+        assertThat(rejected).singleElement().asString().contains("\"sequence\":2").contains("XXXXXXXX");
+    }
+
+    @Test
+    @DisplayName("Modification ou suppression d'un trade inexistant : ni insertion, ni événement, ni audit, mais consignée")
+    void writesToMissingTrade_shouldBeLoggedWithoutEvents() throws Exception {
+        tradeService.saveTrade(trade("ACC-WB-KEPT", 1.0));
+        writeBehind.awaitDrained();
+        Integer existing = jdbcTemplate.queryForObject("SELECT TradeId FROM Trade WHERE account = 'ACC-WB-KEPT'", Integer.class);
+        int missing = existing + 1000;
+        TradeDTO replacement = trade("ACC-WB-GHOST", 2.0);
+        replacement.setTradeId(missing);
+
+        tradeService.saveTrade(replacement);
+        tradeService.updateTrade(missing, trade("ACC-WB-GHOST", 3.0));
+        tradeService.deleteTradeById(missing);
+        tradeService.updateTrade(existing, trade("ACC-WB-KEPT", 4.0));
+        writeBehind.awaitDrained();
+
+        assertThat(count("ACC-WB-GHOST")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT buyQuantity FROM Trade WHERE TradeId = ?", Double.class, existing))
+                .isEqualTo(4.0);
+        assertThat(publishedEvents.tradeIds()).contains(existing).doesNotContain(missing);
+        assertThat(publishedEvents.audited()).contains(existing).doesNotContain(missing);
+        assertThat(Files.readAllLines(directory.resolve("rejected.log"), StandardCharsets.UTF_8)).hasSize(3)
+                .allSatisfy(line -> assertThat(line).contains("\"tradeId\":" + missing));
+    }
+
+    /**
+     * Déclencheur H2 refusant les deux premières insertions d'un compte donné avec une erreur qui n'est pas
+     * une violation d'intégrité, comme une base momentanément indisponible.
+     */
+    public static class FailsTwice implements Trigger {
+
+        static final String ACCOUNT = "ACC-WB-FLAKY";
+        static final AtomicInteger remaining = new AtomicInteger();
+
+        @Override
+        public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) {
+            // Aucun état à préparer.
+        }
+
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+            if (ACCOUNT.equals(newRow[1]) && remaining.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                throw new SQLException("Base momentanément indisponible", "HY000");
+            }
+        }
+    }
+
+    /**
+     * Relève les identifiants publiés par les mutations appliquées, quel que soit le thread qui les publie.
+     */
+    static class PublishedEvents {
+
+        private final List<Integer> tradeIds = new CopyOnWriteArrayList<>();
+        private final List<Integer> audited = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void onTradeChanged(TradeChangedEvent event) {
+            tradeIds.addAll(event.tradeIds());
+        }
+
+        @EventListener
+        void onTradeAudited(EntityAuditedEvent event) {
+            audited.add(event.entityId());
+        }
+
+        List<Integer> tradeIds() {
+            return tradeIds;
+        }
+
+        List<Integer> audited() {
+            return audited;
+        }
+    }
+}
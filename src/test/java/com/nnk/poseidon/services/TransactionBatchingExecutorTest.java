@@ -0,0 +1,135 @@
+package com.nnk.poseidon.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires pour {@link TransactionBatchingExecutor}, sur une base H2 en mémoire.
+ */
+class TransactionBatchingExecutorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CountingTransactionManager transactionManager;
+    private TransactionBatchingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE Rating (Id INT AUTO_INCREMENT PRIMARY KEY, moodysRating VARCHAR(125) NOT NULL)");
+        transactionManager = new CountingTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    private void startExecutor(boolean enabled) {
+        executor = new TransactionBatchingExecutor(transactionManager, enabled, 20, 64, 1);
+        executor.start();
+    }
+
+    private List<Future<Integer>> submitConcurrently(ExecutorService pool, int count, int failingIndex) {
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String value = i == failingIndex ? null : "Aaa" + i;
+            futures.add(pool.submit(() -> executor.execute(
+                    () -> jdbcTemplate.update("INSERT INTO Rating (moodysRating) VALUES (?)", value))));
+        }
+        return futures;
+    }
+
+    @Test
+    @DisplayName("Les écritures concurrentes sont validées en moins de transactions qu'il n'y a d'écritures")
+    void execute_concurrentWrites_shouldShareTransactions() throws Exception {
+        startExecutor(true);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            for (Future<Integer> future : submitConcurrently(pool, 64, -1)) {
+                assertThat(future.get()).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Rating", Integer.class)).isEqualTo(64);
+        assertThat(transactionManager.commits.get()).isLessThan(64);
+    }
+
+    @Test
+    @DisplayName("Une écriture en échec ne fait échouer que son appelant")
+    void execute_withOneFailingWrite_shouldIsolateFailure() throws Exception {
+        startExecutor(true);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        int failures = 0;
+        try {
+            for (Future<Integer> future : submitConcurrently(pool, 16, 5)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(DataIntegrityViolationException.class);
+                    failures++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(failures).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Rating", Integer.class)).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Sans regroupement, l'opération s'exécute dans sa propre transaction et propage son exception")
+    void execute_whenDisabled_shouldRunInline() {
+        startExecutor(false);
+
+        assertThat(executor.execute(() -> jdbcTemplate.update("INSERT INTO Rating (moodysRating) VALUES ('A')"))).isEqualTo(1);
+        assertThatThrownBy(() -> executor.execute(() -> {
+            throw new IllegalArgumentException("boom");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("boom");
+        assertThat(transactionManager.commits.get()).isEqualTo(1);
+    }
+
+    /**
+     * Gestionnaire de transactions comptant les commits effectifs.
+     */
+    static class CountingTransactionManager extends DataSourceTransactionManager {
+
+        final AtomicInteger commits = new AtomicInteger();
+
+        CountingTransactionManager(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            super.doCommit(status);
+            commits.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.nnk.poseidon.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de charge comparant le débit d'écriture avec et sans regroupement des transactions.
+ * <p>
+ * 200 utilisateurs concurrents insèrent chacun des lignes de petite taille. Par défaut la base est un fichier H2
+ * sous {@code target/} ; une autre base (MySQL, où le coût du {@code fsync} par commit est bien plus visible)
+ * peut être ciblée avec {@code -Dloadtest.jdbc-url=... -Dloadtest.username=... -Dloadtest.password=...}.
+ * </p>
+ * <p>
+ * Exécution : {@code mvn test -Pbenchmark -Dtest=TransactionBatchingLoadTest}.
+ * </p>
+ */
+@Tag("benchmark")
+class TransactionBatchingLoadTest {
+
+    private static final int USERS = 200;
+    private static final int WRITES_PER_USER = 50;
+
+    @Test
+    @DisplayName("Débit d'écriture de 200 utilisateurs concurrents, avec et sans regroupement")
+    void compareThroughput() throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("loadtest.jdbc-url", "jdbc:h2:file:./target/loadtest/txbatching"));
+            dataSource.setUsername(System.getProperty("loadtest.username", "sa"));
+            dataSource.setPassword(System.getProperty("loadtest.password", ""));
+            dataSource.setMaximumPoolSize(20);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS LoadTestRating");
+            jdbcTemplate.execute("CREATE TABLE LoadTestRating (Id INT AUTO_INCREMENT PRIMARY KEY, moodysRating VARCHAR(125))");
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+            run(jdbcTemplate, transactionManager, false); // préchauffage
+            double unbatched = run(jdbcTemplate, transactionManager, false);
+            double batched = run(jdbcTemplate, transactionManager, true);
+
+            System.out.printf("Regroupement des transactions : %,.0f écritures/s sans, %,.0f écritures/s avec (x%.1f)%n",
+                    unbatched, batched, batched / unbatched);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LoadTestRating", Integer.class))
+                    .isEqualTo(3 * USERS * WRITES_PER_USER);
+        }
+    }
+
+    private double run(JdbcTemplate jdbcTemplate, DataSourceTransactionManager transactionManager, boolean batching)
+            throws Exception {
+        TransactionBatchingExecutor executor = new TransactionBatchingExecutor(transactionManager, batching, 2, 64, 4);
+        executor.start();
+        ExecutorService users = Executors.newFixedThreadPool(USERS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                int userId = user;
+                futures.add(users.submit(() -> {
+                    startSignal.await();
+                    for (int i = 0; i < WRITES_PER_USER; i++) {
+                        String value = "U" + userId + "-" + i;
+                        executor.execute(() -> jdbcTemplate.update("INSERT INTO LoadTestRating (moodysRating) VALUES (?)", value));
+                    }
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return USERS * WRITES_PER_USER / seconds;
+        } finally {
+            users.shutdown();
+            executor.stop();
+        }
+    }
+}